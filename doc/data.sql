@@ -26,6 +26,13 @@ CREATE TABLE BidList (
   PRIMARY KEY (BidListId)
 )
 
+CREATE INDEX idx_bidlist_account_date ON BidList (account, bidListDate)
+CREATE INDEX idx_bidlist_security_date ON BidList (security, bidListDate)
+CREATE INDEX idx_bidlist_trader_date ON BidList (trader, bidListDate)
+CREATE INDEX idx_bidlist_book_date ON BidList (book, bidListDate)
+CREATE INDEX idx_bidlist_status_side_date ON BidList (status, side, bidListDate)
+CREATE INDEX idx_bidlist_date ON BidList (bidListDate)
+
 CREATE TABLE Trade (
   TradeId tinyint(4) NOT NULL AUTO_INCREMENT,
   account VARCHAR(30) NOT NULL,
@@ -52,6 +59,13 @@ CREATE TABLE Trade (
   PRIMARY KEY (TradeId)
 )
 
+CREATE INDEX idx_trade_account_date ON Trade (account, tradeDate)
+CREATE INDEX idx_trade_security_date ON Trade (security, tradeDate)
+CREATE INDEX idx_trade_trader_date ON Trade (trader, tradeDate)
+CREATE INDEX idx_trade_book_date ON Trade (book, tradeDate)
+CREATE INDEX idx_trade_status_side_date ON Trade (status, side, tradeDate)
+CREATE INDEX idx_trade_date ON Trade (tradeDate)
+
 CREATE TABLE CurvePoint (
   Id tinyint(4) NOT NULL AUTO_INCREMENT,
   CurveId tinyint,
@@ -63,6 +77,22 @@ CREATE TABLE CurvePoint (
   PRIMARY KEY (Id)
 )
 
+CREATE INDEX idx_curvepoint_curve_term ON CurvePoint (CurveId, term)
+
+CREATE TABLE curve_snapshot (
+  id INT NOT NULL AUTO_INCREMENT,
+  curveId INT NOT NULL,
+  asOfDate DATE NOT NULL,
+  version INT,
+  depth INT,
+  pointCount INT,
+  payload BLOB,
+  creationDate TIMESTAMP,
+
+  PRIMARY KEY (id),
+  CONSTRAINT uk_curve_snapshot_curve_date UNIQUE (curveId, asOfDate)
+)
+
 CREATE TABLE Rating (
   Id tinyint(4) NOT NULL AUTO_INCREMENT,
   moodysRating VARCHAR(125),
@@ -77,14 +107,21 @@ CREATE TABLE RuleName (
   Id tinyint(4) NOT NULL AUTO_INCREMENT,
   name VARCHAR(125),
   description VARCHAR(125),
-  json VARCHAR(125),
-  template VARCHAR(512),
-  sqlStr VARCHAR(125),
   sqlPart VARCHAR(125),
+  text_id INTEGER,
 
   PRIMARY KEY (Id)
 )
 
+CREATE TABLE rulename_text (
+  id INTEGER NOT NULL AUTO_INCREMENT,
+  json LONGBLOB,
+  template LONGBLOB,
+  sql_str LONGBLOB,
+
+  PRIMARY KEY (id)
+)
+
 CREATE TABLE Users (
   Id tinyint(4) NOT NULL AUTO_INCREMENT,
   username VARCHAR(125),
@@ -95,5 +132,77 @@ CREATE TABLE Users (
   PRIMARY KEY (Id)
 )
 
+CREATE TABLE change_log (
+  seq BIGINT NOT NULL AUTO_INCREMENT,
+  entityType VARCHAR(32) NOT NULL,
+  entityId INT NOT NULL,
+  changeType VARCHAR(8) NOT NULL,
+  changedAt DATETIME(6) NOT NULL,
+
+  PRIMARY KEY (seq),
+  INDEX idx_change_log_date (changedAt)
+)
+
+CREATE TABLE idempotency_key (
+  id VARCHAR(200) NOT NULL,
+  entityType VARCHAR(32) NOT NULL,
+  entityId INT NOT NULL,
+  requestHash VARCHAR(64),
+  creationDate DATETIME(6) NOT NULL,
+
+  PRIMARY KEY (id),
+  INDEX idx_idempotency_key_date (creationDate)
+)
+
+CREATE TABLE http_session (
+  session_id VARCHAR(64) NOT NULL,
+  principal_name VARCHAR(125),
+  creation_time BIGINT NOT NULL,
+  last_access_time BIGINT NOT NULL,
+  max_inactive_interval INT NOT NULL,
+  expiry_time BIGINT NOT NULL,
+  attributes MEDIUMBLOB,
+  version BIGINT NOT NULL DEFAULT 0,
+
+  PRIMARY KEY (session_id),
+  INDEX idx_http_session_expiry (expiry_time),
+  INDEX idx_http_session_principal (principal_name)
+)
+
+CREATE TABLE revision_history (
+  id BIGINT NOT NULL,
+  entityType VARCHAR(32) NOT NULL,
+  entityId INT NOT NULL,
+  changeType VARCHAR(8) NOT NULL,
+  changedBy VARCHAR(255),
+  changedAt DATETIME(6) NOT NULL,
+  state LONGBLOB,
+
+  PRIMARY KEY (id),
+  INDEX idx_revision_history_entity (entityType, entityId)
+)
+
+CREATE TABLE shard_bucket (
+  bucket INT NOT NULL,
+  shard INT NOT NULL,
+  version BIGINT NOT NULL DEFAULT 0,
+
+  PRIMARY KEY (bucket)
+)
+
+CREATE TABLE global_id (
+  name VARCHAR(32) NOT NULL,
+  next_value BIGINT NOT NULL,
+
+  PRIMARY KEY (name)
+)
+
+CREATE USER 'rule_reader'@'%' IDENTIFIED BY 'change-me'
+GRANT SELECT ON demo.Trade TO 'rule_reader'@'%'
+GRANT SELECT ON demo.BidList TO 'rule_reader'@'%'
+GRANT SELECT ON demo.CurvePoint TO 'rule_reader'@'%'
+GRANT SELECT ON demo.Rating TO 'rule_reader'@'%'
+GRANT SELECT ON demo.RuleName TO 'rule_reader'@'%'
+
 insert into Users(fullname, username, password, role) values("Administrator", "admin", "$2a$10$pBV8ILO/s/nao4wVnGLrh.sa/rnr5pDpbeC4E.KNzQWoy8obFZdaa", "ADMIN")
 insert into Users(fullname, username, password, role) values("User", "user", "$2a$10$pBV8ILO/s/nao4wVnGLrh.sa/rnr5pDpbeC4E.KNzQWoy8obFZdaa", "USER")
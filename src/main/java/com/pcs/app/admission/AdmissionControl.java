@@ -0,0 +1,135 @@
+package com.pcs.app.admission;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contrôle d'admission par seaux à jetons.
+ * <p>
+ * Chaque utilisateur a un seau par endpoint, au débit de la famille de
+ * l'endpoint : un utilisateur qui épuise ses jetons sur une liste garde ceux des
+ * autres listes. Une famille peut aussi avoir un seau global partagé par tous les
+ * utilisateurs et tous ses endpoints, qui protège le pool de connexions quand de
+ * nombreux utilisateurs lancent des requêtes lourdes en même temps. Une requête n'est admise que si les deux seaux ont un jeton. Aucune
+ * allocation n'a lieu lors de la décision.
+ * </p>
+ */
+@Component
+public class AdmissionControl {
+
+    private static final int MAX_RETRY_AFTER_SECONDS = 3600;
+
+    private final boolean enabled;
+    private final long origin = System.nanoTime();
+    private final TokenBuckets[] userBuckets = new TokenBuckets[EndpointGroup.values().length];
+    private final TokenBuckets[] globalBuckets = new TokenBuckets[EndpointGroup.values().length];
+    private final LongAdder[] admitted = new LongAdder[EndpointGroup.values().length];
+    private final LongAdder[] rejected = new LongAdder[EndpointGroup.values().length];
+    private final String[] retryAfter = new String[MAX_RETRY_AFTER_SECONDS + 1];
+
+    public AdmissionControl(@Value("${app.admission.enabled:true}") boolean enabled,
+                            @Value("${app.admission.table-size:65536}") int tableSize,
+                            @Value("${app.admission.heavy.rate:2}") int heavyRate,
+                            @Value("${app.admission.heavy.burst:10}") int heavyBurst,
+                            @Value("${app.admission.heavy.global-rate:50}") int heavyGlobalRate,
+                            @Value("${app.admission.heavy.global-burst:100}") int heavyGlobalBurst,
+                            @Value("${app.admission.write.rate:10}") int writeRate,
+                            @Value("${app.admission.write.burst:20}") int writeBurst,
+                            @Value("${app.admission.write.global-rate:0}") int writeGlobalRate,
+                            @Value("${app.admission.write.global-burst:0}") int writeGlobalBurst,
+                            @Value("${app.admission.default.rate:20}") int defaultRate,
+                            @Value("${app.admission.default.burst:50}") int defaultBurst,
+                            @Value("${app.admission.default.global-rate:0}") int defaultGlobalRate,
+                            @Value("${app.admission.default.global-burst:0}") int defaultGlobalBurst) {
+        this.enabled = enabled;
+        configure(EndpointGroup.HEAVY, tableSize, heavyRate, heavyBurst, heavyGlobalRate, heavyGlobalBurst);
+        configure(EndpointGroup.WRITE, tableSize, writeRate, writeBurst, writeGlobalRate, writeGlobalBurst);
+        configure(EndpointGroup.DEFAULT, tableSize, defaultRate, defaultBurst, defaultGlobalRate, defaultGlobalBurst);
+        for (EndpointGroup group : EndpointGroup.values()) {
+            admitted[group.ordinal()] = new LongAdder();
+            rejected[group.ordinal()] = new LongAdder();
+        }
+        for (int seconds = 0; seconds <= MAX_RETRY_AFTER_SECONDS; seconds++) {
+            retryAfter[seconds] = Integer.toString(seconds);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Décide de l'admission d'une requête.
+     *
+     * @param group la famille de l'endpoint appelé
+     * @param endpoint le hachage du motif de l'endpoint appelé ({@link EndpointGroup#patternHash})
+     * @param user l'identité de l'appelant
+     * @return 0 si la requête est admise, sinon le délai en millisecondes avant un nouvel essai
+     */
+    public long admit(EndpointGroup group, int endpoint, String user) {
+        int index = group.ordinal();
+        TokenBuckets buckets = userBuckets[index];
+        TokenBuckets global = globalBuckets[index];
+        long wait = 0;
+        if (buckets != null || global != null) {
+            long now = nowMs();
+            int hash = 31 * user.hashCode() + endpoint;
+            if (buckets != null) {
+                wait = buckets.tryAcquire(hash, now);
+            }
+            if (wait == 0 && global != null) {
+                wait = global.tryAcquire(0, now);
+                // Le jeton de l'utilisateur n'a pas servi : il lui est rendu
+                if (wait != 0 && buckets != null) {
+                    buckets.release(hash, now);
+                }
+            }
+        }
+        (wait == 0 ? admitted : rejected)[index].increment();
+        return wait;
+    }
+
+    /**
+     * Retourne la valeur de l'en-tête {@code Retry-After}, en secondes entières arrondies au-dessus.
+     */
+    public String retryAfter(long waitMs) {
+        long seconds = (waitMs + 999) / 1000;
+        return retryAfter[(int) Math.min(Math.max(seconds, 1), MAX_RETRY_AFTER_SECONDS)];
+    }
+
+    /**
+     * Retourne le nombre de requêtes admises et refusées par famille d'endpoints.
+     */
+    public Map<String, Long> stats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        for (EndpointGroup group : EndpointGroup.values()) {
+            if (group == EndpointGroup.EXEMPT) {
+                continue;
+            }
+            String name = group.name().toLowerCase();
+            stats.put(name + ".admitted", admitted[group.ordinal()].sum());
+            stats.put(name + ".rejected", rejected[group.ordinal()].sum());
+        }
+        return stats;
+    }
+
+    private void configure(EndpointGroup group, int tableSize, int rate, int burst, int globalRate, int globalBurst) {
+        if (rate > 0) {
+            userBuckets[group.ordinal()] = new TokenBuckets(tableSize, rate, burst);
+        }
+        if (globalRate > 0) {
+            globalBuckets[group.ordinal()] = new TokenBuckets(1, globalRate, globalBurst);
+        }
+    }
+
+    /**
+     * Instant courant en millisecondes depuis le démarrage, à partir de 1 pour ne jamais valoir l'état vide.
+     */
+    private long nowMs() {
+        return (System.nanoTime() - origin) / 1_000_000 + 1;
+    }
+}
@@ -0,0 +1,62 @@
+package com.pcs.app.admission;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Filtre d'admission placé dans la chaîne de sécurité, avant les filtres
+ * d'authentification : les tentatives de connexion sont limitées elles aussi.
+ * <p>
+ * Les requêtes d'un utilisateur dont la session est authentifiée sont comptées
+ * sous son nom, les autres, dont les connexions, sous l'adresse du client. Une requête refusée reçoit une réponse 429
+ * avec l'en-tête {@code Retry-After}, sans atteindre les contrôleurs.
+ * </p>
+ */
+public class AdmissionFilter extends OncePerRequestFilter {
+
+    private static final byte[] REJECTED_BODY = (HttpStatus.TOO_MANY_REQUESTS.value() + ": "
+            + HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase()).getBytes(StandardCharsets.UTF_8);
+
+    private final AdmissionControl control;
+
+    public AdmissionFilter(AdmissionControl control) {
+        this.control = control;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        EndpointGroup group = EndpointGroup.of(request.getMethod(), request.getRequestURI());
+        if (!control.isEnabled() || group == EndpointGroup.EXEMPT) {
+            chain.doFilter(request, response);
+            return;
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String user = authentication == null || authentication instanceof AnonymousAuthenticationToken
+                ? request.getRemoteAddr()
+                : authentication.getName();
+        int endpoint = EndpointGroup.patternHash(request.getMethod(), request.getRequestURI());
+        long waitMs = control.admit(group, endpoint, user);
+        if (waitMs == 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, control.retryAfter(waitMs));
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.setContentLength(REJECTED_BODY.length);
+        response.getOutputStream().write(REJECTED_BODY);
+    }
+}
@@ -0,0 +1,84 @@
+package com.pcs.app.admission;
+
+/**
+ * Familles d'endpoints soumises à des limites de débit distinctes.
+ * <p>
+ * Les endpoints d'une même famille partagent ses limites, mais chacun a ses
+ * propres seaux par utilisateur.
+ * </p>
+ */
+public enum EndpointGroup {
+    /** Listes complètes, recherches, flux et agrégations : chaque appel parcourt une table. */
+    HEAVY,
+    /** Écritures (POST). */
+    WRITE,
+    /** Tout le reste : formulaires, consultations unitaires. */
+    DEFAULT,
+    /** Ressources statiques, jamais limitées. */
+    EXEMPT;
+
+    /**
+     * Classe une requête d'après sa méthode et son URI, sans allocation.
+     */
+    public static EndpointGroup of(String method, String uri) {
+        if (uri.startsWith("/css/") || uri.startsWith("/js/") || uri.startsWith("/img/")
+                || uri.equals("/favicon.ico") || uri.equals("/error")) {
+            return EXEMPT;
+        }
+        if ("POST".equals(method)) {
+            return WRITE;
+        }
+        if (uri.endsWith("/list")
+                || uri.equals("/api/trade")
+                || uri.equals("/api/bidList")
+                || uri.startsWith("/api/trade/analytics")
+                || uri.startsWith("/api/stream/")
+                || uri.startsWith("/api/sync")
+                || uri.equals("/api/archive/trade")
+                || isRuleRun(uri)) {
+            return HEAVY;
+        }
+        return DEFAULT;
+    }
+
+    /**
+     * Hachage du motif de l'endpoint appelé, sans allocation : les segments
+     * numériques de l'URI, des identifiants, sont confondus, pour que
+     * {@code /trade/update/1} et {@code /trade/update/2} partagent leur seau.
+     */
+    public static int patternHash(String method, String uri) {
+        int h = method.hashCode();
+        int length = uri.length();
+        int start = 0;
+        while (start <= length) {
+            int end = uri.indexOf('/', start);
+            if (end < 0) {
+                end = length;
+            }
+            boolean numeric = end > start;
+            for (int i = start; i < end && numeric; i++) {
+                numeric = Character.isDigit(uri.charAt(i));
+            }
+            if (numeric) {
+                h = 31 * h + '#';
+            }
+            else {
+                for (int i = start; i < end; i++) {
+                    h = 31 * h + uri.charAt(i);
+                }
+            }
+            h = 31 * h + '/';
+            start = end + 1;
+        }
+        return h;
+    }
+
+    /**
+     * Exécution d'une règle SQL ou recherche de ses correspondances : {@code /api/rule/{id}/execute},
+     * {@code /api/rule/{id}/matches}.
+     */
+    private static boolean isRuleRun(String uri) {
+        return uri.startsWith("/api/rule/")
+                && (uri.endsWith("/matches") || uri.endsWith("/execute"));
+    }
+}
@@ -0,0 +1,116 @@
+package com.pcs.app.admission;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Table de seaux à jetons, adressée par hachage, sans verrou ni allocation.
+ * <p>
+ * L'état de chaque seau tient dans un {@code long} mis à jour par CAS :
+ * les 40 bits de poids fort portent l'instant du dernier remplissage (en
+ * millisecondes), les 24 bits de poids faible le nombre de jetons en 1/256e.
+ * Un état nul désigne un seau jamais utilisé, donc plein. Deux clés de même
+ * case partagent leur seau : la table doit être assez grande pour que ces
+ * collisions restent rares, et elles ne peuvent que rendre la limite plus stricte.
+ * </p>
+ */
+public final class TokenBuckets {
+
+    static final int TOKEN_BITS = 24;
+    static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+    static final long SCALE = 256;
+
+    private final AtomicLongArray slots;
+    private final int mask;
+    private final long capacity;
+    private final long ratePerSecond;
+
+    /**
+     * @param size le nombre de seaux, arrondi à la puissance de deux supérieure
+     * @param ratePerSecond le nombre de jetons ajoutés par seconde
+     * @param burst la capacité du seau, en jetons
+     */
+    public TokenBuckets(int size, int ratePerSecond, int burst) {
+        if (ratePerSecond <= 0 || burst <= 0 || burst * SCALE > TOKEN_MASK) {
+            throw new IllegalArgumentException("Invalid token bucket rate " + ratePerSecond + " or burst " + burst);
+        }
+        int slotCount = Integer.highestOneBit(Math.max(1, size - 1)) << 1;
+        this.slots = new AtomicLongArray(slotCount);
+        this.mask = slotCount - 1;
+        this.capacity = burst * SCALE;
+        this.ratePerSecond = ratePerSecond * SCALE;
+    }
+
+    /**
+     * Prend un jeton dans le seau de la clé.
+     *
+     * @param hash le hachage de la clé
+     * @param nowMs l'instant courant en millisecondes, strictement positif et croissant
+     * @return 0 si un jeton a été pris, sinon le délai en millisecondes avant qu'un jeton soit disponible
+     */
+    public long tryAcquire(int hash, long nowMs) {
+        int index = index(hash);
+        while (true) {
+            long state = slots.get(index);
+            long refilled = refill(state, nowMs);
+            long tokens = refilled & TOKEN_MASK;
+            if (tokens < SCALE) {
+                return Math.max(1, ((SCALE - tokens) * 1000 + ratePerSecond - 1) / ratePerSecond);
+            }
+            if (slots.compareAndSet(index, state, refilled - SCALE)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Rend un jeton pris par {@link #tryAcquire}, quand la requête est finalement refusée ailleurs.
+     */
+    public void release(int hash, long nowMs) {
+        int index = index(hash);
+        while (true) {
+            long state = slots.get(index);
+            long refilled = refill(state, nowMs);
+            long tokens = Math.min(capacity, (refilled & TOKEN_MASK) + SCALE);
+            if (slots.compareAndSet(index, state, pack(refilled >>> TOKEN_BITS, tokens))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Retourne l'état du seau après ajout des jetons accumulés depuis le dernier remplissage.
+     * L'instant n'avance que si au moins une fraction de jeton a été ajoutée, pour
+     * qu'une suite d'appels rapprochés ne fasse pas perdre le remplissage.
+     */
+    private long refill(long state, long nowMs) {
+        if (state == 0) {
+            return pack(nowMs, capacity);
+        }
+        long tokens = state & TOKEN_MASK;
+        long elapsed = nowMs - (state >>> TOKEN_BITS);
+        if (elapsed <= 0 || tokens == capacity) {
+            return tokens == capacity ? pack(Math.max(nowMs, state >>> TOKEN_BITS), tokens) : state;
+        }
+        // Évite le dépassement de capacité pour un seau inutilisé depuis longtemps
+        if (elapsed > (capacity - tokens) * 1000 / ratePerSecond) {
+            return pack(nowMs, capacity);
+        }
+        long added = elapsed * ratePerSecond / 1000;
+        return added == 0 ? state : pack(nowMs, tokens + added);
+    }
+
+    private int index(int hash) {
+        // Mélange de murmur3 : les hachages de chaînes proches se répartissent sur toute la table
+        int h = hash;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h & mask;
+    }
+
+    private static long pack(long nowMs, long tokens) {
+        return nowMs << TOKEN_BITS | tokens;
+    }
+}
@@ -0,0 +1,93 @@
+package com.pcs.app.analytics;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * Dictionnaire concurrent associant chaque chaîne distincte à un code entier dense.
+ * <p>
+ * Le code {@link #NULL_CODE} est réservé à la valeur nulle. Les lectures
+ * ({@link #lookup}, {@link #decode}) sont sans verrou ; seule l'insertion
+ * d'une nouvelle valeur est synchronisée.
+ * </p>
+ * <p>
+ * Les codes sont propres à chaque dictionnaire, pour rester denses ; les valeurs
+ * conservées peuvent être les instances d'un dictionnaire commun
+ * ({@link com.pcs.app.strings.SharedStrings}).
+ * </p>
+ */
+public final class StringDictionary {
+
+    public static final int NULL_CODE = 0;
+    public static final int UNKNOWN_CODE = -1;
+
+    private final ConcurrentHashMap<String, Integer> codes = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[64];
+    private volatile int size = 1;
+    private final UnaryOperator<String> canonical;
+
+    public StringDictionary() {
+        this(UnaryOperator.identity());
+    }
+
+    /**
+     * @param canonical retourne l'instance à conserver pour une nouvelle valeur
+     */
+    public StringDictionary(UnaryOperator<String> canonical) {
+        this.canonical = canonical;
+    }
+
+    /**
+     * Retourne le code de la valeur, en l'ajoutant au dictionnaire si besoin.
+     */
+    public int encode(String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        synchronized (this) {
+            code = codes.get(value);
+            if (code != null) {
+                return code;
+            }
+            String[] current = values;
+            if (size == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+            }
+            value = canonical.apply(value);
+            current[size] = value;
+            // Le tableau est publié avant le code, pour qu'un lecteur ayant obtenu
+            // le code puisse toujours le décoder
+            values = current;
+            int newCode = size;
+            size = newCode + 1;
+            codes.put(value, newCode);
+            return newCode;
+        }
+    }
+
+    /**
+     * Retourne le code de la valeur sans l'ajouter, ou {@link #UNKNOWN_CODE}.
+     */
+    public int lookup(String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        return codes.getOrDefault(value, UNKNOWN_CODE);
+    }
+
+    public String decode(int code) {
+        return values[code];
+    }
+
+    /**
+     * Nombre de codes attribués, code nul compris.
+     */
+    public int size() {
+        return size;
+    }
+}
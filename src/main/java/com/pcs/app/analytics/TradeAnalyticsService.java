@@ -0,0 +1,174 @@
+package com.pcs.app.analytics;
+
+import com.pcs.app.domain.Trade;
+import com.pcs.app.events.EntityChangeEvent;
+import com.pcs.app.repositories.TradeRepository;
+import com.pcs.app.sharding.ShardingService;
+import com.pcs.app.warmstate.WarmCache;
+import com.pcs.app.warmstate.WarmStateService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Tient à jour la copie en colonnes des échanges et y exécute les agrégations.
+ * <p>
+ * La copie est chargée au démarrage par pages, puis suivie à partir des
+ * événements publiés par {@code TradeService}, ce qui évite tout
+ * {@code GROUP BY} sur la table {@code trade}. Elle est sauvegardée dans
+ * l'instantané de démarrage, d'où elle est relue au redémarrage suivant.
+ * </p>
+ */
+@Slf4j
+@Service
+public class TradeAnalyticsService implements WarmCache<Trade> {
+
+    private static final int LOAD_PAGE_SIZE = 10_000;
+
+    @Autowired
+    private TradeRepository repository;
+
+    @Autowired
+    private WarmStateService warmState;
+
+    @Autowired
+    private ShardingService sharding;
+
+    private final TradeColumnStore store;
+    private final ForkJoinPool pool = ForkJoinPool.commonPool();
+    // Les compactages sont faits hors des écritures, une seule demande en attente à la fois
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "trade-analytics-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean compactionQueued = new AtomicBoolean();
+    // Échanges modifiés pendant le chargement initial : leur version chargée est périmée
+    private final Set<Integer> touchedWhileLoading = ConcurrentHashMap.newKeySet();
+    private volatile boolean loading = true;
+
+    public TradeAnalyticsService(@Value("${app.analytics.block-size:4096}") int blockSize) {
+        this.store = new TradeColumnStore(blockSize);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.currentTimeMillis();
+        if (!warmState.restore(this)) {
+            load(this::restoreWarmRows);
+        }
+        loading = false;
+        touchedWhileLoading.clear();
+        warmState.register(this);
+        compactInBackground();
+        log.info("Trade column store loaded: {} trades in {} blocks ({} ms)",
+                store.size(), store.blockCount(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Lit tous les échanges par pages, dans toutes les bases lorsqu'ils sont répartis.
+     */
+    private void load(Consumer<List<Trade>> pages) {
+        if (sharding.enabled()) {
+            sharding.trades().forEachPage(LOAD_PAGE_SIZE, pages);
+            return;
+        }
+        Page<Trade> page;
+        int number = 0;
+        do {
+            page = repository.findAll(PageRequest.of(number++, LOAD_PAGE_SIZE, Sort.by("id")));
+            pages.accept(page.getContent());
+        } while (page.hasNext());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTradeChange(EntityChangeEvent<Trade> event) {
+        if (loading) {
+            touchedWhileLoading.add(event.id());
+        }
+        if (event.changeType().removes()) {
+            store.remove(event.id());
+        }
+        else {
+            store.upsert(event.entity());
+        }
+        compactInBackground();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        compactor.shutdownNow();
+    }
+
+    @Override
+    public String warmStateName() {
+        return "trade-analytics";
+    }
+
+    @Override
+    public Class<Trade> warmStateType() {
+        return Trade.class;
+    }
+
+    @Override
+    public void forEachWarmRow(Consumer<Trade> rows) {
+        store.forEach(rows);
+    }
+
+    @Override
+    public void restoreWarmRows(List<Trade> rows) {
+        for (Trade trade : rows) {
+            if (!touchedWhileLoading.contains(trade.getId())) {
+                store.upsert(trade);
+            }
+        }
+    }
+
+    @Override
+    public void evictWarmRows(Collection<Integer> ids) {
+        for (Integer id : ids) {
+            if (!touchedWhileLoading.contains(id)) {
+                store.remove(id);
+            }
+        }
+    }
+
+    /**
+     * Regroupe les échanges selon une dimension, en ne gardant que les dates comprises
+     * entre {@code from} et {@code to} inclus (bornes optionnelles).
+     */
+    public List<TradeGroupStats> aggregate(TradeDimension groupBy, LocalDate from, LocalDate to) {
+        Long fromMillis = from == null ? null : Timestamp.valueOf(from.atStartOfDay()).getTime();
+        Long toMillis = to == null ? null : Timestamp.valueOf(to.plusDays(1).atStartOfDay()).getTime();
+        return store.aggregate(groupBy, fromMillis, toMillis, pool);
+    }
+
+    private void compactInBackground() {
+        if (store.needsCompaction() && compactionQueued.compareAndSet(false, true)) {
+            compactor.execute(() -> {
+                compactionQueued.set(false);
+                store.compact();
+            });
+        }
+    }
+}
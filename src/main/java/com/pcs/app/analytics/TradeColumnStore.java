@@ -0,0 +1,425 @@
+package com.pcs.app.analytics;
+
+import com.pcs.app.domain.Trade;
+import com.pcs.app.strings.SharedStrings;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Copie en colonnes des échanges, destinée aux agrégations analytiques.
+ * <p>
+ * Les lignes sont rangées dans des blocs de taille fixe : quantités et prix dans
+ * des tableaux de {@code double}, où une valeur absente est {@code NaN} pour ne
+ * pas être confondue avec zéro, compte, titre, portefeuille et trader encodés
+ * par dictionnaire dans des tableaux d'{@code int}. Chaque bloc tient une zone map
+ * (date min / max) qui permet d'écarter le bloc entier sur un filtre de date.
+ * </p>
+ * <p>
+ * Les écritures sont sérialisées ; une mise à jour marque l'ancienne ligne comme
+ * supprimée et ajoute la nouvelle en fin de dernier bloc. Les lignes supprimées
+ * sont récupérées par {@link #compact()}, que le propriétaire de la copie appelle
+ * hors du chemin des écritures. Les lectures sont sans verrou et parcourent les
+ * blocs en parallèle via fork/join.
+ * </p>
+ */
+public final class TradeColumnStore {
+
+    static final long NO_DATE = Long.MIN_VALUE;
+
+    private final int blockSize;
+    private final Map<TradeDimension, StringDictionary> dictionaries = new HashMap<>();
+    private final Map<Integer, Long> locations = new HashMap<>();
+    private volatile Block[] blocks = new Block[0];
+    // Vue de l'écrivain, publiée dans blocks une fois cohérente
+    private Block[] writeBlocks = blocks;
+    private int liveRows;
+    private int deadRows;
+
+    public TradeColumnStore(int blockSize) {
+        if (blockSize < 64) {
+            throw new IllegalArgumentException("Block size must be at least 64");
+        }
+        this.blockSize = blockSize;
+        for (TradeDimension dimension : TradeDimension.values()) {
+            dictionaries.put(dimension, new StringDictionary(SharedStrings::canonical));
+        }
+    }
+
+    /**
+     * Ajoute ou remplace l'échange dans la copie en colonnes.
+     */
+    public synchronized void upsert(Trade trade) {
+        if (trade.getId() == null) {
+            return;
+        }
+        tombstone(trade.getId());
+        append(trade.getId(),
+                orNaN(trade.getBuyQuantity()), orNaN(trade.getSellQuantity()),
+                orNaN(trade.getBuyPrice()), orNaN(trade.getSellPrice()),
+                trade.getTradeDate() == null ? NO_DATE : trade.getTradeDate().getTime(),
+                dictionaries.get(TradeDimension.ACCOUNT).encode(trade.getAccount()),
+                dictionaries.get(TradeDimension.SECURITY).encode(trade.getSecurity()),
+                dictionaries.get(TradeDimension.BOOK).encode(trade.getBook()),
+                dictionaries.get(TradeDimension.TRADER).encode(trade.getTrader()));
+        blocks = writeBlocks;
+    }
+
+    /**
+     * Retire l'échange de la copie en colonnes.
+     */
+    public synchronized void remove(int id) {
+        tombstone(id);
+        blocks = writeBlocks;
+    }
+
+    public synchronized int size() {
+        return liveRows;
+    }
+
+    public int blockCount() {
+        return blocks.length;
+    }
+
+    /**
+     * Parcourt les échanges vivants, reconstruits à partir de leurs seules colonnes conservées.
+     */
+    public void forEach(Consumer<Trade> visitor) {
+        Block[] snapshot = blocks;
+        for (Block block : snapshot) {
+            int size = block.size;
+            for (int row = 0; row < size; row++) {
+                if (block.isDeleted(row)) {
+                    continue;
+                }
+                Trade trade = new Trade();
+                trade.setId(block.ids[row]);
+                trade.setBuyQuantity(orNull(block.buyQuantity[row]));
+                trade.setSellQuantity(orNull(block.sellQuantity[row]));
+                trade.setBuyPrice(orNull(block.buyPrice[row]));
+                trade.setSellPrice(orNull(block.sellPrice[row]));
+                trade.setTradeDate(block.tradeDate[row] == NO_DATE ? null : new Timestamp(block.tradeDate[row]));
+                trade.setAccount(dictionaries.get(TradeDimension.ACCOUNT).decode(block.account[row]));
+                trade.setSecurity(dictionaries.get(TradeDimension.SECURITY).decode(block.security[row]));
+                trade.setBook(dictionaries.get(TradeDimension.BOOK).decode(block.book[row]));
+                trade.setTrader(dictionaries.get(TradeDimension.TRADER).decode(block.trader[row]));
+                visitor.accept(trade);
+            }
+        }
+    }
+
+    /**
+     * Regroupe les échanges selon une dimension, sur l'intervalle de dates donné.
+     *
+     * @param groupBy la dimension de regroupement
+     * @param fromInclusive borne basse en millisecondes epoch, ou {@code null}
+     * @param toExclusive borne haute exclusive en millisecondes epoch, ou {@code null}
+     * @param pool le pool fork/join exécutant l'agrégation
+     * @return un agrégat par valeur de la dimension, trié par valeur
+     */
+    public List<TradeGroupStats> aggregate(TradeDimension groupBy, Long fromInclusive, Long toExclusive,
+                                           ForkJoinPool pool) {
+        Block[] snapshot = blocks;
+        StringDictionary dictionary = dictionaries.get(groupBy);
+        boolean dated = fromInclusive != null || toExclusive != null;
+        long from = fromInclusive == null ? Long.MIN_VALUE + 1 : fromInclusive;
+        long to = toExclusive == null ? Long.MAX_VALUE : toExclusive;
+
+        Accumulator total = pool.invoke(new AggregateTask(snapshot, 0, snapshot.length, groupBy, dated, from, to));
+
+        List<TradeGroupStats> result = new ArrayList<>();
+        for (int code = 0; code < total.count.length; code++) {
+            if (total.count[code] == 0) {
+                continue;
+            }
+            result.add(new TradeGroupStats(dictionary.decode(code), total.count[code],
+                    total.buyCount[code] == 0 ? null : total.buyQuantity[code],
+                    total.sellCount[code] == 0 ? null : total.sellQuantity[code],
+                    average(total.buyNotional[code], total.buyPricedQuantity[code]),
+                    average(total.sellNotional[code], total.sellPricedQuantity[code])));
+        }
+        result.sort(Comparator.comparing(TradeGroupStats::key, Comparator.nullsFirst(Comparator.naturalOrder())));
+        return result;
+    }
+
+    private static Double average(double notional, double quantity) {
+        return quantity == 0 ? null : notional / quantity;
+    }
+
+    private static double orNaN(Double d) {
+        return d == null ? Double.NaN : d;
+    }
+
+    private static Double orNull(double d) {
+        return Double.isNaN(d) ? null : d;
+    }
+
+    private void tombstone(int id) {
+        Long location = locations.remove(id);
+        if (location == null) {
+            return;
+        }
+        Block block = writeBlocks[(int) (location >>> 32)];
+        block.markDeleted((int) (long) location);
+        liveRows--;
+        deadRows++;
+    }
+
+    private void append(int id, double buyQuantity, double sellQuantity, double buyPrice, double sellPrice,
+                        long tradeDate, int account, int security, int book, int trader) {
+        Block[] current = writeBlocks;
+        Block tail = current.length == 0 ? null : current[current.length - 1];
+        if (tail == null || tail.size == blockSize) {
+            tail = new Block(blockSize);
+            current = Arrays.copyOf(current, current.length + 1);
+            current[current.length - 1] = tail;
+            writeBlocks = current;
+        }
+        int row = tail.size;
+        tail.ids[row] = id;
+        tail.buyQuantity[row] = buyQuantity;
+        tail.sellQuantity[row] = sellQuantity;
+        tail.buyPrice[row] = buyPrice;
+        tail.sellPrice[row] = sellPrice;
+        tail.tradeDate[row] = tradeDate;
+        tail.account[row] = account;
+        tail.security[row] = security;
+        tail.book[row] = book;
+        tail.trader[row] = trader;
+        if (tradeDate != NO_DATE) {
+            tail.minDate = Math.min(tail.minDate, tradeDate);
+            tail.maxDate = Math.max(tail.maxDate, tradeDate);
+        }
+        // Écriture volatile en dernier : publie la ligne aux lecteurs du bloc
+        tail.size = row + 1;
+        locations.put(id, ((long) (current.length - 1) << 32) | row);
+        liveRows++;
+    }
+
+    /**
+     * Indique si les lignes supprimées dépassent le quart des lignes vivantes.
+     */
+    public synchronized boolean needsCompaction() {
+        return deadRows >= blockSize && deadRows >= liveRows / 4;
+    }
+
+    /**
+     * Recopie les lignes vivantes dans de nouveaux blocs si {@link #needsCompaction()}.
+     * Les lecteurs en cours gardent l'ancien tableau de blocs, qui reste cohérent.
+     */
+    public synchronized void compact() {
+        if (!needsCompaction()) {
+            return;
+        }
+        Block[] old = writeBlocks;
+        writeBlocks = new Block[0];
+        locations.clear();
+        liveRows = 0;
+        deadRows = 0;
+        for (Block block : old) {
+            int size = block.size;
+            for (int row = 0; row < size; row++) {
+                if (!block.isDeleted(row)) {
+                    append(block.ids[row], block.buyQuantity[row], block.sellQuantity[row],
+                            block.buyPrice[row], block.sellPrice[row], block.tradeDate[row],
+                            block.account[row], block.security[row], block.book[row], block.trader[row]);
+                }
+            }
+        }
+        blocks = writeBlocks;
+    }
+
+    /**
+     * Bloc de lignes en colonnes, avec sa zone map sur la date d'échange.
+     */
+    static final class Block {
+        final int[] ids;
+        final double[] buyQuantity;
+        final double[] sellQuantity;
+        final double[] buyPrice;
+        final double[] sellPrice;
+        final long[] tradeDate;
+        final int[] account;
+        final int[] security;
+        final int[] book;
+        final int[] trader;
+        private final AtomicLongArray deleted;
+        volatile int size;
+        volatile long minDate = Long.MAX_VALUE;
+        volatile long maxDate = Long.MIN_VALUE;
+
+        Block(int capacity) {
+            ids = new int[capacity];
+            buyQuantity = new double[capacity];
+            sellQuantity = new double[capacity];
+            buyPrice = new double[capacity];
+            sellPrice = new double[capacity];
+            tradeDate = new long[capacity];
+            account = new int[capacity];
+            security = new int[capacity];
+            book = new int[capacity];
+            trader = new int[capacity];
+            deleted = new AtomicLongArray((capacity + 63) >>> 6);
+        }
+
+        void markDeleted(int row) {
+            int word = row >>> 6;
+            long bit = 1L << row;
+            deleted.getAndUpdate(word, w -> w | bit);
+        }
+
+        boolean isDeleted(int row) {
+            return (deleted.get(row >>> 6) & (1L << row)) != 0;
+        }
+
+        int[] column(TradeDimension dimension) {
+            return switch (dimension) {
+                case ACCOUNT -> account;
+                case SECURITY -> security;
+                case BOOK -> book;
+                case TRADER -> trader;
+            };
+        }
+
+        boolean mayContain(long from, long to) {
+            return maxDate >= from && minDate < to;
+        }
+    }
+
+    /**
+     * Sommes partielles, indexées par code de dictionnaire.
+     */
+    private static final class Accumulator {
+        long[] count = new long[0];
+        long[] buyCount = new long[0];
+        long[] sellCount = new long[0];
+        double[] buyQuantity = new double[0];
+        double[] sellQuantity = new double[0];
+        double[] buyNotional = new double[0];
+        double[] buyPricedQuantity = new double[0];
+        double[] sellNotional = new double[0];
+        double[] sellPricedQuantity = new double[0];
+
+        void ensureCapacity(int codes) {
+            if (codes <= count.length) {
+                return;
+            }
+            int capacity = Math.max(codes, count.length * 2);
+            count = Arrays.copyOf(count, capacity);
+            buyCount = Arrays.copyOf(buyCount, capacity);
+            sellCount = Arrays.copyOf(sellCount, capacity);
+            buyQuantity = Arrays.copyOf(buyQuantity, capacity);
+            sellQuantity = Arrays.copyOf(sellQuantity, capacity);
+            buyNotional = Arrays.copyOf(buyNotional, capacity);
+            buyPricedQuantity = Arrays.copyOf(buyPricedQuantity, capacity);
+            sellNotional = Arrays.copyOf(sellNotional, capacity);
+            sellPricedQuantity = Arrays.copyOf(sellPricedQuantity, capacity);
+        }
+
+        Accumulator merge(Accumulator other) {
+            ensureCapacity(other.count.length);
+            for (int i = 0; i < other.count.length; i++) {
+                count[i] += other.count[i];
+                buyCount[i] += other.buyCount[i];
+                sellCount[i] += other.sellCount[i];
+                buyQuantity[i] += other.buyQuantity[i];
+                sellQuantity[i] += other.sellQuantity[i];
+                buyNotional[i] += other.buyNotional[i];
+                buyPricedQuantity[i] += other.buyPricedQuantity[i];
+                sellNotional[i] += other.sellNotional[i];
+                sellPricedQuantity[i] += other.sellPricedQuantity[i];
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Agrège une plage de blocs, en la coupant en deux tant qu'elle en contient plusieurs.
+     */
+    private static final class AggregateTask extends RecursiveTask<Accumulator> {
+        private final Block[] blocks;
+        private final int lo;
+        private final int hi;
+        private final TradeDimension groupBy;
+        private final boolean dated;
+        private final long from;
+        private final long to;
+
+        AggregateTask(Block[] blocks, int lo, int hi, TradeDimension groupBy, boolean dated, long from, long to) {
+            this.blocks = blocks;
+            this.lo = lo;
+            this.hi = hi;
+            this.groupBy = groupBy;
+            this.dated = dated;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Accumulator compute() {
+            if (hi - lo <= 1) {
+                Accumulator accumulator = new Accumulator();
+                if (hi > lo) {
+                    scan(blocks[lo], accumulator);
+                }
+                return accumulator;
+            }
+            int mid = (lo + hi) >>> 1;
+            AggregateTask left = new AggregateTask(blocks, lo, mid, groupBy, dated, from, to);
+            left.fork();
+            Accumulator right = new AggregateTask(blocks, mid, hi, groupBy, dated, from, to).compute();
+            return left.join().merge(right);
+        }
+
+        private void scan(Block block, Accumulator acc) {
+            int size = block.size;
+            if (dated && !block.mayContain(from, to)) {
+                return;
+            }
+            int[] keys = block.column(groupBy);
+            for (int row = 0; row < size; row++) {
+                if (block.isDeleted(row)) {
+                    continue;
+                }
+                if (dated) {
+                    long date = block.tradeDate[row];
+                    if (date == NO_DATE || date < from || date >= to) {
+                        continue;
+                    }
+                }
+                int key = keys[row];
+                acc.ensureCapacity(key + 1);
+                double buyQuantity = block.buyQuantity[row];
+                double sellQuantity = block.sellQuantity[row];
+                double buyPrice = block.buyPrice[row];
+                double sellPrice = block.sellPrice[row];
+                acc.count[key]++;
+                if (!Double.isNaN(buyQuantity)) {
+                    acc.buyCount[key]++;
+                    acc.buyQuantity[key] += buyQuantity;
+                    if (!Double.isNaN(buyPrice)) {
+                        acc.buyNotional[key] += buyQuantity * buyPrice;
+                        acc.buyPricedQuantity[key] += buyQuantity;
+                    }
+                }
+                if (!Double.isNaN(sellQuantity)) {
+                    acc.sellCount[key]++;
+                    acc.sellQuantity[key] += sellQuantity;
+                    if (!Double.isNaN(sellPrice)) {
+                        acc.sellNotional[key] += sellQuantity * sellPrice;
+                        acc.sellPricedQuantity[key] += sellQuantity;
+                    }
+                }
+            }
+        }
+    }
+}
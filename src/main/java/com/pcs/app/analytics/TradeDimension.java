@@ -0,0 +1,11 @@
+package com.pcs.app.analytics;
+
+/**
+ * Colonnes encodées par dictionnaire sur lesquelles les échanges peuvent être regroupés.
+ */
+public enum TradeDimension {
+    ACCOUNT,
+    SECURITY,
+    BOOK,
+    TRADER
+}
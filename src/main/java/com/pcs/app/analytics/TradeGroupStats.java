@@ -0,0 +1,15 @@
+package com.pcs.app.analytics;
+
+/**
+ * Agrégats d'un groupe d'échanges.
+ *
+ * @param key la valeur de la dimension de regroupement (nulle pour les échanges sans valeur)
+ * @param count le nombre d'échanges
+ * @param buyQuantity la quantité achetée totale, nulle si aucun échange du groupe n'a de quantité achetée
+ * @param sellQuantity la quantité vendue totale, nulle si aucun échange du groupe n'a de quantité vendue
+ * @param averageBuyPrice le prix d'achat moyen pondéré par la quantité, nul si aucun prix
+ * @param averageSellPrice le prix de vente moyen pondéré par la quantité, nul si aucun prix
+ */
+public record TradeGroupStats(String key, long count, Double buyQuantity, Double sellQuantity,
+                              Double averageBuyPrice, Double averageSellPrice) {
+}
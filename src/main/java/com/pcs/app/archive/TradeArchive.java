@@ -0,0 +1,198 @@
+package com.pcs.app.archive;
+
+import com.pcs.app.domain.Trade;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Répertoire de segments d'archive des échanges.
+ * <p>
+ * Un segment est d'abord écrit sous un nom provisoire ({@value #PENDING_SUFFIX}),
+ * puis rendu visible par un renommage atomique une fois les échanges supprimés
+ * de la base. Un segment provisoire trouvé au démarrage correspond à un
+ * archivage interrompu, dont le sort dépend de la base.
+ * </p>
+ * <p>
+ * Le répertoire peut être partagé entre instances : une seule écrit à la fois,
+ * et chacune relit le répertoire ({@link #refresh()}) pour voir les segments
+ * écrits par les autres.
+ * </p>
+ */
+public final class TradeArchive {
+
+    static final String SEGMENT_SUFFIX = ".tseg";
+    static final String PENDING_SUFFIX = ".pending";
+
+    private final Path directory;
+    private volatile List<TradeSegment> segments;
+    private long nextSequence;
+
+    /**
+     * Ouvre l'archive du répertoire donné, en le créant si besoin.
+     */
+    public TradeArchive(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        List<TradeSegment> opened = new ArrayList<>();
+        for (Path path : list(SEGMENT_SUFFIX)) {
+            opened.add(TradeSegment.open(path));
+        }
+        opened.sort(Comparator.comparingLong(TradeSegment::minDate));
+        segments = List.copyOf(opened);
+        long last = 0;
+        for (Path path : list(null)) {
+            last = Math.max(last, sequence(path));
+        }
+        nextSequence = last + 1;
+    }
+
+    /**
+     * Ajoute les segments rendus visibles par d'autres instances et recale la
+     * numérotation des segments sur le répertoire.
+     *
+     * @return le nombre de segments ajoutés
+     */
+    public synchronized int refresh() throws IOException {
+        Set<Path> known = new HashSet<>();
+        segments.forEach(segment -> known.add(segment.path().getFileName()));
+        List<TradeSegment> next = new ArrayList<>(segments);
+        long last = nextSequence - 1;
+        for (Path path : list(null)) {
+            last = Math.max(last, sequence(path));
+            if (path.getFileName().toString().endsWith(SEGMENT_SUFFIX) && !known.contains(path.getFileName())) {
+                next.add(TradeSegment.open(path));
+            }
+        }
+        nextSequence = last + 1;
+        int added = next.size() - segments.size();
+        if (added > 0) {
+            next.sort(Comparator.comparingLong(TradeSegment::minDate));
+            segments = List.copyOf(next);
+        }
+        return added;
+    }
+
+    /**
+     * Écrit les échanges dans un segment provisoire, forcé sur disque.
+     */
+    public synchronized Path writePending(List<Trade> trades) throws IOException {
+        Path path = directory.resolve(String.format("%010d%s", nextSequence++, PENDING_SUFFIX));
+        TradeSegment.write(path, trades);
+        return path;
+    }
+
+    /**
+     * Rend visible un segment provisoire.
+     */
+    public synchronized TradeSegment promote(Path pending) throws IOException {
+        String name = pending.getFileName().toString();
+        Path target = directory.resolve(name.substring(0, name.length() - PENDING_SUFFIX.length()) + SEGMENT_SUFFIX);
+        Files.move(pending, target, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory();
+        TradeSegment segment = TradeSegment.open(target);
+        List<TradeSegment> next = new ArrayList<>(segments);
+        next.add(segment);
+        next.sort(Comparator.comparingLong(TradeSegment::minDate));
+        segments = List.copyOf(next);
+        return segment;
+    }
+
+    public void discard(Path pending) throws IOException {
+        Files.deleteIfExists(pending);
+    }
+
+    public List<Path> pendingSegments() throws IOException {
+        return list(PENDING_SUFFIX);
+    }
+
+    /**
+     * Retourne, par date croissante, au plus {@code limit} échanges archivés dont la
+     * date est dans l'intervalle {@code [fromInclusive, toExclusive[}.
+     */
+    public List<Trade> scan(long fromInclusive, long toExclusive, int limit) {
+        List<Trade> trades = new ArrayList<>();
+        if (limit <= 0) {
+            return trades;
+        }
+        List<TradeSegment> overlapping = segments.stream()
+                .filter(segment -> segment.rows() > 0 && segment.minDate() < toExclusive && segment.maxDate() >= fromInclusive)
+                .toList();
+        if (overlapping.size() == 1) {
+            overlapping.get(0).scan(fromInclusive, toExclusive, trade -> trades.add(trade) && trades.size() < limit);
+            return trades;
+        }
+        // Des segments peuvent se chevaucher (échange antidaté archivé plus tard) : fusion par date
+        for (TradeSegment segment : overlapping) {
+            int start = trades.size();
+            segment.scan(fromInclusive, toExclusive, trade -> trades.add(trade) && trades.size() - start < limit);
+        }
+        trades.sort(Comparator.comparing(Trade::getTradeDate).thenComparing(Trade::getId));
+        return trades.size() > limit ? new ArrayList<>(trades.subList(0, limit)) : trades;
+    }
+
+    /**
+     * Parcourt tous les échanges archivés, segment par segment.
+     *
+     * @param visitor reçoit chaque échange et retourne faux pour arrêter le parcours
+     */
+    public void forEach(Predicate<Trade> visitor) {
+        for (TradeSegment segment : segments) {
+            if (!segment.scan(Long.MIN_VALUE, Long.MAX_VALUE, visitor)) {
+                return;
+            }
+        }
+    }
+
+    public Optional<Trade> findById(int id) {
+        for (TradeSegment segment : segments) {
+            Trade trade = segment.find(id);
+            if (trade != null) {
+                return Optional.of(trade);
+            }
+        }
+        return Optional.empty();
+    }
+
+    public List<TradeSegment> segments() {
+        return segments;
+    }
+
+    private List<Path> list(String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return suffix == null ? name.endsWith(SEGMENT_SUFFIX) || name.endsWith(PENDING_SUFFIX)
+                                : name.endsWith(suffix);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private void syncDirectory() {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+        catch (IOException e) {
+            // Certains systèmes de fichiers ne permettent pas d'ouvrir un répertoire
+        }
+    }
+
+    private static long sequence(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.indexOf('.')));
+    }
+}
@@ -0,0 +1,344 @@
+package com.pcs.app.archive;
+
+import com.pcs.app.cluster.NamedLocks;
+import com.pcs.app.domain.Trade;
+import com.pcs.app.events.ChangeType;
+import com.pcs.app.events.EntityChangeEvent;
+import com.pcs.app.repositories.TradeRepository;
+import com.pcs.app.sharding.ShardingService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Déplace les échanges anciens de la base vers l'archive en colonnes.
+ * <p>
+ * Périodiquement, les échanges dont la date précède l'horizon sont archivés par
+ * paquets, un paquet par transaction : le paquet est écrit dans un segment
+ * provisoire forcé sur disque, supprimé de la base, puis le segment est rendu
+ * visible après le commit (ou effacé après un rollback). Avec la répartition
+ * entre bases, chaque base est archivée dans ses propres transactions. Avant
+ * chaque passe, un segment provisoire est rendu visible si ses échanges ne sont
+ * plus en base, effacé sinon.
+ * </p>
+ * <p>
+ * Le répertoire de l'archive doit être partagé entre les instances : une passe
+ * se fait sous le verrou {@value #LOCK} de la base, et les lectures relisent le
+ * répertoire au plus toutes les {@code refreshIntervalMs} pour voir les
+ * segments écrits ailleurs.
+ * </p>
+ * <p>
+ * La sortie d'un échange de la base est publiée comme un archivage
+ * ({@link ChangeType#ARCHIVE}) : les caches et agrégats vivants ne portent plus
+ * que les échanges récents, sans que l'historique y voie une suppression.
+ * </p>
+ */
+@Slf4j
+@Service
+public class TradeArchiveService {
+
+    static final String LOCK = "trade-archive";
+
+    @Autowired
+    private TradeRepository repository;
+
+    @Autowired
+    private ShardingService sharding;
+
+    @Autowired
+    private NamedLocks locks;
+
+    @Autowired
+    private ApplicationEventPublisher publisher;
+
+    private final TradeArchive archive;
+    private final TransactionTemplate transactionTemplate;
+    private final int horizonDays;
+    private final int chunkSize;
+    private final long refreshIntervalMs;
+    private final ScheduledExecutorService scheduler;
+    private volatile long refreshedAt = System.currentTimeMillis();
+    private final LongAdder archived = new LongAdder();
+    private final LongAdder chunks = new LongAdder();
+
+    public TradeArchiveService(PlatformTransactionManager transactionManager,
+                               @Value("${app.archive.dir:archive}") Path directory,
+                               @Value("${app.archive.enabled:false}") boolean enabled,
+                               @Value("${app.archive.horizon-days:730}") int horizonDays,
+                               @Value("${app.archive.chunk-size:5000}") int chunkSize,
+                               @Value("${app.archive.interval-minutes:60}") long intervalMinutes,
+                               @Value("${app.archive.refresh-interval-ms:10000}") long refreshIntervalMs) throws IOException {
+        this.archive = new TradeArchive(directory);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.horizonDays = horizonDays;
+        this.chunkSize = chunkSize;
+        this.refreshIntervalMs = refreshIntervalMs;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "trade-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (enabled) {
+            scheduler.scheduleWithFixedDelay(this::archiveQuietly, intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+        }
+        log.info("Trade archive opened in {} with {} segments", directory.toAbsolutePath(), archive.segments().size());
+    }
+
+    /**
+     * Termine les archivages interrompus, avant les chargements qui lisent l'archive.
+     * Si une autre instance archive en ce moment, elle s'en charge avant sa passe.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void recoverOnStartup() {
+        locks.tryWithLock(LOCK, 0, () -> {
+            refreshAndRecover();
+            return true;
+        });
+    }
+
+    private void refreshAndRecover() {
+        try {
+            archive.refresh();
+            refreshedAt = System.currentTimeMillis();
+            recover();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Cannot recover the trade archive", e);
+        }
+    }
+
+    private void recover() throws IOException {
+        for (Path pending : archive.pendingSegments()) {
+            resolve(pending);
+        }
+    }
+
+    /**
+     * Rend visible un segment provisoire dont les échanges ont quitté la base, ou
+     * l'efface s'ils y sont restés.
+     */
+    private void resolve(Path pending) throws IOException {
+        List<Integer> ids = TradeSegment.open(pending).ids();
+        List<Integer> remaining = sharding.enabled()
+                ? sharding.trades().existingIds(ids)
+                : repository.findAllById(ids).stream().map(Trade::getId).toList();
+        if (remaining.isEmpty()) {
+            archive.promote(pending);
+            archived.add(ids.size());
+            chunks.increment();
+            log.info("Recovered archive segment {} of {} trades", pending.getFileName(), ids.size());
+        }
+        else {
+            archive.discard(pending);
+            log.info("Discarded uncommitted archive segment {}", pending.getFileName());
+        }
+    }
+
+    private void resolveLater(Path pending) {
+        try {
+            scheduler.execute(() -> {
+                try {
+                    resolve(pending);
+                }
+                catch (Exception e) {
+                    log.error("Cannot resolve archive segment {}", pending.getFileName(), e);
+                }
+            });
+        }
+        catch (RejectedExecutionException e) {
+            log.warn("Archive segment {} left for the next startup", pending.getFileName());
+        }
+    }
+
+    /**
+     * Archive tous les échanges antérieurs à l'horizon, de toutes les bases.
+     *
+     * @return le nombre d'échanges archivés, ou -1 si une autre instance archive déjà
+     */
+    public synchronized int archive() {
+        return locks.tryWithLock(LOCK, 0, () -> {
+            refreshAndRecover();
+            Timestamp cutoff = Timestamp.valueOf(LocalDate.now().minusDays(horizonDays).atStartOfDay());
+            int total = 0;
+            if (sharding.enabled()) {
+                for (int shard = 0; shard < sharding.trades().shardCount(); shard++) {
+                    int count;
+                    do {
+                        count = sharding.trades().removeOlderThan(shard, "trade_date", cutoff, chunkSize,
+                                this::archiveRows).size();
+                        total += count;
+                    } while (count > 0);
+                }
+            }
+            else {
+                while (true) {
+                    Integer count = transactionTemplate.execute(status -> archiveChunk(cutoff));
+                    if (count == null || count == 0) {
+                        break;
+                    }
+                    total += count;
+                }
+            }
+            if (total > 0) {
+                log.info("Archived {} trades older than {}", total, cutoff);
+            }
+            return total;
+        }).orElse(-1);
+    }
+
+    /**
+     * Retourne, par date croissante, les échanges archivés entre deux dates incluses.
+     */
+    public List<Trade> findArchived(LocalDate from, LocalDate to, int limit) {
+        refreshIfStale();
+        long fromMillis = from == null ? Long.MIN_VALUE : Timestamp.valueOf(from.atStartOfDay()).getTime();
+        long toMillis = to == null ? Long.MAX_VALUE : Timestamp.valueOf(to.plusDays(1).atStartOfDay()).getTime();
+        return archive.scan(fromMillis, toMillis, limit);
+    }
+
+    public Optional<Trade> findArchivedById(int id) {
+        refreshIfStale();
+        return archive.findById(id);
+    }
+
+    /**
+     * Parcourt tous les échanges archivés.
+     *
+     * @param visitor reçoit chaque échange et retourne faux pour arrêter le parcours
+     */
+    public void forEachArchived(Predicate<Trade> visitor) {
+        refreshIfStale();
+        archive.forEach(visitor);
+    }
+
+    public Map<String, Number> stats() {
+        refreshIfStale();
+        List<TradeSegment> segments = archive.segments();
+        Map<String, Number> stats = new LinkedHashMap<>();
+        stats.put("segments", segments.size());
+        stats.put("archivedTrades", segments.stream().mapToLong(TradeSegment::rows).sum());
+        stats.put("archiveBytes", segments.stream().mapToLong(TradeSegment::bytes).sum());
+        stats.put("archivedSinceStart", archived.sum());
+        stats.put("chunksSinceStart", chunks.sum());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        try {
+            scheduler.awaitTermination(30, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void archiveQuietly() {
+        try {
+            archive();
+        }
+        catch (Exception e) {
+            log.error("Trade archiving failed", e);
+        }
+    }
+
+    /**
+     * Relit le répertoire partagé si la dernière lecture date de plus de {@code refreshIntervalMs}.
+     */
+    private void refreshIfStale() {
+        long now = System.currentTimeMillis();
+        if (now - refreshedAt < refreshIntervalMs) {
+            return;
+        }
+        refreshedAt = now;
+        try {
+            int added = archive.refresh();
+            if (added > 0) {
+                log.debug("Loaded {} archive segments written by other instances", added);
+            }
+        }
+        catch (IOException e) {
+            log.error("Cannot refresh the trade archive", e);
+        }
+    }
+
+    private int archiveChunk(Timestamp cutoff) {
+        List<Trade> chunk = repository.findByTradeDateBeforeOrderByTradeDateAscIdAsc(cutoff, Limit.of(chunkSize));
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        archiveRows(chunk);
+        repository.deleteAllInBatch(chunk);
+        return chunk.size();
+    }
+
+    /**
+     * Écrit les échanges dans un segment provisoire, rendu visible au commit de la
+     * transaction courante, qui doit les supprimer de la base.
+     */
+    private void archiveRows(List<Trade> chunk) {
+        Path pending;
+        try {
+            pending = archive.writePending(chunk);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Cannot write archive segment", e);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    if (status == STATUS_COMMITTED) {
+                        archive.promote(pending);
+                        archived.add(chunk.size());
+                        chunks.increment();
+                    }
+                    else if (sharding.enabled()) {
+                        // La base secondaire valide avant la principale : ses suppressions ont pu aboutir
+                        resolveLater(pending);
+                    }
+                    else {
+                        archive.discard(pending);
+                    }
+                }
+                catch (IOException e) {
+                    // Le segment provisoire reste sur disque et sera traité au prochain démarrage
+                    log.error("Cannot finalize archive segment {}", pending.getFileName(), e);
+                }
+            }
+        });
+        for (Trade trade : chunk) {
+            publisher.publishEvent(EntityChangeEvent.archived(Trade.class, trade.getId(), trade));
+        }
+    }
+}
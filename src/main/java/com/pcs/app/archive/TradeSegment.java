@@ -0,0 +1,414 @@
+package com.pcs.app.archive;
+
+import com.pcs.app.domain.Trade;
+import com.pcs.app.strings.SharedStrings;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Segment d'archive immuable : des échanges rangés par colonne dans un fichier
+ * projeté en mémoire.
+ * <pre>
+ * en-tête : [int magique][int version][int lignes][int identifiant min][int identifiant max]
+ *           [long date min][long date max][long position de chaque colonne]
+ * colonnes, alignées sur 8 octets :
+ *   identifiants (int), dates d'échange (long, croissantes), autres dates (long),
+ *   montants (double), puis textes : [int valeurs][int largeur][int taille compressée]
+ *   [dictionnaire compressé][codes sur 1, 2 ou 4 octets]
+ * </pre>
+ * Les lignes sont triées par date d'échange puis par identifiant : une recherche
+ * par intervalle de dates ne lit que les lignes de l'intervalle. Une date nulle
+ * vaut {@link Long#MIN_VALUE}, un montant nul est un NaN, un texte nul a le code 0.
+ */
+public final class TradeSegment {
+
+    private static final int MAGIC = 0x54534731;
+    private static final int VERSION = 1;
+    private static final long NULL_DATE = Long.MIN_VALUE;
+
+    private record DateField(Function<Trade, Timestamp> getter, BiConsumer<Trade, Timestamp> setter) {
+    }
+
+    private record DoubleField(Function<Trade, Double> getter, BiConsumer<Trade, Double> setter) {
+    }
+
+    // shared : valeur répétée, lue sous son instance de SharedStrings
+    private record StringField(Function<Trade, String> getter, BiConsumer<Trade, String> setter, boolean shared) {
+    }
+
+    private static final List<DateField> DATES = List.of(
+            new DateField(Trade::getCreationDate, Trade::setCreationDate),
+            new DateField(Trade::getRevisionDate, Trade::setRevisionDate));
+
+    private static final List<DoubleField> DOUBLES = List.of(
+            new DoubleField(Trade::getBuyQuantity, Trade::setBuyQuantity),
+            new DoubleField(Trade::getSellQuantity, Trade::setSellQuantity),
+            new DoubleField(Trade::getBuyPrice, Trade::setBuyPrice),
+            new DoubleField(Trade::getSellPrice, Trade::setSellPrice));
+
+    private static final List<StringField> STRINGS = List.of(
+            new StringField(Trade::getAccount, Trade::setAccount, true),
+            new StringField(Trade::getType, Trade::setType, true),
+            new StringField(Trade::getBenchmark, Trade::setBenchmark, true),
+            new StringField(Trade::getSecurity, Trade::setSecurity, true),
+            new StringField(Trade::getStatus, Trade::setStatus, true),
+            new StringField(Trade::getTrader, Trade::setTrader, true),
+            new StringField(Trade::getBook, Trade::setBook, true),
+            new StringField(Trade::getCreationName, Trade::setCreationName, true),
+            new StringField(Trade::getRevisionName, Trade::setRevisionName, true),
+            new StringField(Trade::getDealName, Trade::setDealName, false),
+            new StringField(Trade::getDealType, Trade::setDealType, true),
+            new StringField(Trade::getSourceListId, Trade::setSourceListId, false),
+            new StringField(Trade::getSide, Trade::setSide, true));
+
+    private static final int COLUMNS = 2 + DATES.size() + DOUBLES.size() + STRINGS.size();
+    private static final int HEADER_SIZE = 4 * 5 + 8 * 2 + 8 * COLUMNS;
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final int rows;
+    private final int minId;
+    private final int maxId;
+    private final long minDate;
+    private final long maxDate;
+    private final int[] offsets = new int[COLUMNS];
+    private final String[][] dictionaries = new String[STRINGS.size()][];
+    private final int[] widths = new int[STRINGS.size()];
+    private final int[] codeOffsets = new int[STRINGS.size()];
+
+    private TradeSegment(Path path, MappedByteBuffer buffer) throws IOException {
+        this.path = path;
+        this.buffer = buffer;
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a trade archive segment: " + path);
+        }
+        rows = buffer.getInt(8);
+        minId = buffer.getInt(12);
+        maxId = buffer.getInt(16);
+        minDate = buffer.getLong(20);
+        maxDate = buffer.getLong(28);
+        for (int column = 0; column < COLUMNS; column++) {
+            offsets[column] = Math.toIntExact(buffer.getLong(36 + 8 * column));
+        }
+        for (int field = 0; field < STRINGS.size(); field++) {
+            int offset = offsets[2 + DATES.size() + DOUBLES.size() + field];
+            int size = buffer.getInt(offset);
+            widths[field] = buffer.getInt(offset + 4);
+            int compressed = buffer.getInt(offset + 8);
+            dictionaries[field] = readDictionary(buffer, offset + 12, compressed, size, STRINGS.get(field).shared());
+            codeOffsets[field] = offset + 12 + compressed;
+        }
+    }
+
+    /**
+     * Projette en mémoire un segment existant.
+     */
+    public static TradeSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new TradeSegment(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Écrit les échanges dans un nouveau segment et le force sur disque.
+     * Les échanges sans date d'échange sont refusés.
+     */
+    public static void write(Path path, List<Trade> trades) throws IOException {
+        List<Trade> sorted = new ArrayList<>(trades);
+        for (Trade trade : sorted) {
+            if (trade.getId() == null || trade.getTradeDate() == null) {
+                throw new IllegalArgumentException("Archived trades need an id and a trade date");
+            }
+        }
+        sorted.sort(Comparator.comparing(Trade::getTradeDate).thenComparing(Trade::getId));
+        int rows = sorted.size();
+
+        List<ByteBuffer> columns = new ArrayList<>(COLUMNS);
+        ByteBuffer ids = column(4L * rows);
+        sorted.forEach(trade -> ids.putInt(trade.getId()));
+        columns.add(ids);
+        ByteBuffer tradeDates = column(8L * rows);
+        sorted.forEach(trade -> tradeDates.putLong(trade.getTradeDate().getTime()));
+        columns.add(tradeDates);
+        for (DateField field : DATES) {
+            ByteBuffer dates = column(8L * rows);
+            sorted.forEach(trade -> {
+                Timestamp date = field.getter().apply(trade);
+                dates.putLong(date == null ? NULL_DATE : date.getTime());
+            });
+            columns.add(dates);
+        }
+        for (DoubleField field : DOUBLES) {
+            ByteBuffer values = column(8L * rows);
+            sorted.forEach(trade -> {
+                Double value = field.getter().apply(trade);
+                values.putDouble(value == null ? Double.NaN : value);
+            });
+            columns.add(values);
+        }
+        for (StringField field : STRINGS) {
+            columns.add(stringColumn(sorted, field));
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(rows)
+                .putInt(sorted.stream().mapToInt(Trade::getId).min().orElse(0))
+                .putInt(sorted.stream().mapToInt(Trade::getId).max().orElse(-1))
+                .putLong(rows == 0 ? NULL_DATE : sorted.get(0).getTradeDate().getTime())
+                .putLong(rows == 0 ? NULL_DATE : sorted.get(rows - 1).getTradeDate().getTime());
+        long position = align(HEADER_SIZE);
+        for (ByteBuffer column : columns) {
+            header.putLong(position);
+            position = align(position + column.flip().remaining());
+        }
+        header.flip();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            writeFully(channel, header, 0);
+            long offset = align(HEADER_SIZE);
+            for (ByteBuffer column : columns) {
+                int length = column.remaining();
+                writeFully(channel, column, offset);
+                offset = align(offset + length);
+            }
+            if (channel.size() < offset) {
+                writeFully(channel, ByteBuffer.allocate((int) (offset - channel.size())), channel.size());
+            }
+            channel.force(true);
+        }
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public long minDate() {
+        return minDate;
+    }
+
+    public long maxDate() {
+        return maxDate;
+    }
+
+    public long bytes() {
+        return buffer.capacity();
+    }
+
+    /**
+     * Parcourt, par date croissante, les échanges dont la date est dans
+     * l'intervalle {@code [fromInclusive, toExclusive[}.
+     *
+     * @param visitor reçoit chaque échange et retourne faux pour arrêter le parcours
+     * @return faux si le parcours a été arrêté par le visiteur
+     */
+    public boolean scan(long fromInclusive, long toExclusive, Predicate<Trade> visitor) {
+        if (rows == 0 || fromInclusive > maxDate || toExclusive <= minDate) {
+            return true;
+        }
+        int dates = offsets[1];
+        for (int row = lowerBound(fromInclusive); row < rows; row++) {
+            if (buffer.getLong(dates + 8 * row) >= toExclusive) {
+                break;
+            }
+            if (!visitor.test(read(row))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Retourne l'échange d'identifiant donné, ou nul.
+     */
+    public Trade find(int id) {
+        if (id < minId || id > maxId) {
+            return null;
+        }
+        int ids = offsets[0];
+        for (int row = 0; row < rows; row++) {
+            if (buffer.getInt(ids + 4 * row) == id) {
+                return read(row);
+            }
+        }
+        return null;
+    }
+
+    public List<Integer> ids() {
+        List<Integer> ids = new ArrayList<>(rows);
+        for (int row = 0; row < rows; row++) {
+            ids.add(buffer.getInt(offsets[0] + 4 * row));
+        }
+        return ids;
+    }
+
+    private int lowerBound(long date) {
+        int dates = offsets[1];
+        int lo = 0;
+        int hi = rows;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (buffer.getLong(dates + 8 * mid) < date) {
+                lo = mid + 1;
+            }
+            else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private Trade read(int row) {
+        Trade trade = new Trade();
+        trade.setId(buffer.getInt(offsets[0] + 4 * row));
+        trade.setTradeDate(new Timestamp(buffer.getLong(offsets[1] + 8 * row)));
+        int column = 2;
+        for (DateField field : DATES) {
+            long date = buffer.getLong(offsets[column++] + 8 * row);
+            field.setter().accept(trade, date == NULL_DATE ? null : new Timestamp(date));
+        }
+        for (DoubleField field : DOUBLES) {
+            double value = buffer.getDouble(offsets[column++] + 8 * row);
+            field.setter().accept(trade, Double.isNaN(value) ? null : value);
+        }
+        for (int field = 0; field < STRINGS.size(); field++) {
+            int offset = codeOffsets[field];
+            int code = switch (widths[field]) {
+                case 1 -> Byte.toUnsignedInt(buffer.get(offset + row));
+                case 2 -> Short.toUnsignedInt(buffer.getShort(offset + 2 * row));
+                default -> buffer.getInt(offset + 4 * row);
+            };
+            STRINGS.get(field).setter().accept(trade, dictionaries[field][code]);
+        }
+        return trade;
+    }
+
+    private static ByteBuffer stringColumn(List<Trade> trades, StringField field) throws IOException {
+        Map<String, Integer> codes = new HashMap<>();
+        List<String> values = new ArrayList<>();
+        values.add(null);
+        int[] rowCodes = new int[trades.size()];
+        for (int row = 0; row < trades.size(); row++) {
+            String value = field.getter().apply(trades.get(row));
+            rowCodes[row] = value == null ? 0 : codes.computeIfAbsent(value, v -> {
+                values.add(v);
+                return values.size() - 1;
+            });
+        }
+        int width = values.size() <= 0xFF + 1 ? 1 : values.size() <= 0xFFFF + 1 ? 2 : 4;
+
+        ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(raw);
+        for (int code = 1; code < values.size(); code++) {
+            byte[] bytes = values.get(code).getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+        byte[] dictionary = deflate(raw.toByteArray());
+
+        ByteBuffer column = column(12L + dictionary.length + (long) width * trades.size());
+        column.putInt(values.size()).putInt(width).putInt(dictionary.length).put(dictionary);
+        for (int code : rowCodes) {
+            switch (width) {
+                case 1 -> column.put((byte) code);
+                case 2 -> column.putShort((short) code);
+                default -> column.putInt(code);
+            }
+        }
+        return column;
+    }
+
+    private static String[] readDictionary(ByteBuffer buffer, int offset, int compressed, int size, boolean shared)
+            throws IOException {
+        byte[] input = new byte[compressed];
+        buffer.get(offset, input);
+        ByteBuffer raw = ByteBuffer.wrap(inflate(input));
+        String[] values = new String[size];
+        for (int code = 1; code < size; code++) {
+            byte[] bytes = new byte[raw.getInt()];
+            raw.get(bytes);
+            String value = new String(bytes, StandardCharsets.UTF_8);
+            values[code] = shared ? SharedStrings.canonical(value) : value;
+        }
+        return values;
+    }
+
+    private static byte[] deflate(byte[] input) {
+        Deflater deflater = new Deflater();
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length / 2 + 16);
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return out.toByteArray();
+        }
+        finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] input) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(input);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length * 4);
+            byte[] chunk = new byte[8192];
+            while (!inflater.finished()) {
+                int count = inflater.inflate(chunk);
+                if (count == 0 && !inflater.finished() && inflater.needsInput()) {
+                    throw new IOException("Truncated archive dictionary");
+                }
+                out.write(chunk, 0, count);
+            }
+            return out.toByteArray();
+        }
+        catch (DataFormatException e) {
+            throw new IOException("Corrupted archive dictionary", e);
+        }
+        finally {
+            inflater.end();
+        }
+    }
+
+    private static ByteBuffer column(long size) {
+        return ByteBuffer.allocate(Math.toIntExact(size)).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static long align(long position) {
+        return (position + 7) & ~7L;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer source, long position) throws IOException {
+        while (source.hasRemaining()) {
+            position += channel.write(source, position);
+        }
+    }
+}
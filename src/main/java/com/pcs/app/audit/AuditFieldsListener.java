@@ -0,0 +1,52 @@
+package com.pcs.app.audit;
+
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.sql.Timestamp;
+
+/**
+ * Renseigne les champs de création et de révision d'une entité {@link Audited}
+ * à chaque insertion et mise à jour.
+ * <p>
+ * L'auteur est l'utilisateur connecté ; les écritures faites hors requête
+ * (confrontation des enchères, traitements planifiés) sont attribuées à
+ * {@value #SYSTEM_AUDITOR}, sauf si le traitement a lui-même renseigné l'auteur
+ * de la création.
+ * </p>
+ */
+public class AuditFieldsListener {
+
+    public static final String SYSTEM_AUDITOR = "system";
+
+    @PrePersist
+    public void onCreate(Audited entity) {
+        String auditor = currentAuditor();
+        if (SYSTEM_AUDITOR.equals(auditor) && entity.getCreationName() != null && !entity.getCreationName().isBlank()) {
+            auditor = entity.getCreationName();
+        }
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        entity.setCreationName(auditor);
+        entity.setCreationDate(now);
+        entity.setRevisionName(auditor);
+        entity.setRevisionDate(now);
+    }
+
+    @PreUpdate
+    public void onUpdate(Audited entity) {
+        entity.setRevisionName(currentAuditor());
+        entity.setRevisionDate(new Timestamp(System.currentTimeMillis()));
+    }
+
+    public static String currentAuditor() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return SYSTEM_AUDITOR;
+        }
+        return authentication.getName();
+    }
+}
@@ -0,0 +1,20 @@
+package com.pcs.app.audit;
+
+import java.sql.Timestamp;
+
+/**
+ * Entité portant les champs de création et de révision, renseignés par
+ * {@link AuditFieldsListener}.
+ */
+public interface Audited {
+
+    String getCreationName();
+
+    void setCreationName(String creationName);
+
+    void setCreationDate(Timestamp creationDate);
+
+    void setRevisionName(String revisionName);
+
+    void setRevisionDate(Timestamp revisionDate);
+}
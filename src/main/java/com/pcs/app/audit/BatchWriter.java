@@ -0,0 +1,198 @@
+package com.pcs.app.audit;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Écrit par lots, depuis un thread dédié, les éléments déposés dans une file bornée.
+ * <p>
+ * Quand la file est pleine, l'appelant attend au plus {@code offerTimeoutMs} ;
+ * s'il n'a toujours pas de place, il écrit lui-même son élément. Les écrivains
+ * sont ainsi ralentis au rythme de la base sans qu'aucun élément soit perdu.
+ * Un lot en échec est réessayé au plus {@code maxAttempts} fois, puis ses
+ * éléments sont écrits un à un : ceux qui échouent encore sont journalisés en
+ * erreur et abandonnés, pour qu'un élément invalide ne bloque pas la file. À la
+ * fermeture, ce que le thread dédié n'a pas écrit dans le délai est écrit par
+ * l'appelant de {@link #close(long)}.
+ * </p>
+ */
+@Slf4j
+public class BatchWriter<T> implements Closeable {
+
+    private final BlockingQueue<T> queue;
+    private final int batchSize;
+    private final long offerTimeoutMs;
+    private final long retryDelayMs;
+    private final int maxAttempts;
+    private final Consumer<List<T>> sink;
+    private final Thread thread;
+    private final ReentrantReadWriteLock closeLock = new ReentrantReadWriteLock();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder callerWrites = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private volatile boolean closed;
+
+    /**
+     * Compteurs de l'écrivain.
+     *
+     * @param pending les éléments en attente dans la file
+     * @param written les éléments écrits
+     * @param batches les lots écrits par le thread dédié
+     * @param callerWrites les éléments écrits par l'appelant, faute de place dans la file
+     * @param failures les écritures de lot en échec
+     * @param dropped les éléments abandonnés après la dernière tentative
+     */
+    public record Stats(int pending, long written, long batches, long callerWrites, long failures, long dropped) {
+    }
+
+    public BatchWriter(String name, int capacity, int batchSize, long offerTimeoutMs, long retryDelayMs,
+                       int maxAttempts, Consumer<List<T>> sink) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.retryDelayMs = retryDelayMs;
+        this.maxAttempts = Math.max(maxAttempts, 1);
+        this.sink = sink;
+        this.thread = new Thread(this::run, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Dépose l'élément dans la file, ou l'écrit directement si la file reste pleine
+     * ou si l'écrivain est fermé.
+     */
+    public void submit(T item) {
+        boolean queued = false;
+        closeLock.readLock().lock();
+        try {
+            if (!closed) {
+                queued = queue.offer(item, offerTimeoutMs, TimeUnit.MILLISECONDS);
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        finally {
+            closeLock.readLock().unlock();
+        }
+        if (!queued) {
+            sink.accept(List.of(item));
+            written.increment();
+            callerWrites.increment();
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(queue.size(), written.sum(), batches.sum(), callerWrites.sum(), failures.sum(),
+                dropped.sum());
+    }
+
+    @Override
+    public void close() {
+        close(Long.MAX_VALUE);
+    }
+
+    /**
+     * Refuse les nouveaux éléments et attend l'écriture de ceux de la file. Passé
+     * le délai, l'appelant écrit lui-même les éléments restés en file.
+     *
+     * @return vrai si la file a été entièrement traitée et le thread dédié arrêté
+     */
+    public boolean close(long timeoutMs) {
+        closeLock.writeLock().lock();
+        try {
+            closed = true;
+        }
+        finally {
+            closeLock.writeLock().unlock();
+        }
+        try {
+            thread.join(timeoutMs == Long.MAX_VALUE ? 0 : Math.max(timeoutMs, 1));
+            if (thread.isAlive()) {
+                log.warn("{} still writing after {} ms, draining {} items in the closing thread",
+                        thread.getName(), timeoutMs, queue.size());
+                List<T> batch = new ArrayList<>(batchSize);
+                while (queue.drainTo(batch, batchSize) > 0) {
+                    write(batch);
+                    batch.clear();
+                }
+                // Le thread dédié termine au plus son lot en cours, dont les tentatives sont bornées
+                thread.join(maxAttempts * Math.max(retryDelayMs, 1) + offerTimeoutMs);
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return queue.isEmpty() && !thread.isAlive();
+    }
+
+    private void run() {
+        List<T> batch = new ArrayList<>(batchSize);
+        while (true) {
+            try {
+                if (batch.isEmpty()) {
+                    T first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        if (closed && queue.isEmpty()) {
+                            return;
+                        }
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                }
+                write(batch);
+                batch.clear();
+            }
+            catch (InterruptedException e) {
+                // Seule la fermeture termine l'écrivain : le lot en cours et la file doivent être écrits
+                log.warn("{} interrupted, still draining", thread.getName());
+            }
+        }
+    }
+
+    private void write(List<T> batch) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                sink.accept(batch);
+                written.add(batch.size());
+                batches.increment();
+                return;
+            }
+            catch (RuntimeException e) {
+                failures.increment();
+                if (attempt >= maxAttempts) {
+                    log.error("{} failed to write {} items after {} attempts, writing them one by one",
+                            thread.getName(), batch.size(), attempt, e);
+                    break;
+                }
+                log.error("{} failed to write {} items, retrying in {} ms",
+                        thread.getName(), batch.size(), retryDelayMs, e);
+                Thread.sleep(retryDelayMs);
+            }
+        }
+        for (T item : batch) {
+            try {
+                sink.accept(List.of(item));
+                written.increment();
+            }
+            catch (RuntimeException e) {
+                failures.increment();
+                dropped.increment();
+                log.error("{} dropped {}", thread.getName(), item, e);
+            }
+        }
+    }
+}
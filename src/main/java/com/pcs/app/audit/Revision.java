@@ -0,0 +1,25 @@
+package com.pcs.app.audit;
+
+import com.pcs.app.domain.RevisionRecord;
+import com.pcs.app.events.ChangeType;
+
+import java.sql.Timestamp;
+
+/**
+ * Révision capturée, en attente d'écriture.
+ * <p>
+ * L'état est sérialisé au moment de la capture : l'entité peut être modifiée
+ * avant l'écriture du lot.
+ * </p>
+ */
+record Revision(String entityType, int entityId, ChangeType changeType, String changedBy, long changedAt,
+                String state) {
+
+    /**
+     * Crée une nouvelle entité à chaque tentative d'écriture, un lot en échec
+     * pouvant garder les identifiants qui lui avaient été attribués.
+     */
+    RevisionRecord toRecord() {
+        return new RevisionRecord(entityType, entityId, changeType, changedBy, new Timestamp(changedAt), state);
+    }
+}
@@ -0,0 +1,115 @@
+package com.pcs.app.audit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pcs.app.domain.BidList;
+import com.pcs.app.domain.RevisionRecord;
+import com.pcs.app.domain.Trade;
+import com.pcs.app.events.EntityChangeEvent;
+import com.pcs.app.repositories.RevisionRecordRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Historise chaque révision des échanges (Trade) et des enchères (BidList).
+ * <p>
+ * La révision est capturée après le commit de l'écriture, puis enregistrée de
+ * façon asynchrone par lots, dans une transaction par lot, depuis une file bornée
+ * ({@link BatchWriter}). Chaque lot est écrit dans sa propre transaction, y
+ * compris quand le thread de l'écriture d'origine l'écrit lui-même après son
+ * commit. Les révisions encore en file sont écrites à l'arrêt de l'application.
+ * </p>
+ */
+@Slf4j
+@Service
+public class RevisionHistoryService {
+
+    private static final Map<String, Class<?>> AUDITED = Map.of(
+            Trade.class.getSimpleName(), Trade.class,
+            BidList.class.getSimpleName(), BidList.class);
+
+    @Autowired
+    private RevisionRecordRepository repository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final BatchWriter<Revision> writer;
+    private final long shutdownTimeoutMs;
+
+    public RevisionHistoryService(PlatformTransactionManager transactionManager,
+                                  @Value("${app.revision.queue-capacity:10000}") int queueCapacity,
+                                  @Value("${app.revision.batch-size:500}") int batchSize,
+                                  @Value("${app.revision.offer-timeout-ms:50}") long offerTimeoutMs,
+                                  @Value("${app.revision.retry-delay-ms:1000}") long retryDelayMs,
+                                  @Value("${app.revision.max-attempts:5}") int maxAttempts,
+                                  @Value("${app.revision.shutdown-timeout-ms:30000}") long shutdownTimeoutMs) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        // Après le commit, la transaction de l'écriture d'origine est encore liée au thread et ne peut plus écrire
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.writer = new BatchWriter<>("revision-history", queueCapacity, batchSize, offerTimeoutMs, retryDelayMs,
+                maxAttempts,
+                batch -> transactionTemplate.executeWithoutResult(
+                        status -> repository.saveAll(batch.stream().map(Revision::toRecord).toList())));
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChange(EntityChangeEvent<?> event) {
+        if (!AUDITED.containsValue(event.entityType()) || event.id() == null) {
+            return;
+        }
+        String state;
+        try {
+            state = event.entity() == null || event.changeType().removes() ? null : objectMapper.writeValueAsString(event.entity());
+        }
+        catch (JsonProcessingException e) {
+            log.error("Cannot serialize revision of {} {}", event.entityType().getSimpleName(), event.id(), e);
+            return;
+        }
+        try {
+            writer.submit(new Revision(event.entityType().getSimpleName(), event.id(), event.changeType(),
+                    AuditFieldsListener.currentAuditor(), System.currentTimeMillis(), state));
+        }
+        catch (RuntimeException e) {
+            log.error("Cannot write revision of {} {}", event.entityType().getSimpleName(), event.id(), e);
+        }
+    }
+
+    /**
+     * Retourne les révisions enregistrées de l'entité, de la plus ancienne à la plus récente.
+     * Les révisions encore en file n'y figurent pas.
+     */
+    public List<RevisionRecord> history(String entityType, int entityId) {
+        if (!AUDITED.containsKey(entityType)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown audited entity type '" + entityType + "'");
+        }
+        return repository.findByEntityTypeAndEntityIdOrderByIdAsc(entityType, entityId);
+    }
+
+    public BatchWriter.Stats stats() {
+        return writer.stats();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (writer.close(shutdownTimeoutMs)) {
+            log.info("Revision history stopped, {} revisions written", writer.stats().written());
+        }
+        else {
+            log.error("Revision history stopped with {} revisions not written", writer.stats().pending());
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.pcs.app.cache;
+
+import jakarta.persistence.Entity;
+import org.springframework.data.domain.Slice;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Copie les résultats de lecture partagés entre plusieurs appelants.
+ * <p>
+ * Les entités sont copiées champ par champ, dates comprises, et détachées de
+ * tout contexte de persistance ; les listes et les tranches sont reconstruites
+ * autour des copies. Les autres valeurs sont supposées immuables. Une entité
+ * liée à une autre entité est refusée : la copie partagerait l'entité liée, ou
+ * la chargerait si elle est paresseuse.
+ * </p>
+ */
+public final class EntityCopies {
+
+    private static final Map<Class<?>, Copier> COPIERS = new ConcurrentHashMap<>();
+
+    private EntityCopies() {
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> T copy(T result) {
+        if (result instanceof Slice<?> slice) {
+            return (T) slice.map(EntityCopies::copyEntity);
+        }
+        if (result instanceof List<?> list) {
+            List<Object> copies = new ArrayList<>(list.size());
+            for (Object entity : list) {
+                copies.add(copyEntity(entity));
+            }
+            return (T) Collections.unmodifiableList(copies);
+        }
+        return (T) copyEntity(result);
+    }
+
+    private static Object copyEntity(Object entity) {
+        if (entity == null || entity instanceof String || entity instanceof Number || entity instanceof Boolean) {
+            return entity;
+        }
+        return COPIERS.computeIfAbsent(entity.getClass(), Copier::new).copy(entity);
+    }
+
+    private static final class Copier {
+        final Constructor<?> constructor;
+        final List<Field> fields = new ArrayList<>();
+
+        Copier(Class<?> type) {
+            try {
+                constructor = type.getDeclaredConstructor();
+                constructor.setAccessible(true);
+            }
+            catch (NoSuchMethodException e) {
+                throw new IllegalArgumentException(type.getSimpleName() + " has no no-arg constructor", e);
+            }
+            for (Class<?> c = type; c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers())) {
+                        if (field.getType().isAnnotationPresent(Entity.class)) {
+                            throw new IllegalArgumentException("Cannot copy " + type.getSimpleName()
+                                    + " linked to " + field.getType().getSimpleName());
+                        }
+                        field.setAccessible(true);
+                        fields.add(field);
+                    }
+                }
+            }
+        }
+
+        Object copy(Object entity) {
+            try {
+                Object copy = constructor.newInstance();
+                for (Field field : fields) {
+                    field.set(copy, copyValue(field.get(entity)));
+                }
+                return copy;
+            }
+            catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+                throw new IllegalStateException("Cannot copy " + entity.getClass().getSimpleName(), e);
+            }
+        }
+
+        private static Object copyValue(Object value) {
+            if (value instanceof Timestamp timestamp) {
+                Timestamp copy = new Timestamp(timestamp.getTime());
+                copy.setNanos(timestamp.getNanos());
+                return copy;
+            }
+            if (value instanceof Date date) {
+                return new Date(date.getTime());
+            }
+            return value;
+        }
+    }
+}
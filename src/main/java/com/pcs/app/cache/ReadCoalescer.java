@@ -0,0 +1,75 @@
+package com.pcs.app.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Regroupe les lectures identiques simultanées des services.
+ * <p>
+ * Deux lectures sont identiques si elles appellent la même méthode avec les mêmes
+ * arguments sur la même version de la table : une lecture commencée après une
+ * écriture validée ne rejoint jamais une lecture commencée avant. Un résultat
+ * partagé est remis à chaque appelant sous forme de copie
+ * ({@link EntityCopies}) : une entité modifiée par un appelant ne l'est jamais
+ * pour les autres.
+ * </p>
+ */
+@Component
+public class ReadCoalescer {
+
+    @Autowired
+    private TableVersions tableVersions;
+
+    private final boolean enabled;
+    private final Map<String, SingleFlight> flights = new ConcurrentHashMap<>();
+
+    public ReadCoalescer(@Value("${app.coalescing.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Exécute la lecture, ou rejoint une lecture identique en cours.
+     *
+     * @param table l'entité dont la table est lue
+     * @param method le nom de la méthode de service
+     * @param loader la lecture à exécuter
+     * @param args les arguments de la méthode, comparés par {@code equals}
+     */
+    public <T> T read(Class<?> table, String method, Supplier<T> loader, Object... args) {
+        if (!enabled) {
+            return loader.get();
+        }
+        SingleFlight flight = flights.computeIfAbsent(method, name -> new SingleFlight());
+        return flight.execute(new Key(tableVersions.version(table), Arrays.asList(args)), loader, EntityCopies::copy);
+    }
+
+    /**
+     * Retourne, par méthode, le nombre d'appels, le nombre de requêtes réellement
+     * exécutées et le taux de regroupement (part des appels servis par une autre requête).
+     */
+    public Map<String, Map<String, Number>> stats() {
+        Map<String, Map<String, Number>> stats = new TreeMap<>();
+        flights.forEach((method, flight) -> {
+            long calls = flight.calls();
+            long executions = flight.executions();
+            Map<String, Number> methodStats = new LinkedHashMap<>();
+            methodStats.put("calls", calls);
+            methodStats.put("executions", executions);
+            methodStats.put("coalescingRatio", calls == 0 ? 0.0 : (double) (calls - executions) / calls);
+            stats.put(method, methodStats);
+        });
+        return stats;
+    }
+
+    private record Key(long version, List<Object> args) {
+    }
+}
@@ -0,0 +1,107 @@
+package com.pcs.app.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Regroupe les appels simultanés de même clé en une seule exécution.
+ * <p>
+ * Le premier appelant exécute le chargement ; ceux qui arrivent pendant son
+ * exécution attendent et reçoivent le même résultat, ou la même exception.
+ * Rien n'est conservé après la fin de l'exécution : ce n'est pas un cache.
+ * </p>
+ * <p>
+ * Avec une fonction de copie, un résultat partagé n'est jamais remis tel quel :
+ * chaque appelant qui a rejoint l'exécution reçoit sa propre copie, et le premier
+ * appelant aussi dès que l'exécution a été rejointe. Un appelant peut alors
+ * modifier son résultat sans toucher à celui des autres.
+ * </p>
+ */
+public final class SingleFlight {
+
+    private final ConcurrentHashMap<Object, Flight> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder joined = new LongAdder();
+    private final LongAdder executions = new LongAdder();
+
+    private static final class Flight {
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+        // Incrémenté sous le verrou de la table, lu après le retrait de l'exécution
+        volatile int joiners;
+    }
+
+    /**
+     * Exécute le chargement, ou attend celui déjà en cours pour la même clé.
+     */
+    public <T> T execute(Object key, Supplier<T> loader) {
+        return execute(key, loader, UnaryOperator.identity());
+    }
+
+    /**
+     * Exécute le chargement, ou attend celui déjà en cours pour la même clé ; un
+     * résultat partagé avec un autre appelant est remis par {@code copy}.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(Object key, Supplier<T> loader, UnaryOperator<T> copy) {
+        Flight flight = new Flight();
+        Flight current = inFlight.compute(key, (k, existing) -> {
+            if (existing == null) {
+                return flight;
+            }
+            existing.joiners++;
+            return existing;
+        });
+        if (current != flight) {
+            joined.increment();
+            return copy.apply((T) await(current.result));
+        }
+        executions.increment();
+        T value;
+        try {
+            value = loader.get();
+            flight.result.complete(value);
+        }
+        catch (RuntimeException | Error e) {
+            flight.result.completeExceptionally(e);
+            throw e;
+        }
+        finally {
+            inFlight.remove(key, flight);
+        }
+        // Plus personne ne peut rejoindre : les appelants qui l'ont fait copient l'original
+        return flight.joiners == 0 ? value : copy.apply(value);
+    }
+
+    /**
+     * Nombre d'appels, comptés une fois l'exécution lancée ou rejointe.
+     */
+    public long calls() {
+        return joined.sum() + executions.sum();
+    }
+
+    public long executions() {
+        return executions.sum();
+    }
+
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    private static Object await(CompletableFuture<Object> flight) {
+        try {
+            return flight.join();
+        }
+        catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.pcs.app.cache;
+
+import com.pcs.app.events.EntityChangeEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compteurs de version par table, incrémentés après la validation de chaque écriture.
+ * <p>
+ * Une lecture commencée après la validation d'une écriture voit donc une version
+ * différente de celles commencées avant. Les compteurs sont locaux à l'instance :
+ * ils ne reflètent pas les écritures faites par d'autres instances.
+ * </p>
+ */
+@Component
+public class TableVersions {
+
+    private final ConcurrentHashMap<Class<?>, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    /**
+     * Retourne la version courante de la table de l'entité donnée.
+     */
+    public long version(Class<?> entityType) {
+        AtomicLong version = versions.get(entityType);
+        return version == null ? 0 : version.get();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChange(EntityChangeEvent<?> event) {
+        versions.computeIfAbsent(event.entityType(), type -> new AtomicLong()).incrementAndGet();
+    }
+}
@@ -0,0 +1,79 @@
+package com.pcs.app.cluster;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Verrous nommés de la base principale, partagés par toutes les instances.
+ * <p>
+ * Un verrou MySQL ({@code GET_LOCK}) appartient à la connexion qui l'a pris :
+ * une connexion est donc réservée au verrou pendant toute l'action, qui fait
+ * ses propres écritures sur d'autres connexions. Le verrou est libéré par la
+ * base si l'instance qui le tient disparaît.
+ * </p>
+ */
+@Slf4j
+@Component
+public class NamedLocks {
+
+    @Autowired
+    private DataSource dataSource;
+
+    /**
+     * Exécute l'action sous le verrou nommé, attendu au plus {@code timeoutSeconds}.
+     *
+     * @return le résultat de l'action, ou vide si le verrou est tenu ailleurs
+     */
+    public <T> Optional<T> tryWithLock(String name, int timeoutSeconds, Supplier<T> action) {
+        try (Connection connection = dataSource.getConnection()) {
+            if (!acquire(connection, name, timeoutSeconds)) {
+                return Optional.empty();
+            }
+            try {
+                return Optional.ofNullable(action.get());
+            }
+            finally {
+                release(connection, name);
+            }
+        }
+        catch (SQLException e) {
+            throw new IllegalStateException("Cannot use database lock " + name, e);
+        }
+    }
+
+    private static boolean acquire(Connection connection, String name, int timeoutSeconds) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            statement.setString(1, name);
+            statement.setInt(2, timeoutSeconds);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        }
+    }
+
+    private static void release(Connection connection, String name) {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            statement.setString(1, name);
+            statement.execute();
+        }
+        catch (SQLException e) {
+            // Rendue au pool, la connexion garderait le verrou : la couper le libère côté base
+            log.warn("Cannot release database lock {}, closing its connection", name, e);
+            try {
+                connection.abort(Runnable::run);
+            }
+            catch (SQLException abort) {
+                log.warn("Cannot close the connection holding database lock {}", name, abort);
+            }
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.pcs.app.config;
 
+import com.pcs.app.admission.AdmissionControl;
+import com.pcs.app.admission.AdmissionFilter;
 import com.pcs.app.service.UserService;
 import lombok.Getter;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,6 +15,7 @@ import org.springframework.security.config.annotation.web.configurers.AbstractHt
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 /**
  * Configuration de la sécurité globale de l'application.
@@ -28,8 +31,12 @@ public class  SecurityConfiguration {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private AdmissionControl admissionControl;
+
     /**
-     * Lie notre userService à la chaîne de sécurité, et sécurise les endpoints
+     * Lie notre userService à la chaîne de sécurité, sécurise les endpoints
+     * et limite le débit de requêtes de chaque utilisateur
      */
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -38,12 +45,17 @@ public class  SecurityConfiguration {
                 .authorizeHttpRequests(request -> request
                         .requestMatchers("/").permitAll()
                         .requestMatchers("/user/**").hasRole("ADMIN")
+                        .requestMatchers("/ruleName/add", "/ruleName/validate", "/ruleName/update/**",
+                                "/ruleName/delete/**", "/api/rule/*/execute").hasRole("ADMIN")
+                        .requestMatchers("/api/sharding/rebalance").hasRole("ADMIN")
+                        .requestMatchers("/api/warm-state/snapshot").hasRole("ADMIN")
                         .anyRequest().authenticated())
                 .formLogin(form -> form
                         .defaultSuccessUrl("/bidList/list")
                         .permitAll()
                 )
                 .userDetailsService(userService)
+                .addFilterBefore(new AdmissionFilter(admissionControl), UsernamePasswordAuthenticationFilter.class)
                 .build();
     }
 
@@ -0,0 +1,18 @@
+package com.pcs.app.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.session.config.annotation.web.http.EnableSpringHttpSession;
+
+/**
+ * Remplace la session HTTP du conteneur par la session partagée en base
+ * ({@link com.pcs.app.session.CachingJdbcSessionRepository}), afin que toutes les
+ * instances de l'application reconnaissent un utilisateur connecté.
+ *
+ * @author Poseidon Capital Solutions
+ * @version 1.0
+ * @since 1.0
+ */
+@EnableSpringHttpSession
+@Configuration
+public class SessionConfiguration {
+}
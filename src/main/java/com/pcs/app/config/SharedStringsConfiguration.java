@@ -0,0 +1,22 @@
+package com.pcs.app.config;
+
+import com.pcs.app.strings.SharedStrings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Applique la configuration du dictionnaire commun des chaînes répétées
+ * ({@link SharedStrings}), partagé par les entités et les copies en mémoire.
+ *
+ * @author Poseidon Capital Solutions
+ * @version 1.0
+ * @since 1.0
+ */
+@Configuration
+public class SharedStringsConfiguration {
+
+    public SharedStringsConfiguration(@Value("${app.strings.intern-on-load:true}") boolean internOnLoad,
+                                      @Value("${app.strings.max-entries:1000000}") int maxEntries) {
+        SharedStrings.configure(internOnLoad, maxEntries);
+    }
+}
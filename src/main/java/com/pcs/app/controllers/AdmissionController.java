@@ -0,0 +1,30 @@
+package com.pcs.app.controllers;
+
+import com.pcs.app.admission.AdmissionControl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * API REST (JSON) de suivi du contrôle d'admission.
+ *
+ * @author Poseidon Capital Solutions
+ * @version 1.0
+ * @since 1.0
+ */
+@RestController
+public class AdmissionController {
+
+    @Autowired
+    private AdmissionControl control;
+
+    /**
+     * Retourne le nombre de requêtes admises et refusées par famille d'endpoints.
+     */
+    @GetMapping("/api/admission/stats")
+    public Map<String, Long> stats() {
+        return control.stats();
+    }
+}
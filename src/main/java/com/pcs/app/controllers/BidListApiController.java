@@ -0,0 +1,41 @@
+package com.pcs.app.controllers;
+
+import com.pcs.app.domain.BidList;
+import com.pcs.app.domain.SearchFilter;
+import com.pcs.app.domain.SearchResult;
+import com.pcs.app.service.BidListService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * API REST (JSON) de consultation des enchères (BidList).
+ *
+ * @author Poseidon Capital Solutions
+ * @version 1.0
+ * @since 1.0
+ */
+@RestController
+@RequestMapping("/api/bidList")
+public class BidListApiController {
+
+    @Autowired
+    private BidListService service;
+
+    /**
+     * Recherche paginée des enchères.
+     *
+     * @param filter les critères de recherche (tous optionnels)
+     * @param pageable la page demandée, triée par défaut par date décroissante
+     * @return la page d'enchères correspondant aux critères
+     */
+    @GetMapping
+    public SearchResult<BidList> search(SearchFilter filter,
+                                      @PageableDefault(size = 50, sort = {"bidListDate", "id"}, direction = Sort.Direction.DESC) Pageable pageable) {
+        return SearchResult.of(service.searchBidLists(filter, pageable));
+    }
+}
@@ -1,15 +1,24 @@
 package com.pcs.app.controllers;
 
 import com.pcs.app.domain.BidList;
+import com.pcs.app.domain.SearchFilter;
+import com.pcs.app.domain.SearchResult;
 import com.pcs.app.service.BidListService;
+import com.pcs.app.sync.ChangeLogService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 
 
@@ -30,15 +39,28 @@ public class BidListController {
     @Autowired
     private BidListService service;
 
+    @Autowired
+    private ChangeLogService changeLog;
+
     /**
-     * Affiche la liste de toutes les enchères.
+     * Affiche la liste paginée des enchères, filtrée selon les critères saisis.
      *
+     * @param filter les critères de recherche (tous optionnels)
+     * @param pageable la page demandée, triée par défaut par date décroissante
      * @param model le modèle Spring MVC pour transmettre les données à la vue
      * @return le nom de la vue pour afficher la liste des enchères
      */
     @RequestMapping("/bidList/list")
-    public String home(Model model) {
-        model.addAttribute("bidLists", service.getAllBidLists());
+    public String home(@ModelAttribute("filter") SearchFilter filter,
+                       @PageableDefault(size = 50, sort = {"bidListDate", "id"}, direction = Sort.Direction.DESC) Pageable pageable,
+                       Model model) {
+        // Position lue avant la page : le flux en direct rattrape depuis elle après une reconnexion
+        long syncPosition = changeLog.position();
+        Slice<BidList> page = service.searchBidLists(filter, pageable);
+        model.addAttribute("bidLists", page.getContent());
+        model.addAttribute("page", page);
+        model.addAttribute("totalPages", SearchResult.totalPages(page));
+        model.addAttribute("syncPosition", syncPosition);
         return "bidList/list";
     }
 
@@ -59,13 +81,16 @@ public class BidListController {
      * @param bid l'objet BidList contenant les données du formulaire
      * @param result le résultat de la validation des données
      * @param model le modèle pour transmettre les erreurs à la vue
+     * @param idempotencyKey la clé rendant la création idempotente : une nouvelle
+     *                       tentative avec la même clé ne crée pas de doublon
      * @return une redirection en cas de succès, la vue précédente en cas d'erreur
      */
     @PostMapping("/bidList/validate")
-    public String validate(@Valid BidList bid, BindingResult result, Model model) {
+    public String validate(@Valid BidList bid, BindingResult result, Model model,
+                           @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey) {
         if (!result.hasErrors()) {
             try {
-                service.createBidList(bid);
+                service.createBidList(bid, idempotencyKey);
                 return "redirect:/bidList/list";
             }
             catch (Exception e) {
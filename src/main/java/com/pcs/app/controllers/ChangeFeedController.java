@@ -0,0 +1,45 @@
+package com.pcs.app.controllers;
+
+import com.pcs.app.feed.ChangeFeedService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Flux Server-Sent Events des modifications d'échanges et d'enchères.
+ *
+ * @author Poseidon Capital Solutions
+ * @version 1.0
+ * @since 1.0
+ */
+@RestController
+public class ChangeFeedController {
+
+    @Autowired
+    private ChangeFeedService service;
+
+    /**
+     * Ouvre un flux d'événements sur les sujets demandés.
+     *
+     * @param topics les sujets suivis : {@code trade}, {@code bidList}
+     * @return le flux, un événement nommé d'après le sujet par modification
+     */
+    @GetMapping(path = "/api/feed", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@RequestParam(defaultValue = "trade,bidList") Set<String> topics) {
+        return service.subscribe(topics);
+    }
+
+    /**
+     * Retourne le nombre d'abonnés, d'événements diffusés et d'abonnés déconnectés pour lenteur.
+     */
+    @GetMapping("/api/feed/stats")
+    public Map<String, Long> stats() {
+        return service.stats();
+    }
+}
@@ -0,0 +1,30 @@
+package com.pcs.app.controllers;
+
+import com.pcs.app.cache.ReadCoalescer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * API REST (JSON) de suivi du regroupement des lectures identiques.
+ *
+ * @author Poseidon Capital Solutions
+ * @version 1.0
+ * @since 1.0
+ */
+@RestController
+public class CoalescingController {
+
+    @Autowired
+    private ReadCoalescer coalescer;
+
+    /**
+     * Retourne, par méthode de service, le nombre d'appels, de requêtes exécutées et le taux de regroupement.
+     */
+    @GetMapping("/api/coalescing/stats")
+    public Map<String, Map<String, Number>> stats() {
+        return coalescer.stats();
+    }
+}
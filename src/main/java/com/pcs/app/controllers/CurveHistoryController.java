@@ -0,0 +1,45 @@
+package com.pcs.app.controllers;
+
+import com.pcs.app.history.CurveHistoryService;
+import com.pcs.app.history.CurveState;
+import com.pcs.app.history.CurveView;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+
+/**
+ * API REST (JSON) de consultation de l'historique des courbes.
+ *
+ * @author Poseidon Capital Solutions
+ * @version 1.0
+ * @since 1.0
+ */
+@RestController
+public class CurveHistoryController {
+
+    @Autowired
+    private CurveHistoryService service;
+
+    /**
+     * Retourne la courbe telle qu'elle était à une date donnée.
+     *
+     * @param curveId l'identifiant de la courbe
+     * @param asOf la date de consultation, aujourd'hui par défaut
+     * @return les points de la courbe à cette date, triés par terme
+     */
+    @GetMapping("/api/curve/{curveId}")
+    public CurveView getCurve(@PathVariable("curveId") Integer curveId,
+                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf) {
+        LocalDate date = asOf == null ? LocalDate.now() : asOf;
+        CurveState state = service.getCurveAsOf(curveId, date)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No history for curve " + curveId));
+        return CurveView.of(curveId, date, state);
+    }
+}
@@ -0,0 +1,58 @@
+package com.pcs.app.controllers;
+
+import com.pcs.app.history.CurveView;
+import com.pcs.app.ingestion.CurveIngestionService;
+import com.pcs.app.ingestion.CurveUpdate;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * API REST (JSON) d'ingestion des mises à jour de points de courbe.
+ *
+ * @author Poseidon Capital Solutions
+ * @version 1.0
+ * @since 1.0
+ */
+@RestController
+public class CurveIngestionController {
+
+    @Autowired
+    private CurveIngestionService service;
+
+    /**
+     * Met en tampon un lot de mises à jour ; elles sont écrites de façon asynchrone.
+     *
+     * @param updates les mises à jour de points de courbe
+     * @return le nombre de mises à jour acceptées
+     */
+    @PostMapping("/api/curve/updates")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public Map<String, Integer> submit(@RequestBody List<@Valid CurveUpdate> updates) {
+        return Map.of("accepted", service.submit(updates));
+    }
+
+    /**
+     * Retourne l'état courant de la courbe, incluant le dernier lot écrit.
+     *
+     * @param curveId l'identifiant de la courbe
+     * @return les points de la courbe, triés par terme
+     */
+    @GetMapping("/api/curve/{curveId}/live")
+    public CurveView getLiveCurve(@PathVariable("curveId") Integer curveId) {
+        return service.getLiveCurve(curveId)
+                .map(state -> CurveView.of(curveId, LocalDate.now(), state))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No curve " + curveId));
+    }
+}
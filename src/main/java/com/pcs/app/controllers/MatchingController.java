@@ -0,0 +1,30 @@
+package com.pcs.app.controllers;
+
+import com.pcs.app.matching.MatchingService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * API REST (JSON) de suivi de la confrontation des enchères.
+ *
+ * @author Poseidon Capital Solutions
+ * @version 1.0
+ * @since 1.0
+ */
+@RestController
+public class MatchingController {
+
+    @Autowired
+    private MatchingService service;
+
+    /**
+     * Retourne les compteurs de la confrontation : commandes, latence, lots et échanges enregistrés.
+     */
+    @GetMapping("/api/matching/stats")
+    public Map<String, Number> stats() {
+        return service.stats();
+    }
+}
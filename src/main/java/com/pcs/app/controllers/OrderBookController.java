@@ -0,0 +1,55 @@
+package com.pcs.app.controllers;
+
+import com.pcs.app.orderbook.BookDepth;
+import com.pcs.app.orderbook.OrderBookService;
+import com.pcs.app.orderbook.TopOfBook;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * API REST (JSON) des carnets d'ordres agrégés à partir des enchères.
+ *
+ * @author Poseidon Capital Solutions
+ * @version 1.0
+ * @since 1.0
+ */
+@RestController
+public class OrderBookController {
+
+    @Autowired
+    private OrderBookService service;
+
+    /**
+     * Retourne les titres ayant un carnet.
+     */
+    @GetMapping("/api/orderbook")
+    public List<String> getSecurities() {
+        return service.getSecurities();
+    }
+
+    /**
+     * Retourne les meilleurs prix d'achat et de vente d'un titre.
+     *
+     * @param security le titre
+     */
+    @GetMapping("/api/orderbook/{security}/top")
+    public TopOfBook getTopOfBook(@PathVariable String security) {
+        return service.getTopOfBook(security);
+    }
+
+    /**
+     * Retourne les meilleurs niveaux de prix de chaque côté du carnet d'un titre.
+     *
+     * @param security le titre
+     * @param depth le nombre de niveaux par côté
+     */
+    @GetMapping("/api/orderbook/{security}")
+    public BookDepth getDepth(@PathVariable String security, @RequestParam(defaultValue = "10") int depth) {
+        return service.getDepth(security, depth);
+    }
+}
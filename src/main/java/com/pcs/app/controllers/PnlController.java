@@ -0,0 +1,36 @@
+package com.pcs.app.controllers;
+
+import com.pcs.app.pnl.PnlGroup;
+import com.pcs.app.pnl.PnlGrouping;
+import com.pcs.app.pnl.PnlService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * API REST (JSON) du P&amp;L réalisé et latent des échanges.
+ *
+ * @author Poseidon Capital Solutions
+ * @version 1.0
+ * @since 1.0
+ */
+@RestController
+public class PnlController {
+
+    @Autowired
+    private PnlService service;
+
+    /**
+     * Retourne le P&amp;L des échanges, valorisés sur les courbes de leur indice de référence.
+     *
+     * @param groupBy le regroupement (BOOK, TRADER, BOOK_TRADER)
+     * @return le P&amp;L par groupe
+     */
+    @GetMapping("/api/pnl")
+    public List<PnlGroup> getPnl(@RequestParam(defaultValue = "BOOK") PnlGrouping groupBy) {
+        return service.getPnl(groupBy);
+    }
+}
@@ -0,0 +1,60 @@
+package com.pcs.app.controllers;
+
+import com.pcs.app.domain.Rating;
+import com.pcs.app.rating.RatingAgency;
+import com.pcs.app.rating.RatingEquivalence;
+import com.pcs.app.rating.RatingIndexService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * API REST (JSON) de recherche des taux sur l'échelle de notes commune aux agences.
+ *
+ * @author Poseidon Capital Solutions
+ * @version 1.0
+ * @since 1.0
+ */
+@RestController
+public class RatingScaleController {
+
+    @Autowired
+    private RatingIndexService service;
+
+    /**
+     * Retourne les taux dont la note de l'agence est comprise entre deux notes incluses,
+     * par exemple {@code ?agency=SP&worst=BBB-} pour les notes d'investissement.
+     *
+     * @param agency l'agence (MOODYS, SP, FITCH)
+     * @param best la meilleure note, optionnelle
+     * @param worst la moins bonne note, optionnelle
+     */
+    @GetMapping("/api/rating/scale")
+    public List<Rating> getRange(@RequestParam(defaultValue = "SP") RatingAgency agency,
+                                 @RequestParam(required = false) String best,
+                                 @RequestParam(required = false) String worst) {
+        return service.getRange(agency, best, worst);
+    }
+
+    /**
+     * Retourne les notes équivalentes des autres agences.
+     *
+     * @param agency l'agence de la note donnée
+     * @param symbol la note
+     */
+    @GetMapping("/api/rating/equivalent")
+    public RatingEquivalence getEquivalence(@RequestParam RatingAgency agency, @RequestParam String symbol) {
+        return service.getEquivalence(agency, symbol);
+    }
+
+    /**
+     * Retourne le nombre de taux par ordinal de note de l'agence, la case 0 comptant les taux sans note.
+     */
+    @GetMapping("/api/rating/scale/histogram")
+    public int[] getHistogram(@RequestParam(defaultValue = "SP") RatingAgency agency) {
+        return service.getHistogram(agency);
+    }
+}
@@ -0,0 +1,55 @@
+package com.pcs.app.controllers;
+
+import com.pcs.app.domain.BidList;
+import com.pcs.app.domain.SearchFilter;
+import com.pcs.app.domain.Trade;
+import com.pcs.app.reactive.ReactiveReadService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+/**
+ * API REST de lecture en flux des échanges et des enchères.
+ * <p>
+ * Les résultats sont émis au fil de la lecture (une ligne JSON par élément, ou un
+ * événement Server-Sent Events par élément), sans retenir de thread Tomcat
+ * pendant la requête.
+ * </p>
+ *
+ * @author Poseidon Capital Solutions
+ * @version 1.0
+ * @since 1.0
+ */
+@RestController
+@RequestMapping("/api/stream")
+public class ReactiveReadController {
+
+    @Autowired
+    private ReactiveReadService service;
+
+    /**
+     * Émet les échanges correspondant aux critères, par date décroissante.
+     *
+     * @param filter les critères de recherche (tous optionnels)
+     * @param limit le nombre maximal d'échanges émis
+     */
+    @GetMapping(path = "/trade", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Trade> streamTrades(SearchFilter filter, @RequestParam(required = false) Integer limit) {
+        return service.streamTrades(filter, limit);
+    }
+
+    /**
+     * Émet les enchères correspondant aux critères, par date décroissante.
+     *
+     * @param filter les critères de recherche (tous optionnels)
+     * @param limit le nombre maximal d'enchères émises
+     */
+    @GetMapping(path = "/bidList", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<BidList> streamBidLists(SearchFilter filter, @RequestParam(required = false) Integer limit) {
+        return service.streamBidLists(filter, limit);
+    }
+}
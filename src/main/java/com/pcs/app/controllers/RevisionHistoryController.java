@@ -0,0 +1,43 @@
+package com.pcs.app.controllers;
+
+import com.pcs.app.audit.BatchWriter;
+import com.pcs.app.audit.RevisionHistoryService;
+import com.pcs.app.domain.RevisionRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * API REST (JSON) de consultation de l'historique des révisions des échanges et des enchères.
+ *
+ * @author Poseidon Capital Solutions
+ * @version 1.0
+ * @since 1.0
+ */
+@RestController
+public class RevisionHistoryController {
+
+    @Autowired
+    private RevisionHistoryService service;
+
+    /**
+     * Retourne les révisions d'une entité, de la plus ancienne à la plus récente.
+     *
+     * @param entityType {@code Trade} ou {@code BidList}
+     */
+    @GetMapping("/api/revision/{entityType}/{id}")
+    public List<RevisionRecord> history(@PathVariable String entityType, @PathVariable int id) {
+        return service.history(entityType, id);
+    }
+
+    /**
+     * Retourne les compteurs de l'écriture asynchrone de l'historique.
+     */
+    @GetMapping("/api/revision/stats")
+    public BatchWriter.Stats stats() {
+        return service.stats();
+    }
+}
@@ -0,0 +1,44 @@
+package com.pcs.app.controllers;
+
+import com.pcs.app.rules.RuleEngineService;
+import com.pcs.app.rules.RuleMatches;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * API REST (JSON) d'évaluation des règles compilées.
+ *
+ * @author Poseidon Capital Solutions
+ * @version 1.0
+ * @since 1.0
+ */
+@RestController
+public class RuleEngineController {
+
+    @Autowired
+    private RuleEngineService service;
+
+    /**
+     * Évalue une règle sur tous les échanges ou toutes les enchères, selon son type d'entité.
+     *
+     * @param id l'identifiant de la règle
+     * @return les identifiants des entités retenues
+     */
+    @GetMapping("/api/rule/{id}/matches")
+    public RuleMatches evaluate(@PathVariable Integer id) {
+        return service.evaluate(id);
+    }
+
+    /**
+     * Retourne, par règle, la version compilée, l'erreur éventuelle et le coût des évaluations.
+     */
+    @GetMapping("/api/rule/stats")
+    public List<Map<String, Object>> stats() {
+        return service.stats();
+    }
+}
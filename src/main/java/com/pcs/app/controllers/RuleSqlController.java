@@ -0,0 +1,56 @@
+package com.pcs.app.controllers;
+
+import com.pcs.app.rules.ResultFormat;
+import com.pcs.app.rules.RuleSqlService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * API REST d'exécution des requêtes SQL enregistrées dans les règles.
+ *
+ * @author Poseidon Capital Solutions
+ * @version 1.0
+ * @since 1.0
+ */
+@RestController
+public class RuleSqlController {
+
+    @Autowired
+    private RuleSqlService service;
+
+    /**
+     * Exécute la requête d'une règle en lecture seule et en transmet les lignes au fur et à mesure.
+     *
+     * @param id l'identifiant de la règle
+     * @param format le format de sortie (JSON, CSV)
+     * @param parameters les valeurs des paramètres nommés de la requête
+     */
+    @GetMapping("/api/rule/{id}/execute")
+    public ResponseEntity<StreamingResponseBody> execute(@PathVariable Integer id,
+                                                         @RequestParam(defaultValue = "JSON") ResultFormat format,
+                                                         @RequestParam Map<String, String> parameters) {
+        Map<String, String> values = new HashMap<>(parameters);
+        values.remove("format");
+        RuleSqlService.Execution execution = service.prepare(id, values, format);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(execution.format().mediaType()))
+                .body(execution::writeTo);
+    }
+
+    /**
+     * Retourne les compteurs d'exécution des requêtes de règles.
+     */
+    @GetMapping("/api/rule/sql/stats")
+    public Map<String, Number> stats() {
+        return service.stats();
+    }
+}
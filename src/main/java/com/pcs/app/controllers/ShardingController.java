@@ -0,0 +1,72 @@
+package com.pcs.app.controllers;
+
+import com.pcs.app.sharding.ShardingService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * API REST (JSON) de suivi et de rééquilibrage de la répartition des échanges
+ * et des enchères entre plusieurs bases.
+ *
+ * @author Poseidon Capital Solutions
+ * @version 1.0
+ * @since 1.0
+ */
+@RestController
+public class ShardingController {
+
+    @Autowired
+    private ShardingService service;
+
+    /**
+     * Retourne le nombre de paquets et de lignes de chaque base.
+     */
+    @GetMapping("/api/sharding")
+    public Map<String, Object> stats() {
+        return service.stats();
+    }
+
+    /**
+     * Répartit les paquets entre les bases configurées ; réservé aux administrateurs.
+     */
+    @PostMapping("/api/sharding/rebalance")
+    public Map<String, Object> rebalance() {
+        return enabledService().rebalance();
+    }
+
+    /**
+     * Somme une colonne des échanges par valeur d'une autre colonne, sur toutes les bases.
+     *
+     * @param groupBy la colonne de regroupement, par exemple {@code account}
+     * @param value la colonne numérique sommée, par exemple {@code buy_quantity}
+     * @return pour chaque valeur de regroupement, la somme et le nombre d'échanges
+     */
+    @GetMapping("/api/sharding/trade/sum")
+    public Map<String, Map<String, Number>> sumTrades(@RequestParam String groupBy, @RequestParam String value) {
+        Map<String, double[]> totals;
+        try {
+            totals = enabledService().trades().sumBy(groupBy, value);
+        }
+        catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        Map<String, Map<String, Number>> result = new TreeMap<>();
+        totals.forEach((group, total) -> result.put(String.valueOf(group), Map.of("sum", total[0], "count", (long) total[1])));
+        return result;
+    }
+
+    private ShardingService enabledService() {
+        if (!service.enabled()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Sharding is disabled");
+        }
+        return service;
+    }
+}
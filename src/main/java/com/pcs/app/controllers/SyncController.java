@@ -0,0 +1,40 @@
+package com.pcs.app.controllers;
+
+import com.pcs.app.sync.ChangeLogService;
+import com.pcs.app.sync.ChangePage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Set;
+
+/**
+ * API REST (JSON) de synchronisation incrémentale des entités.
+ *
+ * @author Poseidon Capital Solutions
+ * @version 1.0
+ * @since 1.0
+ */
+@RestController
+public class SyncController {
+
+    @Autowired
+    private ChangeLogService service;
+
+    /**
+     * Retourne les modifications postérieures à une séquence, suppressions comprises.
+     *
+     * @param since la séquence {@code next} de la réponse précédente, 0 au premier appel
+     * @param limit le nombre maximal de modifications lues
+     * @param types les types d'entité suivis ({@code Trade}, {@code BidList}, {@code CurvePoint},
+     *              {@code Rating}, {@code RuleName}), tous par défaut
+     * @return la page de modifications et la séquence à utiliser pour la suivante
+     */
+    @GetMapping("/api/sync")
+    public ChangePage changes(@RequestParam(defaultValue = "0") long since,
+                              @RequestParam(defaultValue = "500") int limit,
+                              @RequestParam(required = false) Set<String> types) {
+        return service.changesSince(since, limit, types == null ? Set.of() : types);
+    }
+}
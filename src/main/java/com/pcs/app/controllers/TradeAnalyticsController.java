@@ -0,0 +1,42 @@
+package com.pcs.app.controllers;
+
+import com.pcs.app.analytics.TradeAnalyticsService;
+import com.pcs.app.analytics.TradeDimension;
+import com.pcs.app.analytics.TradeGroupStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * API REST (JSON) d'agrégation des échanges, servie depuis la copie en colonnes.
+ *
+ * @author Poseidon Capital Solutions
+ * @version 1.0
+ * @since 1.0
+ */
+@RestController
+public class TradeAnalyticsController {
+
+    @Autowired
+    private TradeAnalyticsService service;
+
+    /**
+     * Regroupe les échanges selon une dimension.
+     *
+     * @param groupBy la dimension de regroupement (ACCOUNT, SECURITY, BOOK, TRADER)
+     * @param from la première date d'échange incluse, optionnelle
+     * @param to la dernière date d'échange incluse, optionnelle
+     * @return les agrégats par valeur de la dimension
+     */
+    @GetMapping("/api/trade/analytics")
+    public List<TradeGroupStats> aggregate(@RequestParam(defaultValue = "BOOK") TradeDimension groupBy,
+                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return service.aggregate(groupBy, from, to);
+    }
+}
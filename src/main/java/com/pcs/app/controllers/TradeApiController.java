@@ -0,0 +1,41 @@
+package com.pcs.app.controllers;
+
+import com.pcs.app.domain.SearchFilter;
+import com.pcs.app.domain.SearchResult;
+import com.pcs.app.domain.Trade;
+import com.pcs.app.service.TradeService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * API REST (JSON) de consultation des échanges (Trade).
+ *
+ * @author Poseidon Capital Solutions
+ * @version 1.0
+ * @since 1.0
+ */
+@RestController
+@RequestMapping("/api/trade")
+public class TradeApiController {
+
+    @Autowired
+    private TradeService service;
+
+    /**
+     * Recherche paginée des échanges.
+     *
+     * @param filter les critères de recherche (tous optionnels)
+     * @param pageable la page demandée, triée par défaut par date décroissante
+     * @return la page d'échanges correspondant aux critères
+     */
+    @GetMapping
+    public SearchResult<Trade> search(SearchFilter filter,
+                                    @PageableDefault(size = 50, sort = {"tradeDate", "id"}, direction = Sort.Direction.DESC) Pageable pageable) {
+        return SearchResult.of(service.searchTrades(filter, pageable));
+    }
+}
@@ -0,0 +1,61 @@
+package com.pcs.app.controllers;
+
+import com.pcs.app.archive.TradeArchiveService;
+import com.pcs.app.domain.Trade;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * API REST (JSON) de consultation des échanges archivés.
+ *
+ * @author Poseidon Capital Solutions
+ * @version 1.0
+ * @since 1.0
+ */
+@RestController
+public class TradeArchiveController {
+
+    @Autowired
+    private TradeArchiveService service;
+
+    /**
+     * Retourne les échanges archivés, par date d'échange croissante.
+     *
+     * @param from la première date d'échange incluse, optionnelle
+     * @param to la dernière date d'échange incluse, optionnelle
+     * @param limit le nombre maximal d'échanges retournés
+     */
+    @GetMapping("/api/archive/trade")
+    public List<Trade> findArchived(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                    @RequestParam(defaultValue = "1000") int limit) {
+        if (limit <= 0 || limit > 100_000) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and 100000");
+        }
+        return service.findArchived(from, to, limit);
+    }
+
+    @GetMapping("/api/archive/trade/{id}")
+    public Trade findArchivedById(@PathVariable int id) {
+        return service.findArchivedById(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No archived trade with given id"));
+    }
+
+    /**
+     * Retourne les compteurs de l'archive : segments, échanges et taille sur disque.
+     */
+    @GetMapping("/api/archive/stats")
+    public Map<String, Number> stats() {
+        return service.stats();
+    }
+}
@@ -1,15 +1,26 @@
 package com.pcs.app.controllers;
 
+import com.pcs.app.domain.SearchFilter;
+import com.pcs.app.domain.SearchResult;
 import com.pcs.app.domain.Trade;
 import com.pcs.app.service.TradeService;
+import com.pcs.app.sync.ChangeLogService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
+import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.InitBinder;
+import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 
 
@@ -30,16 +41,40 @@ public class TradeController {
     @Autowired
     private TradeService service;
 
+    @Autowired
+    private ChangeLogService changeLog;
+
+    /**
+     * Interdit aux formulaires de renseigner l'origine d'un échange : le type d'affaire
+     * et les enchères sources sont réservés aux échanges produits par la confrontation.
+     *
+     * @param binder le lien entre les paramètres de la requête et l'échange
+     */
+    @InitBinder("trade")
+    public void initBinder(WebDataBinder binder) {
+        binder.setDisallowedFields("dealType", "sourceListId");
+    }
+
     /**
-     * Affiche la liste de tous les échanges.
+     * Affiche la liste paginée des échanges, filtrée selon les critères saisis.
      *
+     * @param filter les critères de recherche (tous optionnels)
+     * @param pageable la page demandée, triée par défaut par date décroissante
      * @param model le modèle Spring MVC pour transmettre les données à la vue
      * @return le nom de la vue pour afficher la liste des échanges
      */
     @RequestMapping("/trade/list")
-    public String home(Model model)
+    public String home(@ModelAttribute("filter") SearchFilter filter,
+                       @PageableDefault(size = 50, sort = {"tradeDate", "id"}, direction = Sort.Direction.DESC) Pageable pageable,
+                       Model model)
     {
-        model.addAttribute("trades", service.getAllTrades());
+        // Position lue avant la page : le flux en direct rattrape depuis elle après une reconnexion
+        long syncPosition = changeLog.position();
+        Slice<Trade> page = service.searchTrades(filter, pageable);
+        model.addAttribute("trades", page.getContent());
+        model.addAttribute("page", page);
+        model.addAttribute("totalPages", SearchResult.totalPages(page));
+        model.addAttribute("syncPosition", syncPosition);
         return "trade/list";
     }
 
@@ -60,13 +95,16 @@ public class TradeController {
      * @param trade l'objet Trade contenant les données du formulaire
      * @param result le résultat de la validation des données
      * @param model le modèle pour transmettre les erreurs à la vue
+     * @param idempotencyKey la clé rendant la création idempotente : une nouvelle
+     *                       tentative avec la même clé ne crée pas de doublon
      * @return une redirection en cas de succès, la vue précédente en cas d'erreur
      */
     @PostMapping("/trade/validate")
-    public String validate(@Valid Trade trade, BindingResult result, Model model) {
+    public String validate(@Valid Trade trade, BindingResult result, Model model,
+                           @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey) {
         if (!result.hasErrors()) {
             try {
-                service.createTrade(trade);
+                service.createTrade(trade, idempotencyKey);
                 return "redirect:/trade/list";
             }
             catch (Exception e) {
@@ -0,0 +1,29 @@
+package com.pcs.app.controllers;
+
+import com.pcs.app.groupcommit.GroupCommitter;
+import com.pcs.app.groupcommit.TradeGroupCommitService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * API REST (JSON) de suivi de la validation groupée des créations d'échanges.
+ *
+ * @author Poseidon Capital Solutions
+ * @version 1.0
+ * @since 1.0
+ */
+@RestController
+public class TradeGroupCommitController {
+
+    @Autowired
+    private TradeGroupCommitService service;
+
+    /**
+     * Retourne les compteurs du regroupement : échanges validés, lots, échecs et plus grand lot.
+     */
+    @GetMapping("/api/trade/group-commit/stats")
+    public GroupCommitter.Stats stats() {
+        return service.stats();
+    }
+}
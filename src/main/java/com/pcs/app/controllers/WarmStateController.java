@@ -0,0 +1,39 @@
+package com.pcs.app.controllers;
+
+import com.pcs.app.warmstate.WarmStateService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * API REST (JSON) de suivi de l'instantané des caches relu au démarrage.
+ *
+ * @author Poseidon Capital Solutions
+ * @version 1.0
+ * @since 1.0
+ */
+@RestController
+public class WarmStateController {
+
+    @Autowired
+    private WarmStateService service;
+
+    /**
+     * Retourne les caches sauvegardés, le bilan de leur restauration et celui du dernier instantané.
+     */
+    @GetMapping("/api/warm-state")
+    public Map<String, Object> stats() {
+        return service.stats();
+    }
+
+    /**
+     * Écrit immédiatement un instantané des caches ; réservé aux administrateurs.
+     */
+    @PostMapping("/api/warm-state/snapshot")
+    public Map<String, Object> snapshot() {
+        return service.snapshot();
+    }
+}
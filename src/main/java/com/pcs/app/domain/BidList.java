@@ -1,9 +1,15 @@
 package com.pcs.app.domain;
 
+import com.pcs.app.audit.AuditFieldsListener;
+import com.pcs.app.audit.Audited;
+import com.pcs.app.strings.SharedStringsListener;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Positive;
@@ -24,8 +30,16 @@ import java.sql.Timestamp;
 @Getter
 @Setter
 @Entity
-@Table(name = "bidlist")
-public class BidList {
+@EntityListeners({AuditFieldsListener.class, SharedStringsListener.class})
+@Table(name = "bidlist", indexes = {
+        @Index(name = "idx_bidlist_account_date", columnList = "account, bidListDate"),
+        @Index(name = "idx_bidlist_security_date", columnList = "security, bidListDate"),
+        @Index(name = "idx_bidlist_trader_date", columnList = "trader, bidListDate"),
+        @Index(name = "idx_bidlist_book_date", columnList = "book, bidListDate"),
+        @Index(name = "idx_bidlist_status_side_date", columnList = "status, side, bidListDate"),
+        @Index(name = "idx_bidlist_date", columnList = "bidListDate")
+})
+public class BidList implements Audited {
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
     private Integer id;
@@ -45,7 +59,9 @@ public class BidList {
     private String status;
     private String trader;
     private String book;
+    @Column(updatable = false)
     private String creationName;
+    @Column(updatable = false)
     private Timestamp creationDate;
     private String revisionName;
     private Timestamp revisionDate;
@@ -0,0 +1,57 @@
+package com.pcs.app.domain;
+
+import com.pcs.app.events.ChangeType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.sql.Timestamp;
+
+/**
+ * Entrée du journal des modifications servant à la synchronisation incrémentale.
+ * <p>
+ * Chaque écriture d'une entité, suppression comprise, ajoute une entrée dans la
+ * même transaction ; {@code seq} est croissant dans l'ordre des insertions.
+ * </p>
+ *
+ * @author Poseidon Capital Solutions
+ * @version 1.0
+ * @since 1.0
+ */
+@NoArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "change_log", indexes = {
+        @Index(name = "idx_change_log_date", columnList = "changedAt")
+})
+public class ChangeLogEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long seq;
+    @Column(nullable = false, length = 32)
+    private String entityType;
+    @Column(nullable = false)
+    private Integer entityId;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8)
+    private ChangeType changeType;
+    @Column(nullable = false)
+    private Timestamp changedAt;
+
+    public ChangeLogEntry(String entityType, Integer entityId, ChangeType changeType, Timestamp changedAt) {
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.changeType = changeType;
+        this.changedAt = changedAt;
+    }
+}
@@ -0,0 +1,91 @@
+package com.pcs.app.domain;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Stocke un texte compressé en DEFLATE.
+ * <p>
+ * Le premier octet indique le format : 0 pour un texte court gardé tel quel en
+ * UTF-8, 1 pour un texte compressé.
+ * </p>
+ *
+ * @author Poseidon Capital Solutions
+ * @version 1.0
+ * @since 1.0
+ */
+@Converter
+public class CompressedTextConverter implements AttributeConverter<String, byte[]> {
+
+    private static final byte STORED = 0;
+    private static final byte DEFLATED = 1;
+    private static final int MIN_COMPRESSED_LENGTH = 256;
+
+    @Override
+    public byte[] convertToDatabaseColumn(String text) {
+        if (text == null) {
+            return null;
+        }
+        byte[] raw = text.getBytes(StandardCharsets.UTF_8);
+        if (raw.length >= MIN_COMPRESSED_LENGTH) {
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try {
+                deflater.setInput(raw);
+                deflater.finish();
+                ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 4 + 16);
+                out.write(DEFLATED);
+                byte[] buffer = new byte[4096];
+                while (!deflater.finished()) {
+                    out.write(buffer, 0, deflater.deflate(buffer));
+                }
+                if (out.size() < raw.length) {
+                    return out.toByteArray();
+                }
+            }
+            finally {
+                deflater.end();
+            }
+        }
+        byte[] stored = new byte[raw.length + 1];
+        stored[0] = STORED;
+        System.arraycopy(raw, 0, stored, 1, raw.length);
+        return stored;
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] data) {
+        if (data == null || data.length == 0) {
+            return null;
+        }
+        if (data[0] == STORED) {
+            return new String(data, 1, data.length - 1, StandardCharsets.UTF_8);
+        }
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data, 1, data.length - 1);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 4);
+            byte[] buffer = new byte[4096];
+            while (!inflater.finished()) {
+                int count = inflater.inflate(buffer);
+                if (count == 0 && !inflater.finished() && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("Truncated compressed text");
+                }
+                out.write(buffer, 0, count);
+            }
+            return out.toString(StandardCharsets.UTF_8);
+        }
+        catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupted compressed text: " + Arrays.toString(Arrays.copyOf(data, 8)), e);
+        }
+        finally {
+            inflater.end();
+        }
+    }
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotBlank;
 import lombok.Getter;
@@ -24,7 +25,9 @@ import java.sql.Timestamp;
 @Getter
 @Setter
 @Entity
-@Table(name = "curvepoint")
+@Table(name = "curvepoint", indexes = {
+        @Index(name = "idx_curvepoint_curve_term", columnList = "curveId, term")
+})
 public class CurvePoint {
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
@@ -0,0 +1,51 @@
+package com.pcs.app.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+
+/**
+ * Instantané journalier d'une courbe.
+ * <p>
+ * Un instantané de profondeur 0 contient la courbe complète ; les suivants ne
+ * contiennent que les différences avec le jour précédent. Le contenu est
+ * compressé dans {@code payload}.
+ * </p>
+ *
+ * @author Poseidon Capital Solutions
+ * @version 1.0
+ * @since 1.0
+ */
+@NoArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "curve_snapshot", uniqueConstraints =
+        @UniqueConstraint(name = "uk_curve_snapshot_curve_date", columnNames = {"curveId", "asOfDate"}))
+public class CurveSnapshot {
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private Integer id;
+    @Column(nullable = false)
+    private Integer curveId;
+    @Column(nullable = false)
+    private LocalDate asOfDate;
+    private Integer version;
+    private Integer depth;
+    private Integer pointCount;
+    @Lob
+    @Column(length = 65535)
+    private byte[] payload;
+    private Timestamp creationDate;
+}
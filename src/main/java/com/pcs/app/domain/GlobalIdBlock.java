@@ -0,0 +1,31 @@
+package com.pcs.app.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Prochain identifiant libre d'une table répartie entre plusieurs bases ; les
+ * instances de l'application en réservent des blocs. La table, tenue par la base
+ * principale, est lue et écrite en JDBC par {@link com.pcs.app.sharding.ShardingService}.
+ *
+ * @author Poseidon Capital Solutions
+ * @version 1.0
+ * @since 1.0
+ */
+@NoArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "global_id")
+public class GlobalIdBlock {
+    @Id
+    @Column(length = 32)
+    private String name;
+    @Column(nullable = false)
+    private Long nextValue;
+}
@@ -0,0 +1,53 @@
+package com.pcs.app.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Session HTTP partagée entre les instances de l'application.
+ * <p>
+ * Les dates sont en millisecondes depuis l'epoch ; les attributs de la session
+ * sont sérialisés dans {@code attributes}. {@code version} avance à chaque
+ * écriture des attributs, pour qu'une instance n'écrase pas ceux écrits par une autre. La table est lue et écrite en JDBC par
+ * {@link com.pcs.app.session.CachingJdbcSessionRepository}.
+ * </p>
+ *
+ * @author Poseidon Capital Solutions
+ * @version 1.0
+ * @since 1.0
+ */
+@NoArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "http_session", indexes = {
+        @Index(name = "idx_http_session_expiry", columnList = "expiryTime"),
+        @Index(name = "idx_http_session_principal", columnList = "principalName")
+})
+public class HttpSessionRecord {
+    @Id
+    @Column(length = 64)
+    private String sessionId;
+    @Column(length = 125)
+    private String principalName;
+    @Column(nullable = false)
+    private Long creationTime;
+    @Column(nullable = false)
+    private Long lastAccessTime;
+    @Column(nullable = false)
+    private Integer maxInactiveInterval;
+    @Column(nullable = false)
+    private Long expiryTime;
+    @Lob
+    @Column(length = 16777215)
+    private byte[] attributes;
+    @Column(nullable = false)
+    private Long version;
+}
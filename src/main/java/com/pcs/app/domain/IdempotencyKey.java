@@ -0,0 +1,47 @@
+package com.pcs.app.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.sql.Timestamp;
+
+/**
+ * Clé d'idempotence d'une création, enregistrée dans la transaction de l'insertion.
+ * <p>
+ * {@code id} est la clé reçue dans l'en-tête {@code Idempotency-Key}, préfixée du
+ * type d'entité créée et du nom de l'utilisateur. {@code requestHash} est le
+ * condensé SHA-256 de l'entité reçue par la première requête.
+ * </p>
+ *
+ * @author Poseidon Capital Solutions
+ * @version 1.0
+ * @since 1.0
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "idempotency_key", indexes = {
+        @Index(name = "idx_idempotency_key_date", columnList = "creationDate")
+})
+public class IdempotencyKey {
+    @Id
+    @Column(length = 200)
+    private String id;
+    @Column(nullable = false, length = 32)
+    private String entityType;
+    @Column(nullable = false)
+    private Integer entityId;
+    @Column(length = 64)
+    private String requestHash;
+    @Column(nullable = false)
+    private Timestamp creationDate;
+}
@@ -0,0 +1,66 @@
+package com.pcs.app.domain;
+
+import com.pcs.app.events.ChangeType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.sql.Timestamp;
+
+/**
+ * Révision d'une entité auditée : l'état complet de l'entité après chaque
+ * création ou modification, et la trace de sa suppression.
+ * <p>
+ * L'état est enregistré en JSON compressé ; il est nul pour une suppression.
+ * </p>
+ *
+ * @author Poseidon Capital Solutions
+ * @version 1.0
+ * @since 1.0
+ */
+@NoArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "revision_history", indexes = {
+        @Index(name = "idx_revision_history_entity", columnList = "entityType, entityId")
+})
+public class RevisionRecord {
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private Long id;
+    @Column(nullable = false, length = 32)
+    private String entityType;
+    @Column(nullable = false)
+    private Integer entityId;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8)
+    private ChangeType changeType;
+    private String changedBy;
+    @Column(nullable = false)
+    private Timestamp changedAt;
+    @Lob
+    @Convert(converter = CompressedTextConverter.class)
+    private String state;
+
+    public RevisionRecord(String entityType, Integer entityId, ChangeType changeType, String changedBy,
+                          Timestamp changedAt, String state) {
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.changeType = changeType;
+        this.changedBy = changedBy;
+        this.changedAt = changedAt;
+        this.state = state;
+    }
+}
@@ -1,17 +1,28 @@
 package com.pcs.app.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.CascadeType;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotBlank;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 /**
  * Modèle (MVC) de nom de règle.
+ * <p>
+ * Les textes volumineux (JSON, modèle, requête SQL) sont portés par
+ * {@link RuleNameText}, chargé à la première lecture de l'un d'eux : la liste
+ * des règles ne lit que la table {@code rulename}.
+ * </p>
  *
  * @author Poseidon Capital Solutions
  * @version 1.0
@@ -31,20 +42,54 @@ public class RuleName {
     @NotBlank
     private String description;
     @NotBlank
-    private String json;
-    @NotBlank
-    private String template;
-    @NotBlank
-    private String sqlStr;
-    @NotBlank
     private String sqlPart;
+    @OneToOne(fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
+    @JoinColumn(name = "text_id")
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private RuleNameText text;
 
     public RuleName(String name, String description, String json, String template, String sqlStr, String sqlPart) {
         this.name = name;
         this.description = description;
-        this.json = json;
-        this.template = template;
-        this.sqlStr = sqlStr;
         this.sqlPart = sqlPart;
+        setJson(json);
+        setTemplate(template);
+        setSqlStr(sqlStr);
+    }
+
+    @NotBlank
+    public String getJson() {
+        return text == null ? null : text.getJson();
+    }
+
+    public void setJson(String json) {
+        text().setJson(json);
+    }
+
+    @NotBlank
+    public String getTemplate() {
+        return text == null ? null : text.getTemplate();
+    }
+
+    public void setTemplate(String template) {
+        text().setTemplate(template);
+    }
+
+    @NotBlank
+    public String getSqlStr() {
+        return text == null ? null : text.getSqlStr();
+    }
+
+    public void setSqlStr(String sqlStr) {
+        text().setSqlStr(sqlStr);
+    }
+
+    private RuleNameText text() {
+        if (text == null) {
+            text = new RuleNameText();
+        }
+        return text;
     }
 }
@@ -0,0 +1,40 @@
+package com.pcs.app.domain;
+
+import jakarta.persistence.Convert;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Textes volumineux d'un nom de règle (JSON, modèle, requête SQL), stockés
+ * compressés hors de la table {@code rulename} et chargés à la demande.
+ *
+ * @author Poseidon Capital Solutions
+ * @version 1.0
+ * @since 1.0
+ */
+@NoArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "rulename_text")
+public class RuleNameText {
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private Integer id;
+    @Lob
+    @Convert(converter = CompressedTextConverter.class)
+    private String json;
+    @Lob
+    @Convert(converter = CompressedTextConverter.class)
+    private String template;
+    @Lob
+    @Convert(converter = CompressedTextConverter.class)
+    private String sqlStr;
+}
@@ -0,0 +1,39 @@
+package com.pcs.app.domain;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * Critères de recherche communs aux listes d'offres (BidList) et d'échanges (Trade).
+ * <p>
+ * Tous les critères sont optionnels ; un critère vide n'est pas appliqué.
+ * Les champs texte sont comparés par égalité afin de pouvoir exploiter les index.
+ * </p>
+ *
+ * @author Poseidon Capital Solutions
+ * @version 1.0
+ * @since 1.0
+ */
+@NoArgsConstructor
+@Getter
+@Setter
+@EqualsAndHashCode
+public class SearchFilter {
+    private String account;
+    private String security;
+    private String trader;
+    private String book;
+    private String status;
+    private String side;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate fromDate;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate toDate;
+    private Double minQuantity;
+    private Double maxQuantity;
+}
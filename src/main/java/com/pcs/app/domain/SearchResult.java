@@ -0,0 +1,42 @@
+package com.pcs.app.domain;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+
+/**
+ * Page de résultats d'une recherche, renvoyée en JSON.
+ * <p>
+ * Les totaux ne sont calculés et renvoyés que pour la première page ; les pages
+ * suivantes indiquent seulement s'il en reste une après elles.
+ * </p>
+ *
+ * @author Poseidon Capital Solutions
+ * @version 1.0
+ * @since 1.0
+ */
+public record SearchResult<T>(List<T> content, Metadata page) {
+
+    /**
+     * Position de la page dans les résultats.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Metadata(int size, int number, boolean hasNext, Long totalElements, Integer totalPages) {
+    }
+
+    public static <T> SearchResult<T> of(Slice<T> slice) {
+        Long totalElements = slice instanceof Page<T> page ? page.getTotalElements() : null;
+        Integer totalPages = slice instanceof Page<T> page ? page.getTotalPages() : null;
+        return new SearchResult<>(slice.getContent(),
+                new Metadata(slice.getSize(), slice.getNumber(), slice.hasNext(), totalElements, totalPages));
+    }
+
+    /**
+     * @return le nombre de pages, nul si la page ne l'a pas compté
+     */
+    public static Integer totalPages(Slice<?> slice) {
+        return slice instanceof Page<?> page ? page.getTotalPages() : null;
+    }
+}
@@ -0,0 +1,32 @@
+package com.pcs.app.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Base propriétaire d'un paquet de comptes, lorsque les échanges et les enchères
+ * sont répartis entre plusieurs bases. La table, tenue par la base principale,
+ * est lue et écrite en JDBC par {@link com.pcs.app.sharding.ShardingService}.
+ *
+ * @author Poseidon Capital Solutions
+ * @version 1.0
+ * @since 1.0
+ */
+@NoArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "shard_bucket")
+public class ShardBucket {
+    @Id
+    private Integer bucket;
+    @Column(nullable = false)
+    private Integer shard;
+    @Column(nullable = false)
+    private Long version;
+}
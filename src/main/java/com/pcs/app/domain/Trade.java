@@ -1,9 +1,15 @@
 package com.pcs.app.domain;
 
+import com.pcs.app.audit.AuditFieldsListener;
+import com.pcs.app.audit.Audited;
+import com.pcs.app.strings.SharedStringsListener;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotBlank;
 import lombok.Getter;
@@ -24,8 +30,16 @@ import java.sql.Timestamp;
 @Getter
 @Setter
 @Entity
-@Table(name = "trade")
-public class Trade {
+@EntityListeners({AuditFieldsListener.class, SharedStringsListener.class})
+@Table(name = "trade", indexes = {
+        @Index(name = "idx_trade_account_date", columnList = "account, tradeDate"),
+        @Index(name = "idx_trade_security_date", columnList = "security, tradeDate"),
+        @Index(name = "idx_trade_trader_date", columnList = "trader, tradeDate"),
+        @Index(name = "idx_trade_book_date", columnList = "book, tradeDate"),
+        @Index(name = "idx_trade_status_side_date", columnList = "status, side, tradeDate"),
+        @Index(name = "idx_trade_date", columnList = "tradeDate")
+})
+public class Trade implements Audited {
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
     Integer id;
@@ -44,7 +58,9 @@ public class Trade {
     String status;
     String trader;
     String book;
+    @Column(updatable = false)
     String creationName;
+    @Column(updatable = false)
     Timestamp creationDate;
     String revisionName;
     Timestamp revisionDate;
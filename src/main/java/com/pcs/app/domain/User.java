@@ -1,5 +1,6 @@
 package com.pcs.app.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -37,6 +38,7 @@ public class User implements UserDetails {
     @NotBlank(message = "Username is mandatory")
     private String username;
     @Length(min = 8, message = "Password must be at least 8 characters")
+    @JsonIgnore
     private String password;
     @NotBlank(message = "FullName is mandatory")
     private String fullname;
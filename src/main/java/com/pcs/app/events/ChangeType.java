@@ -0,0 +1,23 @@
+package com.pcs.app.events;
+
+/**
+ * Nature d'une modification d'entité.
+ * <p>
+ * {@link #ARCHIVE} signale une entité sortie de la base vers l'archive : elle
+ * quitte les caches comme une suppression, mais n'a pas été supprimée par un
+ * utilisateur.
+ * </p>
+ */
+public enum ChangeType {
+    CREATE,
+    UPDATE,
+    DELETE,
+    ARCHIVE;
+
+    /**
+     * Indique si l'entité ne se trouve plus en base après la modification.
+     */
+    public boolean removes() {
+        return this == DELETE || this == ARCHIVE;
+    }
+}
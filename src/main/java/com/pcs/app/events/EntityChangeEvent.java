@@ -0,0 +1,55 @@
+package com.pcs.app.events;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.ResolvableTypeProvider;
+
+/**
+ * Événement publié par les services après chaque écriture d'une entité.
+ * <p>
+ * Pour une suppression, {@code entity} porte le dernier état connu quand le service
+ * l'a chargé, et est nul sinon ; les consommateurs qui ont besoin de l'état
+ * précédent ne doivent donc pas compter dessus. De même, {@code previous} ne porte
+ * l'état d'avant une mise à jour que pour les services qui le publient.
+ * Le type générique est exposé à Spring afin de pouvoir écouter
+ * {@code EntityChangeEvent<Trade>} uniquement.
+ * </p>
+ *
+ * @param entityType la classe de l'entité modifiée
+ * @param changeType la nature de la modification
+ * @param id l'identifiant de l'entité
+ * @param entity l'état de l'entité après écriture, ou le dernier état connu pour une suppression ou un archivage
+ * @param previous l'état de l'entité avant une mise à jour, ou nul
+ * @param <T> le type de l'entité
+ */
+public record EntityChangeEvent<T>(Class<T> entityType, ChangeType changeType, Integer id, T entity, T previous)
+        implements ResolvableTypeProvider {
+
+    public static <T> EntityChangeEvent<T> created(Class<T> entityType, Integer id, T entity) {
+        return new EntityChangeEvent<>(entityType, ChangeType.CREATE, id, entity, null);
+    }
+
+    public static <T> EntityChangeEvent<T> updated(Class<T> entityType, Integer id, T entity) {
+        return new EntityChangeEvent<>(entityType, ChangeType.UPDATE, id, entity, null);
+    }
+
+    public static <T> EntityChangeEvent<T> updated(Class<T> entityType, Integer id, T entity, T previous) {
+        return new EntityChangeEvent<>(entityType, ChangeType.UPDATE, id, entity, previous);
+    }
+
+    public static <T> EntityChangeEvent<T> deleted(Class<T> entityType, Integer id) {
+        return new EntityChangeEvent<>(entityType, ChangeType.DELETE, id, null, null);
+    }
+
+    public static <T> EntityChangeEvent<T> deleted(Class<T> entityType, Integer id, T previous) {
+        return new EntityChangeEvent<>(entityType, ChangeType.DELETE, id, previous, null);
+    }
+
+    public static <T> EntityChangeEvent<T> archived(Class<T> entityType, Integer id, T archived) {
+        return new EntityChangeEvent<>(entityType, ChangeType.ARCHIVE, id, archived, null);
+    }
+
+    @Override
+    public ResolvableType getResolvableType() {
+        return ResolvableType.forClassWithGenerics(getClass(), ResolvableType.forClass(entityType));
+    }
+}
@@ -0,0 +1,227 @@
+package com.pcs.app.feed;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pcs.app.domain.BidList;
+import com.pcs.app.domain.Trade;
+import com.pcs.app.events.EntityChangeEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Diffuse en Server-Sent Events les modifications d'échanges et d'enchères.
+ * <p>
+ * Chaque événement est sérialisé une seule fois puis déposé sans attente dans la
+ * file bornée de chaque abonné. Une file non vide est vidée vers son client par
+ * un thread qui lui est propre le temps de l'envoi : un client lent ne bloque que
+ * son propre envoi. Un abonné dont la file est pleine, ou dont un envoi dure plus
+ * de {@code app.feed.send-timeout-ms}, est déconnecté ; son navigateur se
+ * reconnecte puis rattrape les modifications manquées par l'API de
+ * synchronisation. Un commentaire de battement de cœur est envoyé
+ * périodiquement pour garder les connexions ouvertes.
+ * </p>
+ */
+@Slf4j
+@Service
+public class ChangeFeedService {
+
+    private static final Map<Class<?>, String> TOPICS = Map.of(Trade.class, "trade", BidList.class, "bidList");
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final long timeoutMs;
+    private final int bufferSize;
+    private final long sendTimeoutMs;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders;
+    private final ScheduledExecutorService heartbeat;
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final Set<ResponseBodyEmitter.DataWithMediaType> heartbeatEvent = SseEmitter.event().comment("heartbeat").build();
+
+    public ChangeFeedService(@Value("${app.feed.timeout-ms:1800000}") long timeoutMs,
+                             @Value("${app.feed.buffer-size:256}") int bufferSize,
+                             @Value("${app.feed.send-timeout-ms:10000}") long sendTimeoutMs,
+                             @Value("${app.feed.heartbeat-ms:15000}") long heartbeatMs) {
+        this.timeoutMs = timeoutMs;
+        this.bufferSize = bufferSize;
+        this.sendTimeoutMs = sendTimeoutMs;
+        // Threads créés à la demande et réutilisés : un envoi bloqué n'en retient qu'un
+        this.senders = Executors.newCachedThreadPool(daemon("feed-sender"));
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(daemon("feed-heartbeat"));
+        heartbeat.scheduleAtFixedRate(this::sendHeartbeat, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+        long checkMs = Math.max(1, sendTimeoutMs / 2);
+        heartbeat.scheduleAtFixedRate(this::evictStalled, checkMs, checkMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Abonne un client aux sujets donnés ({@code trade}, {@code bidList}).
+     */
+    public SseEmitter subscribe(Set<String> topics) {
+        return subscribe(topics, new SseEmitter(timeoutMs));
+    }
+
+    /**
+     * Abonne l'émetteur donné aux sujets donnés.
+     */
+    public SseEmitter subscribe(Set<String> topics, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter, topics, bufferSize);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChange(EntityChangeEvent<?> event) {
+        String topic = TOPICS.get(event.entityType());
+        if (topic == null || subscribers.isEmpty()) {
+            return;
+        }
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("change", event.changeType());
+        message.put("id", event.id());
+        message.put("entity", event.entity());
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(message);
+        }
+        catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        Set<ResponseBodyEmitter.DataWithMediaType> data = SseEmitter.event()
+                .id(Long.toString(sequence.incrementAndGet()))
+                .name(topic)
+                .data(json)
+                .build();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.topics.contains(topic)) {
+                offer(subscriber, data);
+            }
+        }
+    }
+
+    public Map<String, Long> stats() {
+        return Map.of("subscribers", (long) subscribers.size(),
+                "events", sequence.get(),
+                "evictions", evictions.get());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        senders.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+
+    private void sendHeartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            // Inutile si des messages sont déjà en attente
+            if (subscriber.queue.isEmpty()) {
+                offer(subscriber, heartbeatEvent);
+            }
+        }
+    }
+
+    private void offer(Subscriber subscriber, Set<ResponseBodyEmitter.DataWithMediaType> data) {
+        if (!subscriber.queue.offer(data)) {
+            evict(subscriber);
+            return;
+        }
+        if (subscriber.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        do {
+            Set<ResponseBodyEmitter.DataWithMediaType> data;
+            while ((data = subscriber.queue.poll()) != null) {
+                subscriber.sendingSince = System.nanoTime();
+                try {
+                    subscriber.emitter.send(data);
+                }
+                catch (IOException | IllegalStateException e) {
+                    subscribers.remove(subscriber);
+                    subscriber.queue.clear();
+                    return;
+                }
+                finally {
+                    subscriber.sendingSince = 0;
+                }
+            }
+            subscriber.draining.set(false);
+            // Un message a pu arriver entre le dernier poll et la remise à faux
+        } while (!subscriber.queue.isEmpty() && subscriber.draining.compareAndSet(false, true));
+    }
+
+    /**
+     * Déconnecte les abonnés dont l'envoi en cours dépasse le délai.
+     */
+    private void evictStalled() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            long since = subscriber.sendingSince;
+            if (since != 0 && now - since > TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs)) {
+                evict(subscriber);
+            }
+        }
+    }
+
+    private void evict(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            evictions.incrementAndGet();
+            subscriber.queue.clear();
+            // La fermeture attend la fin d'un envoi bloqué : elle ne doit pas retenir l'appelant
+            senders.execute(subscriber.emitter::complete);
+            log.debug("Evicted slow feed subscriber on {}", subscriber.topics);
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        final Set<String> topics;
+        final ArrayBlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> queue;
+        final AtomicBoolean draining = new AtomicBoolean();
+        // Début de l'envoi en cours (System.nanoTime), 0 hors envoi
+        volatile long sendingSince;
+
+        Subscriber(SseEmitter emitter, Set<String> topics, int bufferSize) {
+            this.emitter = emitter;
+            this.topics = topics;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.pcs.app.groupcommit;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Regroupe les écritures concurrentes en une seule validation.
+ * <p>
+ * Le premier élément reçu ouvre une fenêtre de {@code windowMicros} ; les
+ * éléments arrivés pendant la fenêtre, au plus {@code maxBatch}, sont validés
+ * ensemble par un thread dédié. Chaque appelant reçoit son propre résultat par
+ * le futur retourné. Si le lot échoue, ses éléments sont revalidés un par un :
+ * seul l'appelant fautif reçoit l'erreur.
+ * </p>
+ *
+ * @param <T> l'élément à écrire
+ * @param <R> le résultat de l'écriture d'un élément
+ */
+@Slf4j
+public class GroupCommitter<T, R> implements Closeable {
+
+    private final BlockingQueue<Pending<T, R>> queue;
+    private final long windowNanos;
+    private final int maxBatch;
+    private final Function<List<T>, List<R>> commit;
+    private final Thread thread;
+    private final ReentrantReadWriteLock closeLock = new ReentrantReadWriteLock();
+    private final LongAdder committed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private final LongAdder failedItems = new LongAdder();
+    private final AtomicInteger largestBatch = new AtomicInteger();
+    private volatile boolean closed;
+
+    /**
+     * Compteurs du regroupement.
+     *
+     * @param pending les éléments en attente dans la file
+     * @param committed les éléments validés
+     * @param batches les lots validés, y compris les lots d'un seul élément revalidés après un échec
+     * @param failedBatches les lots en échec, revalidés élément par élément
+     * @param failedItems les éléments en échec, signalés à leur appelant
+     * @param largestBatch le plus grand lot validé
+     */
+    public record Stats(int pending, long committed, long batches, long failedBatches, long failedItems,
+                        int largestBatch) {
+    }
+
+    private record Pending<T, R>(T item, CompletableFuture<R> result, long submittedNanos) {
+    }
+
+    /**
+     * @param commit valide les éléments dans une même transaction et retourne leurs
+     *               résultats dans le même ordre
+     */
+    public GroupCommitter(String name, long windowMicros, int maxBatch, int capacity,
+                          Function<List<T>, List<R>> commit) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.windowNanos = TimeUnit.MICROSECONDS.toNanos(windowMicros);
+        this.maxBatch = maxBatch;
+        this.commit = commit;
+        this.thread = new Thread(this::run, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Dépose l'élément dans la file, en attendant une place si elle est pleine.
+     *
+     * @return le résultat de l'élément, disponible après la validation de son lot
+     */
+    public CompletableFuture<R> submit(T item) {
+        CompletableFuture<R> result = new CompletableFuture<>();
+        closeLock.readLock().lock();
+        try {
+            if (closed) {
+                result.completeExceptionally(new IllegalStateException(thread.getName() + " is closed"));
+            }
+            else {
+                queue.put(new Pending<>(item, result, System.nanoTime()));
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.completeExceptionally(e);
+        }
+        finally {
+            closeLock.readLock().unlock();
+        }
+        return result;
+    }
+
+    public Stats stats() {
+        return new Stats(queue.size(), committed.sum(), batches.sum(), failedBatches.sum(), failedItems.sum(),
+                largestBatch.get());
+    }
+
+    @Override
+    public void close() {
+        close(Long.MAX_VALUE);
+    }
+
+    /**
+     * Refuse les nouveaux éléments et attend la validation de ceux de la file.
+     *
+     * @return vrai si tous les éléments ont été validés dans le délai
+     */
+    public boolean close(long timeoutMs) {
+        closeLock.writeLock().lock();
+        try {
+            closed = true;
+        }
+        finally {
+            closeLock.writeLock().unlock();
+        }
+        try {
+            thread.join(timeoutMs == Long.MAX_VALUE ? 0 : Math.max(timeoutMs, 1));
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return !thread.isAlive();
+    }
+
+    private void run() {
+        List<Pending<T, R>> batch = new ArrayList<>(maxBatch);
+        while (true) {
+            try {
+                Pending<T, R> first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (closed && queue.isEmpty()) {
+                        return;
+                    }
+                    continue;
+                }
+                batch.add(first);
+                long deadline = first.submittedNanos() + windowNanos;
+                while (batch.size() < maxBatch) {
+                    long wait = deadline - System.nanoTime();
+                    Pending<T, R> next = wait > 0 ? queue.poll(wait, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        // Fenêtre écoulée : les éléments déjà arrivés partent avec le lot
+                        queue.drainTo(batch, maxBatch - batch.size());
+                        break;
+                    }
+                    batch.add(next);
+                }
+            }
+            catch (InterruptedException e) {
+                // Seule la fermeture termine le regroupement : la file doit être validée
+                log.warn("{} interrupted, still draining", thread.getName());
+            }
+            if (!batch.isEmpty()) {
+                commit(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<Pending<T, R>> batch) {
+        List<R> results;
+        try {
+            results = commit.apply(batch.stream().map(Pending::item).toList());
+        }
+        catch (RuntimeException | Error e) {
+            if (batch.size() == 1) {
+                failedItems.increment();
+                batch.get(0).result().completeExceptionally(e);
+                return;
+            }
+            failedBatches.increment();
+            log.warn("{} failed to commit {} items together, committing them one by one",
+                    thread.getName(), batch.size(), e);
+            for (Pending<T, R> pending : batch) {
+                commit(List.of(pending));
+            }
+            return;
+        }
+        if (results.size() != batch.size()) {
+            // Le lot est validé : le rejouer dupliquerait les écritures
+            IllegalStateException e = new IllegalStateException(
+                    "Committed " + batch.size() + " items but got " + results.size() + " results");
+            batch.forEach(pending -> pending.result().completeExceptionally(e));
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).result().complete(results.get(i));
+        }
+        committed.add(batch.size());
+        batches.increment();
+        largestBatch.accumulateAndGet(batch.size(), Math::max);
+    }
+}
@@ -0,0 +1,133 @@
+package com.pcs.app.groupcommit;
+
+import com.pcs.app.domain.Trade;
+import com.pcs.app.events.EntityChangeEvent;
+import com.pcs.app.repositories.TradeRepository;
+import com.pcs.app.sharding.ShardingService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Valide ensemble les créations d'échanges concurrentes : une transaction et une
+ * insertion par lots pour tous les appels d'une même fenêtre.
+ * <p>
+ * Seules les créations faites hors transaction sont regroupées ; un appelant
+ * déjà en transaction attend d'elle l'atomicité de ses écritures et crée son
+ * échange lui-même.
+ * </p>
+ */
+@Slf4j
+@Service
+public class TradeGroupCommitService {
+
+    @Autowired
+    private TradeRepository repository;
+
+    @Autowired
+    private ApplicationEventPublisher publisher;
+
+    @Autowired
+    private ShardingService sharding;
+
+    private final TransactionTemplate transactionTemplate;
+    private final GroupCommitter<Submission, Trade> committer;
+
+    /**
+     * Échange à créer, avec le contexte de sécurité de son appelant pour les champs d'audit.
+     */
+    private record Submission(Trade trade, SecurityContext context, Integer id) {
+    }
+
+    public TradeGroupCommitService(PlatformTransactionManager transactionManager,
+                                   @Value("${app.trade.group-commit.enabled:false}") boolean enabled,
+                                   @Value("${app.trade.group-commit.window-micros:2000}") long windowMicros,
+                                   @Value("${app.trade.group-commit.max-batch:100}") int maxBatch,
+                                   @Value("${app.trade.group-commit.queue-capacity:10000}") int queueCapacity) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.committer = enabled
+                ? new GroupCommitter<>("trade-group-commit", windowMicros, maxBatch, queueCapacity, this::commit)
+                : null;
+        if (enabled) {
+            log.info("Trade group commit enabled: window {} µs, up to {} trades", windowMicros, maxBatch);
+        }
+    }
+
+    /**
+     * Indique si la création d'un échange par le thread courant peut être regroupée.
+     */
+    public boolean accepts() {
+        return committer != null && !sharding.enabled() && !TransactionSynchronizationManager.isActualTransactionActive();
+    }
+
+    /**
+     * Crée l'échange avec ceux des appels concurrents et attend la validation du lot.
+     *
+     * @return l'échange enregistré, avec son identifiant
+     */
+    public Trade create(Trade trade) {
+        try {
+            return committer.submit(new Submission(trade, SecurityContextHolder.getContext(), trade.getId())).join();
+        }
+        catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public GroupCommitter.Stats stats() {
+        return committer == null ? new GroupCommitter.Stats(0, 0, 0, 0, 0, 0) : committer.stats();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (committer != null && !committer.close(30_000)) {
+            log.warn("Trade group commit still had {} trades queued at shutdown", committer.stats().pending());
+        }
+    }
+
+    private List<Trade> commit(List<Submission> submissions) {
+        try {
+            return transactionTemplate.execute(status -> {
+                List<Trade> saved = new ArrayList<>(submissions.size());
+                try {
+                    for (Submission submission : submissions) {
+                        // Les champs d'audit sont renseignés à la persistance, au nom de l'appelant
+                        SecurityContextHolder.setContext(submission.context());
+                        saved.add(repository.save(submission.trade()));
+                    }
+                }
+                finally {
+                    SecurityContextHolder.clearContext();
+                }
+                repository.flush();
+                for (Trade trade : saved) {
+                    publisher.publishEvent(EntityChangeEvent.created(Trade.class, trade.getId(), trade));
+                }
+                return saved;
+            });
+        }
+        catch (RuntimeException | Error e) {
+            // Identifiants attribués par la transaction annulée : chaque échange sera revalidé seul
+            submissions.forEach(submission -> submission.trade().setId(submission.id()));
+            throw e;
+        }
+    }
+}
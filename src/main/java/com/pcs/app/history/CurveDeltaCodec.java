@@ -0,0 +1,161 @@
+package com.pcs.app.history;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Encodage binaire compressé des instantanés de courbe.
+ * <p>
+ * Un instantané complet liste tous les points ; un delta liste les points
+ * ajoutés ou modifiés puis les termes supprimés par rapport à l'état précédent.
+ * Le résultat est compressé par deflate.
+ * </p>
+ */
+public final class CurveDeltaCodec {
+
+    private static final byte FULL = 0;
+    private static final byte DELTA = 1;
+
+    private CurveDeltaCodec() {
+    }
+
+    public static byte[] encodeFull(CurveState state) {
+        return write(out -> {
+            out.writeByte(FULL);
+            writePoints(out, state.terms(), state.values(), state.size());
+        });
+    }
+
+    /**
+     * Encode les différences entre {@code previous} et {@code current}.
+     */
+    public static byte[] encodeDelta(CurveState previous, CurveState current) {
+        int n = previous.size();
+        int m = current.size();
+        double[] upsertTerms = new double[m];
+        double[] upsertValues = new double[m];
+        double[] removed = new double[n];
+        int upserts = 0;
+        int removals = 0;
+        int i = 0;
+        int j = 0;
+        while (i < n || j < m) {
+            int cmp = i == n ? 1 : j == m ? -1 : Double.compare(previous.terms()[i], current.terms()[j]);
+            if (cmp < 0) {
+                removed[removals++] = previous.terms()[i++];
+            }
+            else if (cmp > 0) {
+                upsertTerms[upserts] = current.terms()[j];
+                upsertValues[upserts++] = current.values()[j++];
+            }
+            else {
+                if (Double.doubleToLongBits(previous.values()[i]) != Double.doubleToLongBits(current.values()[j])) {
+                    upsertTerms[upserts] = current.terms()[j];
+                    upsertValues[upserts++] = current.values()[j];
+                }
+                i++;
+                j++;
+            }
+        }
+        int upsertCount = upserts;
+        int removalCount = removals;
+        return write(out -> {
+            out.writeByte(DELTA);
+            writePoints(out, upsertTerms, upsertValues, upsertCount);
+            out.writeInt(removalCount);
+            for (int k = 0; k < removalCount; k++) {
+                out.writeDouble(removed[k]);
+            }
+        });
+    }
+
+    /**
+     * Applique un instantané sur l'état précédent ; un instantané complet l'ignore.
+     */
+    public static CurveState apply(CurveState previous, byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(payload)))) {
+            byte kind = in.readByte();
+            int count = in.readInt();
+            double[] terms = new double[count];
+            double[] values = new double[count];
+            for (int k = 0; k < count; k++) {
+                terms[k] = in.readDouble();
+                values[k] = in.readDouble();
+            }
+            if (kind == FULL) {
+                return new CurveState(terms, values);
+            }
+            double[] removed = new double[in.readInt()];
+            for (int k = 0; k < removed.length; k++) {
+                removed[k] = in.readDouble();
+            }
+            return merge(previous, terms, values, removed);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Corrupted curve snapshot", e);
+        }
+    }
+
+    private static CurveState merge(CurveState previous, double[] upsertTerms, double[] upsertValues, double[] removed) {
+        int n = previous.size();
+        double[] terms = new double[n + upsertTerms.length];
+        double[] values = new double[n + upsertTerms.length];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        int r = 0;
+        while (i < n || j < upsertTerms.length) {
+            int cmp = i == n ? 1 : j == upsertTerms.length ? -1 : Double.compare(previous.terms()[i], upsertTerms[j]);
+            if (cmp < 0) {
+                double term = previous.terms()[i];
+                while (r < removed.length && Double.compare(removed[r], term) < 0) {
+                    r++;
+                }
+                if (r == removed.length || Double.compare(removed[r], term) != 0) {
+                    terms[size] = term;
+                    values[size++] = previous.values()[i];
+                }
+                i++;
+            }
+            else {
+                terms[size] = upsertTerms[j];
+                values[size++] = upsertValues[j++];
+                if (cmp == 0) {
+                    i++;
+                }
+            }
+        }
+        return new CurveState(Arrays.copyOf(terms, size), Arrays.copyOf(values, size));
+    }
+
+    private static void writePoints(DataOutputStream out, double[] terms, double[] values, int count) throws IOException {
+        out.writeInt(count);
+        for (int k = 0; k < count; k++) {
+            out.writeDouble(terms[k]);
+            out.writeDouble(values[k]);
+        }
+    }
+
+    private static byte[] write(Writer writer) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+            writer.write(out);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @FunctionalInterface
+    private interface Writer {
+        void write(DataOutputStream out) throws IOException;
+    }
+}
@@ -0,0 +1,185 @@
+package com.pcs.app.history;
+
+import com.pcs.app.domain.CurvePoint;
+import com.pcs.app.domain.CurveSnapshot;
+import com.pcs.app.events.EntityChangeEvent;
+import com.pcs.app.repositories.CurvePointRepository;
+import com.pcs.app.repositories.CurveSnapshotRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Historise les courbes sous forme d'instantanés journaliers.
+ * <p>
+ * À chaque écriture d'un point de courbe, l'instantané du jour de la courbe est
+ * recalculé : complet tous les {@code keyframeInterval} jours, sinon sous forme
+ * de delta par rapport au jour précédent. Une courbe à une date donnée est
+ * reconstruite à partir du dernier instantané complet et des deltas suivants.
+ * </p>
+ */
+@Service
+public class CurveHistoryService {
+
+    @Autowired
+    private CurvePointRepository pointRepository;
+
+    @Autowired
+    private CurveSnapshotRepository snapshotRepository;
+
+    @Value("${app.curve-history.keyframe-interval:30}")
+    private int keyframeInterval;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Clock clock = Clock.systemDefaultZone();
+    private final Map<Integer, Object> locks = new ConcurrentHashMap<>();
+    // Dernier état reconstruit d'un jour passé, par courbe : sert de base aux deltas du jour
+    private final Map<Integer, DatedState> previousStates = new ConcurrentHashMap<>();
+
+    private record DatedState(LocalDate date, CurveState state) {
+    }
+
+    public CurveHistoryService(PlatformTransactionManager transactionManager) {
+        // Transaction propre : l'écouteur peut être appelé après le commit de l'écriture d'origine
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Capture la courbe modifiée, ainsi que la courbe d'origine d'un point déplacé
+     * vers une autre courbe. Dans une transaction, la capture est différée après le
+     * commit et n'a lieu qu'une fois par courbe, quel que soit le nombre de points écrits.
+     */
+    @EventListener
+    public void onCurvePointChange(EntityChangeEvent<CurvePoint> event) {
+        Set<Integer> curveIds = new LinkedHashSet<>();
+        for (CurvePoint point : Arrays.asList(event.entity(), event.previous())) {
+            if (point != null && point.getCurveId() != null) {
+                curveIds.add(point.getCurveId());
+            }
+        }
+        if (curveIds.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            curveIds.forEach(this::capture);
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<Integer> pending = (Set<Integer>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<Integer> curves = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(this, curves);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    curves.forEach(CurveHistoryService.this::capture);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CurveHistoryService.this);
+                }
+            });
+            pending = curves;
+        }
+        pending.addAll(curveIds);
+    }
+
+    /**
+     * Recalcule l'instantané du jour de la courbe à partir de ses points actuels.
+     */
+    public CurveSnapshot capture(int curveId) {
+        synchronized (locks.computeIfAbsent(curveId, id -> new Object())) {
+            return transactionTemplate.execute(status -> doCapture(curveId, LocalDate.now(clock)));
+        }
+    }
+
+    /**
+     * Reconstruit la courbe telle qu'elle était à la date donnée.
+     *
+     * @return l'état de la courbe, vide si la courbe n'avait aucun instantané à cette date
+     */
+    public Optional<CurveState> getCurveAsOf(int curveId, LocalDate asOf) {
+        Optional<CurveSnapshot> keyframe = snapshotRepository
+                .findTopByCurveIdAndDepthAndAsOfDateLessThanEqualOrderByAsOfDateDesc(curveId, 0, asOf);
+        if (keyframe.isEmpty()) {
+            return Optional.empty();
+        }
+        CurveState state = CurveState.EMPTY;
+        for (CurveSnapshot snapshot : snapshotRepository.findByCurveIdAndAsOfDateBetweenOrderByAsOfDateAsc(
+                curveId, keyframe.get().getAsOfDate(), asOf)) {
+            state = CurveDeltaCodec.apply(state, snapshot.getPayload());
+        }
+        return Optional.of(state);
+    }
+
+    private CurveSnapshot doCapture(int curveId, LocalDate today) {
+        CurveState current = currentState(curveId);
+        Optional<CurveSnapshot> previous = snapshotRepository
+                .findTopByCurveIdAndAsOfDateLessThanOrderByAsOfDateDesc(curveId, today);
+
+        CurveSnapshot snapshot = snapshotRepository.findByCurveIdAndAsOfDate(curveId, today)
+                .orElseGet(CurveSnapshot::new);
+        snapshot.setCurveId(curveId);
+        snapshot.setAsOfDate(today);
+        snapshot.setVersion(snapshot.getVersion() == null ? 1 : snapshot.getVersion() + 1);
+        snapshot.setPointCount(current.size());
+        snapshot.setCreationDate(new Timestamp(clock.millis()));
+
+        byte[] full = CurveDeltaCodec.encodeFull(current);
+        snapshot.setDepth(0);
+        snapshot.setPayload(full);
+        if (previous.isPresent() && previous.get().getDepth() + 1 < keyframeInterval) {
+            byte[] delta = CurveDeltaCodec.encodeDelta(previousState(curveId, previous.get().getAsOfDate()), current);
+            if (delta.length < full.length) {
+                snapshot.setDepth(previous.get().getDepth() + 1);
+                snapshot.setPayload(delta);
+            }
+        }
+        return snapshotRepository.save(snapshot);
+    }
+
+    private CurveState currentState(int curveId) {
+        Map<Double, Double> points = new HashMap<>();
+        List<CurvePoint> rows = pointRepository.findByCurveId(curveId);
+        // En cas de doublon sur un terme, le point le plus récent l'emporte
+        rows.sort(Comparator.comparing(CurvePoint::getId));
+        for (CurvePoint row : rows) {
+            if (row.getTerm() != null) {
+                points.put(row.getTerm(), row.getValue());
+            }
+        }
+        return CurveState.of(points);
+    }
+
+    private CurveState previousState(int curveId, LocalDate date) {
+        DatedState cached = previousStates.get(curveId);
+        if (cached != null && cached.date().equals(date)) {
+            return cached.state();
+        }
+        CurveState state = getCurveAsOf(curveId, date).orElse(CurveState.EMPTY);
+        previousStates.put(curveId, new DatedState(date, state));
+        return state;
+    }
+}
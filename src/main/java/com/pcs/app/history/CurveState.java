@@ -0,0 +1,71 @@
+package com.pcs.app.history;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * État d'une courbe à une date : termes triés et valeurs associées.
+ *
+ * @param terms les termes, triés par ordre croissant et sans doublon
+ * @param values les valeurs, alignées sur {@code terms}
+ */
+public record CurveState(double[] terms, double[] values) {
+
+    public static final CurveState EMPTY = new CurveState(new double[0], new double[0]);
+
+    public static CurveState of(Map<Double, Double> points) {
+        TreeMap<Double, Double> sorted = new TreeMap<>(points);
+        double[] terms = new double[sorted.size()];
+        double[] values = new double[sorted.size()];
+        int i = 0;
+        for (Map.Entry<Double, Double> point : sorted.entrySet()) {
+            terms[i] = point.getKey();
+            values[i] = point.getValue() == null ? Double.NaN : point.getValue();
+            i++;
+        }
+        return new CurveState(terms, values);
+    }
+
+    public int size() {
+        return terms.length;
+    }
+
+    /**
+     * Valeur de la courbe au terme donné, interpolée linéairement entre les deux termes
+     * encadrants et prolongée à plat au-delà des extrémités.
+     *
+     * @return la valeur, {@code NaN} pour une courbe vide
+     */
+    public double valueAt(double term) {
+        if (terms.length == 0) {
+            return Double.NaN;
+        }
+        int index = Arrays.binarySearch(terms, term);
+        if (index >= 0) {
+            return values[index];
+        }
+        int upper = -index - 1;
+        if (upper == 0) {
+            return values[0];
+        }
+        if (upper == terms.length) {
+            return values[terms.length - 1];
+        }
+        int lower = upper - 1;
+        double weight = (term - terms[lower]) / (terms[upper] - terms[lower]);
+        return values[lower] + weight * (values[upper] - values[lower]);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof CurveState other
+                && Arrays.equals(terms, other.terms)
+                && Arrays.equals(values, other.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(terms) + Arrays.hashCode(values);
+    }
+}
@@ -0,0 +1,27 @@
+package com.pcs.app.history;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Représentation JSON d'une courbe à une date.
+ *
+ * @param curveId l'identifiant de la courbe
+ * @param asOf la date de l'état retourné
+ * @param points les points de la courbe, triés par terme
+ */
+public record CurveView(int curveId, LocalDate asOf, List<TermValue> points) {
+
+    public record TermValue(double term, Double value) {
+    }
+
+    public static CurveView of(int curveId, LocalDate asOf, CurveState state) {
+        List<TermValue> points = new ArrayList<>(state.size());
+        for (int i = 0; i < state.size(); i++) {
+            double value = state.values()[i];
+            points.add(new TermValue(state.terms()[i], Double.isNaN(value) ? null : value));
+        }
+        return new CurveView(curveId, asOf, points);
+    }
+}
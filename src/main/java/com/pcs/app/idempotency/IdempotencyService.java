@@ -0,0 +1,218 @@
+package com.pcs.app.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pcs.app.domain.IdempotencyKey;
+import com.pcs.app.repositories.IdempotencyKeyRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Rend idempotentes les créations accompagnées d'un en-tête {@code Idempotency-Key}.
+ * <p>
+ * La clé est enregistrée dans la même transaction que l'insertion : soit les deux
+ * sont validées, soit aucune. Une nouvelle tentative avec la même clé reçoit le
+ * résultat de la première, depuis la mémoire locale sans accès à la base, ou
+ * depuis la clé enregistrée après un redémarrage ou sur une autre instance. Si
+ * deux instances créent la même clé en même temps, la contrainte de clé primaire
+ * annule la seconde insertion, qui renvoie alors le résultat de la première.
+ * </p>
+ * <p>
+ * Les clés sont propres à chaque utilisateur : la même clé envoyée par deux
+ * utilisateurs donne deux créations. L'empreinte de la requête est conservée avec
+ * la clé ; une nouvelle tentative dont le contenu diffère est refusée au lieu de
+ * recevoir le résultat d'une autre requête.
+ * </p>
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 64;
+
+    @Autowired
+    private IdempotencyKeyRepository repository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+    private final IdempotencyStore store;
+    private final long ttlMs;
+    private final ScheduledExecutorService scheduler;
+
+    public IdempotencyService(PlatformTransactionManager transactionManager,
+                              @Value("${app.idempotency.ttl-hours:24}") int ttlHours,
+                              @Value("${app.idempotency.segments:64}") int segments,
+                              @Value("${app.idempotency.max-entries:100000}") int maxEntries) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttlMs = TimeUnit.HOURS.toMillis(ttlHours);
+        this.store = new IdempotencyStore(segments, ttlMs, maxEntries);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "idempotency-purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::purgeQuietly, 1, 60, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Exécute la création une seule fois par clé.
+     *
+     * @param entityType le type d'entité créée, qui délimite l'espace des clés
+     * @param key la clé fournie par le client, ou nulle pour une création sans idempotence
+     * @param request l'entité reçue, dont l'empreinte doit être celle de la première requête
+     * @param create la création, exécutée dans la transaction qui enregistre la clé
+     * @param idOf l'identifiant de l'entité créée
+     * @param load recharge l'entité créée par une requête précédente
+     * @return l'entité créée, par cet appel ou par le premier appel de même clé
+     */
+    public <T> T execute(Class<T> entityType, String key, T request, Supplier<T> create, Function<T, Integer> idOf,
+                         Function<Integer, Optional<T>> load) {
+        if (key == null || key.isBlank()) {
+            return create.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Idempotency-Key must not exceed " + MAX_KEY_LENGTH + " characters");
+        }
+        String id = entityType.getSimpleName() + ':' + currentUser() + ':' + key.trim();
+        // Empreinte prise avant la création, qui renseigne l'identifiant et les champs d'audit
+        String fingerprint = fingerprint(request);
+        while (true) {
+            IdempotencyStore.Claim claim = store.claim(id, fingerprint, System.currentTimeMillis());
+            if (!claim.owner()) {
+                if (!claim.entry().fingerprint().equals(fingerprint)) {
+                    throw mismatch();
+                }
+                try {
+                    return entityType.cast(claim.entry().result().join());
+                }
+                catch (CompletionException e) {
+                    // La première requête a échoué et libéré la clé : celle-ci la rejoue
+                    continue;
+                }
+            }
+            try {
+                T result = createOnce(entityType, id, fingerprint, create, idOf, load);
+                store.complete(claim.entry(), result);
+                return result;
+            }
+            catch (RuntimeException | Error e) {
+                store.fail(id, claim.entry(), e);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Supprime les clés plus anciennes que leur durée de vie.
+     *
+     * @return le nombre de clés supprimées
+     */
+    public int purge() {
+        Timestamp before = new Timestamp(System.currentTimeMillis() - ttlMs);
+        Integer deleted = transactionTemplate.execute(status -> repository.deleteCreatedBefore(before));
+        return deleted == null ? 0 : deleted;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private <T> T createOnce(Class<T> entityType, String id, String fingerprint, Supplier<T> create,
+                             Function<T, Integer> idOf, Function<Integer, Optional<T>> load) {
+        try {
+            return transactionTemplate.execute(status -> {
+                Optional<IdempotencyKey> existing = repository.findById(id);
+                if (existing.isPresent()) {
+                    return original(entityType, existing.get(), fingerprint, load);
+                }
+                T created = create.get();
+                entityManager.persist(new IdempotencyKey(id, entityType.getSimpleName(), idOf.apply(created),
+                        fingerprint, new Timestamp(System.currentTimeMillis())));
+                entityManager.flush();
+                return created;
+            });
+        }
+        catch (DataIntegrityViolationException e) {
+            // Une autre instance a validé la même clé pendant notre transaction, annulée depuis
+            return transactionTemplate.execute(status -> repository.findById(id)
+                    .map(existing -> original(entityType, existing, fingerprint, load))
+                    .orElseThrow(() -> e));
+        }
+    }
+
+    private static <T> T original(Class<T> entityType, IdempotencyKey key, String fingerprint,
+                                  Function<Integer, Optional<T>> load) {
+        // Les clés enregistrées avant l'ajout des empreintes n'en ont pas
+        if (key.getRequestHash() != null && !key.getRequestHash().equals(fingerprint)) {
+            throw mismatch();
+        }
+        return load.apply(key.getEntityId()).orElseThrow(() -> new ResponseStatusException(HttpStatus.CONFLICT,
+                entityType.getSimpleName() + " " + key.getEntityId() + " created with this Idempotency-Key no longer exists"));
+    }
+
+    /**
+     * Condensé SHA-256 de l'entité reçue, sérialisée en JSON.
+     */
+    private String fingerprint(Object request) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(objectMapper.writeValueAsBytes(request)));
+        }
+        catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot fingerprint " + request.getClass().getSimpleName(), e);
+        }
+    }
+
+    private static ResponseStatusException mismatch() {
+        return new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                "Idempotency-Key was already used with a different request");
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null ? "" : authentication.getName();
+    }
+
+    private void purgeQuietly() {
+        try {
+            int deleted = purge();
+            if (deleted > 0) {
+                log.info("Purged {} idempotency keys", deleted);
+            }
+        }
+        catch (Exception e) {
+            log.error("Idempotency key purge failed", e);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.pcs.app.idempotency;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Mémoire locale des clés d'idempotence récentes, répartie en segments verrouillés séparément.
+ * <p>
+ * Chaque segment conserve ses entrées dans l'ordre d'insertion : comme elles ont
+ * toutes la même durée de vie, les entrées expirées sont en tête et sont retirées
+ * à chaque réservation, sans parcours de tout le segment. Une entrée en cours
+ * porte le résultat à venir de la première requête, que les requêtes
+ * concurrentes de même clé attendent au lieu de créer un doublon.
+ * </p>
+ * <p>
+ * Chaque segment est borné à sa part du nombre maximal d'entrées : au-delà, les
+ * entrées terminées les plus anciennes sont retirées avant leur expiration. Une
+ * nouvelle tentative de clé retirée retrouve son résultat par la clé enregistrée
+ * en base.
+ * </p>
+ */
+public final class IdempotencyStore {
+
+    private final Segment[] segments;
+    private final long ttlMs;
+    private final int maxSegmentEntries;
+
+    /**
+     * Entrée d'une clé : le résultat, éventuellement encore à venir, de sa première requête.
+     */
+    public static final class Entry {
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private final String fingerprint;
+        private final long expiresAt;
+
+        Entry(String fingerprint, long expiresAt) {
+            this.fingerprint = fingerprint;
+            this.expiresAt = expiresAt;
+        }
+
+        public CompletableFuture<Object> result() {
+            return result;
+        }
+
+        /**
+         * L'empreinte de la requête qui a créé l'entrée.
+         */
+        public String fingerprint() {
+            return fingerprint;
+        }
+    }
+
+    /**
+     * Résultat d'une réservation.
+     *
+     * @param entry l'entrée de la clé
+     * @param owner vrai si l'appelant vient de créer l'entrée et doit exécuter la requête
+     */
+    public record Claim(Entry entry, boolean owner) {
+    }
+
+    private static final class Segment {
+        final ReentrantLock lock = new ReentrantLock();
+        final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+    }
+
+    public IdempotencyStore(int segmentCount, long ttlMs, int maxEntries) {
+        int count = Integer.highestOneBit(Math.max(1, segmentCount - 1)) << 1;
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment();
+        }
+        this.ttlMs = ttlMs;
+        this.maxSegmentEntries = Math.max(1, (maxEntries + count - 1) / count);
+    }
+
+    /**
+     * Retourne l'entrée de la clé, en la créant pour l'appelant si elle n'existe pas.
+     */
+    public Claim claim(String key, String fingerprint, long nowMs) {
+        Segment segment = segment(key);
+        segment.lock.lock();
+        try {
+            expire(segment, nowMs);
+            Entry existing = segment.entries.get(key);
+            if (existing != null) {
+                return new Claim(existing, false);
+            }
+            evictOldest(segment, maxSegmentEntries - 1);
+            Entry entry = new Entry(fingerprint, nowMs + ttlMs);
+            segment.entries.put(key, entry);
+            return new Claim(entry, true);
+        }
+        finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Publie le résultat de la requête aux requêtes en attente et aux suivantes.
+     */
+    public void complete(Entry entry, Object result) {
+        entry.result.complete(result);
+    }
+
+    /**
+     * Retire la clé après un échec, pour qu'une nouvelle tentative puisse s'exécuter.
+     */
+    public void fail(String key, Entry entry, Throwable error) {
+        Segment segment = segment(key);
+        segment.lock.lock();
+        try {
+            segment.entries.remove(key, entry);
+        }
+        finally {
+            segment.lock.unlock();
+        }
+        entry.result.completeExceptionally(error);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.entries.size();
+            }
+            finally {
+                segment.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    private static void expire(Segment segment, long nowMs) {
+        Iterator<Map.Entry<String, Entry>> iterator = segment.entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next().getValue();
+            // Une entrée en cours reste, même expirée, tant que sa requête n'est pas terminée
+            if (entry.expiresAt > nowMs || !entry.result.isDone()) {
+                return;
+            }
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Retire les entrées terminées les plus anciennes jusqu'à la taille voulue ;
+     * les entrées en cours restent, leurs requêtes les attendent.
+     */
+    private static void evictOldest(Segment segment, int size) {
+        Iterator<Map.Entry<String, Entry>> iterator = segment.entries.entrySet().iterator();
+        while (segment.entries.size() > size && iterator.hasNext()) {
+            if (iterator.next().getValue().result.isDone()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private Segment segment(String key) {
+        int h = key.hashCode();
+        return segments[(h ^ h >>> 16) & (segments.length - 1)];
+    }
+}
@@ -0,0 +1,265 @@
+package com.pcs.app.ingestion;
+
+import com.pcs.app.domain.CurvePoint;
+import com.pcs.app.events.ChangeType;
+import com.pcs.app.events.EntityChangeEvent;
+import com.pcs.app.history.CurveState;
+import com.pcs.app.repositories.CurvePointRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Chemin d'ingestion des mises à jour de points de courbe à haute fréquence.
+ * <p>
+ * Les mises à jour sont coalescées en mémoire (la dernière reçue l'emporte pour
+ * un même couple courbe / terme), puis écrites en une seule transaction par lot,
+ * périodiquement ou dès que le tampon atteint sa taille maximale. Après chaque
+ * lot, un nouvel état des courbes touchées est publié atomiquement aux lecteurs.
+ * Le tampon est vidé à l'arrêt de l'application.
+ * </p>
+ */
+@Slf4j
+@Service
+public class CurveIngestionService {
+
+    @Autowired
+    private CurvePointRepository repository;
+
+    @Autowired
+    private ApplicationEventPublisher publisher;
+
+    private final TransactionTemplate transactionTemplate;
+    private final int maxBatchSize;
+    private final ConcurrentHashMap<CurveUpdate.Key, CurveUpdate> buffer = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final ScheduledExecutorService scheduler;
+    private final LiveCurves published = new LiveCurves();
+    private volatile boolean closed;
+
+    public CurveIngestionService(PlatformTransactionManager transactionManager,
+                                 @Value("${app.curve-ingestion.flush-interval-ms:200}") long flushIntervalMs,
+                                 @Value("${app.curve-ingestion.max-batch-size:1000}") int maxBatchSize) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxBatchSize = maxBatchSize;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "curve-ingestion");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Met les mises à jour en tampon.
+     *
+     * @return le nombre de mises à jour acceptées
+     */
+    public int submit(Collection<CurveUpdate> updates) {
+        if (closed) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Curve ingestion is shutting down");
+        }
+        for (CurveUpdate update : updates) {
+            if (update.curveId() == null || update.term() == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "curveId and term are mandatory");
+            }
+        }
+        for (CurveUpdate update : updates) {
+            buffer.put(update.key(), update);
+        }
+        if (buffer.size() >= maxBatchSize && flushRequested.compareAndSet(false, true)) {
+            scheduler.execute(this::flushQuietly);
+        }
+        return updates.size();
+    }
+
+    /**
+     * Retourne l'état courant de la courbe, chargé depuis la base au premier accès.
+     */
+    public Optional<CurveState> getLiveCurve(int curveId) {
+        CurveState state = published.get(curveId);
+        if (state != null) {
+            return Optional.of(state);
+        }
+        long version = published.version(curveId);
+        List<CurvePoint> points = repository.findByCurveId(curveId);
+        if (points.isEmpty()) {
+            return Optional.empty();
+        }
+        state = toState(points);
+        published.publishLoaded(curveId, state, version);
+        return Optional.of(state);
+    }
+
+    public int pendingUpdates() {
+        return buffer.size();
+    }
+
+    /**
+     * Les écritures passées par le CRUD invalident l'état publié de la courbe, et
+     * celui de la courbe d'origine d'un point déplacé ; il sera rechargé au prochain accès.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCurvePointChange(EntityChangeEvent<CurvePoint> event) {
+        for (CurvePoint point : Arrays.asList(event.entity(), event.previous())) {
+            if (point != null && point.getCurveId() != null) {
+                published.invalidate(point.getCurveId());
+            }
+        }
+    }
+
+    /**
+     * Écrit en une transaction toutes les mises à jour en tampon.
+     *
+     * @return le nombre de points écrits
+     */
+    public int flush() {
+        flushLock.lock();
+        try {
+            flushRequested.set(false);
+            List<CurveUpdate> batch = drain();
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            long start = System.nanoTime();
+            Map<Integer, CurveState> states;
+            try {
+                states = transactionTemplate.execute(status -> upsert(batch));
+            }
+            catch (RuntimeException e) {
+                // Remet le lot en tampon sans écraser les mises à jour plus récentes
+                batch.forEach(update -> buffer.putIfAbsent(update.key(), update));
+                throw e;
+            }
+            published.publish(states);
+            log.debug("Flushed {} curve point updates on {} curves in {} µs",
+                    batch.size(), states.size(), (System.nanoTime() - start) / 1000);
+            return batch.size();
+        }
+        finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        closed = true;
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int drained = flush();
+        log.info("Curve ingestion stopped, {} pending updates flushed", drained);
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        }
+        catch (Exception e) {
+            log.error("Curve ingestion flush failed", e);
+        }
+    }
+
+    /**
+     * Retire du tampon chaque entrée de façon atomique : une mise à jour reçue
+     * pendant le vidage reste pour le lot suivant.
+     */
+    private List<CurveUpdate> drain() {
+        List<CurveUpdate> batch = new ArrayList<>(buffer.size());
+        for (CurveUpdate.Key key : buffer.keySet()) {
+            CurveUpdate update = buffer.remove(key);
+            if (update != null) {
+                batch.add(update);
+            }
+        }
+        return batch;
+    }
+
+    private Map<Integer, CurveState> upsert(List<CurveUpdate> batch) {
+        Map<Integer, List<CurveUpdate>> byCurve = new HashMap<>();
+        for (CurveUpdate update : batch) {
+            byCurve.computeIfAbsent(update.curveId(), id -> new ArrayList<>()).add(update);
+        }
+
+        List<CurvePoint> existing = repository.findByCurveIdIn(byCurve.keySet());
+        existing.sort(Comparator.comparing(CurvePoint::getId));
+        Map<Integer, Map<Double, CurvePoint>> points = new HashMap<>();
+        for (CurvePoint point : existing) {
+            if (point.getTerm() != null) {
+                points.computeIfAbsent(point.getCurveId(), id -> new HashMap<>()).put(point.getTerm(), point);
+            }
+        }
+
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        List<CurvePoint> toSave = new ArrayList<>(batch.size());
+        List<ChangeType> changes = new ArrayList<>(batch.size());
+        for (CurveUpdate update : batch) {
+            Map<Double, CurvePoint> curve = points.computeIfAbsent(update.curveId(), id -> new HashMap<>());
+            CurvePoint point = curve.get(update.term());
+            if (point == null) {
+                point = new CurvePoint(update.curveId(), update.term(), update.value());
+                point.setCreationDate(now);
+                curve.put(update.term(), point);
+                changes.add(ChangeType.CREATE);
+            }
+            else {
+                point.setValue(update.value());
+                changes.add(ChangeType.UPDATE);
+            }
+            point.setAsOfDate(update.asOfDate() == null ? now : update.asOfDate());
+            toSave.add(point);
+        }
+
+        List<CurvePoint> saved = repository.saveAll(toSave);
+        for (int i = 0; i < saved.size(); i++) {
+            CurvePoint point = saved.get(i);
+            publisher.publishEvent(changes.get(i) == ChangeType.CREATE
+                    ? EntityChangeEvent.created(CurvePoint.class, point.getId(), point)
+                    : EntityChangeEvent.updated(CurvePoint.class, point.getId(), point));
+        }
+
+        Map<Integer, CurveState> states = new HashMap<>();
+        for (Integer curveId : byCurve.keySet()) {
+            states.put(curveId, toState(points.get(curveId).values()));
+        }
+        return states;
+    }
+
+    private static CurveState toState(Collection<CurvePoint> points) {
+        Map<Double, Double> values = new HashMap<>();
+        points.stream()
+                .filter(point -> point.getTerm() != null)
+                .sorted(Comparator.comparing(CurvePoint::getId, Comparator.nullsLast(Comparator.naturalOrder())))
+                .forEach(point -> values.put(point.getTerm(), point.getValue()));
+        return CurveState.of(values);
+    }
+}
@@ -0,0 +1,26 @@
+package com.pcs.app.ingestion;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.sql.Timestamp;
+
+/**
+ * Mise à jour d'un point de courbe reçue d'un flux de marché.
+ *
+ * @param curveId l'identifiant de la courbe
+ * @param term le terme du point
+ * @param value la nouvelle valeur
+ * @param asOfDate la date de valeur, optionnelle
+ */
+public record CurveUpdate(@NotNull Integer curveId, @NotNull Double term, Double value, Timestamp asOfDate) {
+
+    /**
+     * Clé de coalescence : une seule mise à jour est conservée par (courbe, terme).
+     */
+    record Key(int curveId, double term) {
+    }
+
+    Key key() {
+        return new Key(curveId, term);
+    }
+}
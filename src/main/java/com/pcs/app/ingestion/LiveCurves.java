@@ -0,0 +1,88 @@
+package com.pcs.app.ingestion;
+
+import com.pcs.app.history.CurveState;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * États courants des courbes, publiés atomiquement aux lecteurs.
+ * <p>
+ * Chaque publication ou invalidation d'une courbe avance sa version. Un état
+ * chargé paresseusement depuis la base n'est publié que si la version lue avant
+ * le chargement n'a pas changé : une écriture validée pendant le chargement ne
+ * peut pas être masquée par l'état lu avant elle.
+ * </p>
+ */
+public final class LiveCurves {
+
+    private final AtomicReference<Map<Integer, CurveState>> published = new AtomicReference<>(Map.of());
+    private final ConcurrentHashMap<Integer, Long> versions = new ConcurrentHashMap<>();
+
+    /**
+     * @return l'état publié de la courbe, nul s'il doit être chargé
+     */
+    public CurveState get(int curveId) {
+        return published.get().get(curveId);
+    }
+
+    /**
+     * Version de la courbe, à lire avant de charger son état depuis la base.
+     */
+    public long version(int curveId) {
+        return versions.getOrDefault(curveId, 0L);
+    }
+
+    /**
+     * Publie l'état chargé, sauf si la courbe a été publiée ou invalidée depuis la lecture de sa version.
+     *
+     * @return vrai si l'état a été publié
+     */
+    public boolean publishLoaded(int curveId, CurveState state, long version) {
+        boolean[] stored = new boolean[1];
+        published.updateAndGet(current -> {
+            stored[0] = !current.containsKey(curveId) && version(curveId) == version;
+            if (!stored[0]) {
+                return current;
+            }
+            Map<Integer, CurveState> next = new HashMap<>(current);
+            next.put(curveId, state);
+            return Map.copyOf(next);
+        });
+        return stored[0];
+    }
+
+    /**
+     * Remplace l'état des courbes données, écrit par un lot.
+     */
+    public void publish(Map<Integer, CurveState> states) {
+        states.keySet().forEach(this::advance);
+        published.updateAndGet(current -> {
+            Map<Integer, CurveState> next = new HashMap<>(current);
+            next.putAll(states);
+            return Map.copyOf(next);
+        });
+    }
+
+    /**
+     * Retire l'état de la courbe, qui sera rechargé au prochain accès.
+     */
+    public void invalidate(int curveId) {
+        // La version avance avant le retrait : un chargement en cours ne republiera pas son état
+        advance(curveId);
+        published.updateAndGet(current -> {
+            if (!current.containsKey(curveId)) {
+                return current;
+            }
+            Map<Integer, CurveState> next = new HashMap<>(current);
+            next.remove(curveId);
+            return Map.copyOf(next);
+        });
+    }
+
+    private void advance(int curveId) {
+        versions.merge(curveId, 1L, Long::sum);
+    }
+}
@@ -0,0 +1,234 @@
+package com.pcs.app.journal;
+
+import com.pcs.app.events.ChangeType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Journal binaire en ajout seul, réparti en segments de taille fixe projetés en mémoire.
+ * <p>
+ * Chaque enregistrement est protégé par un CRC32C. Un segment plein est forcé sur
+ * disque puis remplacé par un nouveau segment, nommé d'après la séquence de son
+ * premier enregistrement. {@link #sync(long)} implémente le group commit : le
+ * premier appelant force sur disque tout ce qui a été écrit, et les appelants
+ * suivants dont la séquence est déjà couverte repartent sans nouvel fsync.
+ * </p>
+ * <p>
+ * À l'ouverture, le dernier segment est relu jusqu'au premier enregistrement
+ * invalide ; la fin d'une écriture interrompue est effacée.
+ * </p>
+ */
+public final class AuditJournal implements Closeable {
+
+    static final String SEGMENT_SUFFIX = ".journal";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final Object syncLock = new Object();
+    private ByteBuffer body = ByteBuffer.allocate(1024);
+    private Segment current;
+    private long lastSequence;
+    private volatile long durableSequence;
+    private boolean closed;
+
+    private static final class Segment {
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        int position;
+        volatile int forcedPosition;
+
+        Segment(FileChannel channel, MappedByteBuffer buffer, int position) {
+            this.channel = channel;
+            this.buffer = buffer;
+            this.position = position;
+            this.forcedPosition = position;
+        }
+    }
+
+    /**
+     * Ouvre le journal du répertoire donné, en le créant si besoin.
+     */
+    public AuditJournal(Path directory, int segmentSize) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(directory);
+        List<Path> segments = segments(directory);
+        if (segments.isEmpty()) {
+            current = openSegment(1);
+            lastSequence = 0;
+        }
+        else {
+            Path last = segments.get(segments.size() - 1);
+            long firstSequence = firstSequence(last);
+            current = mapSegment(last);
+            JournalCodec.ScanResult scan = JournalCodec.scan(current.buffer, firstSequence, null);
+            // Efface les restes d'une écriture interrompue après le dernier enregistrement valide
+            boolean dirty = false;
+            for (int i = scan.endPosition(); i < segmentSize; i++) {
+                if (current.buffer.get(i) != 0) {
+                    current.buffer.put(i, (byte) 0);
+                    dirty = true;
+                }
+            }
+            if (dirty) {
+                current.buffer.force();
+            }
+            current.position = scan.endPosition();
+            current.forcedPosition = scan.endPosition();
+            lastSequence = scan.lastSequence();
+        }
+        durableSequence = lastSequence;
+    }
+
+    /**
+     * Ajoute un enregistrement au journal, sans attendre qu'il soit sur disque.
+     *
+     * @return la séquence attribuée à l'enregistrement
+     */
+    public synchronized long append(long timestamp, String entityType, ChangeType changeType, int entityId,
+                                    String user, byte[] payload) {
+        if (closed) {
+            throw new IllegalStateException("Journal is closed");
+        }
+        byte[] type = entityType.getBytes(StandardCharsets.UTF_8);
+        byte[] userBytes = user == null ? new byte[0] : user.getBytes(StandardCharsets.UTF_8);
+        int size = JournalCodec.bodySize(type, userBytes, payload);
+        if (size + JournalCodec.HEADER_SIZE > segmentSize) {
+            throw new IllegalArgumentException("Journal record of " + size + " bytes exceeds segment size");
+        }
+        if (body.capacity() < size) {
+            body = ByteBuffer.allocate(Integer.highestOneBit(size) << 1);
+        }
+        long sequence = lastSequence + 1;
+        JournalCodec.encodeBody(body, sequence, timestamp, type, changeType, entityId, userBytes, payload);
+
+        if (current.position + JournalCodec.HEADER_SIZE + size > segmentSize) {
+            roll(sequence);
+        }
+        MappedByteBuffer buffer = current.buffer;
+        int position = current.position;
+        buffer.put(position + JournalCodec.HEADER_SIZE, body, 0, size);
+        buffer.putInt(position + 4, JournalCodec.crc(body));
+        // La longueur est écrite en dernier : tant qu'elle vaut zéro, l'enregistrement n'existe pas
+        buffer.putInt(position, size);
+        current.position = position + JournalCodec.HEADER_SIZE + size;
+        lastSequence = sequence;
+        return sequence;
+    }
+
+    /**
+     * Attend que l'enregistrement de séquence donnée soit forcé sur disque.
+     */
+    public void sync(long sequence) {
+        if (durableSequence >= sequence) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (durableSequence >= sequence) {
+                return;
+            }
+            Segment segment;
+            int to;
+            long upTo;
+            synchronized (this) {
+                segment = current;
+                to = segment.position;
+                upTo = lastSequence;
+            }
+            int from = segment.forcedPosition;
+            if (to > from) {
+                segment.buffer.force(from, to - from);
+            }
+            segment.forcedPosition = to;
+            durableSequence = upTo;
+        }
+    }
+
+    public synchronized long lastSequence() {
+        return lastSequence;
+    }
+
+    public long durableSequence() {
+        return durableSequence;
+    }
+
+    /**
+     * Relit tous les enregistrements du journal, dans l'ordre des séquences.
+     *
+     * @return la dernière séquence lue
+     */
+    public static long replay(Path directory, Consumer<JournalRecord> consumer) throws IOException {
+        long last = 0;
+        for (Path path : segments(directory)) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                long first = firstSequence(path);
+                if (last != 0 && first != last + 1) {
+                    throw new IOException("Missing journal records between " + last + " and " + first);
+                }
+                JournalCodec.ScanResult scan = JournalCodec.scan(buffer, first, consumer);
+                last = scan.lastSequence();
+            }
+        }
+        return last;
+    }
+
+    @Override
+    public void close() throws IOException {
+        sync(lastSequence());
+        synchronized (this) {
+            closed = true;
+            current.channel.close();
+        }
+    }
+
+    private void roll(long nextSequence) {
+        try {
+            current.buffer.force();
+            current.channel.close();
+            current = openSegment(nextSequence);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Cannot roll journal segment", e);
+        }
+    }
+
+    private Segment openSegment(long firstSequence) throws IOException {
+        return mapSegment(directory.resolve(String.format("%020d%s", firstSequence, SEGMENT_SUFFIX)));
+    }
+
+    private Segment mapSegment(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        return new Segment(channel, buffer, 0);
+    }
+
+    static List<Path> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static long firstSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
@@ -0,0 +1,109 @@
+package com.pcs.app.journal;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pcs.app.domain.BidList;
+import com.pcs.app.domain.Trade;
+import com.pcs.app.events.EntityChangeEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Écrit dans le journal d'audit chaque création, modification et suppression
+ * d'échange (Trade) et d'enchère (BidList).
+ * <p>
+ * L'écriture a lieu après le commit de la modification, sans attendre le disque.
+ * Si {@code app.journal.sync} est actif, un thread de fond force le journal sur
+ * disque toutes les {@code app.journal.flush-interval-ms} millisecondes : un
+ * seul fsync couvre tous les enregistrements ajoutés depuis le précédent.
+ * </p>
+ */
+@Slf4j
+@Service
+public class AuditJournalService {
+
+    private static final Set<Class<?>> AUDITED = Set.of(Trade.class, BidList.class);
+    private static final byte[] NO_PAYLOAD = new byte[0];
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final AuditJournal journal;
+    private final ScheduledExecutorService flusher;
+
+    public AuditJournalService(@Value("${app.journal.dir:journal}") Path directory,
+                               @Value("${app.journal.segment-size:67108864}") int segmentSize,
+                               @Value("${app.journal.sync:true}") boolean sync,
+                               @Value("${app.journal.flush-interval-ms:10}") long flushIntervalMs) throws IOException {
+        this.journal = new AuditJournal(directory, segmentSize);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "audit-journal-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (sync) {
+            flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        }
+        log.info("Audit journal opened in {} at sequence {}", directory.toAbsolutePath(), journal.lastSequence());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChange(EntityChangeEvent<?> event) {
+        if (!AUDITED.contains(event.entityType())) {
+            return;
+        }
+        byte[] payload;
+        try {
+            payload = event.entity() == null ? NO_PAYLOAD : objectMapper.writeValueAsBytes(event.entity());
+        }
+        catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        journal.append(System.currentTimeMillis(), event.entityType().getSimpleName(),
+                event.changeType(), event.id(), currentUser(), payload);
+    }
+
+    public long lastSequence() {
+        return journal.lastSequence();
+    }
+
+    public long durableSequence() {
+        return journal.durableSequence();
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        flusher.shutdownNow();
+        // La fermeture force sur disque ce que le thread de fond n'a pas encore couvert
+        journal.close();
+        log.info("Audit journal closed at sequence {}", journal.lastSequence());
+    }
+
+    private void flush() {
+        try {
+            journal.sync(journal.lastSequence());
+        }
+        catch (Exception e) {
+            log.error("Audit journal flush failed", e);
+        }
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null ? "" : authentication.getName();
+    }
+}
@@ -0,0 +1,110 @@
+package com.pcs.app.journal;
+
+import com.pcs.app.events.ChangeType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Format binaire des enregistrements du journal.
+ * <pre>
+ * [int longueur du corps][int CRC32C du corps][corps]
+ * corps : [long séquence][long horodatage][byte nature][int identifiant]
+ *         [short + UTF-8 type d'entité][short + UTF-8 utilisateur][int + octets contenu]
+ * </pre>
+ * Une longueur nulle marque la fin des données d'un segment.
+ */
+final class JournalCodec {
+
+    static final int HEADER_SIZE = 8;
+    private static final ChangeType[] CHANGE_TYPES = ChangeType.values();
+
+    private JournalCodec() {
+    }
+
+    /**
+     * Encode le corps de l'enregistrement dans {@code body}, remis à zéro au préalable.
+     */
+    static void encodeBody(ByteBuffer body, long sequence, long timestamp, byte[] entityType,
+                           ChangeType changeType, int entityId, byte[] user, byte[] payload) {
+        body.clear();
+        body.putLong(sequence);
+        body.putLong(timestamp);
+        body.put((byte) changeType.ordinal());
+        body.putInt(entityId);
+        body.putShort((short) entityType.length);
+        body.put(entityType);
+        body.putShort((short) user.length);
+        body.put(user);
+        body.putInt(payload.length);
+        body.put(payload);
+        body.flip();
+    }
+
+    static int bodySize(byte[] entityType, byte[] user, byte[] payload) {
+        return 8 + 8 + 1 + 4 + 2 + entityType.length + 2 + user.length + 4 + payload.length;
+    }
+
+    static int crc(ByteBuffer body) {
+        CRC32C crc = new CRC32C();
+        crc.update(body.duplicate());
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Parcourt les enregistrements valides d'un segment à partir de son début.
+     *
+     * @param segment le contenu du segment
+     * @param expectedSequence la séquence attendue du premier enregistrement
+     * @param consumer reçoit chaque enregistrement valide, peut être nul
+     * @return la position de fin des données valides et la dernière séquence lue
+     */
+    static ScanResult scan(ByteBuffer segment, long expectedSequence, Consumer<JournalRecord> consumer) {
+        int position = 0;
+        long last = expectedSequence - 1;
+        int capacity = segment.capacity();
+        while (position + HEADER_SIZE <= capacity) {
+            int length = segment.getInt(position);
+            if (length <= 0 || position + HEADER_SIZE + length > capacity) {
+                break;
+            }
+            ByteBuffer body = segment.slice(position + HEADER_SIZE, length);
+            if (crc(body) != segment.getInt(position + 4)) {
+                break;
+            }
+            // Un reste d'écriture interrompue peut avoir un CRC valide : la séquence doit suivre
+            if (body.getLong(0) != last + 1) {
+                break;
+            }
+            if (consumer != null) {
+                consumer.accept(decodeBody(body));
+            }
+            last++;
+            position += HEADER_SIZE + length;
+        }
+        return new ScanResult(position, last);
+    }
+
+    static JournalRecord decodeBody(ByteBuffer body) {
+        long sequence = body.getLong();
+        long timestamp = body.getLong();
+        ChangeType changeType = CHANGE_TYPES[body.get()];
+        int entityId = body.getInt();
+        String entityType = readString(body);
+        String user = readString(body);
+        byte[] payload = new byte[body.getInt()];
+        body.get(payload);
+        return new JournalRecord(sequence, timestamp, entityType, changeType, entityId, user, payload);
+    }
+
+    private static String readString(ByteBuffer body) {
+        byte[] bytes = new byte[Short.toUnsignedInt(body.getShort())];
+        body.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    record ScanResult(int endPosition, long lastSequence) {
+    }
+}
@@ -0,0 +1,18 @@
+package com.pcs.app.journal;
+
+import com.pcs.app.events.ChangeType;
+
+/**
+ * Enregistrement du journal d'audit.
+ *
+ * @param sequence le numéro de séquence, strictement croissant et sans trou
+ * @param timestamp l'instant d'écriture en millisecondes epoch
+ * @param entityType le nom simple de la classe de l'entité
+ * @param changeType la nature de la modification
+ * @param entityId l'identifiant de l'entité
+ * @param user l'utilisateur à l'origine de la modification, ou une chaîne vide
+ * @param payload l'état de l'entité en JSON (UTF-8), vide pour une suppression
+ */
+public record JournalRecord(long sequence, long timestamp, String entityType, ChangeType changeType,
+                            int entityId, String user, byte[] payload) {
+}
@@ -0,0 +1,74 @@
+package com.pcs.app.journal;
+
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Outil de relecture du journal d'audit.
+ * <p>
+ * Reconstruit le dernier état connu de chaque entité journalisée, et peut
+ * alimenter n'importe quelle vue dérivée via {@link #replay(Path, Consumer)}.
+ * En ligne de commande, affiche l'état reconstruit au format JSON, une entité par ligne :
+ * </p>
+ * <pre>
+ * java -cp app.jar -Dloader.main=com.pcs.app.journal.JournalReplay \
+ *      org.springframework.boot.loader.launch.PropertiesLauncher journal [séquence max]
+ * </pre>
+ */
+public final class JournalReplay {
+
+    /**
+     * Clé d'une entité journalisée.
+     */
+    public record EntityKey(String entityType, int entityId) {
+    }
+
+    private JournalReplay() {
+    }
+
+    /**
+     * Relit le journal et transmet chaque enregistrement au consommateur.
+     *
+     * @return la dernière séquence lue
+     */
+    public static long replay(Path directory, Consumer<JournalRecord> consumer) throws IOException {
+        return AuditJournal.replay(directory, consumer);
+    }
+
+    /**
+     * Reconstruit l'état de chaque entité jusqu'à la séquence donnée incluse.
+     *
+     * @return le dernier contenu JSON de chaque entité encore existante
+     */
+    public static Map<EntityKey, byte[]> rebuildState(Path directory, long upToSequence) throws IOException {
+        Map<EntityKey, byte[]> state = new LinkedHashMap<>();
+        replay(directory, record -> {
+            if (record.sequence() > upToSequence) {
+                return;
+            }
+            EntityKey key = new EntityKey(record.entityType(), record.entityId());
+            if (record.changeType().removes()) {
+                state.remove(key);
+            }
+            else {
+                state.put(key, record.payload());
+            }
+        });
+        return state;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path directory = Path.of(args.length > 0 ? args[0] : "journal");
+        long upTo = args.length > 1 ? Long.parseLong(args[1]) : Long.MAX_VALUE;
+        Map<EntityKey, byte[]> state = rebuildState(directory, upTo);
+        state.forEach((key, payload) -> System.out.println(
+                "{\"type\":\"" + key.entityType() + "\",\"id\":" + key.entityId()
+                        + ",\"entity\":" + new String(payload, StandardCharsets.UTF_8) + "}"));
+        System.err.println(state.size() + " entities rebuilt from " + directory.toAbsolutePath());
+    }
+}
@@ -0,0 +1,14 @@
+package com.pcs.app.matching;
+
+import com.pcs.app.domain.BidList;
+
+/**
+ * Exécution entre le côté achat d'une enchère et le côté vente d'une autre.
+ *
+ * @param buy l'enchère acheteuse
+ * @param sell l'enchère vendeuse
+ * @param price le prix d'exécution, celui de l'ordre au repos
+ * @param quantity la quantité exécutée
+ */
+public record Fill(BidList buy, BidList sell, double price, double quantity) {
+}
@@ -0,0 +1,144 @@
+package com.pcs.app.matching;
+
+import com.pcs.app.domain.BidList;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Confrontation des enchères d'un groupe de titres, par priorité prix puis temps.
+ * <p>
+ * Chaque enchère donne au plus deux ordres : un ordre d'achat de {@code bidQuantity}
+ * au prix {@code bid} et un ordre de vente de {@code askQuantity} au prix {@code ask}.
+ * Un ordre entrant est exécuté contre les meilleurs ordres opposés tant que les
+ * prix se croisent, au prix de l'ordre au repos ; son reliquat est mis au repos.
+ * Une enchère modifiée perd sa priorité : ses ordres sont annulés puis
+ * soumis de nouveau, diminués des quantités déjà exécutées. Le côté vente d'une
+ * enchère dont les prix se croisent est ignoré, pour qu'elle ne s'exécute pas
+ * contre elle-même.
+ * </p>
+ * <p>
+ * Non synchronisé : une partition n'est utilisée que par un seul thread.
+ * </p>
+ */
+public final class MatchingPartition {
+
+    private static final double EPSILON = 1e-9;
+    private static final int COMPACT_THRESHOLD = 1024;
+
+    private final Map<String, Book> books = new HashMap<>();
+    // Ordres au repos par enchère : [achat, vente]
+    private final Map<Integer, Order[]> resting = new HashMap<>();
+    // Quantités exécutées par enchère : [achetée, vendue]
+    private final Map<Integer, double[]> filled = new HashMap<>();
+    private int restingCount;
+    private int deadCount;
+
+    private record Book(OrderSide bids, OrderSide asks) {
+    }
+
+    /**
+     * Enregistre une exécution déjà comptabilisée, pour ne pas la reproduire.
+     */
+    public void seedFill(int buyId, int sellId, double quantity) {
+        filled.computeIfAbsent(buyId, id -> new double[2])[0] += quantity;
+        filled.computeIfAbsent(sellId, id -> new double[2])[1] += quantity;
+    }
+
+    /**
+     * Soumet une enchère nouvelle ou modifiée et ajoute les exécutions obtenues à {@code fills}.
+     */
+    public void submit(BidList bidList, List<Fill> fills) {
+        cancel(bidList.getId());
+        if (bidList.getSecurity() == null) {
+            return;
+        }
+        Book book = books.computeIfAbsent(bidList.getSecurity(), security -> new Book(new OrderSide(true), new OrderSide(false)));
+        double[] done = filled.getOrDefault(bidList.getId(), new double[2]);
+        Order[] orders = new Order[2];
+        boolean hasBid = bidList.getBid() != null && bidList.getBidQuantity() != null;
+        if (hasBid) {
+            orders[0] = match(new Order(bidList, true, bidList.getBid(), bidList.getBidQuantity() - done[0]), book, fills);
+        }
+        if (bidList.getAsk() != null && bidList.getAskQuantity() != null
+                && !(hasBid && bidList.getAsk() <= bidList.getBid())) {
+            orders[1] = match(new Order(bidList, false, bidList.getAsk(), bidList.getAskQuantity() - done[1]), book, fills);
+        }
+        if (orders[0] != null || orders[1] != null) {
+            resting.put(bidList.getId(), orders);
+        }
+    }
+
+    /**
+     * Retire une enchère supprimée.
+     */
+    public void remove(int id) {
+        cancel(id);
+        filled.remove(id);
+    }
+
+    public int restingOrders() {
+        return restingCount;
+    }
+
+    public int securities() {
+        return books.size();
+    }
+
+    /**
+     * @return l'ordre mis au repos, nul s'il a été entièrement exécuté
+     */
+    private Order match(Order order, Book book, List<Fill> fills) {
+        if (order.remaining <= EPSILON) {
+            return null;
+        }
+        OrderSide opposite = order.buy ? book.asks() : book.bids();
+        Order best;
+        while (order.remaining > EPSILON && (best = opposite.best()) != null && opposite.crosses(best, order.price)) {
+            double quantity = Math.min(order.remaining, best.remaining);
+            order.remaining -= quantity;
+            best.remaining -= quantity;
+            Order buy = order.buy ? order : best;
+            Order sell = order.buy ? best : order;
+            fills.add(new Fill(buy.source, sell.source, best.price, quantity));
+            seedFill(buy.id(), sell.id(), quantity);
+            if (best.remaining <= EPSILON) {
+                best.remaining = 0;
+                restingCount--;
+                Order[] orders = resting.get(best.id());
+                orders[best.buy ? 0 : 1] = null;
+                if (orders[0] == null && orders[1] == null) {
+                    resting.remove(best.id());
+                }
+            }
+        }
+        if (order.remaining <= EPSILON) {
+            return null;
+        }
+        (order.buy ? book.bids() : book.asks()).add(order);
+        restingCount++;
+        return order;
+    }
+
+    private void cancel(int id) {
+        Order[] orders = resting.remove(id);
+        if (orders == null) {
+            return;
+        }
+        for (Order order : orders) {
+            if (order != null) {
+                order.cancelled = true;
+                restingCount--;
+                deadCount++;
+            }
+        }
+        if (deadCount > COMPACT_THRESHOLD && deadCount > restingCount) {
+            for (Book book : books.values()) {
+                book.bids().compact();
+                book.asks().compact();
+            }
+            deadCount = 0;
+        }
+    }
+}
@@ -0,0 +1,435 @@
+package com.pcs.app.matching;
+
+import com.pcs.app.archive.TradeArchiveService;
+import com.pcs.app.domain.BidList;
+import com.pcs.app.domain.Trade;
+import com.pcs.app.events.ChangeType;
+import com.pcs.app.events.EntityChangeEvent;
+import com.pcs.app.repositories.BidListRepository;
+import com.pcs.app.repositories.TradeRepository;
+import com.pcs.app.service.TradeService;
+import com.pcs.app.sharding.ShardingService;
+import com.pcs.app.strings.SharedStrings;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Confronte les enchères croisées et comptabilise les échanges qui en résultent.
+ * <p>
+ * Les titres sont répartis par hachage entre plusieurs partitions ; chacune a
+ * son propre thread, seul à lire et écrire ses carnets, et sa propre file de
+ * commandes bornée. Un thread traite ses commandes par lots et enregistre toutes
+ * les exécutions d'un lot en une seule transaction, par {@link TradeService}.
+ * En cas d'échec, les exécutions sont gardées et de nouveau enregistrées, avec un
+ * délai croissant, au plus {@code app.matching.max-book-attempts} fois ; elles
+ * sont ensuite abandonnées et journalisées, et seront confrontées de nouveau au
+ * prochain démarrage puisque les enchères sont rechargées depuis la base. Tant
+ * que {@code app.matching.max-pending-fills} exécutions attendent, la partition
+ * ne prend plus de nouvelle commande.
+ * </p>
+ * <p>
+ * Les échanges produits portent le type d'affaire {@value #DEAL_TYPE} et, dans
+ * {@code sourceListId}, les identifiants des enchères acheteuse et vendeuse : au
+ * démarrage, ils sont relus pour ne pas exécuter de nouveau les quantités déjà
+ * comptabilisées, avant le chargement des enchères par ordre d'identifiant. Un
+ * échange dont l'origine est illisible est ignoré. Les formulaires ne peuvent
+ * renseigner ni ce type ni ces identifiants.
+ * </p>
+ * <p>
+ * La confrontation est désactivée par défaut ({@code app.matching.enabled}) : à
+ * sa première activation, toutes les enchères croisées déjà en base sont exécutées.
+ * </p>
+ */
+@Slf4j
+@Service
+public class MatchingService {
+
+    public static final String DEAL_TYPE = "MATCH";
+    private static final int LOAD_PAGE_SIZE = 10_000;
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Autowired
+    private BidListRepository bidListRepository;
+
+    @Autowired
+    private ShardingService sharding;
+
+    @Autowired
+    private TradeArchiveService tradeArchiveService;
+
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxBookAttempts;
+    private final int maxPendingFills;
+    private final TransactionTemplate transactionTemplate;
+    private final Worker[] workers;
+    // Partition de chaque enchère au repos, pour retrouver ses ordres si son titre change
+    private final Map<Integer, Integer> owners = new ConcurrentHashMap<>();
+    // Enchères modifiées pendant le chargement initial : leur version chargée est périmée
+    private final Set<Integer> touchedWhileLoading = ConcurrentHashMap.newKeySet();
+    private volatile boolean loading = true;
+    private volatile boolean running = true;
+
+    private final LongAdder commands = new LongAdder();
+    private final LongAdder latencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder booked = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private final LongAdder droppedFills = new LongAdder();
+
+    public MatchingService(PlatformTransactionManager transactionManager,
+                           @Value("${app.matching.enabled:false}") boolean enabled,
+                           @Value("${app.matching.partitions:0}") int partitions,
+                           @Value("${app.matching.batch-size:500}") int batchSize,
+                           @Value("${app.matching.queue-capacity:100000}") int queueCapacity,
+                           @Value("${app.matching.max-book-attempts:5}") int maxBookAttempts,
+                           @Value("${app.matching.max-pending-fills:10000}") int maxPendingFills) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxBookAttempts = maxBookAttempts;
+        this.maxPendingFills = maxPendingFills;
+        int count = partitions > 0 ? partitions : Runtime.getRuntime().availableProcessors();
+        this.workers = new Worker[count];
+        for (int i = 0; i < count; i++) {
+            workers[i] = new Worker(i, queueCapacity);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            loading = false;
+            return;
+        }
+        long start = System.currentTimeMillis();
+        int seeded = 0;
+        List<Trade> fills = sharding.enabled()
+                ? sharding.trades().findBy("deal_type", DEAL_TYPE)
+                : tradeRepository.findByDealType(DEAL_TYPE);
+        for (Trade trade : fills) {
+            if (seed(trade)) {
+                seeded++;
+            }
+        }
+        // Les exécutions archivées restent comptabilisées
+        AtomicInteger archived = new AtomicInteger();
+        tradeArchiveService.forEachArchived(trade -> {
+            if (DEAL_TYPE.equals(trade.getDealType()) && seed(trade)) {
+                archived.incrementAndGet();
+            }
+            return true;
+        });
+        seeded += archived.get();
+        if (sharding.enabled()) {
+            sharding.bidLists().forEachPage(LOAD_PAGE_SIZE, this::restOrders);
+        }
+        else {
+            Page<BidList> page;
+            int number = 0;
+            do {
+                page = bidListRepository.findAll(PageRequest.of(number++, LOAD_PAGE_SIZE, Sort.by("id")));
+                restOrders(page.getContent());
+            } while (page.hasNext());
+        }
+        loading = false;
+        touchedWhileLoading.clear();
+        // Le démarrage des threads publie l'état chargé ; les commandes reçues entre-temps attendent en file
+        for (Worker worker : workers) {
+            worker.thread.start();
+        }
+        int resting = 0;
+        int pending = 0;
+        for (Worker worker : workers) {
+            resting += worker.partition.restingOrders();
+            pending += worker.pending.size();
+        }
+        log.info("Matching engine loaded: {} booked fills, {} resting orders, {} fills to book on {} partitions ({} ms)",
+                seeded, resting, pending, workers.length, System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBidListChange(EntityChangeEvent<BidList> event) {
+        if (!enabled || !running) {
+            return;
+        }
+        if (loading) {
+            touchedWhileLoading.add(event.id());
+        }
+        long now = System.nanoTime();
+        if (event.changeType() == ChangeType.DELETE) {
+            Integer owner = owners.remove(event.id());
+            if (owner != null) {
+                workers[owner].enqueue(new Command(event.id(), null, now));
+            }
+            return;
+        }
+        // L'enchère reste au repos dans les carnets : ses chaînes y sont partagées
+        BidList bidList = SharedStrings.intern(event.entity());
+        Integer target = bidList.getSecurity() == null ? null : worker(bidList.getSecurity()).index;
+        Integer previous = target == null ? owners.remove(bidList.getId()) : owners.put(bidList.getId(), target);
+        if (previous != null && !previous.equals(target)) {
+            workers[previous].enqueue(new Command(bidList.getId(), null, now));
+        }
+        if (target != null) {
+            workers[target].enqueue(new Command(bidList.getId(), bidList, now));
+        }
+    }
+
+    /**
+     * Retourne les compteurs de la confrontation : commandes traitées, latence entre
+     * la modification d'une enchère et l'enregistrement de ses exécutions, lots et
+     * échanges enregistrés.
+     */
+    public Map<String, Number> stats() {
+        long count = commands.sum();
+        int queued = 0;
+        int resting = 0;
+        int pending = 0;
+        for (Worker worker : workers) {
+            queued += worker.queue.size();
+            resting += worker.restingOrders;
+            pending += worker.pendingCount;
+        }
+        Map<String, Number> stats = new LinkedHashMap<>();
+        stats.put("partitions", workers.length);
+        stats.put("commands", count);
+        stats.put("queued", queued);
+        stats.put("restingOrders", resting);
+        stats.put("averageLatencyMicros", count == 0 ? 0.0 : latencyNanos.sum() / 1000.0 / count);
+        stats.put("maxLatencyMicros", maxLatencyNanos.get() / 1000);
+        stats.put("batches", batches.sum());
+        stats.put("bookedTrades", booked.sum());
+        stats.put("pendingFills", pending);
+        stats.put("failedBatches", failedBatches.sum());
+        stats.put("droppedFills", droppedFills.sum());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        for (Worker worker : workers) {
+            if (worker.thread.isAlive()) {
+                try {
+                    worker.thread.join(TimeUnit.SECONDS.toMillis(10));
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private boolean seed(Trade trade) {
+        String[] ids = trade.getSourceListId() == null ? new String[0] : trade.getSourceListId().split("/");
+        if (trade.getSecurity() == null || ids.length != 2 || trade.getBuyQuantity() == null) {
+            log.warn("Ignoring matched trade {} with source list id '{}'", trade.getId(), trade.getSourceListId());
+            return false;
+        }
+        int buyId;
+        int sellId;
+        try {
+            buyId = Integer.parseInt(ids[0]);
+            sellId = Integer.parseInt(ids[1]);
+        }
+        catch (NumberFormatException e) {
+            log.warn("Ignoring matched trade {} with source list id '{}'", trade.getId(), trade.getSourceListId());
+            return false;
+        }
+        worker(trade.getSecurity()).partition.seedFill(buyId, sellId, trade.getBuyQuantity());
+        return true;
+    }
+
+    /**
+     * Remet en carnet les enchères chargées, sauf celles modifiées depuis le début du chargement.
+     */
+    private void restOrders(List<BidList> bidLists) {
+        for (BidList bidList : bidLists) {
+            if (bidList.getSecurity() != null && !touchedWhileLoading.contains(bidList.getId())) {
+                Worker worker = worker(bidList.getSecurity());
+                owners.put(bidList.getId(), worker.index);
+                worker.partition.submit(bidList, worker.pending);
+            }
+        }
+    }
+
+    private Worker worker(String security) {
+        return workers[Math.floorMod(security.hashCode(), workers.length)];
+    }
+
+    private void book(List<Fill> fills) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Fill fill : fills) {
+                tradeService.createTrade(toTrade(fill, now));
+            }
+        });
+    }
+
+    static Trade toTrade(Fill fill, Timestamp now) {
+        BidList buy = fill.buy();
+        Trade trade = new Trade(buy.getAccount(), buy.getType());
+        trade.setSecurity(buy.getSecurity());
+        trade.setBuyQuantity(fill.quantity());
+        trade.setSellQuantity(fill.quantity());
+        trade.setBuyPrice(fill.price());
+        trade.setSellPrice(fill.price());
+        trade.setBenchmark(buy.getBenchmark());
+        trade.setTrader(buy.getTrader());
+        trade.setBook(buy.getBook());
+        trade.setTradeDate(now);
+        trade.setDealType(DEAL_TYPE);
+        trade.setSourceListId(buy.getId() + "/" + fill.sell().getId());
+        trade.setCreationName("matching");
+        trade.setCreationDate(now);
+        return trade;
+    }
+
+    /**
+     * Modification d'une enchère à traiter ; {@code bidList} est nul pour un retrait.
+     */
+    private record Command(int id, BidList bidList, long enqueuedNanos) {
+    }
+
+    /**
+     * Thread d'une partition, seul à accéder à ses carnets et à ses exécutions en attente.
+     */
+    private final class Worker implements Runnable {
+        final int index;
+        final MatchingPartition partition = new MatchingPartition();
+        final BlockingQueue<Command> queue;
+        final List<Fill> pending = new ArrayList<>();
+        final Thread thread;
+        // Échecs consécutifs de l'enregistrement des exécutions en attente
+        int failedAttempts;
+        volatile int restingOrders;
+        volatile int pendingCount;
+
+        Worker(int index, int queueCapacity) {
+            this.index = index;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.thread = new Thread(this, "matching-" + index);
+            thread.setDaemon(true);
+        }
+
+        void enqueue(Command command) {
+            try {
+                // File pleine : la publication de l'événement attend, ce qui freine les écritures d'enchères
+                queue.put(command);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void run() {
+            List<Command> batch = new ArrayList<>(batchSize);
+            while (running || !queue.isEmpty() || !pending.isEmpty()) {
+                try {
+                    if (failedAttempts > 0) {
+                        // Délai croissant avant de retenter l'enregistrement
+                        Thread.sleep(Math.min(100L << Math.min(failedAttempts, 6), 5_000L));
+                    }
+                    // Trop d'exécutions en attente : les commandes restent en file jusqu'à leur enregistrement
+                    if (pending.size() < maxPendingFills) {
+                        Command first = queue.poll(100, TimeUnit.MILLISECONDS);
+                        if (first != null) {
+                            batch.add(first);
+                            queue.drainTo(batch, batchSize - 1);
+                        }
+                    }
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                for (Command command : batch) {
+                    if (command.bidList() == null) {
+                        partition.remove(command.id());
+                    }
+                    else {
+                        partition.submit(command.bidList(), pending);
+                    }
+                }
+                if (!pending.isEmpty() && !bookPending()) {
+                    if (!running && !pending.isEmpty()) {
+                        log.error("Matching partition {} stopped with {} fills not booked", index, pending.size());
+                        break;
+                    }
+                }
+                long now = System.nanoTime();
+                for (Command command : batch) {
+                    long latency = now - command.enqueuedNanos();
+                    latencyNanos.add(latency);
+                    maxLatencyNanos.accumulateAndGet(latency, Math::max);
+                }
+                commands.add(batch.size());
+                batch.clear();
+                restingOrders = partition.restingOrders();
+                pendingCount = pending.size();
+            }
+        }
+
+        private boolean bookPending() {
+            try {
+                book(pending);
+                batches.increment();
+                booked.add(pending.size());
+                pending.clear();
+                failedAttempts = 0;
+                return true;
+            }
+            catch (Exception e) {
+                failedBatches.increment();
+                if (++failedAttempts < maxBookAttempts) {
+                    log.error("Matching partition {} could not book {} fills, retrying", index, pending.size(), e);
+                    return false;
+                }
+                // Abandonnées : les enchères rechargées au prochain démarrage les exécuteront de nouveau
+                List<String> sources = pending.stream()
+                        .map(fill -> fill.buy().getId() + "/" + fill.sell().getId())
+                        .toList();
+                log.error("Matching partition {} dropped {} fills after {} attempts: {}", index, pending.size(),
+                        failedAttempts, sources, e);
+                droppedFills.add(pending.size());
+                pending.clear();
+                failedAttempts = 0;
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.pcs.app.matching;
+
+import com.pcs.app.domain.BidList;
+
+/**
+ * Ordre au repos dans un carnet : un côté d'une enchère et sa quantité restante.
+ */
+final class Order {
+
+    final BidList source;
+    final boolean buy;
+    final double price;
+    double remaining;
+    boolean cancelled;
+
+    Order(BidList source, boolean buy, double price, double remaining) {
+        this.source = source;
+        this.buy = buy;
+        this.price = price;
+        this.remaining = remaining;
+    }
+
+    int id() {
+        return source.getId();
+    }
+
+    boolean isLive() {
+        return !cancelled && remaining > 0;
+    }
+}
@@ -0,0 +1,97 @@
+package com.pcs.app.matching;
+
+import java.io.Serial;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * Un côté d'un carnet de confrontation : files d'ordres par niveau de prix.
+ * <p>
+ * Comme pour les carnets agrégés, les niveaux sont triés dans un tableau de clés
+ * primitives, le meilleur en dernière position, et les prix de vente sont rangés
+ * sous leur opposé. Dans un niveau, les ordres sont servis par ordre d'arrivée.
+ * Un ordre annulé reste dans sa file et est écarté quand il en atteint la tête.
+ * </p>
+ */
+final class OrderSide {
+
+    private final boolean buy;
+    private double[] keys = new double[16];
+    private Level[] queues = new Level[16];
+    private int size;
+
+    /**
+     * File d'un niveau de prix ; la sous-classe non générique permet un tableau typé de files.
+     */
+    private static final class Level extends ArrayDeque<Order> {
+        @Serial
+        private static final long serialVersionUID = 1L;
+    }
+
+    OrderSide(boolean buy) {
+        this.buy = buy;
+    }
+
+    void add(Order order) {
+        double key = buy ? order.price : -order.price;
+        int index = Arrays.binarySearch(keys, 0, size, key);
+        if (index < 0) {
+            index = -index - 1;
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                queues = Arrays.copyOf(queues, size * 2);
+            }
+            System.arraycopy(keys, index, keys, index + 1, size - index);
+            System.arraycopy(queues, index, queues, index + 1, size - index);
+            keys[index] = key;
+            queues[index] = new Level();
+            size++;
+        }
+        queues[index].addLast(order);
+    }
+
+    /**
+     * @return le premier ordre vivant du meilleur niveau, nul si ce côté est vide
+     */
+    Order best() {
+        while (size > 0) {
+            ArrayDeque<Order> queue = queues[size - 1];
+            Order head;
+            while ((head = queue.peekFirst()) != null && !head.isLive()) {
+                queue.pollFirst();
+            }
+            if (head != null) {
+                return head;
+            }
+            queues[--size] = null;
+        }
+        return null;
+    }
+
+    /**
+     * @return vrai si un ordre à ce prix croise le meilleur ordre de ce côté
+     */
+    boolean crosses(Order best, double price) {
+        return buy ? best.price >= price : best.price <= price;
+    }
+
+    /**
+     * Retire les ordres morts de toutes les files, et les niveaux devenus vides.
+     */
+    void compact() {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            queues[i].removeIf(order -> !order.isLive());
+            if (!queues[i].isEmpty()) {
+                keys[kept] = keys[i];
+                queues[kept++] = queues[i];
+            }
+        }
+        Arrays.fill(queues, kept, size, null);
+        size = kept;
+    }
+
+    int levels() {
+        return size;
+    }
+}
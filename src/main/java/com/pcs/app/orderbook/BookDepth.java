@@ -0,0 +1,13 @@
+package com.pcs.app.orderbook;
+
+import java.util.List;
+
+/**
+ * Profondeur du carnet d'un titre.
+ *
+ * @param security le titre
+ * @param bids les meilleurs niveaux d'achat, du plus haut au plus bas
+ * @param asks les meilleurs niveaux de vente, du plus bas au plus haut
+ */
+public record BookDepth(String security, List<PriceLevel> bids, List<PriceLevel> asks) {
+}
@@ -0,0 +1,51 @@
+package com.pcs.app.orderbook;
+
+/**
+ * Carnet d'ordres agrégé par niveau de prix d'un titre.
+ * <p>
+ * Les écritures sont synchronisées ; les meilleurs prix sont republiés après
+ * chacune d'elles et se lisent sans verrou.
+ * </p>
+ */
+final class OrderBook {
+
+    private final String security;
+    private final PriceLevels bids = new PriceLevels(true);
+    private final PriceLevels asks = new PriceLevels(false);
+    private volatile TopOfBook top;
+
+    OrderBook(String security) {
+        this.security = security;
+        this.top = new TopOfBook(security, null, null);
+    }
+
+    synchronized void add(Quote quote) {
+        apply(quote, 1);
+    }
+
+    synchronized void remove(Quote quote) {
+        apply(quote, -1);
+    }
+
+    TopOfBook top() {
+        return top;
+    }
+
+    synchronized BookDepth depth(int depth) {
+        return new BookDepth(security, bids.top(depth), asks.top(depth));
+    }
+
+    synchronized int levels() {
+        return bids.size() + asks.size();
+    }
+
+    private void apply(Quote quote, int sign) {
+        if (quote.hasBid()) {
+            bids.apply(quote.bid(), quote.bidQuantity(), sign);
+        }
+        if (quote.hasAsk()) {
+            asks.apply(quote.ask(), quote.askQuantity(), sign);
+        }
+        top = new TopOfBook(security, bids.best(), asks.best());
+    }
+}
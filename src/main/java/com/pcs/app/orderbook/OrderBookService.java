@@ -0,0 +1,154 @@
+package com.pcs.app.orderbook;
+
+import com.pcs.app.domain.BidList;
+import com.pcs.app.events.ChangeType;
+import com.pcs.app.events.EntityChangeEvent;
+import com.pcs.app.repositories.BidListRepository;
+import com.pcs.app.sharding.ShardingService;
+import com.pcs.app.warmstate.WarmCache;
+import com.pcs.app.warmstate.WarmStateService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Tient à jour les carnets d'ordres agrégés des titres à partir des enchères.
+ * <p>
+ * Les enchères sont chargées au démarrage par pages, puis suivies à partir des
+ * événements publiés par {@code BidListService}. Les contributions sont
+ * sauvegardées dans l'instantané de démarrage, d'où elles sont relues au
+ * redémarrage suivant.
+ * </p>
+ */
+@Slf4j
+@Service
+public class OrderBookService implements WarmCache<BidList> {
+
+    private static final int LOAD_PAGE_SIZE = 10_000;
+
+    @Autowired
+    private BidListRepository repository;
+
+    @Autowired
+    private WarmStateService warmState;
+
+    @Autowired
+    private ShardingService sharding;
+
+    private final OrderBooks books = new OrderBooks();
+    // Enchères modifiées pendant le chargement initial : leur version chargée est périmée
+    private final Set<Integer> touchedWhileLoading = ConcurrentHashMap.newKeySet();
+    private volatile boolean loading = true;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.currentTimeMillis();
+        if (!warmState.restore(this)) {
+            load(this::restoreWarmRows);
+        }
+        loading = false;
+        touchedWhileLoading.clear();
+        warmState.register(this);
+        log.info("Order books loaded: {} quotes on {} securities, {} price levels ({} ms)",
+                books.quoteCount(), books.securities().size(), books.levelCount(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Lit toutes les enchères par pages, dans toutes les bases lorsqu'elles sont réparties.
+     */
+    private void load(Consumer<List<BidList>> pages) {
+        if (sharding.enabled()) {
+            sharding.bidLists().forEachPage(LOAD_PAGE_SIZE, pages);
+            return;
+        }
+        Page<BidList> page;
+        int number = 0;
+        do {
+            page = repository.findAll(PageRequest.of(number++, LOAD_PAGE_SIZE, Sort.by("id")));
+            pages.accept(page.getContent());
+        } while (page.hasNext());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBidListChange(EntityChangeEvent<BidList> event) {
+        if (loading) {
+            touchedWhileLoading.add(event.id());
+        }
+        if (event.changeType() == ChangeType.DELETE) {
+            books.remove(event.id());
+        }
+        else {
+            books.upsert(event.entity());
+        }
+    }
+
+    @Override
+    public String warmStateName() {
+        return "order-books";
+    }
+
+    @Override
+    public Class<BidList> warmStateType() {
+        return BidList.class;
+    }
+
+    @Override
+    public void forEachWarmRow(Consumer<BidList> rows) {
+        books.forEachQuote(rows);
+    }
+
+    @Override
+    public void restoreWarmRows(List<BidList> rows) {
+        for (BidList bidList : rows) {
+            if (!touchedWhileLoading.contains(bidList.getId())) {
+                books.upsert(bidList);
+            }
+        }
+    }
+
+    @Override
+    public void evictWarmRows(Collection<Integer> ids) {
+        for (Integer id : ids) {
+            if (!touchedWhileLoading.contains(id)) {
+                books.remove(id);
+            }
+        }
+    }
+
+    public TopOfBook getTopOfBook(String security) {
+        TopOfBook top = books.top(security);
+        if (top == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No order book for security " + security);
+        }
+        return top;
+    }
+
+    public BookDepth getDepth(String security, int depth) {
+        if (depth <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "depth must be positive");
+        }
+        BookDepth book = books.depth(security, depth);
+        if (book == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No order book for security " + security);
+        }
+        return book;
+    }
+
+    public List<String> getSecurities() {
+        return books.securities();
+    }
+}
@@ -0,0 +1,84 @@
+package com.pcs.app.orderbook;
+
+import com.pcs.app.domain.BidList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Carnets d'ordres de tous les titres, alimentés par les enchères.
+ * <p>
+ * La dernière contribution connue de chaque enchère est conservée : une
+ * modification retire l'ancienne contribution du carnet avant d'ajouter la
+ * nouvelle, et une suppression n'a besoin que de l'identifiant. Les écritures
+ * sur une même enchère sont sérialisées par la table des contributions.
+ * </p>
+ */
+public final class OrderBooks {
+
+    private final ConcurrentHashMap<String, OrderBook> books = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Quote> quotes = new ConcurrentHashMap<>();
+
+    public void upsert(BidList bidList) {
+        Quote next = Quote.of(bidList);
+        quotes.compute(bidList.getId(), (id, previous) -> {
+            if (previous != null) {
+                book(previous.security()).remove(previous);
+            }
+            if (next != null) {
+                book(next.security()).add(next);
+            }
+            return next;
+        });
+    }
+
+    public void remove(int id) {
+        quotes.computeIfPresent(id, (key, previous) -> {
+            book(previous.security()).remove(previous);
+            return null;
+        });
+    }
+
+    /**
+     * @return les meilleurs prix du titre, nul si le titre n'a jamais eu d'enchère
+     */
+    public TopOfBook top(String security) {
+        OrderBook book = books.get(security);
+        return book == null ? null : book.top();
+    }
+
+    /**
+     * @return les {@code depth} meilleurs niveaux de chaque côté, nul si le titre n'a jamais eu d'enchère
+     */
+    public BookDepth depth(String security, int depth) {
+        OrderBook book = books.get(security);
+        return book == null ? null : book.depth(depth);
+    }
+
+    public List<String> securities() {
+        List<String> securities = new ArrayList<>(books.keySet());
+        securities.sort(null);
+        return securities;
+    }
+
+    /**
+     * Parcourt les contributions courantes, sous forme d'enchères.
+     */
+    public void forEachQuote(Consumer<BidList> visitor) {
+        quotes.forEach((id, quote) -> visitor.accept(quote.toBidList(id)));
+    }
+
+    public int quoteCount() {
+        return quotes.size();
+    }
+
+    public long levelCount() {
+        return books.values().stream().mapToLong(OrderBook::levels).sum();
+    }
+
+    private OrderBook book(String security) {
+        return books.computeIfAbsent(security, OrderBook::new);
+    }
+}
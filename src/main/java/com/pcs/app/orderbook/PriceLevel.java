@@ -0,0 +1,11 @@
+package com.pcs.app.orderbook;
+
+/**
+ * Niveau de prix agrégé du carnet.
+ *
+ * @param price le prix
+ * @param quantity la quantité cumulée des ordres à ce prix
+ * @param orders le nombre d'ordres à ce prix
+ */
+public record PriceLevel(double price, double quantity, int orders) {
+}
@@ -0,0 +1,97 @@
+package com.pcs.app.orderbook;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Un côté du carnet : niveaux de prix triés dans des tableaux primitifs.
+ * <p>
+ * Les clés sont rangées par ordre croissant de priorité, le meilleur niveau en
+ * dernière position : le meilleur prix se lit en temps constant, et les niveaux
+ * proches du meilleur, les plus souvent modifiés, ne décalent que la fin des
+ * tableaux. Les prix de vente sont rangés sous leur opposé pour que le plus bas
+ * soit le meilleur.
+ * </p>
+ * <p>
+ * Non synchronisé : l'appelant protège les accès.
+ * </p>
+ */
+final class PriceLevels {
+
+    private final boolean descending;
+    private double[] keys = new double[16];
+    private double[] quantities = new double[16];
+    private int[] orders = new int[16];
+    private int size;
+
+    /**
+     * @param descending vrai pour le côté achat, où le meilleur prix est le plus haut
+     */
+    PriceLevels(boolean descending) {
+        this.descending = descending;
+    }
+
+    /**
+     * Ajoute ({@code sign} = 1) ou retire ({@code sign} = -1) un ordre au niveau de prix donné.
+     * Un niveau sans plus aucun ordre est supprimé.
+     */
+    void apply(double price, double quantity, int sign) {
+        double key = descending ? price : -price;
+        int index = Arrays.binarySearch(keys, 0, size, key);
+        if (index < 0) {
+            if (sign < 0) {
+                return;
+            }
+            index = -index - 1;
+            if (size == keys.length) {
+                int capacity = size * 2;
+                keys = Arrays.copyOf(keys, capacity);
+                quantities = Arrays.copyOf(quantities, capacity);
+                orders = Arrays.copyOf(orders, capacity);
+            }
+            System.arraycopy(keys, index, keys, index + 1, size - index);
+            System.arraycopy(quantities, index, quantities, index + 1, size - index);
+            System.arraycopy(orders, index, orders, index + 1, size - index);
+            keys[index] = key;
+            quantities[index] = 0;
+            orders[index] = 0;
+            size++;
+        }
+        orders[index] += sign;
+        quantities[index] += sign * quantity;
+        if (orders[index] <= 0) {
+            System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+            System.arraycopy(quantities, index + 1, quantities, index, size - index - 1);
+            System.arraycopy(orders, index + 1, orders, index, size - index - 1);
+            size--;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return le meilleur niveau, nul si ce côté est vide
+     */
+    PriceLevel best() {
+        return size == 0 ? null : level(size - 1);
+    }
+
+    /**
+     * @return les {@code depth} meilleurs niveaux, du meilleur au moins bon
+     */
+    List<PriceLevel> top(int depth) {
+        int count = Math.min(depth, size);
+        List<PriceLevel> levels = new ArrayList<>(count);
+        for (int i = size - 1; i >= size - count; i--) {
+            levels.add(level(i));
+        }
+        return levels;
+    }
+
+    private PriceLevel level(int index) {
+        return new PriceLevel(descending ? keys[index] : -keys[index], quantities[index], orders[index]);
+    }
+}
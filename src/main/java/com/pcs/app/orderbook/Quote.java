@@ -0,0 +1,47 @@
+package com.pcs.app.orderbook;
+
+import com.pcs.app.domain.BidList;
+import com.pcs.app.strings.SharedStrings;
+
+/**
+ * Contribution d'une enchère au carnet de son titre.
+ */
+record Quote(String security, double bid, double bidQuantity, double ask, double askQuantity) {
+
+    /**
+     * @return la contribution de l'enchère, nulle si elle n'a pas de titre ou ni prix d'achat ni prix de vente
+     */
+    static Quote of(BidList bidList) {
+        if (bidList == null || bidList.getSecurity() == null) {
+            return null;
+        }
+        Quote quote = new Quote(SharedStrings.canonical(bidList.getSecurity()),
+                bidList.getBid() == null ? Double.NaN : bidList.getBid(),
+                bidList.getBidQuantity() == null ? 0 : bidList.getBidQuantity(),
+                bidList.getAsk() == null ? Double.NaN : bidList.getAsk(),
+                bidList.getAskQuantity() == null ? 0 : bidList.getAskQuantity());
+        return quote.hasBid() || quote.hasAsk() ? quote : null;
+    }
+
+    /**
+     * @return une enchère portant la seule contribution, dont {@link #of} redonne cette contribution
+     */
+    BidList toBidList(int id) {
+        BidList bidList = new BidList();
+        bidList.setId(id);
+        bidList.setSecurity(security);
+        bidList.setBid(Double.isNaN(bid) ? null : bid);
+        bidList.setBidQuantity(bidQuantity);
+        bidList.setAsk(Double.isNaN(ask) ? null : ask);
+        bidList.setAskQuantity(askQuantity);
+        return bidList;
+    }
+
+    boolean hasBid() {
+        return !Double.isNaN(bid) && bidQuantity > 0;
+    }
+
+    boolean hasAsk() {
+        return !Double.isNaN(ask) && askQuantity > 0;
+    }
+}
@@ -0,0 +1,11 @@
+package com.pcs.app.orderbook;
+
+/**
+ * Meilleurs prix d'un titre.
+ *
+ * @param security le titre
+ * @param bid le meilleur prix d'achat, nul si aucun
+ * @param ask le meilleur prix de vente, nul si aucun
+ */
+public record TopOfBook(String security, PriceLevel bid, PriceLevel ask) {
+}
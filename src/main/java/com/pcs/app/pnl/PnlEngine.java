@@ -0,0 +1,433 @@
+package com.pcs.app.pnl;
+
+import com.pcs.app.analytics.StringDictionary;
+import com.pcs.app.strings.SharedStrings;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Calcul du P&amp;L des échanges sur des tableaux primitifs.
+ * <p>
+ * Chaque échange occupe une case des colonnes (quantités, prix, groupe
+ * livre / trader, courbe de valorisation) ; ses P&amp;L réalisé et latent sont
+ * conservés dans deux colonnes de résultat, et leurs sommes par groupe sont
+ * tenues à jour par différence à chaque modification. Un changement de cotation
+ * ne recalcule que les échanges valorisés sur la courbe concernée, en parallèle ;
+ * {@link #recomputeAll} recalcule tout, en parallèle, et remet à zéro les écarts
+ * d'arrondi accumulés par les mises à jour incrémentales.
+ * </p>
+ * <p>
+ * P&amp;L réalisé : quantité appariée (minimum des quantités achetée et vendue)
+ * multipliée par l'écart entre prix de vente et prix d'achat. P&amp;L latent :
+ * position ouverte (achetée moins vendue) multipliée par l'écart entre la cotation
+ * et le prix de la jambe ouverte (prix d'achat pour une position longue, prix de
+ * vente pour une position courte). Un échange ouvert sans cotation est compté
+ * comme non valorisé.
+ * </p>
+ * <p>
+ * Les écritures ne sont pas synchronisées : elles doivent venir d'un seul thread.
+ * </p>
+ */
+public final class PnlEngine {
+
+    static final int NO_CURVE = -1;
+    private static final int CHUNK = 16_384;
+
+    private final StringDictionary books = new StringDictionary(SharedStrings::canonical);
+    private final StringDictionary traders = new StringDictionary(SharedStrings::canonical);
+    private final Map<Integer, Integer> slots = new HashMap<>();
+    private final Map<Long, Integer> groups = new HashMap<>();
+    private final Map<Integer, Integer> curves = new HashMap<>();
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private int slotCount;
+
+    private boolean[] live = new boolean[0];
+    private double[] buyQuantity = new double[0];
+    private double[] sellQuantity = new double[0];
+    private double[] buyPrice = new double[0];
+    private double[] sellPrice = new double[0];
+    private int[] group = new int[0];
+    private int[] curve = new int[0];
+    private double[] realized = new double[0];
+    private double[] unrealized = new double[0];
+
+    private int[] groupBook = new int[0];
+    private int[] groupTrader = new int[0];
+    private long[] groupTrades = new long[0];
+    private long[] groupUnmarked = new long[0];
+    private double[] groupRealized = new double[0];
+    private double[] groupUnrealized = new double[0];
+
+    private double[] marks = new double[0];
+    private int[] curveIds = new int[0];
+
+    /**
+     * Ajoute ou remplace un échange.
+     *
+     * @param curveId la courbe de valorisation de l'échange, nulle s'il n'en a pas
+     */
+    public void upsert(int id, double buyQuantity, double sellQuantity, double buyPrice, double sellPrice,
+                       String book, String trader, Integer curveId) {
+        Integer existing = slots.get(id);
+        int slot;
+        if (existing != null) {
+            slot = existing;
+            subtract(slot);
+        }
+        else {
+            slot = allocate();
+            slots.put(id, slot);
+            live[slot] = true;
+        }
+        this.buyQuantity[slot] = buyQuantity;
+        this.sellQuantity[slot] = sellQuantity;
+        this.buyPrice[slot] = buyPrice;
+        this.sellPrice[slot] = sellPrice;
+        this.group[slot] = group(book, trader);
+        this.curve[slot] = curveId == null ? NO_CURVE : curve(curveId);
+        compute(slot);
+        add(slot);
+    }
+
+    public void remove(int id) {
+        Integer slot = slots.remove(id);
+        if (slot == null) {
+            return;
+        }
+        subtract(slot);
+        live[slot] = false;
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    /**
+     * Change la cotation d'une courbe et recalcule en parallèle le P&amp;L latent des échanges qu'elle valorise.
+     *
+     * @param mark la nouvelle cotation, {@code NaN} si la courbe n'en a plus
+     */
+    public void setMark(int curveId, double mark, ForkJoinPool pool) {
+        int index = curve(curveId);
+        if (Double.compare(marks[index], mark) == 0) {
+            return;
+        }
+        marks[index] = mark;
+        Sums delta = pool.invoke(new MarkTask(this, index, 0, slotCount));
+        for (int g = 0; g < delta.unrealized.length; g++) {
+            groupUnrealized[g] += delta.unrealized[g];
+            groupUnmarked[g] += delta.unmarked[g];
+        }
+    }
+
+    /**
+     * Recalcule en parallèle le P&amp;L de tous les échanges et les sommes par groupe.
+     */
+    public void recomputeAll(ForkJoinPool pool) {
+        Sums sums = pool.invoke(new RecomputeTask(this, 0, slotCount));
+        int groupCount = groupBook.length;
+        for (int g = 0; g < groupCount; g++) {
+            groupTrades[g] = g < sums.trades.length ? sums.trades[g] : 0;
+            groupUnmarked[g] = g < sums.unmarked.length ? sums.unmarked[g] : 0;
+            groupRealized[g] = g < sums.realized.length ? sums.realized[g] : 0;
+            groupUnrealized[g] = g < sums.unrealized.length ? sums.unrealized[g] : 0;
+        }
+    }
+
+    /**
+     * Retourne les sommes par couple livre / trader ayant au moins un échange.
+     */
+    public List<PnlGroup> groups() {
+        List<PnlGroup> result = new ArrayList<>();
+        for (int g = 0; g < groupBook.length; g++) {
+            if (groupTrades[g] > 0) {
+                result.add(new PnlGroup(books.decode(groupBook[g]), traders.decode(groupTrader[g]), groupTrades[g],
+                        groupRealized[g], groupUnrealized[g], groupUnmarked[g]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Identifiants des courbes référencées par au moins un échange, actuel ou passé.
+     */
+    public int[] curveIds() {
+        return Arrays.copyOf(curveIds, curves.size());
+    }
+
+    public boolean hasCurve(int curveId) {
+        return curves.containsKey(curveId);
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    static double realized(double buyQuantity, double sellQuantity, double buyPrice, double sellPrice) {
+        double matched = Math.min(buyQuantity, sellQuantity);
+        if (!(matched > 0) || Double.isNaN(buyPrice) || Double.isNaN(sellPrice)) {
+            return 0;
+        }
+        return matched * (sellPrice - buyPrice);
+    }
+
+    /**
+     * @return le P&amp;L latent, 0 pour une position fermée, {@code NaN} si la position ne peut être valorisée
+     */
+    static double unrealized(double buyQuantity, double sellQuantity, double buyPrice, double sellPrice, double mark) {
+        double open = buyQuantity - sellQuantity;
+        if (open == 0) {
+            return 0;
+        }
+        double cost = open > 0 ? buyPrice : sellPrice;
+        return open * (mark - cost);
+    }
+
+    private void compute(int slot) {
+        double bq = buyQuantity[slot];
+        double sq = sellQuantity[slot];
+        double bp = buyPrice[slot];
+        double sp = sellPrice[slot];
+        int c = curve[slot];
+        realized[slot] = realized(bq, sq, bp, sp);
+        unrealized[slot] = unrealized(bq, sq, bp, sp, c == NO_CURVE ? Double.NaN : marks[c]);
+    }
+
+    private void add(int slot) {
+        int g = group[slot];
+        groupTrades[g]++;
+        groupRealized[g] += realized[slot];
+        double u = unrealized[slot];
+        if (Double.isNaN(u)) {
+            groupUnmarked[g]++;
+        }
+        else {
+            groupUnrealized[g] += u;
+        }
+    }
+
+    private void subtract(int slot) {
+        int g = group[slot];
+        groupTrades[g]--;
+        groupRealized[g] -= realized[slot];
+        double u = unrealized[slot];
+        if (Double.isNaN(u)) {
+            groupUnmarked[g]--;
+        }
+        else {
+            groupUnrealized[g] -= u;
+        }
+    }
+
+    private int allocate() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (slotCount == live.length) {
+            int capacity = Math.max(1024, live.length * 2);
+            live = Arrays.copyOf(live, capacity);
+            buyQuantity = Arrays.copyOf(buyQuantity, capacity);
+            sellQuantity = Arrays.copyOf(sellQuantity, capacity);
+            buyPrice = Arrays.copyOf(buyPrice, capacity);
+            sellPrice = Arrays.copyOf(sellPrice, capacity);
+            group = Arrays.copyOf(group, capacity);
+            curve = Arrays.copyOf(curve, capacity);
+            realized = Arrays.copyOf(realized, capacity);
+            unrealized = Arrays.copyOf(unrealized, capacity);
+        }
+        return slotCount++;
+    }
+
+    private int group(String book, String trader) {
+        int bookCode = books.encode(book);
+        int traderCode = traders.encode(trader);
+        long key = (long) bookCode << 32 | traderCode;
+        Integer existing = groups.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        int index = groups.size();
+        if (index == groupBook.length) {
+            int capacity = Math.max(16, index * 2);
+            groupBook = Arrays.copyOf(groupBook, capacity);
+            groupTrader = Arrays.copyOf(groupTrader, capacity);
+            groupTrades = Arrays.copyOf(groupTrades, capacity);
+            groupUnmarked = Arrays.copyOf(groupUnmarked, capacity);
+            groupRealized = Arrays.copyOf(groupRealized, capacity);
+            groupUnrealized = Arrays.copyOf(groupUnrealized, capacity);
+        }
+        groupBook[index] = bookCode;
+        groupTrader[index] = traderCode;
+        groups.put(key, index);
+        return index;
+    }
+
+    private int curve(int curveId) {
+        Integer existing = curves.get(curveId);
+        if (existing != null) {
+            return existing;
+        }
+        int index = curves.size();
+        if (index == marks.length) {
+            int capacity = Math.max(16, index * 2);
+            marks = Arrays.copyOf(marks, capacity);
+            curveIds = Arrays.copyOf(curveIds, capacity);
+        }
+        marks[index] = Double.NaN;
+        curveIds[index] = curveId;
+        curves.put(curveId, index);
+        return index;
+    }
+
+    /**
+     * Sommes partielles par groupe.
+     */
+    private static final class Sums {
+        final long[] trades;
+        final long[] unmarked;
+        final double[] realized;
+        final double[] unrealized;
+
+        Sums(int groups) {
+            trades = new long[groups];
+            unmarked = new long[groups];
+            realized = new double[groups];
+            unrealized = new double[groups];
+        }
+
+        Sums merge(Sums other) {
+            for (int g = 0; g < trades.length; g++) {
+                trades[g] += other.trades[g];
+                unmarked[g] += other.unmarked[g];
+                realized[g] += other.realized[g];
+                unrealized[g] += other.unrealized[g];
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Recalcule une plage de cases, en la coupant en deux tant qu'elle dépasse {@link #CHUNK}.
+     */
+    private static final class RecomputeTask extends RecursiveTask<Sums> {
+        private final PnlEngine engine;
+        private final int lo;
+        private final int hi;
+
+        RecomputeTask(PnlEngine engine, int lo, int hi) {
+            this.engine = engine;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected Sums compute() {
+            if (hi - lo > CHUNK) {
+                int mid = (lo + hi) >>> 1;
+                RecomputeTask left = new RecomputeTask(engine, lo, mid);
+                left.fork();
+                Sums right = new RecomputeTask(engine, mid, hi).compute();
+                return left.join().merge(right);
+            }
+            Sums sums = new Sums(engine.groupBook.length);
+            boolean[] live = engine.live;
+            double[] bq = engine.buyQuantity;
+            double[] sq = engine.sellQuantity;
+            double[] bp = engine.buyPrice;
+            double[] sp = engine.sellPrice;
+            double[] realized = engine.realized;
+            double[] unrealized = engine.unrealized;
+            for (int slot = lo; slot < hi; slot++) {
+                realized[slot] = PnlEngine.realized(bq[slot], sq[slot], bp[slot], sp[slot]);
+            }
+            int[] curve = engine.curve;
+            double[] marks = engine.marks;
+            for (int slot = lo; slot < hi; slot++) {
+                int c = curve[slot];
+                unrealized[slot] = PnlEngine.unrealized(bq[slot], sq[slot], bp[slot], sp[slot],
+                        c == NO_CURVE ? Double.NaN : marks[c]);
+            }
+            int[] group = engine.group;
+            for (int slot = lo; slot < hi; slot++) {
+                if (!live[slot]) {
+                    continue;
+                }
+                int g = group[slot];
+                sums.trades[g]++;
+                sums.realized[g] += realized[slot];
+                double u = unrealized[slot];
+                if (Double.isNaN(u)) {
+                    sums.unmarked[g]++;
+                }
+                else {
+                    sums.unrealized[g] += u;
+                }
+            }
+            return sums;
+        }
+    }
+
+    /**
+     * Recalcule le P&amp;L latent des cases valorisées sur une courbe et renvoie les écarts par groupe.
+     */
+    private static final class MarkTask extends RecursiveTask<Sums> {
+        private final PnlEngine engine;
+        private final int curveIndex;
+        private final int lo;
+        private final int hi;
+
+        MarkTask(PnlEngine engine, int curveIndex, int lo, int hi) {
+            this.engine = engine;
+            this.curveIndex = curveIndex;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected Sums compute() {
+            if (hi - lo > CHUNK) {
+                int mid = (lo + hi) >>> 1;
+                MarkTask left = new MarkTask(engine, curveIndex, lo, mid);
+                left.fork();
+                Sums right = new MarkTask(engine, curveIndex, mid, hi).compute();
+                return left.join().merge(right);
+            }
+            Sums delta = new Sums(engine.groupBook.length);
+            double mark = engine.marks[curveIndex];
+            boolean[] live = engine.live;
+            int[] curve = engine.curve;
+            int[] group = engine.group;
+            double[] unrealized = engine.unrealized;
+            for (int slot = lo; slot < hi; slot++) {
+                if (curve[slot] != curveIndex || !live[slot]) {
+                    continue;
+                }
+                double before = unrealized[slot];
+                double after = PnlEngine.unrealized(engine.buyQuantity[slot], engine.sellQuantity[slot],
+                        engine.buyPrice[slot], engine.sellPrice[slot], mark);
+                unrealized[slot] = after;
+                int g = group[slot];
+                if (Double.isNaN(before)) {
+                    delta.unmarked[g]--;
+                }
+                else {
+                    delta.unrealized[g] -= before;
+                }
+                if (Double.isNaN(after)) {
+                    delta.unmarked[g]++;
+                }
+                else {
+                    delta.unrealized[g] += after;
+                }
+            }
+            return delta;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.pcs.app.pnl;
+
+/**
+ * P&amp;L d'un groupe d'échanges.
+ *
+ * @param book le livre, nul pour un regroupement par trader seul ou pour les échanges sans livre
+ * @param trader le trader, nul pour un regroupement par livre seul ou pour les échanges sans trader
+ * @param trades le nombre d'échanges
+ * @param realized le P&amp;L réalisé
+ * @param unrealized le P&amp;L latent des échanges valorisés
+ * @param total la somme des P&amp;L réalisé et latent
+ * @param unmarked le nombre d'échanges ouverts sans cotation, exclus du P&amp;L latent
+ */
+public record PnlGroup(String book, String trader, long trades, double realized, double unrealized, double total,
+                       long unmarked) {
+
+    public PnlGroup(String book, String trader, long trades, double realized, double unrealized, long unmarked) {
+        this(book, trader, trades, realized, unrealized, realized + unrealized, unmarked);
+    }
+}
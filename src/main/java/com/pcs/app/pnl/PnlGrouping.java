@@ -0,0 +1,10 @@
+package com.pcs.app.pnl;
+
+/**
+ * Regroupements disponibles pour le P&amp;L.
+ */
+public enum PnlGrouping {
+    BOOK,
+    TRADER,
+    BOOK_TRADER
+}
@@ -0,0 +1,296 @@
+package com.pcs.app.pnl;
+
+import com.pcs.app.domain.CurvePoint;
+import com.pcs.app.domain.Trade;
+import com.pcs.app.events.EntityChangeEvent;
+import com.pcs.app.history.CurveState;
+import com.pcs.app.repositories.CurvePointRepository;
+import com.pcs.app.repositories.TradeRepository;
+import com.pcs.app.sharding.ShardingService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tient à jour le P&amp;L réalisé et latent des échanges, par livre et par trader.
+ * <p>
+ * Les échanges sont chargés au démarrage dans un {@link PnlEngine}, puis suivis à
+ * partir des événements publiés par {@code TradeService}. Chaque échange est
+ * valorisé sur la courbe associée à son indice de référence
+ * ({@code app.pnl.benchmark-curves}, à défaut l'indice lui-même s'il est numérique),
+ * au terme {@code app.pnl.mark-term}. Une modification de point de courbe ne
+ * recalcule que les échanges valorisés sur cette courbe.
+ * </p>
+ * <p>
+ * Toutes les écritures sur le moteur passent par un unique thread, qui publie
+ * après chaque lot d'événements un nouvel instantané des sommes par groupe.
+ * </p>
+ */
+@Slf4j
+@Service
+public class PnlService {
+
+    private static final int LOAD_PAGE_SIZE = 10_000;
+    private static final Comparator<PnlGroup> ORDER = Comparator
+            .comparing(PnlGroup::book, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(PnlGroup::trader, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Autowired
+    private ShardingService sharding;
+
+    @Autowired
+    private CurvePointRepository curvePointRepository;
+
+    private final PnlEngine engine = new PnlEngine();
+    private final ForkJoinPool pool = ForkJoinPool.commonPool();
+    private final Map<String, Integer> benchmarkCurves;
+    private final double markTerm;
+    private final ScheduledExecutorService writer;
+    private final ConcurrentLinkedQueue<EntityChangeEvent<Trade>> pendingTrades = new ConcurrentLinkedQueue<>();
+    private final Set<Integer> dirtyCurves = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    // Courbes dont la cotation a déjà été chargée, lues et écrites par le seul thread d'écriture
+    private final Set<Integer> markedCurves = new HashSet<>();
+    private volatile List<PnlGroup> snapshot = List.of();
+    private volatile boolean loaded;
+
+    public PnlService(@Value("${app.pnl.benchmark-curves:}") String benchmarkCurves,
+                      @Value("${app.pnl.mark-term:0}") double markTerm,
+                      @Value("${app.pnl.recompute-interval-ms:600000}") long recomputeIntervalMs) {
+        this.benchmarkCurves = parseBenchmarkCurves(benchmarkCurves);
+        this.markTerm = markTerm;
+        this.writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "pnl");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer.scheduleWithFixedDelay(this::recomputeQuietly, recomputeIntervalMs, recomputeIntervalMs,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        writer.execute(this::loadQuietly);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTradeChange(EntityChangeEvent<Trade> event) {
+        pendingTrades.add(event);
+        scheduleDrain();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCurvePointChange(EntityChangeEvent<CurvePoint> event) {
+        if (event.entity() != null && event.entity().getCurveId() != null) {
+            dirtyCurves.add(event.entity().getCurveId());
+        }
+        scheduleDrain();
+    }
+
+    /**
+     * Retourne le P&amp;L selon le regroupement demandé, trié par livre puis par trader.
+     */
+    public List<PnlGroup> getPnl(PnlGrouping groupBy) {
+        List<PnlGroup> groups = snapshot;
+        if (groupBy == PnlGrouping.BOOK_TRADER) {
+            return groups;
+        }
+        Map<String, PnlGroup> rollup = new LinkedHashMap<>();
+        for (PnlGroup group : groups) {
+            String key = groupBy == PnlGrouping.BOOK ? group.book() : group.trader();
+            rollup.merge(key, groupBy == PnlGrouping.BOOK
+                            ? new PnlGroup(key, null, group.trades(), group.realized(), group.unrealized(), group.unmarked())
+                            : new PnlGroup(null, key, group.trades(), group.realized(), group.unrealized(), group.unmarked()),
+                    (a, b) -> new PnlGroup(a.book(), a.trader(), a.trades() + b.trades(), a.realized() + b.realized(),
+                            a.unrealized() + b.unrealized(), a.unmarked() + b.unmarked()));
+        }
+        List<PnlGroup> result = new ArrayList<>(rollup.values());
+        result.sort(ORDER);
+        return result;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writer.shutdownNow();
+    }
+
+    private void scheduleDrain() {
+        if (drainScheduled.compareAndSet(false, true)) {
+            writer.execute(this::drainQuietly);
+        }
+    }
+
+    private void loadQuietly() {
+        try {
+            long start = System.currentTimeMillis();
+            if (sharding.enabled()) {
+                sharding.trades().forEachPage(LOAD_PAGE_SIZE, trades -> trades.forEach(this::upsert));
+            }
+            else {
+                Page<Trade> page;
+                int number = 0;
+                do {
+                    page = tradeRepository.findAll(PageRequest.of(number++, LOAD_PAGE_SIZE, Sort.by("id")));
+                    page.forEach(this::upsert);
+                } while (page.hasNext());
+            }
+            for (int curveId : engine.curveIds()) {
+                refreshMark(curveId);
+            }
+            engine.recomputeAll(pool);
+            loaded = true;
+            // Les événements reçus pendant le chargement sont rejoués par-dessus
+            drain();
+            log.info("P&L engine loaded: {} trades on {} curves ({} ms)",
+                    engine.size(), engine.curveIds().length, System.currentTimeMillis() - start);
+        }
+        catch (Exception e) {
+            log.error("P&L engine load failed", e);
+        }
+    }
+
+    private void drainQuietly() {
+        try {
+            drain();
+        }
+        catch (Exception e) {
+            log.error("P&L update failed", e);
+        }
+    }
+
+    private void recomputeQuietly() {
+        try {
+            if (!loaded) {
+                return;
+            }
+            for (int curveId : engine.curveIds()) {
+                refreshMark(curveId);
+            }
+            engine.recomputeAll(pool);
+            publish();
+        }
+        catch (Exception e) {
+            log.error("P&L recompute failed", e);
+        }
+    }
+
+    private void drain() {
+        drainScheduled.set(false);
+        if (!loaded) {
+            return;
+        }
+        EntityChangeEvent<Trade> event;
+        while ((event = pendingTrades.poll()) != null) {
+            if (event.changeType().removes()) {
+                engine.remove(event.id());
+            }
+            else {
+                upsert(event.entity());
+            }
+        }
+        for (Integer curveId : dirtyCurves) {
+            dirtyCurves.remove(curveId);
+            // Les courbes sur lesquelles aucun échange n'est valorisé sont ignorées
+            if (engine.hasCurve(curveId)) {
+                refreshMark(curveId);
+            }
+        }
+        publish();
+    }
+
+    private void upsert(Trade trade) {
+        Integer curveId = curveFor(trade.getBenchmark());
+        engine.upsert(trade.getId(), value(trade.getBuyQuantity()), value(trade.getSellQuantity()),
+                price(trade.getBuyPrice()), price(trade.getSellPrice()), trade.getBook(), trade.getTrader(), curveId);
+        if (curveId != null && loaded && !markedCurves.contains(curveId)) {
+            dirtyCurves.add(curveId);
+        }
+    }
+
+    private void refreshMark(int curveId) {
+        Map<Double, Double> values = new HashMap<>();
+        curvePointRepository.findByCurveId(curveId).stream()
+                .filter(point -> point.getTerm() != null)
+                .sorted(Comparator.comparing(CurvePoint::getId))
+                .forEach(point -> values.put(point.getTerm(), point.getValue()));
+        engine.setMark(curveId, CurveState.of(values).valueAt(markTerm), pool);
+        markedCurves.add(curveId);
+    }
+
+    private void publish() {
+        List<PnlGroup> groups = engine.groups();
+        groups.sort(ORDER);
+        snapshot = List.copyOf(groups);
+    }
+
+    Integer curveFor(String benchmark) {
+        if (benchmark == null) {
+            return null;
+        }
+        Integer curveId = benchmarkCurves.get(benchmark);
+        if (curveId != null) {
+            return curveId;
+        }
+        try {
+            return Integer.valueOf(benchmark.trim());
+        }
+        catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Map<String, Integer> parseBenchmarkCurves(String mapping) {
+        Map<String, Integer> curves = new HashMap<>();
+        for (String entry : mapping.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.lastIndexOf(':');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid app.pnl.benchmark-curves entry: " + entry);
+            }
+            curves.put(entry.substring(0, separator).trim(), Integer.valueOf(entry.substring(separator + 1).trim()));
+        }
+        return Map.copyOf(curves);
+    }
+
+    private static double value(Double value) {
+        return Objects.requireNonNullElse(value, 0.0);
+    }
+
+    private static double price(Double price) {
+        return price == null ? Double.NaN : price;
+    }
+}
@@ -0,0 +1,89 @@
+package com.pcs.app.rating;
+
+import com.pcs.app.domain.Rating;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Agences de notation et leur échelle de long terme.
+ * <p>
+ * Les notes sont ramenées sur une échelle commune d'ordinaux, de 1 (AAA / Aaa)
+ * à 21 (C), 22 désignant le défaut (D, SD, RD), que Moody's n'attribue pas.
+ * Deux notes de même ordinal sont équivalentes d'une agence à l'autre.
+ * </p>
+ */
+public enum RatingAgency {
+    MOODYS(Rating::getMoodysRating, "Aaa", "Aa1", "Aa2", "Aa3", "A1", "A2", "A3", "Baa1", "Baa2", "Baa3",
+            "Ba1", "Ba2", "Ba3", "B1", "B2", "B3", "Caa1", "Caa2", "Caa3", "Ca", "C"),
+    SP(Rating::getSandPRating, "AAA", "AA+", "AA", "AA-", "A+", "A", "A-", "BBB+", "BBB", "BBB-",
+            "BB+", "BB", "BB-", "B+", "B", "B-", "CCC+", "CCC", "CCC-", "CC", "C", "D"),
+    FITCH(Rating::getFitchRating, "AAA", "AA+", "AA", "AA-", "A+", "A", "A-", "BBB+", "BBB", "BBB-",
+            "BB+", "BB", "BB-", "B+", "B", "B-", "CCC+", "CCC", "CCC-", "CC", "C", "D");
+
+    /**
+     * Ordinal réservé aux notes absentes ou inconnues de l'agence.
+     */
+    public static final int UNRATED = 0;
+    public static final int DEFAULT = 22;
+
+    private final Function<Rating, String> accessor;
+    // Symbole par ordinal, la case 0 restant vide
+    private final String[] symbols;
+    private final Map<String, Integer> ordinals = new HashMap<>();
+
+    RatingAgency(Function<Rating, String> accessor, String... symbols) {
+        this.accessor = accessor;
+        this.symbols = new String[symbols.length + 1];
+        System.arraycopy(symbols, 0, this.symbols, 1, symbols.length);
+        for (int ordinal = 1; ordinal < this.symbols.length; ordinal++) {
+            ordinals.put(normalize(this.symbols[ordinal]), ordinal);
+        }
+        if (symbols.length == DEFAULT) {
+            ordinals.put("SD", DEFAULT);
+            ordinals.put("RD", DEFAULT);
+        }
+    }
+
+    /**
+     * @return l'ordinal du symbole, {@link #UNRATED} s'il est nul ou inconnu de l'agence
+     */
+    public int rank(String symbol) {
+        if (symbol == null) {
+            return UNRATED;
+        }
+        return ordinals.getOrDefault(normalize(symbol), UNRATED);
+    }
+
+    /**
+     * @return l'ordinal de la note de cette agence, {@link #UNRATED} si elle n'en a pas
+     */
+    public int rank(Rating rating) {
+        return rank(accessor.apply(rating));
+    }
+
+    /**
+     * @return le symbole de l'ordinal, nul si l'agence n'en a pas
+     */
+    public String symbol(int ordinal) {
+        return ordinal > 0 && ordinal < symbols.length ? symbols[ordinal] : null;
+    }
+
+    /**
+     * Ignore la casse, les blancs, le préfixe provisoire {@code (P)} et les mentions
+     * de surveillance qui suivent la note (« Baa1 *- »).
+     */
+    static String normalize(String symbol) {
+        String trimmed = symbol.trim();
+        if (trimmed.startsWith("(P)") || trimmed.startsWith("(p)")) {
+            trimmed = trimmed.substring(3).trim();
+        }
+        int space = trimmed.indexOf(' ');
+        if (space > 0) {
+            trimmed = trimmed.substring(0, space);
+        }
+        return trimmed.toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,20 @@
+package com.pcs.app.rating;
+
+/**
+ * Notes équivalentes des trois agences pour un ordinal de l'échelle commune.
+ *
+ * @param ordinal l'ordinal, de 1 (AAA) à 22 (défaut)
+ * @param moodys la note Moody's, nulle pour le défaut
+ * @param sandP la note S&amp;P
+ * @param fitch la note Fitch
+ * @param investmentGrade vrai jusqu'à BBB- / Baa3 inclus
+ */
+public record RatingEquivalence(int ordinal, String moodys, String sandP, String fitch, boolean investmentGrade) {
+
+    static final int LAST_INVESTMENT_GRADE = 10;
+
+    public static RatingEquivalence of(int ordinal) {
+        return new RatingEquivalence(ordinal, RatingAgency.MOODYS.symbol(ordinal), RatingAgency.SP.symbol(ordinal),
+                RatingAgency.FITCH.symbol(ordinal), ordinal <= LAST_INVESTMENT_GRADE);
+    }
+}
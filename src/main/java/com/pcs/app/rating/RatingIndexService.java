@@ -0,0 +1,144 @@
+package com.pcs.app.rating;
+
+import com.pcs.app.domain.Rating;
+import com.pcs.app.events.EntityChangeEvent;
+import com.pcs.app.repositories.RatingRepository;
+import com.pcs.app.warmstate.WarmCache;
+import com.pcs.app.warmstate.WarmStateService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Répond en mémoire aux recherches de taux par plage de notes et aux équivalences entre agences.
+ * <p>
+ * L'index est construit au démarrage, puis reconstruit et remplacé en bloc après
+ * chaque écriture validée de {@code RatingService} : un lecteur voit toujours
+ * un index complet. Au redémarrage, l'index est reconstruit à partir des taux
+ * de l'instantané de démarrage.
+ * </p>
+ */
+@Slf4j
+@Service
+public class RatingIndexService implements WarmCache<Rating> {
+
+    @Autowired
+    private RatingRepository repository;
+
+    @Autowired
+    private WarmStateService warmState;
+
+    private volatile RatingScaleIndex index = RatingScaleIndex.EMPTY;
+    // Taux relus depuis l'instantané, indexés une fois le chargement terminé
+    private final Map<Integer, Rating> restored = new TreeMap<>();
+    private volatile boolean loading = true;
+    private volatile boolean changedWhileLoading;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (warmState.restore(this)) {
+            publishRestored();
+        }
+        else {
+            rebuild();
+        }
+        loading = false;
+        warmState.register(this);
+        log.info("Rating scale index built on {} ratings", index.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRatingChange(EntityChangeEvent<Rating> event) {
+        if (loading) {
+            changedWhileLoading = true;
+        }
+        rebuild();
+    }
+
+    @Override
+    public String warmStateName() {
+        return "rating-index";
+    }
+
+    @Override
+    public Class<Rating> warmStateType() {
+        return Rating.class;
+    }
+
+    @Override
+    public void forEachWarmRow(Consumer<Rating> rows) {
+        index.forEach(rows);
+    }
+
+    @Override
+    public synchronized void restoreWarmRows(List<Rating> rows) {
+        rows.forEach(rating -> restored.put(rating.getId(), rating));
+    }
+
+    @Override
+    public synchronized void evictWarmRows(Collection<Integer> ids) {
+        ids.forEach(restored::remove);
+    }
+
+    /**
+     * Retourne les taux dont la note de l'agence est comprise entre deux notes incluses,
+     * de la meilleure à la moins bonne.
+     *
+     * @param best la meilleure note, optionnelle
+     * @param worst la moins bonne note, optionnelle
+     */
+    public List<Rating> getRange(RatingAgency agency, String best, String worst) {
+        int from = best == null ? 1 : rank(agency, best);
+        int to = worst == null ? RatingAgency.DEFAULT : rank(agency, worst);
+        return index.range(agency, from, to);
+    }
+
+    public RatingEquivalence getEquivalence(RatingAgency agency, String symbol) {
+        return RatingEquivalence.of(rank(agency, symbol));
+    }
+
+    public int[] getHistogram(RatingAgency agency) {
+        return index.histogram(agency);
+    }
+
+    /**
+     * Les reconstructions sont sérialisées pour que la dernière publiée lise l'état le plus récent.
+     */
+    private synchronized void rebuild() {
+        index = RatingScaleIndex.build(repository.findAll());
+    }
+
+    /**
+     * Publie l'index des taux restaurés, sauf si une écriture validée pendant la
+     * restauration a déjà fait relire la table.
+     */
+    private synchronized void publishRestored() {
+        if (changedWhileLoading) {
+            rebuild();
+        }
+        else {
+            index = RatingScaleIndex.build(new ArrayList<>(restored.values()));
+        }
+        restored.clear();
+    }
+
+    private static int rank(RatingAgency agency, String symbol) {
+        int ordinal = agency.rank(symbol);
+        if (ordinal == RatingAgency.UNRATED) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown " + agency + " rating " + symbol);
+        }
+        return ordinal;
+    }
+}
@@ -0,0 +1,100 @@
+package com.pcs.app.rating;
+
+import com.pcs.app.domain.Rating;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Index figé des taux par ordinal de note, pour chaque agence.
+ * <p>
+ * Pour une agence, les positions des taux sont rangées par ordinal croissant
+ * (tri par dénombrement) et {@code offsets[o]} donne le début de l'ordinal
+ * {@code o} : les taux d'une plage de notes sont contigus et se lisent sans
+ * aucune comparaison de chaînes. Un index n'est jamais modifié ; il est
+ * reconstruit puis remplacé en bloc.
+ * </p>
+ */
+public final class RatingScaleIndex {
+
+    public static final RatingScaleIndex EMPTY = build(List.of());
+
+    private final Rating[] ratings;
+    // Par agence : positions triées par ordinal, et début de chaque ordinal dans ce tableau
+    private final int[][] positions;
+    private final int[][] offsets;
+
+    private RatingScaleIndex(Rating[] ratings, int[][] positions, int[][] offsets) {
+        this.ratings = ratings;
+        this.positions = positions;
+        this.offsets = offsets;
+    }
+
+    public static RatingScaleIndex build(List<Rating> source) {
+        Rating[] ratings = source.toArray(new Rating[0]);
+        RatingAgency[] agencies = RatingAgency.values();
+        int[][] positions = new int[agencies.length][];
+        int[][] offsets = new int[agencies.length][];
+        int[] ordinals = new int[ratings.length];
+        for (RatingAgency agency : agencies) {
+            int[] counts = new int[RatingAgency.DEFAULT + 2];
+            for (int i = 0; i < ratings.length; i++) {
+                ordinals[i] = agency.rank(ratings[i]);
+                counts[ordinals[i] + 1]++;
+            }
+            for (int o = 1; o < counts.length; o++) {
+                counts[o] += counts[o - 1];
+            }
+            int[] start = counts.clone();
+            int[] sorted = new int[ratings.length];
+            for (int i = 0; i < ratings.length; i++) {
+                sorted[start[ordinals[i]]++] = i;
+            }
+            positions[agency.ordinal()] = sorted;
+            offsets[agency.ordinal()] = counts;
+        }
+        return new RatingScaleIndex(ratings, positions, offsets);
+    }
+
+    /**
+     * Retourne les taux dont la note de l'agence est comprise entre deux ordinaux inclus,
+     * du meilleur au moins bon.
+     */
+    public List<Rating> range(RatingAgency agency, int best, int worst) {
+        int from = Math.max(best, 1);
+        int to = Math.min(worst, RatingAgency.DEFAULT);
+        if (from > to) {
+            return List.of();
+        }
+        int[] sorted = positions[agency.ordinal()];
+        int[] offset = offsets[agency.ordinal()];
+        List<Rating> result = new ArrayList<>(offset[to + 1] - offset[from]);
+        for (int i = offset[from]; i < offset[to + 1]; i++) {
+            result.add(ratings[sorted[i]]);
+        }
+        return result;
+    }
+
+    /**
+     * @return le nombre de taux ayant chaque ordinal de l'agence, la case 0 comptant les taux sans note
+     */
+    public int[] histogram(RatingAgency agency) {
+        int[] offset = offsets[agency.ordinal()];
+        int[] histogram = new int[RatingAgency.DEFAULT + 1];
+        for (int o = 0; o < histogram.length; o++) {
+            histogram[o] = offset[o + 1] - offset[o];
+        }
+        return histogram;
+    }
+
+    public void forEach(Consumer<Rating> visitor) {
+        for (Rating rating : ratings) {
+            visitor.accept(rating);
+        }
+    }
+
+    public int size() {
+        return ratings.length;
+    }
+}
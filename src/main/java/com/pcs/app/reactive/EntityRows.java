@@ -0,0 +1,135 @@
+package com.pcs.app.reactive;
+
+import io.r2dbc.spi.Readable;
+import jakarta.persistence.Column;
+import jakarta.persistence.Table;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Correspondance entre les champs d'une entité JPA et les colonnes de sa table, pour R2DBC.
+ * <p>
+ * Les colonnes sont déduites des champs persistants de l'entité selon la
+ * convention de nommage de Spring Boot (camelCase en snake_case), ou de
+ * {@link Column#name()} s'il est renseigné : un champ ajouté à l'entité est lu
+ * sans autre modification.
+ * </p>
+ */
+public final class EntityRows<T> {
+
+    private record Mapping(Field field, String column) {
+    }
+
+    private final Constructor<T> constructor;
+    private final String table;
+    private final List<Mapping> mappings = new ArrayList<>();
+    private final String columns;
+
+    public EntityRows(Class<T> type) {
+        try {
+            constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+        }
+        catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException(type.getSimpleName() + " has no no-arg constructor", e);
+        }
+        Table annotation = type.getAnnotation(Table.class);
+        this.table = annotation != null && !annotation.name().isEmpty()
+                ? annotation.name()
+                : columnName(type.getSimpleName());
+        for (Field field : type.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers())) {
+                continue;
+            }
+            Class<?> fieldType = field.getType();
+            if (fieldType != Integer.class && fieldType != Double.class && fieldType != String.class
+                    && fieldType != Timestamp.class) {
+                throw new IllegalArgumentException("Unsupported field " + type.getSimpleName() + "." + field.getName());
+            }
+            field.setAccessible(true);
+            Column column = field.getAnnotation(Column.class);
+            mappings.add(new Mapping(field, column != null && !column.name().isEmpty()
+                    ? column.name()
+                    : columnName(field.getName())));
+        }
+        this.columns = mappings.stream().map(Mapping::column).collect(Collectors.joining(", "));
+    }
+
+    public String table() {
+        return table;
+    }
+
+    /**
+     * Retourne la liste des colonnes à sélectionner, séparées par des virgules.
+     */
+    public String columns() {
+        return columns;
+    }
+
+    /**
+     * Retourne la colonne du champ donné.
+     */
+    public String column(String field) {
+        return mappings.stream()
+                .filter(mapping -> mapping.field().getName().equals(field))
+                .map(Mapping::column)
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown field " + field));
+    }
+
+    public T map(Readable row) {
+        T entity = newInstance();
+        for (Mapping mapping : mappings) {
+            Class<?> type = mapping.field().getType();
+            Object value;
+            if (type == Timestamp.class) {
+                LocalDateTime dateTime = row.get(mapping.column(), LocalDateTime.class);
+                value = dateTime == null ? null : Timestamp.valueOf(dateTime);
+            }
+            else {
+                value = row.get(mapping.column(), type);
+            }
+            try {
+                mapping.field().set(entity, value);
+            }
+            catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return entity;
+    }
+
+    private T newInstance() {
+        try {
+            return constructor.newInstance();
+        }
+        catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Cannot instantiate " + constructor.getDeclaringClass().getSimpleName(), e);
+        }
+    }
+
+    /**
+     * Applique la convention de nommage physique de Spring Boot : {@code buyQuantity} devient {@code buy_quantity}.
+     */
+    static String columnName(String name) {
+        StringBuilder column = new StringBuilder(name.length() + 4);
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            // Même règle que CamelCaseToUnderscoresNamingStrategy : minuscule, majuscule, minuscule
+            if (i > 0 && i < name.length() - 1 && Character.isLowerCase(name.charAt(i - 1))
+                    && Character.isUpperCase(c) && Character.isLowerCase(name.charAt(i + 1))) {
+                column.append('_');
+            }
+            column.append(Character.toLowerCase(c));
+        }
+        return column.toString();
+    }
+}
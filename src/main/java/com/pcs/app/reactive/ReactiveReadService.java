@@ -0,0 +1,142 @@
+package com.pcs.app.reactive;
+
+import com.pcs.app.domain.BidList;
+import com.pcs.app.domain.SearchFilter;
+import com.pcs.app.domain.Trade;
+import com.pcs.app.sharding.ShardingService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lecture non bloquante des échanges et des enchères, via R2DBC.
+ * <p>
+ * Les lignes sont émises au fil de la lecture et la demande du consommateur est
+ * propagée jusqu'au pilote : un client lent ralentit la lecture au lieu de faire
+ * grossir un tampon en mémoire. Aucune connexion JDBC ni aucun thread n'est
+ * retenu pendant l'attente des lignes. Les critères et le tri sont ceux de la
+ * recherche paginée, pour profiter des mêmes index.
+ * </p>
+ * <p>
+ * La connexion R2DBC n'atteint que la base principale : lorsque les échanges et
+ * les enchères sont répartis entre plusieurs bases, la lecture est refusée
+ * plutôt que d'omettre les lignes des autres bases.
+ * </p>
+ */
+@Service
+public class ReactiveReadService {
+
+    private static final EntityRows<Trade> TRADES = new EntityRows<>(Trade.class);
+    private static final EntityRows<BidList> BID_LISTS = new EntityRows<>(BidList.class);
+
+    @Autowired
+    private DatabaseClient client;
+
+    @Autowired
+    private ShardingService sharding;
+
+    private final int maxRows;
+    private final int prefetch;
+
+    public ReactiveReadService(@Value("${app.reactive.max-rows:1000000}") int maxRows,
+                               @Value("${app.reactive.prefetch:256}") int prefetch) {
+        this.maxRows = maxRows;
+        this.prefetch = prefetch;
+    }
+
+    /**
+     * Émet les échanges correspondant aux critères, par date décroissante.
+     *
+     * @param limit le nombre maximal d'échanges, plafonné par {@code app.reactive.max-rows}
+     */
+    public Flux<Trade> streamTrades(SearchFilter filter, Integer limit) {
+        return stream(TRADES, "tradeDate", filter, limit, "buyQuantity", "sellQuantity");
+    }
+
+    /**
+     * Émet les enchères correspondant aux critères, par date décroissante.
+     *
+     * @param limit le nombre maximal d'enchères, plafonné par {@code app.reactive.max-rows}
+     */
+    public Flux<BidList> streamBidLists(SearchFilter filter, Integer limit) {
+        return stream(BID_LISTS, "bidListDate", filter, limit, "bidQuantity", "askQuantity");
+    }
+
+    /**
+     * Les bornes de quantité retiennent une ligne dont l'un des champs de quantité s'y trouve,
+     * comme la recherche paginée.
+     */
+    private <T> Flux<T> stream(EntityRows<T> rows, String dateField, SearchFilter filter, Integer limit,
+                               String... quantityFields) {
+        if (sharding.enabled()) {
+            throw new ResponseStatusException(HttpStatus.NOT_IMPLEMENTED, "Streaming reads are not available on sharded tables");
+        }
+        if (limit != null && limit <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be strictly positive");
+        }
+        String dateColumn = rows.column(dateField);
+        List<String> clauses = new ArrayList<>();
+        List<Object> values = new ArrayList<>();
+        if (filter != null) {
+            addEquals(clauses, values, "account", filter.getAccount());
+            addEquals(clauses, values, "security", filter.getSecurity());
+            addEquals(clauses, values, "trader", filter.getTrader());
+            addEquals(clauses, values, "book", filter.getBook());
+            addEquals(clauses, values, "status", filter.getStatus());
+            addEquals(clauses, values, "side", filter.getSide());
+            if (filter.getFromDate() != null) {
+                clauses.add(dateColumn + " >= ?");
+                values.add(filter.getFromDate().atStartOfDay());
+            }
+            if (filter.getToDate() != null) {
+                // Borne exclusive au lendemain pour inclure toute la journée
+                clauses.add(dateColumn + " < ?");
+                values.add(filter.getToDate().plusDays(1).atStartOfDay());
+            }
+            if (filter.getMinQuantity() != null || filter.getMaxQuantity() != null) {
+                List<String> sides = new ArrayList<>();
+                for (String quantityField : quantityFields) {
+                    String quantityColumn = rows.column(quantityField);
+                    List<String> bounds = new ArrayList<>();
+                    if (filter.getMinQuantity() != null) {
+                        bounds.add(quantityColumn + " >= ?");
+                        values.add(filter.getMinQuantity());
+                    }
+                    if (filter.getMaxQuantity() != null) {
+                        bounds.add(quantityColumn + " <= ?");
+                        values.add(filter.getMaxQuantity());
+                    }
+                    sides.add("(" + String.join(" AND ", bounds) + ")");
+                }
+                clauses.add("(" + String.join(" OR ", sides) + ")");
+            }
+        }
+        StringBuilder sql = new StringBuilder("SELECT ").append(rows.columns()).append(" FROM ").append(rows.table());
+        if (!clauses.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", clauses));
+        }
+        sql.append(" ORDER BY ").append(dateColumn).append(" DESC, id DESC LIMIT ")
+                .append(limit == null ? maxRows : Math.min(limit, maxRows));
+
+        DatabaseClient.GenericExecuteSpec spec = client.sql(sql.toString());
+        for (int i = 0; i < values.size(); i++) {
+            spec = spec.bind(i, values.get(i));
+        }
+        // Demande au pilote par lots plutôt que ligne à ligne, sans dépasser le lot en mémoire
+        return spec.map(rows::map).all().limitRate(prefetch);
+    }
+
+    private static void addEquals(List<String> clauses, List<Object> values, String column, String value) {
+        if (value != null && !value.isBlank()) {
+            clauses.add(column + " = ?");
+            values.add(value.trim());
+        }
+    }
+}
@@ -2,8 +2,9 @@ package com.pcs.app.repositories;
 
 import com.pcs.app.domain.BidList;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 
 
-public interface BidListRepository extends JpaRepository<BidList, Integer> {
+public interface BidListRepository extends JpaRepository<BidList, Integer>, JpaSpecificationExecutor<BidList> {
 
 }
@@ -0,0 +1,36 @@
+package com.pcs.app.repositories;
+
+import com.pcs.app.domain.ChangeLogEntry;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+
+public interface ChangeLogRepository extends JpaRepository<ChangeLogEntry, Long> {
+
+    List<ChangeLogEntry> findBySeqGreaterThanAndSeqLessThanEqualOrderBySeqAsc(Long since, Long upTo, Limit limit);
+
+    List<ChangeLogEntry> findBySeqGreaterThanAndSeqLessThanEqualAndEntityTypeInOrderBySeqAsc(Long since, Long upTo,
+                                                                                            Collection<String> entityTypes,
+                                                                                            Limit limit);
+
+    List<ChangeLogEntry> findBySeqGreaterThanAndEntityTypeOrderBySeqAsc(Long since, String entityType, Limit limit);
+
+    @Query("select min(c.seq) from ChangeLogEntry c")
+    Long findMinSeq();
+
+    @Query("select max(c.seq) from ChangeLogEntry c")
+    Long findMaxSeq();
+
+    @Query("select min(c.seq) from ChangeLogEntry c where c.changedAt > :after")
+    Long findMinSeqChangedAfter(@Param("after") Timestamp after);
+
+    @Modifying
+    @Query("delete from ChangeLogEntry c where c.changedAt < :before")
+    int deleteChangedBefore(@Param("before") Timestamp before);
+}
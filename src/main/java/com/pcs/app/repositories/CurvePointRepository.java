@@ -3,7 +3,12 @@ package com.pcs.app.repositories;
 import com.pcs.app.domain.CurvePoint;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
+import java.util.List;
+
 
 public interface CurvePointRepository extends JpaRepository<CurvePoint, Integer> {
+    List<CurvePoint> findByCurveId(Integer curveId);
 
+    List<CurvePoint> findByCurveIdIn(Collection<Integer> curveIds);
 }
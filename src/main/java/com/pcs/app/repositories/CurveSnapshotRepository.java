@@ -0,0 +1,19 @@
+package com.pcs.app.repositories;
+
+import com.pcs.app.domain.CurveSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+
+public interface CurveSnapshotRepository extends JpaRepository<CurveSnapshot, Integer> {
+    Optional<CurveSnapshot> findByCurveIdAndAsOfDate(Integer curveId, LocalDate asOfDate);
+
+    Optional<CurveSnapshot> findTopByCurveIdAndAsOfDateLessThanOrderByAsOfDateDesc(Integer curveId, LocalDate asOfDate);
+
+    Optional<CurveSnapshot> findTopByCurveIdAndDepthAndAsOfDateLessThanEqualOrderByAsOfDateDesc(Integer curveId, Integer depth, LocalDate asOfDate);
+
+    List<CurveSnapshot> findByCurveIdAndAsOfDateBetweenOrderByAsOfDateAsc(Integer curveId, LocalDate from, LocalDate to);
+}
@@ -0,0 +1,16 @@
+package com.pcs.app.repositories;
+
+import com.pcs.app.domain.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.sql.Timestamp;
+
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String> {
+
+    @Modifying
+    @Query("delete from IdempotencyKey k where k.creationDate < :before")
+    int deleteCreatedBefore(@Param("before") Timestamp before);
+}
@@ -0,0 +1,11 @@
+package com.pcs.app.repositories;
+
+import com.pcs.app.domain.RevisionRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface RevisionRecordRepository extends JpaRepository<RevisionRecord, Long> {
+
+    List<RevisionRecord> findByEntityTypeAndEntityIdOrderByIdAsc(String entityType, Integer entityId);
+}
@@ -0,0 +1,102 @@
+package com.pcs.app.repositories;
+
+import com.pcs.app.domain.BidList;
+import com.pcs.app.domain.SearchFilter;
+import com.pcs.app.domain.Trade;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Construit les {@link Specification} de recherche à partir d'un {@link SearchFilter}.
+ * <p>
+ * Les prédicats sont des égalités sur les colonnes texte et des bornes sur la date
+ * et la quantité, de façon à correspondre aux index déclarés sur les entités
+ * (colonne filtrée, puis date). Les bornes de quantité retiennent une ligne dont
+ * l'un des deux côtés (achat ou vente) est compris dans l'intervalle.
+ * </p>
+ */
+public final class SearchSpecifications {
+
+    private SearchSpecifications() {
+    }
+
+    public static Specification<Trade> forTrades(SearchFilter filter) {
+        return of(filter, "tradeDate", "buyQuantity", "sellQuantity");
+    }
+
+    public static Specification<BidList> forBidLists(SearchFilter filter) {
+        return of(filter, "bidListDate", "bidQuantity", "askQuantity");
+    }
+
+    /**
+     * Exécute la recherche : seule la première page compte les résultats, les suivantes
+     * lisent une ligne de plus pour savoir s'il reste une page.
+     */
+    public static <T> Slice<T> search(JpaSpecificationExecutor<T> repository, Specification<T> specification,
+                                      Pageable pageable) {
+        if (pageable.isUnpaged() || pageable.getPageNumber() == 0) {
+            return repository.findAll(specification, pageable);
+        }
+        return repository.findBy(specification, query -> query.slice(pageable));
+    }
+
+    private static <T> Specification<T> of(SearchFilter filter, String dateField, String... quantityFields) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (filter == null) {
+                return cb.conjunction();
+            }
+            addEquals(predicates, root, cb, "account", filter.getAccount());
+            addEquals(predicates, root, cb, "security", filter.getSecurity());
+            addEquals(predicates, root, cb, "trader", filter.getTrader());
+            addEquals(predicates, root, cb, "book", filter.getBook());
+            addEquals(predicates, root, cb, "status", filter.getStatus());
+            addEquals(predicates, root, cb, "side", filter.getSide());
+            if (filter.getFromDate() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get(dateField),
+                        Timestamp.valueOf(filter.getFromDate().atStartOfDay())));
+            }
+            if (filter.getToDate() != null) {
+                // Borne exclusive au lendemain pour inclure toute la journée
+                predicates.add(cb.lessThan(root.get(dateField),
+                        Timestamp.valueOf(filter.getToDate().plusDays(1).atStartOfDay())));
+            }
+            if (filter.getMinQuantity() != null || filter.getMaxQuantity() != null) {
+                List<Predicate> sides = new ArrayList<>();
+                for (String quantityField : quantityFields) {
+                    sides.add(quantityBetween(root, cb, quantityField, filter.getMinQuantity(), filter.getMaxQuantity()));
+                }
+                predicates.add(cb.or(sides.toArray(new Predicate[0])));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    private static <T> Predicate quantityBetween(Root<T> root, CriteriaBuilder cb, String field,
+                                                 Double min, Double max) {
+        List<Predicate> bounds = new ArrayList<>();
+        if (min != null) {
+            bounds.add(cb.greaterThanOrEqualTo(root.get(field), min));
+        }
+        if (max != null) {
+            bounds.add(cb.lessThanOrEqualTo(root.get(field), max));
+        }
+        return cb.and(bounds.toArray(new Predicate[0]));
+    }
+
+    private static <T> void addEquals(List<Predicate> predicates, Root<T> root, CriteriaBuilder cb,
+                                      String field, String value) {
+        if (value != null && !value.isBlank()) {
+            predicates.add(cb.equal(root.get(field), value.trim()));
+        }
+    }
+}
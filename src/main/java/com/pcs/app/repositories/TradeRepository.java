@@ -1,8 +1,19 @@
 package com.pcs.app.repositories;
 
 import com.pcs.app.domain.Trade;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
 
+import java.sql.Timestamp;
+import java.util.List;
 
-public interface TradeRepository extends JpaRepository<Trade, Integer> {
+
+public interface TradeRepository extends JpaRepository<Trade, Integer>, JpaSpecificationExecutor<Trade> {
+    List<Trade> findByDealType(String dealType);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Trade> findByTradeDateBeforeOrderByTradeDateAscIdAsc(Timestamp cutoff, Limit limit);
 }
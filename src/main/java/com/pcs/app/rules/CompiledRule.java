@@ -0,0 +1,110 @@
+package com.pcs.app.rules;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Règle compilée, ou erreur de compilation, et ses compteurs d'évaluation.
+ * <p>
+ * La version est incrémentée à chaque recompilation de la règle : une entrée
+ * n'est jamais modifiée, elle est remplacée.
+ * </p>
+ */
+public final class CompiledRule {
+
+    private final int id;
+    private final long version;
+    private final String name;
+    private final Class<?> entityType;
+    private final Predicate<Object> predicate;
+    private final int conditions;
+    private final String error;
+    private final long compileNanos;
+    private final LongAdder evaluations = new LongAdder();
+    private final LongAdder matches = new LongAdder();
+    private final LongAdder evaluationNanos = new LongAdder();
+
+    private CompiledRule(int id, long version, String name, RuleCompiler.Compiled compiled, String error, long compileNanos) {
+        this.id = id;
+        this.version = version;
+        this.name = name;
+        this.entityType = compiled == null ? null : compiled.entityType();
+        this.predicate = compiled == null ? null : compiled.predicate();
+        this.conditions = compiled == null ? 0 : compiled.conditions();
+        this.error = error;
+        this.compileNanos = compileNanos;
+    }
+
+    static CompiledRule compile(int id, long version, String name, String json) {
+        long start = System.nanoTime();
+        try {
+            RuleCompiler.Compiled compiled = RuleCompiler.compile(json == null ? "" : json);
+            return new CompiledRule(id, version, name, compiled, null, System.nanoTime() - start);
+        }
+        catch (IllegalArgumentException e) {
+            return new CompiledRule(id, version, name, null, e.getMessage(), System.nanoTime() - start);
+        }
+    }
+
+    public boolean isValid() {
+        return predicate != null;
+    }
+
+    public Class<?> getEntityType() {
+        return entityType;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * Évalue la règle sur chaque entité et comptabilise le coût de l'ensemble.
+     *
+     * @return les entités retenues
+     */
+    public <T> List<T> filter(Iterable<T> entities) {
+        List<T> result = new ArrayList<>();
+        long count = 0;
+        long start = System.nanoTime();
+        for (T entity : entities) {
+            count++;
+            if (predicate.test(entity)) {
+                result.add(entity);
+            }
+        }
+        evaluationNanos.add(System.nanoTime() - start);
+        evaluations.add(count);
+        matches.add(result.size());
+        return result;
+    }
+
+    public Map<String, Object> stats() {
+        long count = evaluations.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("id", id);
+        stats.put("version", version);
+        stats.put("name", name);
+        stats.put("entity", entityType == null ? null : entityType.getSimpleName());
+        stats.put("valid", isValid());
+        stats.put("error", error);
+        stats.put("conditions", conditions);
+        stats.put("compileMicros", compileNanos / 1000);
+        stats.put("evaluations", count);
+        stats.put("matches", matches.sum());
+        stats.put("nanosPerEvaluation", count == 0 ? 0.0 : (double) evaluationNanos.sum() / count);
+        return stats;
+    }
+
+    int id() {
+        return id;
+    }
+
+    long version() {
+        return version;
+    }
+}
@@ -0,0 +1,74 @@
+package com.pcs.app.rules;
+
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.sql.Timestamp;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Accesseurs des champs d'une entité, générés une fois par classe.
+ * <p>
+ * Chaque getter est transformé par {@link LambdaMetafactory} en une vraie
+ * {@link Function} : un appel coûte un appel d'interface, que le JIT peut
+ * intégrer, et non un appel par réflexion.
+ * </p>
+ */
+final class FieldAccessors {
+
+    private static final Set<Class<?>> SUPPORTED_TYPES = Set.of(String.class, Double.class, Integer.class, Timestamp.class);
+    private static final Map<Class<?>, Map<String, FieldAccessor>> CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * Accesseur d'un champ.
+     *
+     * @param name le nom du champ
+     * @param type le type du champ : {@link String}, {@link Double}, {@link Integer} ou {@link Timestamp}
+     * @param getter le getter généré
+     */
+    record FieldAccessor(String name, Class<?> type, Function<Object, Object> getter) {
+    }
+
+    private FieldAccessors() {
+    }
+
+    /**
+     * @return les accesseurs des champs de types supportés, par nom
+     */
+    static Map<String, FieldAccessor> of(Class<?> type) {
+        return CACHE.computeIfAbsent(type, FieldAccessors::generate);
+    }
+
+    private static Map<String, FieldAccessor> generate(Class<?> type) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+            Map<String, FieldAccessor> accessors = new TreeMap<>();
+            for (PropertyDescriptor property : Introspector.getBeanInfo(type, Object.class).getPropertyDescriptors()) {
+                if (property.getReadMethod() == null || !SUPPORTED_TYPES.contains(property.getPropertyType())) {
+                    continue;
+                }
+                MethodHandle getter = lookup.unreflect(property.getReadMethod());
+                CallSite site = LambdaMetafactory.metafactory(lookup, "apply",
+                        MethodType.methodType(Function.class),
+                        MethodType.methodType(Object.class, Object.class),
+                        getter,
+                        MethodType.methodType(property.getPropertyType(), type));
+                @SuppressWarnings("unchecked")
+                Function<Object, Object> function = (Function<Object, Object>) site.getTarget().invokeExact();
+                accessors.put(property.getName(), new FieldAccessor(property.getName(), property.getPropertyType(), function));
+            }
+            return Map.copyOf(accessors);
+        }
+        catch (Throwable e) {
+            throw new IllegalStateException("Cannot generate field accessors for " + type.getName(), e);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.pcs.app.rules;
+
+/**
+ * Formats de sortie des résultats d'une requête de règle.
+ */
+public enum ResultFormat {
+    JSON("application/json"),
+    CSV("text/csv");
+
+    private final String mediaType;
+
+    ResultFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String mediaType() {
+        return mediaType;
+    }
+}
@@ -0,0 +1,92 @@
+package com.pcs.app.rules;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+/**
+ * Écrit un {@link ResultSet} ligne par ligne, sans le charger en mémoire.
+ */
+final class ResultWriter {
+
+    private ResultWriter() {
+    }
+
+    /**
+     * @return le nombre de lignes écrites
+     */
+    static long write(ResultSet rows, ResultFormat format, OutputStream out, ObjectMapper mapper)
+            throws SQLException, IOException {
+        ResultSetMetaData metaData = rows.getMetaData();
+        String[] columns = new String[metaData.getColumnCount()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = metaData.getColumnLabel(i + 1);
+        }
+        return format == ResultFormat.JSON ? writeJson(rows, columns, out, mapper) : writeCsv(rows, columns, out);
+    }
+
+    private static long writeJson(ResultSet rows, String[] columns, OutputStream out, ObjectMapper mapper)
+            throws SQLException, IOException {
+        long count = 0;
+        try (JsonGenerator generator = mapper.createGenerator(out).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            generator.writeStartArray();
+            while (rows.next()) {
+                generator.writeStartObject();
+                for (int i = 0; i < columns.length; i++) {
+                    generator.writeFieldName(columns[i]);
+                    generator.writeObject(rows.getObject(i + 1));
+                }
+                generator.writeEndObject();
+                count++;
+            }
+            generator.writeEndArray();
+        }
+        return count;
+    }
+
+    private static long writeCsv(ResultSet rows, String[] columns, OutputStream out) throws SQLException, IOException {
+        long count = 0;
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        writeCsvLine(writer, columns);
+        String[] values = new String[columns.length];
+        while (rows.next()) {
+            for (int i = 0; i < columns.length; i++) {
+                Object value = rows.getObject(i + 1);
+                values[i] = value == null ? null : value.toString();
+            }
+            writeCsvLine(writer, values);
+            count++;
+        }
+        writer.flush();
+        return count;
+    }
+
+    private static void writeCsvLine(Writer writer, String[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            String value = values[i];
+            if (value == null) {
+                continue;
+            }
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            }
+            else {
+                writer.write(value);
+            }
+        }
+        writer.write("\r\n");
+    }
+}
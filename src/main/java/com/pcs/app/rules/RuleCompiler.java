@@ -0,0 +1,275 @@
+package com.pcs.app.rules;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pcs.app.domain.BidList;
+import com.pcs.app.domain.Trade;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.DoublePredicate;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Compile la définition JSON d'une règle en prédicat exécutable.
+ * <pre>
+ * {"entity": "Trade",
+ *  "all": [{"field": "buyQuantity", "op": "&gt;=", "value": 1000},
+ *          {"any": [{"field": "book", "op": "in", "value": ["RATES", "FX"]},
+ *                   {"not": {"field": "trader", "op": "isNull"}}]}]}
+ * </pre>
+ * <p>
+ * {@code entity} vaut {@code Trade} (par défaut) ou {@code BidList}. Un nœud est
+ * une combinaison ({@code all}, {@code any}, {@code not}) ou une condition sur un
+ * champ. Opérateurs : {@code =}, {@code !=}, {@code <}, {@code <=}, {@code >},
+ * {@code >=}, {@code between} (bornes incluses), {@code in}, {@code notIn},
+ * {@code contains}, {@code startsWith}, {@code isNull}, {@code notNull}. Les dates
+ * s'écrivent au format ISO. Un champ nul ne satisfait aucune comparaison.
+ * </p>
+ * <p>
+ * La définition est vérifiée et convertie une seule fois : les constantes sont
+ * converties au type du champ et capturées sous forme primitive dans des lambdas
+ * spécialisées, et chaque champ est lu par un accesseur généré.
+ * </p>
+ */
+public final class RuleCompiler {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Map<String, Class<?>> ENTITIES = Map.of("Trade", Trade.class, "BidList", BidList.class);
+
+    private RuleCompiler() {
+    }
+
+    /**
+     * Type d'entité et prédicat d'une règle compilée.
+     */
+    public record Compiled(Class<?> entityType, Predicate<Object> predicate, int conditions) {
+    }
+
+    /**
+     * @throws IllegalArgumentException si la définition n'est pas une règle valide
+     */
+    public static Compiled compile(String json) {
+        JsonNode root;
+        try {
+            root = MAPPER.readTree(json);
+        }
+        catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Rule is not valid JSON: " + e.getOriginalMessage());
+        }
+        if (root == null || !root.isObject()) {
+            throw new IllegalArgumentException("Rule must be a JSON object");
+        }
+        String entity = root.path("entity").asText("Trade");
+        Class<?> type = ENTITIES.get(entity);
+        if (type == null) {
+            throw new IllegalArgumentException("Unknown rule entity " + entity);
+        }
+        int[] conditions = new int[1];
+        Predicate<Object> predicate = node(root, FieldAccessors.of(type), conditions);
+        return new Compiled(type, predicate, conditions[0]);
+    }
+
+    private static Predicate<Object> node(JsonNode node, Map<String, FieldAccessors.FieldAccessor> fields, int[] conditions) {
+        if (node.has("all")) {
+            return combine(children(node.get("all"), fields, conditions), true);
+        }
+        if (node.has("any")) {
+            return combine(children(node.get("any"), fields, conditions), false);
+        }
+        if (node.has("not")) {
+            return node(node.get("not"), fields, conditions).negate();
+        }
+        if (node.has("field")) {
+            conditions[0]++;
+            return condition(node, fields);
+        }
+        throw new IllegalArgumentException("Rule node needs all, any, not or field: " + node);
+    }
+
+    private static List<Predicate<Object>> children(JsonNode array, Map<String, FieldAccessors.FieldAccessor> fields,
+                                                    int[] conditions) {
+        if (!array.isArray() || array.isEmpty()) {
+            throw new IllegalArgumentException("all and any need a non-empty array");
+        }
+        List<Predicate<Object>> children = new ArrayList<>();
+        array.forEach(child -> children.add(node(child, fields, conditions)));
+        return children;
+    }
+
+    /**
+     * Les combinaisons de deux termes, les plus fréquentes, évitent la boucle sur un tableau.
+     */
+    private static Predicate<Object> combine(List<Predicate<Object>> children, boolean all) {
+        if (children.size() == 1) {
+            return children.get(0);
+        }
+        if (children.size() == 2) {
+            Predicate<Object> first = children.get(0);
+            Predicate<Object> second = children.get(1);
+            return all ? entity -> first.test(entity) && second.test(entity)
+                    : entity -> first.test(entity) || second.test(entity);
+        }
+        List<Predicate<Object>> terms = List.copyOf(children);
+        int count = terms.size();
+        if (all) {
+            return entity -> {
+                for (int i = 0; i < count; i++) {
+                    if (!terms.get(i).test(entity)) {
+                        return false;
+                    }
+                }
+                return true;
+            };
+        }
+        return entity -> {
+            for (int i = 0; i < count; i++) {
+                if (terms.get(i).test(entity)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+    private static Predicate<Object> condition(JsonNode node, Map<String, FieldAccessors.FieldAccessor> fields) {
+        String name = node.get("field").asText();
+        FieldAccessors.FieldAccessor field = fields.get(name);
+        if (field == null) {
+            throw new IllegalArgumentException("Unknown field " + name + ", expected one of " + fields.keySet());
+        }
+        Function<Object, Object> getter = field.getter();
+        String op = node.path("op").asText("=");
+        JsonNode value = node.get("value");
+        switch (op) {
+            case "isNull":
+                return entity -> getter.apply(entity) == null;
+            case "notNull":
+                return entity -> getter.apply(entity) != null;
+            default:
+                break;
+        }
+        if (value == null || value.isNull()) {
+            throw new IllegalArgumentException("Operator " + op + " on " + name + " needs a value");
+        }
+        if (field.type() == String.class) {
+            return stringCondition(getter, op, value, name);
+        }
+        if (op.equals("in") || op.equals("notIn")) {
+            Set<Double> values = new HashSet<>();
+            elements(value, name).forEach(element -> values.add(number(element, field.type(), name)));
+            Predicate<Object> in = entity -> {
+                Object actual = getter.apply(entity);
+                return actual != null && values.contains(asDouble(actual));
+            };
+            return op.equals("in") ? in : entity -> getter.apply(entity) != null && !in.test(entity);
+        }
+        if (op.equals("between")) {
+            List<JsonNode> bounds = elements(value, name);
+            if (bounds.size() != 2) {
+                throw new IllegalArgumentException("between on " + name + " needs two bounds");
+            }
+            double low = number(bounds.get(0), field.type(), name);
+            double high = number(bounds.get(1), field.type(), name);
+            return entity -> {
+                Object actual = getter.apply(entity);
+                if (actual == null) {
+                    return false;
+                }
+                double v = asDouble(actual);
+                return v >= low && v <= high;
+            };
+        }
+        double constant = number(value, field.type(), name);
+        return switch (op) {
+            case "=" -> numeric(getter, v -> v == constant);
+            case "!=" -> numeric(getter, v -> v != constant);
+            case "<" -> numeric(getter, v -> v < constant);
+            case "<=" -> numeric(getter, v -> v <= constant);
+            case ">" -> numeric(getter, v -> v > constant);
+            case ">=" -> numeric(getter, v -> v >= constant);
+            default -> throw new IllegalArgumentException("Operator " + op + " is not supported on " + name);
+        };
+    }
+
+    private static Predicate<Object> numeric(Function<Object, Object> getter, DoublePredicate test) {
+        return entity -> {
+            Object actual = getter.apply(entity);
+            return actual != null && test.test(asDouble(actual));
+        };
+    }
+
+    private static Predicate<Object> stringCondition(Function<Object, Object> getter, String op, JsonNode value, String name) {
+        if (op.equals("in") || op.equals("notIn")) {
+            Set<String> values = new HashSet<>();
+            elements(value, name).forEach(element -> values.add(element.asText()));
+            boolean in = op.equals("in");
+            return entity -> {
+                Object actual = getter.apply(entity);
+                return actual != null && values.contains(actual) == in;
+            };
+        }
+        String constant = value.asText();
+        return switch (op) {
+            case "=" -> entity -> constant.equals(getter.apply(entity));
+            case "!=" -> entity -> {
+                Object actual = getter.apply(entity);
+                return actual != null && !constant.equals(actual);
+            };
+            case "contains" -> entity -> {
+                Object actual = getter.apply(entity);
+                return actual != null && ((String) actual).contains(constant);
+            };
+            case "startsWith" -> entity -> {
+                Object actual = getter.apply(entity);
+                return actual != null && ((String) actual).startsWith(constant);
+            };
+            default -> throw new IllegalArgumentException("Operator " + op + " is not supported on " + name);
+        };
+    }
+
+    private static List<JsonNode> elements(JsonNode value, String name) {
+        if (!value.isArray()) {
+            throw new IllegalArgumentException("Value of " + name + " must be an array");
+        }
+        List<JsonNode> elements = new ArrayList<>();
+        value.forEach(elements::add);
+        return elements;
+    }
+
+    /**
+     * Convertit une constante au type du champ ; les dates sont ramenées en millisecondes.
+     */
+    private static double number(JsonNode value, Class<?> type, String name) {
+        if (type == Timestamp.class) {
+            try {
+                String text = value.asText();
+                LocalDateTime date = text.length() == 10 ? LocalDate.parse(text).atStartOfDay() : LocalDateTime.parse(text);
+                return Timestamp.valueOf(date).getTime();
+            }
+            catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Value of " + name + " must be an ISO date: " + value);
+            }
+        }
+        if (!value.isNumber()) {
+            throw new IllegalArgumentException("Value of " + name + " must be a number: " + value);
+        }
+        return value.asDouble();
+    }
+
+    private static double asDouble(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.getTime();
+        }
+        return ((Number) value).doubleValue();
+    }
+}
@@ -0,0 +1,105 @@
+package com.pcs.app.rules;
+
+import com.pcs.app.domain.BidList;
+import com.pcs.app.domain.RuleName;
+import com.pcs.app.domain.Trade;
+import com.pcs.app.events.ChangeType;
+import com.pcs.app.events.EntityChangeEvent;
+import com.pcs.app.service.BidListService;
+import com.pcs.app.service.RuleNameService;
+import com.pcs.app.service.TradeService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compile les règles et les évalue sur les échanges et les enchères.
+ * <p>
+ * Les règles sont compilées au démarrage, puis recompilées après chaque écriture
+ * validée de {@code RuleNameService}. Une règle dont le JSON n'est pas une
+ * définition valide reste connue, avec son erreur de compilation.
+ * </p>
+ */
+@Slf4j
+@Service
+public class RuleEngineService {
+
+    @Autowired
+    private RuleNameService ruleNameService;
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Autowired
+    private BidListService bidListService;
+
+    private final Map<Integer, CompiledRule> rules = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        ruleNameService.getAllRuleNamesWithText().forEach(this::compile);
+        long valid = rules.values().stream().filter(CompiledRule::isValid).count();
+        log.info("Rule engine loaded: {} rules, {} compiled", rules.size(), valid);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRuleNameChange(EntityChangeEvent<RuleName> event) {
+        if (event.changeType() == ChangeType.DELETE) {
+            rules.remove(event.id());
+        }
+        else {
+            compile(event.entity());
+        }
+    }
+
+    /**
+     * Évalue la règle sur toutes les entités de son type.
+     */
+    public RuleMatches evaluate(int ruleId) {
+        CompiledRule rule = getRule(ruleId);
+        if (!rule.isValid()) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, "Rule " + ruleId + " does not compile: " + rule.getError());
+        }
+        if (rule.getEntityType() == Trade.class) {
+            List<Trade> trades = tradeService.getAllTrades();
+            return new RuleMatches(ruleId, rule.version(), "Trade", trades.size(),
+                    rule.filter(trades).stream().map(Trade::getId).toList());
+        }
+        List<BidList> bidLists = bidListService.getAllBidLists();
+        return new RuleMatches(ruleId, rule.version(), "BidList", bidLists.size(),
+                rule.filter(bidLists).stream().map(BidList::getId).toList());
+    }
+
+    public CompiledRule getRule(int ruleId) {
+        CompiledRule rule = rules.get(ruleId);
+        if (rule == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No rule with given id");
+        }
+        return rule;
+    }
+
+    /**
+     * Retourne, par règle, la version compilée, l'erreur éventuelle et le coût des évaluations.
+     */
+    public List<Map<String, Object>> stats() {
+        return rules.values().stream()
+                .sorted(Comparator.comparingInt(CompiledRule::id))
+                .map(CompiledRule::stats)
+                .toList();
+    }
+
+    private void compile(RuleName ruleName) {
+        rules.compute(ruleName.getId(), (id, previous) -> CompiledRule.compile(id,
+                previous == null ? 1 : previous.version() + 1, ruleName.getName(), ruleName.getJson()));
+    }
+}
@@ -0,0 +1,15 @@
+package com.pcs.app.rules;
+
+import java.util.List;
+
+/**
+ * Résultat de l'évaluation d'une règle sur toutes les entités de son type.
+ *
+ * @param ruleId l'identifiant de la règle
+ * @param version la version compilée évaluée
+ * @param entity le type d'entité
+ * @param evaluated le nombre d'entités évaluées
+ * @param ids les identifiants des entités retenues
+ */
+public record RuleMatches(int ruleId, long version, String entity, int evaluated, List<Integer> ids) {
+}
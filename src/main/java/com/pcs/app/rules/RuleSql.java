@@ -0,0 +1,209 @@
+package com.pcs.app.rules;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Requête SQL d'une règle, analysée une fois pour être exécutée en lecture seule.
+ * <p>
+ * Le texte exécuté est {@code sqlStr}, suivi de {@code sqlPart} s'il n'est pas vide.
+ * Les paramètres nommés {@code :nom} sont remplacés par des {@code ?}. Un commentaire
+ * en tête de requête peut porter les options d'exécution de la règle, ignorées par
+ * un client MySQL :
+ * </p>
+ * <pre>
+ * /* timeout=5 maxRows=1000 deterministic *&#47; SELECT book, SUM(buy_quantity) FROM trade WHERE trader = :trader GROUP BY book
+ * </pre>
+ * <p>
+ * Seule une instruction {@code SELECT} (ou {@code WITH}) unique est acceptée, et
+ * les tables lues sont relevées pour le contrôle d'accès et l'invalidation des
+ * résultats en cache. Ce que MySQL exécuterait alors que l'analyse l'ignore ou
+ * ne le voit pas est refusé plutôt que retiré : commentaires exécutables
+ * {@code /*!...*&#47;}, {@code --} sans espace à sa suite (une soustraction pour
+ * MySQL), ainsi que {@code INTO} et {@code LOAD_FILE}, qui écrivent ou lisent
+ * des fichiers du serveur.
+ * </p>
+ *
+ * @param sql la requête, avec des {@code ?} à la place des paramètres nommés
+ * @param parameters les noms des paramètres, dans l'ordre des {@code ?}
+ * @param tables les tables lues, en minuscules et sans schéma
+ * @param timeoutSeconds le délai maximal d'exécution demandé par la règle, nul sinon
+ * @param maxRows le nombre maximal de lignes demandé par la règle, nul sinon
+ * @param deterministic vrai si le résultat ne dépend que des paramètres et des tables lues
+ */
+public record RuleSql(String sql, List<String> parameters, Set<String> tables, Integer timeoutSeconds,
+                      Integer maxRows, boolean deterministic) {
+
+    private static final Pattern FIRST_KEYWORD = Pattern.compile("^\\s*\\(*\\s*(\\w+)");
+    private static final Pattern TABLE_LIST = Pattern.compile(
+            "\\bfrom\\s+([^()]*?)(?=\\b(?:where|group|order|limit|having|union|join|inner|left|right|cross|natural|straight_join|window|for|lock|into)\\b|\\(|\\)|$)",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern JOINED_TABLE = Pattern.compile("\\bjoin\\s+([`\\w.]+)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern FORBIDDEN_KEYWORD = Pattern.compile("\\b(into|load_file)\\b", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * @throws IllegalArgumentException si la requête n'est pas une lecture unique valide
+     */
+    public static RuleSql parse(String sqlStr, String sqlPart) {
+        String text = (sqlStr == null ? "" : sqlStr.trim())
+                + (sqlPart == null || sqlPart.isBlank() ? "" : " " + sqlPart.trim());
+        Integer timeout = null;
+        Integer maxRows = null;
+        boolean deterministic = false;
+        if (text.startsWith("/*!")) {
+            throw new IllegalArgumentException("Executable comments are not allowed");
+        }
+        if (text.startsWith("/*")) {
+            int end = text.indexOf("*/");
+            if (end < 0) {
+                throw new IllegalArgumentException("Unterminated option comment");
+            }
+            for (String option : text.substring(2, end).trim().split("[\\s,]+")) {
+                String[] pair = option.split("=", 2);
+                switch (pair[0]) {
+                    case "timeout" -> timeout = positive(pair, option);
+                    case "maxRows" -> maxRows = positive(pair, option);
+                    case "deterministic" -> deterministic = true;
+                    case "" -> { }
+                    default -> throw new IllegalArgumentException("Unknown rule option " + option);
+                }
+            }
+            text = text.substring(end + 2).trim();
+        }
+
+        // Réécrit les paramètres nommés, et produit une copie sans commentaires ni littéraux pour l'analyse
+        StringBuilder sql = new StringBuilder(text.length());
+        StringBuilder bare = new StringBuilder(text.length());
+        List<String> parameters = new ArrayList<>();
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (c == '\'' || c == '"' || c == '`') {
+                int end = closingQuote(text, i);
+                sql.append(text, i, end);
+                bare.append(c == '`' ? text.substring(i, end) : " '' ");
+                i = end;
+            }
+            else if (c == '-' && text.startsWith("--", i)
+                    && (i + 2 >= text.length() || !Character.isWhitespace(text.charAt(i + 2)))) {
+                throw new IllegalArgumentException("'--' must be followed by a space to start a comment");
+            }
+            else if (c == '-' && text.startsWith("--", i) || c == '#') {
+                int end = text.indexOf('\n', i);
+                end = end < 0 ? text.length() : end;
+                sql.append(text, i, end);
+                bare.append(' ');
+                i = end;
+            }
+            else if (c == '/' && text.startsWith("/*!", i)) {
+                throw new IllegalArgumentException("Executable comments are not allowed");
+            }
+            else if (c == '/' && text.startsWith("/*", i)) {
+                int end = text.indexOf("*/", i + 2);
+                if (end < 0) {
+                    throw new IllegalArgumentException("Unterminated comment");
+                }
+                sql.append(text, i, end + 2);
+                bare.append(' ');
+                i = end + 2;
+            }
+            else if (c == ':' && i + 1 < text.length() && Character.isLetter(text.charAt(i + 1))
+                    && (i == 0 || text.charAt(i - 1) != ':')) {
+                int end = i + 1;
+                while (end < text.length() && (Character.isLetterOrDigit(text.charAt(end)) || text.charAt(end) == '_')) {
+                    end++;
+                }
+                parameters.add(text.substring(i + 1, end));
+                sql.append('?');
+                bare.append('?');
+                i = end;
+            }
+            else if (c == ';') {
+                if (!text.substring(i + 1).isBlank()) {
+                    throw new IllegalArgumentException("Only one statement is allowed");
+                }
+                i = text.length();
+            }
+            else {
+                sql.append(c);
+                bare.append(c);
+                i++;
+            }
+        }
+
+        Matcher first = FIRST_KEYWORD.matcher(bare);
+        String keyword = first.find() ? first.group(1).toUpperCase(Locale.ROOT) : "";
+        if (!keyword.equals("SELECT") && !keyword.equals("WITH")) {
+            throw new IllegalArgumentException("Only SELECT statements can be executed");
+        }
+        Matcher forbidden = FORBIDDEN_KEYWORD.matcher(bare);
+        if (forbidden.find()) {
+            throw new IllegalArgumentException(forbidden.group(1).toUpperCase(Locale.ROOT) + " is not allowed");
+        }
+        return new RuleSql(sql.toString().trim(), List.copyOf(parameters), tables(bare), timeout, maxRows, deterministic);
+    }
+
+    private static Set<String> tables(CharSequence bare) {
+        Set<String> tables = new LinkedHashSet<>();
+        Matcher list = TABLE_LIST.matcher(bare);
+        while (list.find()) {
+            for (String item : list.group(1).split(",")) {
+                String[] tokens = item.trim().split("\\s+");
+                if (!tokens[0].isEmpty()) {
+                    tables.add(table(tokens[0]));
+                }
+            }
+        }
+        Matcher joined = JOINED_TABLE.matcher(bare);
+        while (joined.find()) {
+            tables.add(table(joined.group(1)));
+        }
+        return Set.copyOf(tables);
+    }
+
+    private static String table(String identifier) {
+        String name = identifier.replace("`", "");
+        return name.substring(name.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+    }
+
+    private static int closingQuote(String text, int start) {
+        char quote = text.charAt(start);
+        int i = start + 1;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (c == '\\' && quote != '`') {
+                i += 2;
+            }
+            else if (c == quote) {
+                if (i + 1 < text.length() && text.charAt(i + 1) == quote) {
+                    i += 2;
+                }
+                else {
+                    return i + 1;
+                }
+            }
+            else {
+                i++;
+            }
+        }
+        throw new IllegalArgumentException("Unterminated quoted string");
+    }
+
+    private static int positive(String[] pair, String option) {
+        try {
+            int value = Integer.parseInt(pair.length > 1 ? pair[1] : "");
+            if (value > 0) {
+                return value;
+            }
+        }
+        catch (NumberFormatException e) {
+            // signalé ci-dessous
+        }
+        throw new IllegalArgumentException("Rule option " + option + " needs a positive integer");
+    }
+}
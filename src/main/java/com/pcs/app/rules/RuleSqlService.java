@@ -0,0 +1,373 @@
+package com.pcs.app.rules;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pcs.app.cache.TableVersions;
+import com.pcs.app.domain.BidList;
+import com.pcs.app.domain.CurvePoint;
+import com.pcs.app.domain.Rating;
+import com.pcs.app.domain.RuleName;
+import com.pcs.app.domain.Trade;
+import com.pcs.app.events.EntityChangeEvent;
+import com.pcs.app.service.RuleNameService;
+import com.pcs.app.sync.ChangeLogService;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Exécute en lecture seule les requêtes SQL enregistrées dans les règles.
+ * <p>
+ * Les requêtes passent par un pool de connexions dédié et borné, ouvert au premier
+ * usage en lecture seule, avec le cache de requêtes préparées du pilote MySQL. Ce
+ * pool se connecte avec un compte distinct de celui de l'application, qui n'a que
+ * le droit {@code SELECT} sur les tables métier ({@code app.rule-sql.username}) :
+ * le démarrage échoue s'il n'est pas renseigné ou s'il est celui de l'application.
+ * Sans {@code app.rule-sql.enabled}, les requêtes des règles ne sont pas exécutées. Une
+ * requête ne peut lire que les tables métier ; son délai d'exécution et son nombre
+ * de lignes sont bornés par les options de la règle, elles-mêmes plafonnées par la
+ * configuration. Les lignes sont lues en flux et écrites au fur et à mesure.
+ * </p>
+ * <p>
+ * Le résultat d'une règle déterministe est gardé en cache, sous une clé qui
+ * comprend les versions locales des tables lues ({@link TableVersions}) et la
+ * position du journal des modifications, partagé par toutes les instances : une
+ * écriture validée sur cette instance rend l'entrée inaccessible aussitôt, une
+ * écriture validée sur une autre instance dès qu'elle devient visible dans le
+ * journal, soit après {@code app.sync.visibility-lag-ms}. Toute écriture
+ * journalisée, quelle que soit sa table, fait avancer la position.
+ * </p>
+ */
+@Slf4j
+@Service
+public class RuleSqlService {
+
+    private static final Map<String, Class<?>> READABLE_TABLES = Map.of(
+            "trade", Trade.class, "bidlist", BidList.class, "curvepoint", CurvePoint.class,
+            "rating", Rating.class, "rulename", RuleName.class);
+
+    @Autowired
+    private RuleNameService ruleNameService;
+
+    @Autowired
+    private TableVersions tableVersions;
+
+    @Autowired
+    private ChangeLogService changeLog;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final boolean enabled;
+    private final HikariConfig poolConfig;
+    private final int defaultTimeoutSeconds;
+    private final int maxTimeoutSeconds;
+    private final int defaultMaxRows;
+    private final int maxRows;
+    private final int maxCachedBytes;
+    private final Map<Integer, Parsed> statements = new ConcurrentHashMap<>();
+    private final Map<ResultKey, byte[]> results;
+    private volatile HikariDataSource dataSource;
+
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+
+    public RuleSqlService(@Value("${app.rule-sql.enabled:false}") boolean enabled,
+                          @Value("${app.rule-sql.url:${spring.datasource.url}}") String url,
+                          @Value("${app.rule-sql.username:}") String username,
+                          @Value("${app.rule-sql.password:}") String password,
+                          @Value("${spring.datasource.username:}") String applicationUsername,
+                          @Value("${app.rule-sql.pool-size:4}") int poolSize,
+                          @Value("${app.rule-sql.statement-cache-size:250}") int statementCacheSize,
+                          @Value("${app.rule-sql.default-timeout-seconds:30}") int defaultTimeoutSeconds,
+                          @Value("${app.rule-sql.max-timeout-seconds:300}") int maxTimeoutSeconds,
+                          @Value("${app.rule-sql.default-max-rows:10000}") int defaultMaxRows,
+                          @Value("${app.rule-sql.max-rows:1000000}") int maxRows,
+                          @Value("${app.rule-sql.result-cache-entries:256}") int resultCacheEntries,
+                          @Value("${app.rule-sql.result-cache-max-bytes:1048576}") int maxCachedBytes) {
+        if (enabled && (username.isBlank() || username.equals(applicationUsername))) {
+            throw new IllegalStateException("app.rule-sql.username must name a SELECT-only account, "
+                    + "distinct from spring.datasource.username");
+        }
+        this.enabled = enabled;
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("rule-sql");
+        config.setJdbcUrl(url);
+        config.setUsername(username);
+        config.setPassword(password);
+        config.setMaximumPoolSize(poolSize);
+        config.setMinimumIdle(0);
+        config.setReadOnly(true);
+        config.setAutoCommit(true);
+        config.addDataSourceProperty("cachePrepStmts", "true");
+        config.addDataSourceProperty("useServerPrepStmts", "true");
+        config.addDataSourceProperty("prepStmtCacheSize", String.valueOf(statementCacheSize));
+        config.addDataSourceProperty("prepStmtCacheSqlLimit", "4096");
+        this.poolConfig = config;
+        this.defaultTimeoutSeconds = defaultTimeoutSeconds;
+        this.maxTimeoutSeconds = maxTimeoutSeconds;
+        this.defaultMaxRows = defaultMaxRows;
+        this.maxRows = maxRows;
+        this.maxCachedBytes = maxCachedBytes;
+        this.results = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ResultKey, byte[]> eldest) {
+                return size() > resultCacheEntries;
+            }
+        });
+    }
+
+    /**
+     * Vérifie la requête de la règle et ses paramètres avant tout envoi de réponse.
+     *
+     * @return l'exécution à écrire dans la réponse
+     */
+    public Execution prepare(int ruleId, Map<String, String> parameters, ResultFormat format) {
+        if (!enabled) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Rule SQL execution is disabled");
+        }
+        RuleSql sql = parse(ruleId);
+        for (String table : sql.tables()) {
+            if (!READABLE_TABLES.containsKey(table)) {
+                throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Rule " + ruleId + " reads table " + table);
+            }
+        }
+        List<String> values = new ArrayList<>(sql.parameters().size());
+        for (String name : sql.parameters()) {
+            String value = parameters.get(name);
+            if (value == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Missing parameter " + name);
+            }
+            values.add(value);
+        }
+        int timeout = Math.min(sql.timeoutSeconds() == null ? defaultTimeoutSeconds : sql.timeoutSeconds(), maxTimeoutSeconds);
+        int limit = Math.min(sql.maxRows() == null ? defaultMaxRows : sql.maxRows(), maxRows);
+        ResultKey key = null;
+        if (sql.deterministic()) {
+            // Versions relues avant l'exécution : une écriture validée pendant la requête invalide le résultat
+            List<Long> versions = sql.tables().stream().sorted().map(table -> tableVersions.version(READABLE_TABLES.get(table))).toList();
+            key = new ResultKey(sql.sql(), values, format, limit, versions, changeLog.position());
+        }
+        return new Execution(ruleId, sql, values, format, timeout, limit, key);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRuleNameChange(EntityChangeEvent<RuleName> event) {
+        statements.remove(event.id());
+    }
+
+    /**
+     * Retourne les compteurs d'exécution : requêtes exécutées, résultats servis
+     * depuis le cache, délais dépassés, échecs et lignes écrites.
+     */
+    public Map<String, Number> stats() {
+        Map<String, Number> stats = new LinkedHashMap<>();
+        stats.put("executions", executions.sum());
+        stats.put("cacheHits", cacheHits.sum());
+        stats.put("cachedResults", results.size());
+        stats.put("timeouts", timeouts.sum());
+        stats.put("failures", failures.sum());
+        stats.put("rows", rows.sum());
+        HikariDataSource pool = dataSource;
+        stats.put("activeConnections", pool == null ? 0 : pool.getHikariPoolMXBean().getActiveConnections());
+        stats.put("waitingThreads", pool == null ? 0 : pool.getHikariPoolMXBean().getThreadsAwaitingConnection());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (dataSource != null) {
+            dataSource.close();
+        }
+    }
+
+    private RuleSql parse(int ruleId) {
+        RuleName rule = ruleNameService.findRuleNameById(ruleId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No rule with given id"));
+        Parsed parsed = statements.get(ruleId);
+        if (parsed == null || !parsed.matches(rule)) {
+            try {
+                parsed = new Parsed(rule.getSqlStr(), rule.getSqlPart(), RuleSql.parse(rule.getSqlStr(), rule.getSqlPart()));
+            }
+            catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Rule " + ruleId + ": " + e.getMessage());
+            }
+            statements.put(ruleId, parsed);
+        }
+        return parsed.sql();
+    }
+
+    private HikariDataSource dataSource() {
+        HikariDataSource pool = dataSource;
+        if (pool == null) {
+            synchronized (this) {
+                pool = dataSource;
+                if (pool == null) {
+                    pool = new HikariDataSource(poolConfig);
+                    dataSource = pool;
+                }
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * Requête d'une règle, analysée, avec le texte qui l'a produite.
+     */
+    private record Parsed(String sqlStr, String sqlPart, RuleSql sql) {
+        boolean matches(RuleName rule) {
+            return Objects.equals(sqlStr, rule.getSqlStr()) && Objects.equals(sqlPart, rule.getSqlPart());
+        }
+    }
+
+    private record ResultKey(String sql, List<String> parameters, ResultFormat format, int maxRows, List<Long> versions,
+                             long position) {
+    }
+
+    /**
+     * Exécution vérifiée d'une requête de règle.
+     */
+    public final class Execution {
+        private final int ruleId;
+        private final RuleSql sql;
+        private final List<String> parameters;
+        private final ResultFormat format;
+        private final int timeoutSeconds;
+        private final int maxRows;
+        private final ResultKey key;
+
+        private Execution(int ruleId, RuleSql sql, List<String> parameters, ResultFormat format,
+                          int timeoutSeconds, int maxRows, ResultKey key) {
+            this.ruleId = ruleId;
+            this.sql = sql;
+            this.parameters = parameters;
+            this.format = format;
+            this.timeoutSeconds = timeoutSeconds;
+            this.maxRows = maxRows;
+            this.key = key;
+        }
+
+        public ResultFormat format() {
+            return format;
+        }
+
+        /**
+         * Exécute la requête et en écrit le résultat, ou le résultat gardé en cache.
+         */
+        public void writeTo(OutputStream out) throws IOException {
+            if (key != null) {
+                byte[] cached = results.get(key);
+                if (cached != null) {
+                    cacheHits.increment();
+                    out.write(cached);
+                    return;
+                }
+            }
+            CachingOutputStream target = new CachingOutputStream(out, key == null ? 0 : maxCachedBytes);
+            executions.increment();
+            long start = System.nanoTime();
+            try (Connection connection = dataSource().getConnection();
+                 PreparedStatement statement = connection.prepareStatement(sql.sql(),
+                         ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                statement.setQueryTimeout(timeoutSeconds);
+                statement.setMaxRows(maxRows);
+                // Lecture en flux avec Connector/J : les lignes ne sont pas toutes chargées en mémoire
+                statement.setFetchSize(Integer.MIN_VALUE);
+                for (int i = 0; i < parameters.size(); i++) {
+                    statement.setString(i + 1, parameters.get(i));
+                }
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    long count = ResultWriter.write(resultSet, format, target, objectMapper);
+                    rows.add(count);
+                    log.debug("Rule {} returned {} rows in {} ms", ruleId, count, (System.nanoTime() - start) / 1_000_000);
+                }
+            }
+            catch (SQLTimeoutException e) {
+                timeouts.increment();
+                throw new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT,
+                        "Rule " + ruleId + " exceeded " + timeoutSeconds + " s", e);
+            }
+            catch (SQLException e) {
+                failures.increment();
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Rule " + ruleId + " failed: " + e.getMessage(), e);
+            }
+            if (key != null && target.cached() != null) {
+                results.put(key, target.cached());
+            }
+        }
+    }
+
+    /**
+     * Recopie ce qui est écrit tant que le total ne dépasse pas la taille maximale d'un résultat en cache.
+     */
+    private static final class CachingOutputStream extends OutputStream {
+        private final OutputStream out;
+        private final int limit;
+        private ByteArrayOutputStream copy;
+
+        CachingOutputStream(OutputStream out, int limit) {
+            this.out = out;
+            this.limit = limit;
+            this.copy = limit > 0 ? new ByteArrayOutputStream() : null;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            if (copy != null) {
+                copy.write(b);
+                checkLimit();
+            }
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            out.write(bytes, offset, length);
+            if (copy != null) {
+                copy.write(bytes, offset, length);
+                checkLimit();
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        byte[] cached() {
+            return copy == null ? null : copy.toByteArray();
+        }
+
+        private void checkLimit() {
+            if (copy.size() > limit) {
+                copy = null;
+            }
+        }
+    }
+}
@@ -1,42 +1,119 @@
 package com.pcs.app.service;
 
+import com.pcs.app.cache.ReadCoalescer;
 import com.pcs.app.domain.BidList;
+import com.pcs.app.domain.SearchFilter;
+import com.pcs.app.events.EntityChangeEvent;
+import com.pcs.app.idempotency.IdempotencyService;
 import com.pcs.app.repositories.BidListRepository;
+import com.pcs.app.repositories.SearchSpecifications;
+import com.pcs.app.sharding.ShardSearch;
+import com.pcs.app.sharding.ShardingService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 public class BidListService {
     @Autowired
     private BidListRepository repository;
 
+    @Autowired
+    private ApplicationEventPublisher publisher;
+
+    @Autowired
+    private ReadCoalescer coalescer;
+
+    @Autowired
+    private IdempotencyService idempotency;
+
+    @Autowired
+    private ShardingService sharding;
+
     public List<BidList> getAllBidLists(){
-        return repository.findAll();
+        return coalescer.read(BidList.class, "getAllBidLists", () -> Collections.unmodifiableList(
+                sharding.enabled() ? sharding.bidLists().findAll() : repository.findAll()));
+    }
+
+    public Slice<BidList> searchBidLists(SearchFilter filter, Pageable pageable){
+        return coalescer.read(BidList.class, "searchBidLists",
+                () -> sharding.enabled()
+                        ? sharding.bidLists().search(ShardSearch.forBidLists(filter), pageable)
+                        : SearchSpecifications.search(repository, SearchSpecifications.forBidLists(filter), pageable),
+                filter, pageable);
     }
 
     public BidList getBidListById(int bidListId){
-        return repository.findById(bidListId).orElseThrow();
+        return findById(bidListId).orElseThrow();
     }
 
+    private Optional<BidList> findById(Integer id){
+        return sharding.enabled() ? sharding.bidLists().findById(id) : repository.findById(id);
+    }
+
+    @Transactional
     public BidList createBidList(BidList bidList) {
-        return repository.save(bidList);
+        BidList saved;
+        if (sharding.enabled()){
+            bidList.setId(sharding.nextBidListId());
+            saved = sharding.bidLists().insert(bidList);
+        }
+        else {
+            saved = repository.save(bidList);
+        }
+        publisher.publishEvent(EntityChangeEvent.created(BidList.class, saved.getId(), saved));
+        return saved;
+    }
+
+    public BidList createBidList(BidList bidList, String idempotencyKey) {
+        return idempotency.execute(BidList.class, idempotencyKey, bidList, () -> createBidList(bidList), BidList::getId, this::findById);
     }
 
+    @Transactional
     public BidList updateBidList(BidList bidList){
-        if (bidList.getId() == null || !repository.existsById(bidList.getId())){
+        BidList existing = bidList.getId() == null ? null : findById(bidList.getId()).orElse(null);
+        if (existing == null){
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid bidList id");
         }
-        return repository.save(bidList);
+        // Les formulaires ne transmettent pas les champs de création
+        bidList.setCreationName(existing.getCreationName());
+        bidList.setCreationDate(existing.getCreationDate());
+        BidList saved;
+        if (sharding.enabled()){
+            sharding.bidLists().update(bidList);
+            saved = bidList;
+        }
+        else {
+            saved = repository.save(bidList);
+        }
+        publisher.publishEvent(EntityChangeEvent.updated(BidList.class, saved.getId(), saved));
+        return saved;
     }
 
+    @Transactional
     public void deleteBidList(int bidListId) {
-        if (!repository.existsById(bidListId)) {
+        boolean deleted;
+        if (sharding.enabled()){
+            deleted = sharding.bidLists().delete(bidListId);
+        }
+        else {
+            deleted = repository.existsById(bidListId);
+            if (deleted) {
+                repository.deleteById(bidListId);
+            }
+        }
+        if (!deleted) {
             throw new ResponseStatusException(HttpStatus.NO_CONTENT, "No bidList with given id");
         }
-        repository.deleteById(bidListId);
+        publisher.publishEvent(EntityChangeEvent.deleted(BidList.class, bidListId));
     }
 }
@@ -1,12 +1,17 @@
 package com.pcs.app.service;
 
+import com.pcs.app.cache.ReadCoalescer;
 import com.pcs.app.domain.CurvePoint;
+import com.pcs.app.events.EntityChangeEvent;
 import com.pcs.app.repositories.CurvePointRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.Collections;
 import java.util.List;
 
 @Service
@@ -14,29 +19,46 @@ public class CurvePointService {
     @Autowired
     CurvePointRepository repository;
 
+    @Autowired
+    private ApplicationEventPublisher publisher;
+
+    @Autowired
+    private ReadCoalescer coalescer;
+
     public List<CurvePoint> getAllCurvePoints(){
-        return repository.findAll();
+        return coalescer.read(CurvePoint.class, "getAllCurvePoints", () -> Collections.unmodifiableList(repository.findAll()));
     }
 
     public CurvePoint getCurvePointById(int curveId){
         return repository.findById(curveId).orElseThrow();
     }
 
+    @Transactional
     public CurvePoint createCurvePoint(CurvePoint curve) {
-        return repository.save(curve);
+        CurvePoint saved = repository.save(curve);
+        publisher.publishEvent(EntityChangeEvent.created(CurvePoint.class, saved.getId(), saved));
+        return saved;
     }
 
+    @Transactional
     public CurvePoint updateCurvePoint(CurvePoint curve){
-        if (curve.getId() == null || !repository.existsById(curve.getId())){
+        CurvePoint existing = curve.getId() == null ? null : repository.findById(curve.getId()).orElse(null);
+        if (existing == null){
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid curve id");
         }
-        return repository.save(curve);
+        // Copie de l'état d'origine : l'entité chargée reçoit les nouvelles valeurs à l'enregistrement
+        CurvePoint previous = new CurvePoint(existing.getCurveId(), existing.getTerm(), existing.getValue());
+        previous.setId(existing.getId());
+        CurvePoint saved = repository.save(curve);
+        publisher.publishEvent(EntityChangeEvent.updated(CurvePoint.class, saved.getId(), saved, previous));
+        return saved;
     }
 
+    @Transactional
     public void deleteCurvePoint(int curveId) {
-        if (!repository.existsById(curveId)) {
-            throw new ResponseStatusException(HttpStatus.NO_CONTENT, "No curve with given id");
-        }
+        CurvePoint previous = repository.findById(curveId).orElseThrow(
+                () -> new ResponseStatusException(HttpStatus.NO_CONTENT, "No curve with given id"));
         repository.deleteById(curveId);
+        publisher.publishEvent(EntityChangeEvent.deleted(CurvePoint.class, curveId, previous));
     }
 }
@@ -1,12 +1,17 @@
 package com.pcs.app.service;
 
+import com.pcs.app.cache.ReadCoalescer;
 import com.pcs.app.domain.Rating;
+import com.pcs.app.events.EntityChangeEvent;
 import com.pcs.app.repositories.RatingRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.Collections;
 import java.util.List;
 
 @Service
@@ -14,29 +19,43 @@ public class RatingService {
     @Autowired
     private RatingRepository repository;
 
+    @Autowired
+    private ApplicationEventPublisher publisher;
+
+    @Autowired
+    private ReadCoalescer coalescer;
+
     public List<Rating> getAllRatings(){
-        return repository.findAll();
+        return coalescer.read(Rating.class, "getAllRatings", () -> Collections.unmodifiableList(repository.findAll()));
     }
 
     public Rating getRatingById(int bidListId){
         return repository.findById(bidListId).orElseThrow();
     }
 
+    @Transactional
     public Rating createRating(Rating rating) {
-        return repository.save(rating);
+        Rating saved = repository.save(rating);
+        publisher.publishEvent(EntityChangeEvent.created(Rating.class, saved.getId(), saved));
+        return saved;
     }
 
+    @Transactional
     public Rating updateRating(Rating rating){
         if (rating.getId() == null || !repository.existsById(rating.getId())){
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid rating id");
         }
-        return repository.save(rating);
+        Rating saved = repository.save(rating);
+        publisher.publishEvent(EntityChangeEvent.updated(Rating.class, saved.getId(), saved));
+        return saved;
     }
 
+    @Transactional
     public void deleteRating(int bidListId) {
         if (!repository.existsById(bidListId)) {
             throw new ResponseStatusException(HttpStatus.NO_CONTENT, "No rating with given id");
         }
         repository.deleteById(bidListId);
+        publisher.publishEvent(EntityChangeEvent.deleted(Rating.class, bidListId));
     }
 }
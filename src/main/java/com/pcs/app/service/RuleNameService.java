@@ -1,42 +1,88 @@
 package com.pcs.app.service;
 
 import com.pcs.app.domain.RuleName;
+import com.pcs.app.events.EntityChangeEvent;
 import com.pcs.app.repositories.RuleNameRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
+import java.util.Optional;
 
 @Service
 public class RuleNameService {
     @Autowired
     private RuleNameRepository repository;
 
+    @Autowired
+    private ApplicationEventPublisher publisher;
+
+    /**
+     * Retourne les règles sans leurs textes, chargés à la demande. Cette lecture n'est pas
+     * regroupée : les textes paresseux restent liés à la session qui a lu la règle.
+     */
     public List<RuleName> getAllRuleNames(){
         return repository.findAll();
     }
 
+    /**
+     * Retourne les règles avec leurs textes chargés, pour les traitements hors requête web.
+     */
+    @Transactional(readOnly = true)
+    public List<RuleName> getAllRuleNamesWithText(){
+        List<RuleName> ruleNames = repository.findAll();
+        ruleNames.forEach(RuleName::getJson);
+        return ruleNames;
+    }
+
     public RuleName getRuleNameById(int ruleNameId){
-        return repository.findById(ruleNameId).orElseThrow();
+        return findRuleNameById(ruleNameId).orElseThrow();
+    }
+
+    /**
+     * Retourne la règle avec ses textes chargés.
+     */
+    @Transactional(readOnly = true)
+    public Optional<RuleName> findRuleNameById(int ruleNameId){
+        Optional<RuleName> ruleName = repository.findById(ruleNameId);
+        ruleName.ifPresent(RuleName::getJson);
+        return ruleName;
     }
 
+    @Transactional
     public RuleName createRuleName(RuleName ruleName) {
-        return repository.save(ruleName);
+        RuleName saved = repository.save(ruleName);
+        publisher.publishEvent(EntityChangeEvent.created(RuleName.class, saved.getId(), saved));
+        return saved;
     }
 
+    @Transactional
     public RuleName updateRuleName(RuleName ruleName){
-        if (ruleName.getId() == null || !repository.existsById(ruleName.getId())){
+        RuleName saved = ruleName.getId() == null ? null : repository.findById(ruleName.getId()).orElse(null);
+        if (saved == null){
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid ruleName id");
         }
-        return repository.save(ruleName);
+        // Recopie sur l'entité gérée pour mettre à jour la ligne de textes existante
+        saved.setName(ruleName.getName());
+        saved.setDescription(ruleName.getDescription());
+        saved.setJson(ruleName.getJson());
+        saved.setTemplate(ruleName.getTemplate());
+        saved.setSqlStr(ruleName.getSqlStr());
+        saved.setSqlPart(ruleName.getSqlPart());
+        publisher.publishEvent(EntityChangeEvent.updated(RuleName.class, saved.getId(), saved));
+        return saved;
     }
 
+    @Transactional
     public void deleteRuleName(int ruleNameId) {
         if (!repository.existsById(ruleNameId)) {
             throw new ResponseStatusException(HttpStatus.NO_CONTENT, "No ruleName with given id");
         }
         repository.deleteById(ruleNameId);
+        publisher.publishEvent(EntityChangeEvent.deleted(RuleName.class, ruleNameId));
     }
 }
@@ -0,0 +1,77 @@
+package com.pcs.app.service;
+
+import com.pcs.app.domain.RuleName;
+import com.pcs.app.repositories.RuleNameRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reprend les textes des règles enregistrées avant leur déplacement dans la
+ * table {@code rulename_text}.
+ * <p>
+ * Les anciennes colonnes de {@code rulename} sont laissées en place par la mise
+ * à jour du schéma : les règles sans ligne de textes y sont relues et leurs
+ * textes recopiés, avant le chargement du moteur de règles.
+ * </p>
+ */
+@Slf4j
+@Component
+public class RuleNameTextMigration {
+
+    private static final List<String> LEGACY_COLUMNS = List.of("json", "template", "sql_str");
+
+    @Autowired
+    private RuleNameRepository repository;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public RuleNameTextMigration(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        try {
+            if (!hasLegacyColumns()) {
+                return;
+            }
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                    "SELECT id, json, template, sql_str FROM rulename WHERE text_id IS NULL");
+            if (rows.isEmpty()) {
+                return;
+            }
+            transactionTemplate.executeWithoutResult(status -> rows.forEach(row -> {
+                RuleName ruleName = repository.findById(((Number) row.get("id")).intValue()).orElseThrow();
+                ruleName.setJson((String) row.get("json"));
+                ruleName.setTemplate((String) row.get("template"));
+                ruleName.setSqlStr((String) row.get("sql_str"));
+            }));
+            log.info("Moved texts of {} rules to rulename_text", rows.size());
+        }
+        catch (Exception e) {
+            log.error("Rule text migration failed", e);
+        }
+    }
+
+    private boolean hasLegacyColumns() {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.columns WHERE table_schema = DATABASE()"
+                        + " AND table_name = 'rulename' AND column_name IN ('json', 'template', 'sql_str')",
+                Integer.class);
+        return count != null && count == LEGACY_COLUMNS.size();
+    }
+}
@@ -1,42 +1,135 @@
 package com.pcs.app.service;
 
+import com.pcs.app.cache.ReadCoalescer;
+import com.pcs.app.domain.SearchFilter;
 import com.pcs.app.domain.Trade;
+import com.pcs.app.events.EntityChangeEvent;
+import com.pcs.app.groupcommit.TradeGroupCommitService;
+import com.pcs.app.idempotency.IdempotencyService;
+import com.pcs.app.repositories.SearchSpecifications;
 import com.pcs.app.repositories.TradeRepository;
+import com.pcs.app.sharding.ShardSearch;
+import com.pcs.app.sharding.ShardingService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 public class TradeService {
     @Autowired
     private TradeRepository repository;
 
+    @Autowired
+    private ApplicationEventPublisher publisher;
+
+    @Autowired
+    private ReadCoalescer coalescer;
+
+    @Autowired
+    private IdempotencyService idempotency;
+
+    @Autowired
+    private ShardingService sharding;
+
+    @Autowired
+    private TradeGroupCommitService groupCommit;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     public List<Trade> getAllTrades(){
-        return repository.findAll();
+        return coalescer.read(Trade.class, "getAllTrades", () -> Collections.unmodifiableList(
+                sharding.enabled() ? sharding.trades().findAll() : repository.findAll()));
+    }
+
+    public Slice<Trade> searchTrades(SearchFilter filter, Pageable pageable){
+        return coalescer.read(Trade.class, "searchTrades",
+                () -> sharding.enabled()
+                        ? sharding.trades().search(ShardSearch.forTrades(filter), pageable)
+                        : SearchSpecifications.search(repository, SearchSpecifications.forTrades(filter), pageable),
+                filter, pageable);
     }
 
     public Trade getTradeById(int bidListId){
-        return repository.findById(bidListId).orElseThrow();
+        return findById(bidListId).orElseThrow();
+    }
+
+    private Optional<Trade> findById(Integer id){
+        return sharding.enabled() ? sharding.trades().findById(id) : repository.findById(id);
     }
 
     public Trade createTrade(Trade trade) {
-        return repository.save(trade);
+        if (groupCommit.accepts()){
+            return groupCommit.create(trade);
+        }
+        return transactionTemplate.execute(status -> insertTrade(trade));
+    }
+
+    private Trade insertTrade(Trade trade) {
+        Trade saved;
+        if (sharding.enabled()){
+            trade.setId(sharding.nextTradeId());
+            saved = sharding.trades().insert(trade);
+        }
+        else {
+            saved = repository.save(trade);
+        }
+        publisher.publishEvent(EntityChangeEvent.created(Trade.class, saved.getId(), saved));
+        return saved;
     }
 
+    public Trade createTrade(Trade trade, String idempotencyKey) {
+        return idempotency.execute(Trade.class, idempotencyKey, trade, () -> createTrade(trade), Trade::getId, this::findById);
+    }
+
+    @Transactional
     public Trade updateTrade(Trade trade){
-        if (trade.getId() == null || !repository.existsById(trade.getId())){
+        Trade existing = trade.getId() == null ? null : findById(trade.getId()).orElse(null);
+        if (existing == null){
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid trade id");
         }
-        return repository.save(trade);
+        // Les formulaires ne transmettent ni les champs de création ni l'origine d'un échange issu de la confrontation
+        trade.setCreationName(existing.getCreationName());
+        trade.setCreationDate(existing.getCreationDate());
+        trade.setDealType(existing.getDealType());
+        trade.setSourceListId(existing.getSourceListId());
+        Trade saved;
+        if (sharding.enabled()){
+            sharding.trades().update(trade);
+            saved = trade;
+        }
+        else {
+            saved = repository.save(trade);
+        }
+        publisher.publishEvent(EntityChangeEvent.updated(Trade.class, saved.getId(), saved));
+        return saved;
     }
 
+    @Transactional
     public void deleteTrade(int bidListId) {
-        if (!repository.existsById(bidListId)) {
+        boolean deleted;
+        if (sharding.enabled()){
+            deleted = sharding.trades().delete(bidListId);
+        }
+        else {
+            deleted = repository.existsById(bidListId);
+            if (deleted) {
+                repository.deleteById(bidListId);
+            }
+        }
+        if (!deleted) {
             throw new ResponseStatusException(HttpStatus.NO_CONTENT, "No trade with given id");
         }
-        repository.deleteById(bidListId);
+        publisher.publishEvent(EntityChangeEvent.deleted(Trade.class, bidListId));
     }
 }
@@ -1,16 +1,21 @@
 package com.pcs.app.service;
 
+import com.pcs.app.cache.ReadCoalescer;
 import com.pcs.app.domain.User;
+import com.pcs.app.events.EntityChangeEvent;
 import com.pcs.app.repositories.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.Collections;
 import java.util.List;
 
 @Service
@@ -19,6 +24,12 @@ public class UserService implements UserDetailsService {
     @Autowired
     UserRepository repository;
 
+    @Autowired
+    private ApplicationEventPublisher publisher;
+
+    @Autowired
+    private ReadCoalescer coalescer;
+
     @Autowired
     private ApplicationContext context;
 
@@ -28,28 +39,36 @@ public class UserService implements UserDetailsService {
     }
 
     public List<User> getAllUsers(){
-        return repository.findAll();
+        return coalescer.read(User.class, "getAllUsers", () -> Collections.unmodifiableList(repository.findAll()));
     }
 
     public User getUserById(int userId){
         return repository.findById(userId).orElseThrow();
     }
 
+    @Transactional
     public User createUser(User user) {
-        return repository.save(user);
+        User saved = repository.save(user);
+        publisher.publishEvent(EntityChangeEvent.created(User.class, saved.getId(), saved));
+        return saved;
     }
 
+    @Transactional
     public User updateUser(User user){
         if (user.getId() == null || !repository.existsById(user.getId())){
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid user id");
         }
-        return repository.save(user);
+        User saved = repository.save(user);
+        publisher.publishEvent(EntityChangeEvent.updated(User.class, saved.getId(), saved));
+        return saved;
     }
 
+    @Transactional
     public void deleteUser(int userId) {
         if (!repository.existsById(userId)) {
             throw new ResponseStatusException(HttpStatus.NO_CONTENT, "No user with given id");
         }
         repository.deleteById(userId);
+        publisher.publishEvent(EntityChangeEvent.deleted(User.class, userId));
     }
 }
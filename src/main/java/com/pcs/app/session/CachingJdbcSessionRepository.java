@@ -0,0 +1,314 @@
+package com.pcs.app.session;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ConfigurableObjectInputStream;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.session.MapSession;
+import org.springframework.session.SessionRepository;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sessions HTTP enregistrées en base, partagées entre les instances, avec un cache local.
+ * <p>
+ * Une session lue est conservée localement pendant {@code app.session.local-ttl-ms} :
+ * les requêtes suivantes de la même session ne lisent pas la base. Une session
+ * modifiée (connexion, déconnexion, attribut ajouté ou retiré) est écrite
+ * immédiatement, pour être visible des autres instances. Une requête qui ne fait
+ * que prolonger la session ne l'écrit pas : la nouvelle date de dernier accès est
+ * mise en attente et écrite en lot périodiquement. Les sessions expirées sont
+ * supprimées par lots de taille bornée, pour ne pas verrouiller la table longtemps.
+ * </p>
+ * <p>
+ * Une session modifiée n'est écrite que si sa version en base est celle lue :
+ * une session supprimée par une autre instance (déconnexion, invalidation,
+ * expiration) n'est pas recréée, et une copie locale périmée n'écrase pas les
+ * attributs modifiés par une autre instance. Dans les deux cas, l'écriture est
+ * abandonnée et la session retirée du cache local, pour être relue à la requête
+ * suivante. En dehors des écritures, une suppression ou une modification faite
+ * par une autre instance n'est vue qu'à l'expiration du cache local, dont la
+ * durée borne donc le délai de prise en compte d'une déconnexion.
+ * </p>
+ */
+@Slf4j
+@Component
+public class CachingJdbcSessionRepository implements SessionRepository<StoredSession> {
+
+    private static final String INSERT = "INSERT INTO http_session (session_id, principal_name, creation_time, "
+            + "last_access_time, max_inactive_interval, expiry_time, attributes, version) VALUES (?, ?, ?, ?, ?, ?, ?, 0)";
+    private static final String UPDATE = "UPDATE http_session SET session_id = ?, principal_name = ?, "
+            + "last_access_time = ?, max_inactive_interval = ?, expiry_time = ?, attributes = ?, version = version + 1 "
+            + "WHERE session_id = ? AND version = ?";
+    private static final String TOUCH = "UPDATE http_session SET last_access_time = ?, expiry_time = ? "
+            + "WHERE session_id = ? AND last_access_time < ?";
+    private static final String SELECT = "SELECT creation_time, last_access_time, max_inactive_interval, attributes, "
+            + "version FROM http_session WHERE session_id = ?";
+    private static final String DELETE = "DELETE FROM http_session WHERE session_id = ?";
+    private static final String DELETE_EXPIRED = "DELETE FROM http_session WHERE expiry_time < ? LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration defaultMaxInactiveInterval;
+    private final long localTtlMs;
+    private final int cleanupBatchSize;
+    private final ConcurrentHashMap<String, Cached> cache = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Touch> pendingTouches = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    private record Cached(MapSession snapshot, long version, long loadedAt) {
+    }
+
+    private record Touch(long lastAccessTime, long expiryTime) {
+    }
+
+    public CachingJdbcSessionRepository(JdbcTemplate jdbcTemplate,
+                                        @Value("${server.servlet.session.timeout:30m}") Duration defaultMaxInactiveInterval,
+                                        @Value("${app.session.local-ttl-ms:10000}") long localTtlMs,
+                                        @Value("${app.session.flush-interval-ms:5000}") long flushIntervalMs,
+                                        @Value("${app.session.cleanup-interval-ms:60000}") long cleanupIntervalMs,
+                                        @Value("${app.session.cleanup-batch-size:1000}") int cleanupBatchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.defaultMaxInactiveInterval = defaultMaxInactiveInterval;
+        this.localTtlMs = localTtlMs;
+        this.cleanupBatchSize = cleanupBatchSize;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-store");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::cleanUpQuietly, cleanupIntervalMs, cleanupIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public StoredSession createSession() {
+        MapSession session = new MapSession();
+        session.setMaxInactiveInterval(defaultMaxInactiveInterval);
+        return new StoredSession(session, null, 0);
+    }
+
+    @Override
+    public void save(StoredSession session) {
+        MapSession delegate = session.delegate();
+        long now = System.currentTimeMillis();
+        if (session.isNew() || session.isChanged()) {
+            if (!write(session)) {
+                // Supprimée ou modifiée par une autre instance depuis sa lecture : la copie locale est périmée
+                log.debug("Session {} changed or deleted elsewhere, not written", session.persistedId());
+                cache.remove(session.persistedId());
+                pendingTouches.remove(session.persistedId());
+                return;
+            }
+            if (!session.isNew() && !session.persistedId().equals(delegate.getId())) {
+                cache.remove(session.persistedId());
+                pendingTouches.remove(session.persistedId());
+            }
+            long version = session.isNew() ? 0 : session.version() + 1;
+            pendingTouches.remove(delegate.getId());
+            cache.put(delegate.getId(), new Cached(new MapSession(delegate), version, now));
+            session.markSaved(version);
+            return;
+        }
+        // Simple prolongation : écrite plus tard, avec celles des autres sessions
+        long lastAccessTime = delegate.getLastAccessedTime().toEpochMilli();
+        Touch touch = new Touch(lastAccessTime, lastAccessTime + delegate.getMaxInactiveInterval().toMillis());
+        pendingTouches.merge(delegate.getId(), touch,
+                (previous, next) -> next.lastAccessTime() > previous.lastAccessTime() ? next : previous);
+        cache.computeIfPresent(delegate.getId(), (id, cached) -> {
+            MapSession snapshot = new MapSession(cached.snapshot());
+            snapshot.setLastAccessedTime(delegate.getLastAccessedTime());
+            return new Cached(snapshot, cached.version(), cached.loadedAt());
+        });
+    }
+
+    @Override
+    public StoredSession findById(String id) {
+        long now = System.currentTimeMillis();
+        Cached cached = cache.get(id);
+        if (cached == null || now - cached.loadedAt() >= localTtlMs) {
+            cached = load(id, now);
+            if (cached == null) {
+                cache.remove(id);
+                pendingTouches.remove(id);
+                return null;
+            }
+            cache.put(id, cached);
+        }
+        if (cached.snapshot().isExpired()) {
+            deleteById(id);
+            return null;
+        }
+        return new StoredSession(new MapSession(cached.snapshot()), id, cached.version());
+    }
+
+    @Override
+    public void deleteById(String id) {
+        cache.remove(id);
+        pendingTouches.remove(id);
+        jdbcTemplate.update(DELETE, id);
+    }
+
+    /**
+     * Écrit en un lot les dates de dernier accès en attente.
+     *
+     * @return le nombre de sessions prolongées
+     */
+    public int flush() {
+        List<Object[]> batch = new ArrayList<>(pendingTouches.size());
+        for (String id : pendingTouches.keySet()) {
+            Touch touch = pendingTouches.remove(id);
+            if (touch != null) {
+                batch.add(new Object[]{touch.lastAccessTime(), touch.expiryTime(), id, touch.lastAccessTime()});
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(TOUCH, batch);
+        }
+        return batch.size();
+    }
+
+    /**
+     * Supprime les sessions expirées, par lots.
+     *
+     * @return le nombre de sessions supprimées
+     */
+    public int cleanUpExpiredSessions() {
+        long now = System.currentTimeMillis();
+        int total = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(DELETE_EXPIRED, now, cleanupBatchSize);
+            total += deleted;
+        }
+        while (deleted == cleanupBatchSize);
+        cache.entrySet().removeIf(entry -> now - entry.getValue().loadedAt() >= localTtlMs
+                || entry.getValue().snapshot().isExpired());
+        return total;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+        flushQuietly();
+    }
+
+    /**
+     * @return faux si la session, déjà enregistrée, a été supprimée ou modifiée ailleurs depuis sa lecture
+     */
+    private boolean write(StoredSession session) {
+        MapSession delegate = session.delegate();
+        long lastAccessTime = delegate.getLastAccessedTime().toEpochMilli();
+        int maxInactiveInterval = (int) delegate.getMaxInactiveInterval().getSeconds();
+        long expiryTime = lastAccessTime + delegate.getMaxInactiveInterval().toMillis();
+        byte[] attributes = serialize(delegate);
+        String principalName = principalName(delegate);
+        if (session.isNew()) {
+            jdbcTemplate.update(INSERT, delegate.getId(), principalName, delegate.getCreationTime().toEpochMilli(),
+                    lastAccessTime, maxInactiveInterval, expiryTime, attributes);
+            return true;
+        }
+        return jdbcTemplate.update(UPDATE, delegate.getId(), principalName, lastAccessTime, maxInactiveInterval,
+                expiryTime, attributes, session.persistedId(), session.version()) > 0;
+    }
+
+    private Cached load(String id, long now) {
+        List<Cached> sessions = jdbcTemplate.query(SELECT, (rs, rowNum) -> {
+            MapSession session = new MapSession(id);
+            session.setCreationTime(Instant.ofEpochMilli(rs.getLong("creation_time")));
+            session.setLastAccessedTime(Instant.ofEpochMilli(rs.getLong("last_access_time")));
+            session.setMaxInactiveInterval(Duration.ofSeconds(rs.getInt("max_inactive_interval")));
+            deserialize(rs.getBytes("attributes")).forEach(session::setAttribute);
+            return new Cached(session, rs.getLong("version"), now);
+        }, id);
+        if (sessions.isEmpty()) {
+            return null;
+        }
+        Cached cached = sessions.get(0);
+        MapSession session = cached.snapshot();
+        // Une prolongation pas encore écrite est plus récente que la base
+        Touch touch = pendingTouches.get(id);
+        if (touch != null && touch.lastAccessTime() > session.getLastAccessedTime().toEpochMilli()) {
+            session.setLastAccessedTime(Instant.ofEpochMilli(touch.lastAccessTime()));
+        }
+        return cached;
+    }
+
+    private static String principalName(MapSession session) {
+        Object context = session.getAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY);
+        if (context instanceof SecurityContext securityContext && securityContext.getAuthentication() != null) {
+            return securityContext.getAuthentication().getName();
+        }
+        return null;
+    }
+
+    private static byte[] serialize(MapSession session) {
+        Map<String, Object> attributes = new HashMap<>();
+        for (String name : session.getAttributeNames()) {
+            attributes.put(name, session.getAttribute(name));
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(attributes);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Cannot serialize session attributes", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> deserialize(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return Map.of();
+        }
+        try (ObjectInputStream in = new ConfigurableObjectInputStream(new ByteArrayInputStream(bytes),
+                getClass().getClassLoader())) {
+            return (Map<String, Object>) in.readObject();
+        }
+        catch (IOException | ClassNotFoundException e) {
+            // Une session illisible (classe modifiée depuis) est traitée comme vide
+            log.warn("Cannot deserialize session attributes: {}", e.getMessage());
+            return Map.of();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        }
+        catch (Exception e) {
+            log.error("Session touch flush failed", e);
+        }
+    }
+
+    private void cleanUpQuietly() {
+        try {
+            int deleted = cleanUpExpiredSessions();
+            if (deleted > 0) {
+                log.debug("Deleted {} expired sessions", deleted);
+            }
+        }
+        catch (Exception e) {
+            log.error("Expired session cleanup failed", e);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.pcs.app.session;
+
+import org.springframework.session.MapSession;
+import org.springframework.session.Session;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * Session rendue par {@link CachingJdbcSessionRepository}, qui note si elle a été
+ * modifiée depuis son chargement.
+ * <p>
+ * Seuls l'ajout, le retrait d'attributs, le changement d'identifiant et de durée
+ * d'inactivité comptent comme modifications ; la date de dernier accès, mise à
+ * jour à chaque requête, n'en est pas une.
+ * </p>
+ */
+public final class StoredSession implements Session {
+
+    private final MapSession delegate;
+    private String persistedId;
+    private long version;
+    private boolean changed;
+
+    StoredSession(MapSession delegate, String persistedId, long version) {
+        this.delegate = delegate;
+        this.persistedId = persistedId;
+        this.version = version;
+    }
+
+    MapSession delegate() {
+        return delegate;
+    }
+
+    /**
+     * Identifiant sous lequel la session est enregistrée, nul si elle ne l'a jamais été.
+     */
+    String persistedId() {
+        return persistedId;
+    }
+
+    /**
+     * Version de la session en base lors de son chargement ou de sa dernière écriture.
+     */
+    long version() {
+        return version;
+    }
+
+    boolean isNew() {
+        return persistedId == null;
+    }
+
+    boolean isChanged() {
+        return changed;
+    }
+
+    void markSaved(long version) {
+        persistedId = delegate.getId();
+        this.version = version;
+        changed = false;
+    }
+
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+
+    @Override
+    public String changeSessionId() {
+        changed = true;
+        return delegate.changeSessionId();
+    }
+
+    @Override
+    public <T> T getAttribute(String attributeName) {
+        return delegate.getAttribute(attributeName);
+    }
+
+    @Override
+    public Set<String> getAttributeNames() {
+        return delegate.getAttributeNames();
+    }
+
+    @Override
+    public void setAttribute(String attributeName, Object attributeValue) {
+        changed = true;
+        delegate.setAttribute(attributeName, attributeValue);
+    }
+
+    @Override
+    public void removeAttribute(String attributeName) {
+        changed = true;
+        delegate.removeAttribute(attributeName);
+    }
+
+    @Override
+    public Instant getCreationTime() {
+        return delegate.getCreationTime();
+    }
+
+    @Override
+    public void setLastAccessedTime(Instant lastAccessedTime) {
+        delegate.setLastAccessedTime(lastAccessedTime);
+    }
+
+    @Override
+    public Instant getLastAccessedTime() {
+        return delegate.getLastAccessedTime();
+    }
+
+    @Override
+    public void setMaxInactiveInterval(Duration interval) {
+        if (!interval.equals(delegate.getMaxInactiveInterval())) {
+            changed = true;
+        }
+        delegate.setMaxInactiveInterval(interval);
+    }
+
+    @Override
+    public Duration getMaxInactiveInterval() {
+        return delegate.getMaxInactiveInterval();
+    }
+
+    @Override
+    public boolean isExpired() {
+        return delegate.isExpired();
+    }
+}
@@ -0,0 +1,34 @@
+package com.pcs.app.sharding;
+
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Attribue des identifiants uniques entre toutes les bases et toutes les instances.
+ * <p>
+ * Les identifiants sont réservés par blocs auprès d'un compteur partagé ; un
+ * bloc est ensuite distribué en mémoire sans accès à la base.
+ * </p>
+ */
+public final class IdAllocator {
+
+    private final int blockSize;
+    private final IntUnaryOperator reserve;
+    private int next;
+    private int end;
+
+    /**
+     * @param reserve réserve un bloc de la taille donnée et retourne son premier identifiant
+     */
+    public IdAllocator(int blockSize, IntUnaryOperator reserve) {
+        this.blockSize = blockSize;
+        this.reserve = reserve;
+    }
+
+    public synchronized int next() {
+        if (next == end) {
+            next = reserve.applyAsInt(blockSize);
+            end = Math.addExact(next, blockSize);
+        }
+        return next++;
+    }
+}
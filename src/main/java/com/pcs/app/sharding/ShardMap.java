@@ -0,0 +1,152 @@
+package com.pcs.app.sharding;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Répartition immuable des comptes entre les bases.
+ * <p>
+ * Chaque compte tombe, par hachage, dans l'un des {@value #BUCKETS} paquets ;
+ * chaque paquet appartient à une base. Ajouter une base revient à lui céder des
+ * paquets : seuls les comptes de ces paquets changent de base.
+ * </p>
+ * <p>
+ * La version de la carte est celle du dernier déplacement de paquets : une
+ * instance dont la carte est plus ancienne que celle de la base la relit.
+ * </p>
+ */
+public final class ShardMap {
+
+    public static final int BUCKETS = 1024;
+
+    private final int[] owners;
+    private final long version;
+
+    private ShardMap(int[] owners, long version) {
+        this.owners = owners;
+        this.version = version;
+    }
+
+    /**
+     * Répartit les paquets à tour de rôle entre les bases.
+     */
+    public static ShardMap uniform(int shards) {
+        int[] owners = new int[BUCKETS];
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            owners[bucket] = bucket % shards;
+        }
+        return new ShardMap(owners, 0);
+    }
+
+    public static ShardMap of(int[] owners) {
+        return of(owners, 0);
+    }
+
+    public static ShardMap of(int[] owners, long version) {
+        if (owners.length != BUCKETS) {
+            throw new IllegalArgumentException("A shard map has " + BUCKETS + " buckets, not " + owners.length);
+        }
+        return new ShardMap(owners.clone(), version);
+    }
+
+    /**
+     * Retourne le paquet du compte ; un compte nul tombe dans le paquet 0.
+     */
+    public static int bucketOf(String account) {
+        if (account == null) {
+            return 0;
+        }
+        // Brassage final de MurmurHash3 : String.hashCode seul répartit mal les suffixes numériques
+        int h = account.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h & (BUCKETS - 1);
+    }
+
+    public int shardOf(String account) {
+        return owners[bucketOf(account)];
+    }
+
+    public int owner(int bucket) {
+        return owners[bucket];
+    }
+
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Retourne la carte de la version suivante, où les paquets donnés ont changé de base.
+     */
+    public ShardMap withOwners(Map<Integer, Integer> moves) {
+        int[] next = owners.clone();
+        moves.forEach((bucket, shard) -> next[bucket] = shard);
+        return new ShardMap(next, version + 1);
+    }
+
+    /**
+     * Retourne le nombre de paquets de chaque base.
+     */
+    public int[] bucketCounts(int shards) {
+        int[] counts = new int[shards];
+        for (int owner : owners) {
+            counts[owner]++;
+        }
+        return counts;
+    }
+
+    /**
+     * Calcule les déplacements de paquets qui équilibrent la répartition entre
+     * {@code shards} bases, en déplaçant le moins de paquets possible. Les paquets
+     * des bases au-delà de {@code shards} sont tous déplacés.
+     *
+     * @return la nouvelle base de chaque paquet à déplacer
+     */
+    public Map<Integer, Integer> rebalancePlan(int shards) {
+        int[] counts = new int[shards];
+        int[] target = new int[shards];
+        for (int shard = 0; shard < shards; shard++) {
+            target[shard] = BUCKETS / shards + (shard < BUCKETS % shards ? 1 : 0);
+        }
+        List<Integer> surplus = new ArrayList<>();
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            int owner = owners[bucket];
+            if (owner < shards && counts[owner] < target[owner]) {
+                counts[owner]++;
+            }
+            else {
+                surplus.add(bucket);
+            }
+        }
+        Map<Integer, Integer> moves = new LinkedHashMap<>();
+        int shard = 0;
+        for (int bucket : surplus) {
+            while (counts[shard] >= target[shard]) {
+                shard++;
+            }
+            counts[shard]++;
+            moves.put(bucket, shard);
+        }
+        return moves;
+    }
+
+    public int[] owners() {
+        return owners.clone();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof ShardMap other && version == other.version && Arrays.equals(owners, other.owners);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(owners) + Long.hashCode(version);
+    }
+}
@@ -0,0 +1,154 @@
+package com.pcs.app.sharding;
+
+import com.pcs.app.domain.SearchFilter;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.LongSupplier;
+
+/**
+ * Recherche répartie sur toutes les bases, équivalente à
+ * {@link com.pcs.app.repositories.SearchSpecifications}.
+ * <p>
+ * Chaque base retourne ses lignes triées jusqu'à la fin de la page demandée ;
+ * les listes sont ensuite fusionnées selon le même tri. Comme en base, seule la
+ * première page compte les résultats.
+ * </p>
+ *
+ * @param where la clause {@code WHERE}, vide sans critère
+ * @param parameters les valeurs des critères
+ */
+public record ShardSearch(String where, MapSqlParameterSource parameters) {
+
+    public static ShardSearch forTrades(SearchFilter filter) {
+        return of(filter, "trade_date", "buy_quantity", "sell_quantity");
+    }
+
+    public static ShardSearch forBidLists(SearchFilter filter) {
+        return of(filter, "bid_list_date", "bid_quantity", "ask_quantity");
+    }
+
+    private static ShardSearch of(SearchFilter filter, String dateColumn, String... quantityColumns) {
+        List<String> predicates = new ArrayList<>();
+        MapSqlParameterSource parameters = new MapSqlParameterSource();
+        if (filter != null) {
+            addEquals(predicates, parameters, "account", filter.getAccount());
+            addEquals(predicates, parameters, "security", filter.getSecurity());
+            addEquals(predicates, parameters, "trader", filter.getTrader());
+            addEquals(predicates, parameters, "book", filter.getBook());
+            addEquals(predicates, parameters, "status", filter.getStatus());
+            addEquals(predicates, parameters, "side", filter.getSide());
+            if (filter.getFromDate() != null) {
+                predicates.add(dateColumn + " >= :fromDate");
+                parameters.addValue("fromDate", Timestamp.valueOf(filter.getFromDate().atStartOfDay()));
+            }
+            if (filter.getToDate() != null) {
+                // Borne exclusive au lendemain pour inclure toute la journée
+                predicates.add(dateColumn + " < :toDate");
+                parameters.addValue("toDate", Timestamp.valueOf(filter.getToDate().plusDays(1).atStartOfDay()));
+            }
+            if (filter.getMinQuantity() != null || filter.getMaxQuantity() != null) {
+                List<String> sides = new ArrayList<>();
+                for (String quantityColumn : quantityColumns) {
+                    List<String> bounds = new ArrayList<>();
+                    if (filter.getMinQuantity() != null) {
+                        bounds.add(quantityColumn + " >= :minQuantity");
+                    }
+                    if (filter.getMaxQuantity() != null) {
+                        bounds.add(quantityColumn + " <= :maxQuantity");
+                    }
+                    sides.add("(" + String.join(" AND ", bounds) + ")");
+                }
+                predicates.add("(" + String.join(" OR ", sides) + ")");
+                parameters.addValue("minQuantity", filter.getMinQuantity());
+                parameters.addValue("maxQuantity", filter.getMaxQuantity());
+            }
+        }
+        return new ShardSearch(predicates.isEmpty() ? "" : " WHERE " + String.join(" AND ", predicates), parameters);
+    }
+
+    private static void addEquals(List<String> predicates, MapSqlParameterSource parameters, String column, String value) {
+        if (value != null && !value.isBlank()) {
+            predicates.add(column + " = :" + column);
+            parameters.addValue(column, value.trim());
+        }
+    }
+
+    /**
+     * Ordonne les entités comme MySQL : nuls en premier dans l'ordre croissant,
+     * textes sans tenir compte de la casse.
+     */
+    public static <T> Comparator<T> comparator(Sort sort) {
+        Comparator<T> comparator = (a, b) -> 0;
+        for (Sort.Order order : sort) {
+            Comparator<Object> values = Comparator.nullsFirst(ShardSearch::compareValues);
+            Comparator<T> byProperty = (a, b) -> values.compare(
+                    new BeanWrapperImpl(a).getPropertyValue(order.getProperty()),
+                    new BeanWrapperImpl(b).getPropertyValue(order.getProperty()));
+            comparator = comparator.thenComparing(order.isAscending() ? byProperty : byProperty.reversed());
+        }
+        return comparator;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareValues(Object a, Object b) {
+        if (a instanceof String first && b instanceof String second) {
+            return String.CASE_INSENSITIVE_ORDER.compare(first, second);
+        }
+        return ((Comparable) a).compareTo(b);
+    }
+
+    /**
+     * Fusionne les lignes triées de chaque base et en extrait la page demandée.
+     *
+     * @param sorted les lignes de chaque base, triées par {@code comparator}, jusqu'à la fin de la page au moins
+     * @param total compte les résultats de toutes les bases, appelé pour la première page seulement
+     */
+    public static <T> Slice<T> page(List<List<T>> sorted, Comparator<T> comparator, Pageable pageable, LongSupplier total) {
+        record Cursor<E>(List<E> rows, int index) {
+        }
+        PriorityQueue<Cursor<T>> heads = new PriorityQueue<>((a, b) ->
+                comparator.compare(a.rows().get(a.index()), b.rows().get(b.index())));
+        for (List<T> rows : sorted) {
+            if (!rows.isEmpty()) {
+                heads.add(new Cursor<>(rows, 0));
+            }
+        }
+        long skip = pageable.isPaged() ? pageable.getOffset() : 0;
+        long wanted = pageable.isPaged() ? pageable.getPageSize() + 1L : Long.MAX_VALUE;
+        List<T> content = new ArrayList<>();
+        while (!heads.isEmpty() && content.size() < wanted) {
+            Cursor<T> head = heads.poll();
+            if (skip > 0) {
+                skip--;
+            }
+            else {
+                content.add(head.rows().get(head.index()));
+            }
+            if (head.index() + 1 < head.rows().size()) {
+                heads.add(new Cursor<>(head.rows(), head.index() + 1));
+            }
+        }
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(content);
+        }
+        boolean hasNext = content.size() > pageable.getPageSize();
+        if (hasNext) {
+            content.remove(content.size() - 1);
+        }
+        if (pageable.getPageNumber() == 0) {
+            return new PageImpl<>(content, pageable, hasNext ? total.getAsLong() : content.size());
+        }
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+}
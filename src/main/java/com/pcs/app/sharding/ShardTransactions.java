@@ -0,0 +1,105 @@
+package com.pcs.app.sharding;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Rattache les écritures d'une base secondaire à la transaction en cours sur la
+ * base principale.
+ * <p>
+ * La connexion de la base secondaire est liée au thread, hors validation
+ * automatique, jusqu'à la fin de la transaction principale : elle est validée
+ * juste avant la base principale, et annulée si la transaction principale est
+ * annulée. Un échec de validation de la base secondaire annule la transaction
+ * principale ; seule une panne entre les deux validations laisse l'écriture de
+ * la base secondaire sans celle de la base principale.
+ * </p>
+ */
+@Slf4j
+final class ShardTransactions {
+
+    private ShardTransactions() {
+    }
+
+    /**
+     * Ouvre, si ce n'est déjà fait, la transaction de la base donnée dans la
+     * transaction principale en cours.
+     */
+    static void join(DataSource dataSource) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Shard writes must run in a transaction of the primary database");
+        }
+        Joined key = new Joined(dataSource);
+        if (TransactionSynchronizationManager.hasResource(key)) {
+            return;
+        }
+        // Liée au thread par DataSourceUtils, qui la rendra au pool à la fin de la transaction principale
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            connection.setAutoCommit(false);
+        }
+        catch (SQLException e) {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+            throw new IllegalStateException("Cannot start a shard transaction", e);
+        }
+        TransactionSynchronizationManager.bindResource(key, connection);
+        TransactionSynchronizationManager.registerSynchronization(new ShardCommit(key, connection));
+    }
+
+    /**
+     * Marque, parmi les ressources du thread, une base déjà rattachée à la transaction principale.
+     */
+    private record Joined(DataSource dataSource) {
+    }
+
+    private static final class ShardCommit implements TransactionSynchronization {
+        private final Joined key;
+        private final Connection connection;
+        private boolean committed;
+
+        ShardCommit(Joined key, Connection connection) {
+            this.key = key;
+            this.connection = connection;
+        }
+
+        @Override
+        public int getOrder() {
+            // Avant la synchronisation de DataSourceUtils, qui rend la connexion au pool
+            return DataSourceUtils.CONNECTION_SYNCHRONIZATION_ORDER - 1;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            try {
+                connection.commit();
+                committed = true;
+            }
+            catch (SQLException e) {
+                throw new IllegalStateException("Cannot commit shard transaction", e);
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            try {
+                if (!committed) {
+                    connection.rollback();
+                }
+                connection.setAutoCommit(true);
+            }
+            catch (SQLException e) {
+                log.error("Cannot end shard transaction", e);
+            }
+            finally {
+                TransactionSynchronizationManager.unbindResource(key);
+                DataSourceUtils.releaseConnection(connection, key.dataSource());
+            }
+        }
+    }
+}
@@ -0,0 +1,543 @@
+package com.pcs.app.sharding;
+
+import com.pcs.app.audit.AuditFieldsListener;
+import com.pcs.app.audit.Audited;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.namedparam.BeanPropertySqlParameterSource;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Table répartie entre plusieurs bases selon le compte de chaque ligne.
+ * <p>
+ * Une écriture se fait dans une transaction de la base principale, qui verrouille
+ * en partage la ligne {@code shard_bucket} du paquet de son compte jusqu'à sa
+ * validation ; le déplacement d'un paquet verrouille cette ligne en exclusif.
+ * L'écriture sur une autre base est rattachée à cette transaction
+ * ({@link ShardTransactions}). Les lectures interrogent toutes les bases en
+ * parallèle et ne gardent que les lignes de paquets appartenant à la base lue :
+ * une copie en cours de déplacement n'est jamais vue deux fois.
+ * </p>
+ *
+ * @param <T> l'entité stockée, dont les colonnes sont ses champs en snake_case
+ */
+public final class ShardedTable<T> {
+
+    private static final int COPY_PAGE_SIZE = 1000;
+    private static final AuditFieldsListener AUDIT = new AuditFieldsListener();
+
+    /**
+     * Verrouille en partage les paquets donnés jusqu'à la fin de la transaction
+     * principale en cours.
+     */
+    interface BucketLocks {
+        /**
+         * @return la carte, à jour au moins pour les paquets verrouillés
+         */
+        ShardMap lockShared(Collection<Integer> buckets);
+    }
+
+    private final String table;
+    private final Function<T, Integer> id;
+    private final Function<T, String> account;
+    private final List<DataSource> dataSources;
+    private final List<NamedParameterJdbcTemplate> shards;
+    private final Supplier<ShardMap> map;
+    private final BucketLocks bucketLocks;
+    private final TransactionTemplate transaction;
+    private final Executor executor;
+    private final UnaryOperator<T> onLoad;
+    private final BeanPropertyRowMapper<T> rowMapper;
+    private final Set<String> columns;
+    private final String insertSql;
+    private final String updateSql;
+
+    /**
+     * @param transaction rejoint ou ouvre une transaction de la base principale
+     */
+    ShardedTable(String table, Class<T> type, Function<T, Integer> id, Function<T, String> account,
+                 List<DataSource> dataSources, Supplier<ShardMap> map, BucketLocks bucketLocks,
+                 TransactionTemplate transaction, Executor executor, UnaryOperator<T> onLoad) {
+        this.table = table;
+        this.id = id;
+        this.account = account;
+        this.dataSources = dataSources;
+        this.shards = dataSources.stream().map(NamedParameterJdbcTemplate::new).toList();
+        this.map = map;
+        this.bucketLocks = bucketLocks;
+        this.transaction = transaction;
+        this.executor = executor;
+        this.onLoad = onLoad;
+        this.rowMapper = BeanPropertyRowMapper.newInstance(type);
+        List<String> properties = Arrays.stream(type.getDeclaredFields())
+                .filter(field -> !Modifier.isStatic(field.getModifiers()) && !Modifier.isTransient(field.getModifiers()))
+                .map(Field::getName)
+                .toList();
+        this.columns = properties.stream().map(ShardedTable::column).collect(Collectors.toUnmodifiableSet());
+        this.insertSql = "INSERT INTO " + table + " (" + properties.stream().map(ShardedTable::column).collect(Collectors.joining(", "))
+                + ") VALUES (" + properties.stream().map(name -> ":" + name).collect(Collectors.joining(", ")) + ")";
+        this.updateSql = "UPDATE " + table + " SET " + properties.stream().filter(name -> !name.equals("id"))
+                .map(name -> column(name) + " = :" + name).collect(Collectors.joining(", ")) + " WHERE id = :id";
+    }
+
+    /**
+     * Insère l'entité, dont l'identifiant est déjà attribué, dans la base de son compte.
+     */
+    public T insert(T entity) {
+        if (entity instanceof Audited audited) {
+            AUDIT.onCreate(audited);
+        }
+        return transaction.execute(status -> {
+            int shard = lockBuckets(account.apply(entity)).shardOf(account.apply(entity));
+            writer(shard).update(insertSql, new BeanPropertySqlParameterSource(entity));
+            return entity;
+        });
+    }
+
+    /**
+     * Met à jour l'entité, en la déplaçant si son compte change de base.
+     *
+     * @return faux si l'entité n'existe pas
+     */
+    public boolean update(T entity) {
+        if (entity instanceof Audited audited) {
+            AUDIT.onUpdate(audited);
+        }
+        return Boolean.TRUE.equals(transaction.execute(status -> {
+            while (true) {
+                Optional<Located<T>> before = locate(id.apply(entity));
+                if (before.isEmpty()) {
+                    return false;
+                }
+                String previousAccount = account.apply(before.get().entity());
+                ShardMap current = lockBuckets(previousAccount, account.apply(entity));
+                // Relu sous verrou : le paquet a pu être déplacé entre-temps
+                Optional<Located<T>> located = locate(id.apply(entity));
+                if (located.isEmpty()) {
+                    return false;
+                }
+                if (ShardMap.bucketOf(account.apply(located.get().entity())) != ShardMap.bucketOf(previousAccount)) {
+                    continue;
+                }
+                int source = located.get().shard();
+                int shard = current.shardOf(account.apply(entity));
+                if (source == shard) {
+                    writer(shard).update(updateSql, new BeanPropertySqlParameterSource(entity));
+                }
+                else {
+                    writer(shard).update(insertSql, new BeanPropertySqlParameterSource(entity));
+                    deleteIds(writer(source), List.of(id.apply(entity)));
+                }
+                return true;
+            }
+        }));
+    }
+
+    /**
+     * @return faux si l'entité n'existe pas
+     */
+    public boolean delete(int entityId) {
+        return Boolean.TRUE.equals(transaction.execute(status -> {
+            Optional<Located<T>> before = locate(entityId);
+            if (before.isEmpty()) {
+                return false;
+            }
+            lockBuckets(account.apply(before.get().entity()));
+            Optional<Located<T>> current = locate(entityId);
+            return current.isPresent() && deleteIds(writer(current.get().shard()), List.of(entityId)) > 0;
+        }));
+    }
+
+    public Optional<T> findById(int entityId) {
+        return locate(entityId).map(Located::entity);
+    }
+
+    /**
+     * Retourne toutes les lignes de toutes les bases, par identifiant croissant.
+     */
+    public List<T> findAll() {
+        List<T> rows = new ArrayList<>();
+        gather(shard -> query(shard, "SELECT * FROM " + table, new MapSqlParameterSource())).forEach(rows::addAll);
+        rows.sort(Comparator.comparing(id));
+        return rows;
+    }
+
+    /**
+     * Parcourt toutes les lignes de toutes les bases par pages, base après base et
+     * par identifiant croissant dans chaque base, pour charger un cache sans tout
+     * garder en mémoire.
+     *
+     * @param pages reçoit chaque page non vide
+     */
+    public void forEachPage(int pageSize, Consumer<List<T>> pages) {
+        String sql = "SELECT * FROM " + table + " WHERE id > :lastId ORDER BY id LIMIT " + pageSize;
+        for (int shard = 0; shard < shards.size(); shard++) {
+            int lastId = Integer.MIN_VALUE;
+            List<T> page;
+            do {
+                page = shards.get(shard).query(sql, new MapSqlParameterSource("lastId", lastId), rowMapper);
+                if (page.isEmpty()) {
+                    break;
+                }
+                lastId = id.apply(page.get(page.size() - 1));
+                ShardMap current = map.get();
+                int index = shard;
+                // Les copies laissées par un déplacement appartiennent à une autre base
+                List<T> owned = new ArrayList<>(page.size());
+                for (T row : page) {
+                    if (current.shardOf(account.apply(row)) == index) {
+                        owned.add(onLoad.apply(row));
+                    }
+                }
+                if (!owned.isEmpty()) {
+                    pages.accept(owned);
+                }
+            } while (page.size() == pageSize);
+        }
+    }
+
+    /**
+     * Retourne les lignes de toutes les bases dont la colonne vaut la valeur donnée.
+     *
+     * @throws IllegalArgumentException si la colonne est inconnue
+     */
+    public List<T> findBy(String column, Object value) {
+        if (!columns.contains(column)) {
+            throw new IllegalArgumentException("Unknown column of " + table);
+        }
+        List<T> rows = new ArrayList<>();
+        gather(shard -> query(shard, "SELECT * FROM " + table + " WHERE " + column + " = :value",
+                new MapSqlParameterSource("value", value))).forEach(rows::addAll);
+        return rows;
+    }
+
+    /**
+     * Retourne une page des lignes de toutes les bases qui répondent à la recherche.
+     * <p>
+     * Chaque base lit ses lignes jusqu'à la fin de la page : le coût d'une page
+     * croît avec son rang et le nombre de bases.
+     * </p>
+     *
+     * @throws IllegalArgumentException si le tri porte sur un champ inconnu
+     */
+    public Slice<T> search(ShardSearch search, Pageable pageable) {
+        Sort sort = pageable.getSort().getOrderFor("id") == null
+                ? pageable.getSort().and(Sort.by("id"))
+                : pageable.getSort();
+        String orderBy = sort.stream()
+                .map(order -> {
+                    String column = column(order.getProperty());
+                    if (!columns.contains(column)) {
+                        throw new IllegalArgumentException("Unknown sort property " + order.getProperty());
+                    }
+                    return column + (order.isAscending() ? " ASC" : " DESC");
+                })
+                .collect(Collectors.joining(", ", " ORDER BY ", ""));
+        String sql = "SELECT * FROM " + table + search.where() + orderBy;
+        long needed = pageable.isPaged() ? pageable.getOffset() + pageable.getPageSize() + 1 : Long.MAX_VALUE;
+        List<List<T>> rows = gather(shard -> query(shard, sql, search.parameters(), needed));
+        return ShardSearch.page(rows, ShardSearch.comparator(sort), pageable, () -> count(search));
+    }
+
+    /**
+     * Compte les lignes de toutes les bases qui répondent à la recherche.
+     */
+    public long count(ShardSearch search) {
+        String sql = "SELECT account, COUNT(*) FROM " + table + search.where() + " GROUP BY account";
+        List<List<Object[]>> partials = gather(shard -> shards.get(shard).query(sql, search.parameters(),
+                (rs, rowNum) -> new Object[]{rs.getString(1), rs.getLong(2)}));
+        return ownedRows(partials).stream().mapToLong(row -> (Long) row[1]).sum();
+    }
+
+    /**
+     * Somme une colonne numérique par valeur d'une autre colonne, sur toutes les bases.
+     *
+     * @return pour chaque valeur de regroupement, la somme et le nombre de lignes
+     */
+    public Map<String, double[]> sumBy(String groupColumn, String valueColumn) {
+        if (!columns.contains(groupColumn) || !columns.contains(valueColumn)) {
+            throw new IllegalArgumentException("Unknown column of " + table);
+        }
+        // Les sommes partielles ne sont justes que si chaque base ne compte que ses propres paquets
+        String sql = "SELECT account, " + groupColumn + ", SUM(" + valueColumn + "), COUNT(*) FROM " + table
+                + " GROUP BY " + groupColumn + ", account";
+        List<List<Object[]>> partials = gather(shard -> shards.get(shard).query(sql, new MapSqlParameterSource(),
+                (rs, rowNum) -> new Object[]{rs.getString(1), rs.getString(2), rs.getDouble(3), rs.getLong(4)}));
+        Map<String, double[]> totals = new HashMap<>();
+        for (Object[] row : ownedRows(partials)) {
+            double[] total = totals.computeIfAbsent((String) row[1], key -> new double[2]);
+            total[0] += (Double) row[2];
+            total[1] += (Long) row[3];
+        }
+        return totals;
+    }
+
+    /**
+     * Nombre de lignes de chaque base, copies non encore effacées comprises.
+     */
+    public List<Integer> rowCounts() {
+        return gather(shard -> shards.get(shard).queryForObject("SELECT COUNT(*) FROM " + table,
+                new MapSqlParameterSource(), Integer.class));
+    }
+
+    public int maxId() {
+        return gather(shard -> shards.get(shard).queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table,
+                new MapSqlParameterSource(), Integer.class)).stream().mapToInt(Integer::intValue).max().orElse(0);
+    }
+
+    /**
+     * Retourne les lignes des identifiants donnés, de toutes les bases ; les
+     * identifiants inconnus sont ignorés.
+     */
+    public List<T> findAllById(Collection<Integer> ids) {
+        List<Integer> remaining = List.copyOf(ids);
+        List<T> found = new ArrayList<>();
+        for (int from = 0; from < remaining.size(); from += COPY_PAGE_SIZE) {
+            MapSqlParameterSource parameters = new MapSqlParameterSource("ids",
+                    remaining.subList(from, Math.min(remaining.size(), from + COPY_PAGE_SIZE)));
+            gather(shard -> query(shard, "SELECT * FROM " + table + " WHERE id IN (:ids)", parameters))
+                    .forEach(found::addAll);
+        }
+        return found;
+    }
+
+    /**
+     * Retourne les identifiants donnés encore présents dans l'une des bases.
+     */
+    public List<Integer> existingIds(List<Integer> ids) {
+        return findAllById(ids).stream().map(id).toList();
+    }
+
+    public int shardCount() {
+        return shards.size();
+    }
+
+    /**
+     * Retire d'une base au plus {@code limit} lignes antérieures à {@code before}
+     * selon la colonne donnée, les plus anciennes d'abord, dans une transaction de
+     * la base principale.
+     *
+     * @param beforeDelete reçoit les lignes verrouillées, dans la transaction, avant leur suppression
+     * @return les lignes retirées
+     */
+    public List<T> removeOlderThan(int shard, String dateColumn, Object before, int limit, Consumer<List<T>> beforeDelete) {
+        if (!columns.contains(dateColumn)) {
+            throw new IllegalArgumentException("Unknown column of " + table);
+        }
+        String where = " WHERE " + dateColumn + " < :before";
+        List<T> candidates = query(shard, "SELECT * FROM " + table + where + " ORDER BY " + dateColumn + ", id LIMIT "
+                + limit, new MapSqlParameterSource("before", before));
+        if (candidates.isEmpty()) {
+            return candidates;
+        }
+        return transaction.execute(status -> {
+            lockBuckets(candidates.stream().map(account).toArray(String[]::new));
+            writer(shard);
+            // Relu sous verrou : une ligne a pu être modifiée, déplacée ou supprimée entre-temps
+            List<T> rows = query(shard, "SELECT * FROM " + table + where + " AND id IN (:ids) ORDER BY "
+                            + dateColumn + ", id FOR UPDATE",
+                    new MapSqlParameterSource("before", before).addValue("ids", candidates.stream().map(id).toList()));
+            if (!rows.isEmpty()) {
+                beforeDelete.accept(rows);
+                deleteIds(shards.get(shard), rows.stream().map(id).toList());
+            }
+            return rows;
+        });
+    }
+
+    /**
+     * Copie les lignes des paquets donnés de la base source vers leur nouvelle base.
+     * Les paquets doivent être verrouillés en exclusif par l'appelant.
+     *
+     * @param moves la nouvelle base de chaque paquet déplacé
+     * @return le compte de chaque ligne copiée, par identifiant
+     */
+    Map<Integer, String> copyBuckets(int source, Map<Integer, Integer> moves) {
+        Map<Integer, String> copied = new LinkedHashMap<>();
+        int lastId = 0;
+        List<T> page;
+        do {
+            page = shards.get(source).query("SELECT * FROM " + table + " WHERE id > :lastId ORDER BY id LIMIT "
+                    + COPY_PAGE_SIZE, new MapSqlParameterSource("lastId", lastId), rowMapper);
+            Map<Integer, List<T>> byTarget = new HashMap<>();
+            for (T row : page) {
+                Integer target = moves.get(ShardMap.bucketOf(account.apply(row)));
+                if (target != null && target != source) {
+                    byTarget.computeIfAbsent(target, shard -> new ArrayList<>()).add(row);
+                }
+                lastId = id.apply(row);
+            }
+            byTarget.forEach((target, rows) -> {
+                // Efface les copies laissées par un déplacement interrompu
+                deleteIds(shards.get(target), rows.stream().map(id).toList());
+                shards.get(target).batchUpdate(insertSql, rows.stream()
+                        .map(BeanPropertySqlParameterSource::new).toArray(SqlParameterSource[]::new));
+                rows.forEach(row -> copied.put(id.apply(row), account.apply(row)));
+            });
+        } while (page.size() == COPY_PAGE_SIZE);
+        return copied;
+    }
+
+    /**
+     * Efface de la base source les lignes copiées ailleurs, si leur compte n'a pas
+     * changé depuis : une ligne revenue depuis dans un paquet de la source est gardée.
+     */
+    int deleteCopies(int source, Map<Integer, String> copies) {
+        SqlParameterSource[] rows = copies.entrySet().stream()
+                .map(copy -> new MapSqlParameterSource("id", copy.getKey()).addValue("account", copy.getValue()))
+                .toArray(SqlParameterSource[]::new);
+        int deleted = 0;
+        for (int from = 0; from < rows.length; from += COPY_PAGE_SIZE) {
+            deleted += Arrays.stream(shards.get(source).batchUpdate(
+                    "DELETE FROM " + table + " WHERE id = :id AND account <=> :account",
+                    Arrays.copyOfRange(rows, from, Math.min(rows.length, from + COPY_PAGE_SIZE)))).sum();
+        }
+        return deleted;
+    }
+
+    private int deleteIds(NamedParameterJdbcTemplate shard, List<Integer> ids) {
+        int deleted = 0;
+        for (int from = 0; from < ids.size(); from += COPY_PAGE_SIZE) {
+            List<Integer> chunk = ids.subList(from, Math.min(ids.size(), from + COPY_PAGE_SIZE));
+            deleted += shard.update("DELETE FROM " + table + " WHERE id IN (:ids)",
+                    new MapSqlParameterSource("ids", chunk));
+        }
+        return deleted;
+    }
+
+    private record Located<E>(int shard, E entity) {
+    }
+
+    private Optional<Located<T>> locate(int entityId) {
+        List<List<T>> found = gather(shard -> query(shard, "SELECT * FROM " + table + " WHERE id = :id",
+                new MapSqlParameterSource("id", entityId)));
+        for (int shard = 0; shard < found.size(); shard++) {
+            for (T row : found.get(shard)) {
+                return Optional.of(new Located<>(shard, row));
+            }
+        }
+        return Optional.empty();
+    }
+
+    private List<T> query(int shard, String sql, MapSqlParameterSource parameters) {
+        return query(shard, sql, parameters, Long.MAX_VALUE);
+    }
+
+    /**
+     * Lit une base en ne gardant que les lignes des paquets qui lui appartiennent.
+     * Avec une limite, la lecture est étendue tant que des copies écartées laissent
+     * moins de {@code needed} lignes alors que la base en a d'autres.
+     */
+    private List<T> query(int shard, String sql, MapSqlParameterSource parameters, long needed) {
+        long limit = needed;
+        while (true) {
+            List<T> rows = shards.get(shard).query(limit == Long.MAX_VALUE ? sql : sql + " LIMIT " + limit,
+                    parameters, rowMapper);
+            int read = rows.size();
+            ShardMap current = map.get();
+            rows.removeIf(row -> current.shardOf(account.apply(row)) != shard);
+            if (limit == Long.MAX_VALUE || read < limit || rows.size() >= needed) {
+                rows.replaceAll(onLoad);
+                return rows;
+            }
+            limit = limit > Long.MAX_VALUE / 2 ? Long.MAX_VALUE : limit * 2;
+        }
+    }
+
+    /**
+     * Garde, des résultats partiels de chaque base dont la première colonne est le
+     * compte, ceux des paquets appartenant à la base lue.
+     */
+    private List<Object[]> ownedRows(List<List<Object[]>> partials) {
+        ShardMap current = map.get();
+        List<Object[]> owned = new ArrayList<>();
+        for (int shard = 0; shard < partials.size(); shard++) {
+            for (Object[] row : partials.get(shard)) {
+                if (current.shardOf((String) row[0]) == shard) {
+                    owned.add(row);
+                }
+            }
+        }
+        return owned;
+    }
+
+    /**
+     * Exécute la requête sur toutes les bases en parallèle.
+     *
+     * @return le résultat de chaque base, dans l'ordre des bases
+     */
+    private <R> List<R> gather(Function<Integer, R> query) {
+        List<CompletableFuture<R>> futures = new ArrayList<>(shards.size());
+        for (int shard = 0; shard < shards.size(); shard++) {
+            int index = shard;
+            futures.add(CompletableFuture.supplyAsync(() -> query.apply(index), executor));
+        }
+        try {
+            return futures.stream().map(CompletableFuture::join).toList();
+        }
+        catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Verrouille en partage, par ordre de paquet, les paquets des comptes donnés.
+     */
+    private ShardMap lockBuckets(String... accounts) {
+        return bucketLocks.lockShared(Arrays.stream(accounts).map(ShardMap::bucketOf).distinct().sorted().toList());
+    }
+
+    /**
+     * Retourne la base donnée, rattachée à la transaction principale en cours.
+     */
+    private NamedParameterJdbcTemplate writer(int shard) {
+        // La base principale est déjà celle de la transaction
+        if (shard > 0) {
+            ShardTransactions.join(dataSources.get(shard));
+        }
+        return shards.get(shard);
+    }
+
+    private static String column(String property) {
+        StringBuilder column = new StringBuilder(property.length() + 4);
+        for (char c : property.toCharArray()) {
+            if (Character.isUpperCase(c)) {
+                column.append('_').append(Character.toLowerCase(c));
+            }
+            else {
+                column.append(c);
+            }
+        }
+        return column.toString();
+    }
+}
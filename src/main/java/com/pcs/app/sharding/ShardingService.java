@@ -0,0 +1,360 @@
+package com.pcs.app.sharding;
+
+import com.pcs.app.cluster.NamedLocks;
+import com.pcs.app.domain.BidList;
+import com.pcs.app.domain.Trade;
+import com.pcs.app.strings.SharedStrings;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Répartit les échanges et les enchères entre plusieurs bases selon le hachage
+ * de leur compte.
+ * <p>
+ * La base principale est la base 0 ; elle tient aussi la carte des paquets
+ * ({@code shard_bucket}) et les compteurs d'identifiants ({@code global_id}).
+ * À la première activation, tous les paquets restent sur la base principale :
+ * {@link #rebalance()} les répartit ensuite entre les bases configurées.
+ * </p>
+ * <p>
+ * La carte est partagée par toutes les instances : chaque écriture verrouille
+ * en partage, dans la base principale, les lignes de la carte de ses paquets et
+ * relit la carte si leur version est plus récente que la sienne ; un
+ * déplacement les verrouille en exclusif. Les lectures relisent la carte au plus
+ * toutes les {@code mapCheckMs}, et les copies laissées sur la base source par
+ * un déplacement ne sont effacées qu'une fois ce délai écoulé deux fois.
+ * </p>
+ */
+@Slf4j
+@Service
+public class ShardingService {
+
+    static final String REBALANCE_LOCK = "shard-rebalance";
+
+    @Autowired
+    private NamedLocks locks;
+
+    private final boolean enabled;
+    private final JdbcTemplate primary;
+    private final NamedParameterJdbcTemplate namedPrimary;
+    private final TransactionTemplate newTransaction;
+    private final long mapCheckMs;
+    private final List<HikariDataSource> pools = new ArrayList<>();
+    private final ExecutorService executor;
+    private final ShardedTable<Trade> trades;
+    private final ShardedTable<BidList> bidLists;
+    private final IdAllocator tradeIds;
+    private final IdAllocator bidListIds;
+    private final Object mapLock = new Object();
+    private volatile ShardMap map;
+    private volatile long mapCheckedAt;
+
+    public ShardingService(DataSource dataSource,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${app.sharding.enabled:false}") boolean enabled,
+                           @Value("${app.sharding.urls:}") List<String> urls,
+                           @Value("${spring.datasource.username:}") String username,
+                           @Value("${spring.datasource.password:}") String password,
+                           @Value("${app.sharding.pool-size:10}") int poolSize,
+                           @Value("${app.sharding.id-block-size:1000}") int idBlockSize,
+                           @Value("${app.sharding.map-check-ms:1000}") long mapCheckMs) {
+        this.enabled = enabled;
+        this.primary = new JdbcTemplate(dataSource);
+        this.namedPrimary = new NamedParameterJdbcTemplate(dataSource);
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.mapCheckMs = mapCheckMs;
+        List<DataSource> dataSources = new ArrayList<>();
+        dataSources.add(dataSource);
+        if (enabled) {
+            for (String url : urls) {
+                if (url.isBlank()) {
+                    continue;
+                }
+                HikariDataSource pool = new HikariDataSource();
+                pool.setJdbcUrl(url.trim());
+                pool.setUsername(username);
+                pool.setPassword(password);
+                pool.setMaximumPoolSize(poolSize);
+                pool.setPoolName("shard-" + (pools.size() + 1));
+                pools.add(pool);
+                dataSources.add(pool);
+            }
+        }
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(2, dataSources.size() * 2), runnable -> {
+            Thread thread = new Thread(runnable, "shard-query-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Les écritures rejoignent la transaction de l'appelant, ou en ouvrent une
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        this.trades = new ShardedTable<>("trade", Trade.class, Trade::getId, Trade::getAccount,
+                dataSources, this::map, this::lockShared, transaction, executor,
+                trade -> SharedStrings.internOnLoad() ? SharedStrings.intern(trade) : trade);
+        this.bidLists = new ShardedTable<>("bidlist", BidList.class, BidList::getId, BidList::getAccount,
+                dataSources, this::map, this::lockShared, transaction, executor,
+                bidList -> SharedStrings.internOnLoad() ? SharedStrings.intern(bidList) : bidList);
+        this.tradeIds = new IdAllocator(idBlockSize, size -> reserve("trade", trades, size));
+        this.bidListIds = new IdAllocator(idBlockSize, size -> reserve("bidlist", bidLists, size));
+        if (enabled) {
+            log.info("Sharding enabled across {} databases", dataSources.size());
+        }
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    public ShardedTable<Trade> trades() {
+        return trades;
+    }
+
+    public ShardedTable<BidList> bidLists() {
+        return bidLists;
+    }
+
+    public int nextTradeId() {
+        return tradeIds.next();
+    }
+
+    public int nextBidListId() {
+        return bidListIds.next();
+    }
+
+    /**
+     * Déplace le moins de paquets possible pour équilibrer les bases configurées.
+     * <p>
+     * Une seule instance déplace des paquets à la fois. Les paquets d'une même
+     * base source sont déplacés ensemble sous le verrou exclusif de leurs lignes
+     * de la carte : copie vers la nouvelle base, puis bascule de la carte. Les
+     * lignes de la source sont effacées une fois que toutes les instances ont pu
+     * relire la carte. Un déplacement interrompu laisse des copies invisibles,
+     * effacées par le déplacement suivant.
+     * </p>
+     *
+     * @return le bilan du déplacement
+     */
+    public Map<String, Object> rebalance() {
+        return locks.tryWithLock(REBALANCE_LOCK, 0, this::rebalanceLocked)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.CONFLICT, "A rebalance is already running"));
+    }
+
+    private Map<String, Object> rebalanceLocked() {
+        ShardMap current = reloadMap();
+        int shardCount = trades.shardCount();
+        Map<Integer, Map<Integer, Integer>> bySource = new TreeMap<>();
+        current.rebalancePlan(shardCount).forEach((bucket, target) ->
+                bySource.computeIfAbsent(current.owner(bucket), source -> new TreeMap<>()).put(bucket, target));
+        int movedTrades = 0;
+        int movedBidLists = 0;
+        for (Map.Entry<Integer, Map<Integer, Integer>> entry : bySource.entrySet()) {
+            int source = entry.getKey();
+            Map<Integer, Integer> moves = entry.getValue();
+            List<Map<Integer, String>> copies = newTransaction.execute(status -> {
+                long version = lockExclusive(source, moves.keySet());
+                Map<Integer, String> tradeCopies = trades.copyBuckets(source, moves);
+                Map<Integer, String> bidListCopies = bidLists.copyBuckets(source, moves);
+                primary.batchUpdate("UPDATE shard_bucket SET shard = ?, version = ? WHERE bucket = ?",
+                        moves.entrySet().stream()
+                                .map(move -> new Object[]{move.getValue(), version + 1, move.getKey()})
+                                .toList());
+                return List.of(tradeCopies, bidListCopies);
+            });
+            reloadMap();
+            try {
+                Thread.sleep(2 * mapCheckMs);
+            }
+            catch (InterruptedException e) {
+                // Les copies restent invisibles ; le déplacement suivant les effacera
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Rebalance interrupted before clearing shard " + source, e);
+            }
+            trades.deleteCopies(source, copies.get(0));
+            bidLists.deleteCopies(source, copies.get(1));
+            movedTrades += copies.get(0).size();
+            movedBidLists += copies.get(1).size();
+            log.info("Moved {} buckets out of shard {}", moves.size(), source);
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("movedBuckets", bySource.values().stream().mapToInt(Map::size).sum());
+        report.put("movedTrades", movedTrades);
+        report.put("movedBidLists", movedBidLists);
+        report.put("bucketsPerShard", map().bucketCounts(shardCount));
+        return report;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("shards", trades.shardCount());
+        if (enabled) {
+            ShardMap current = map();
+            stats.put("mapVersion", current.version());
+            stats.put("bucketsPerShard", current.bucketCounts(trades.shardCount()));
+            stats.put("tradesPerShard", trades.rowCounts());
+            stats.put("bidListsPerShard", bidLists.rowCounts());
+        }
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        pools.forEach(HikariDataSource::close);
+    }
+
+    /**
+     * Retourne la carte, relue au plus toutes les {@code mapCheckMs} si sa version a changé.
+     */
+    private ShardMap map() {
+        ShardMap current = map;
+        if (current != null && System.currentTimeMillis() - mapCheckedAt < mapCheckMs) {
+            return current;
+        }
+        synchronized (mapLock) {
+            if (map == null) {
+                map = newTransaction.execute(status -> loadMap());
+            }
+            else if (System.currentTimeMillis() - mapCheckedAt >= mapCheckMs) {
+                Long version = newTransaction.execute(status -> primary.queryForObject(
+                        "SELECT COALESCE(MAX(version), 0) FROM shard_bucket", Long.class));
+                if (version != null && version != map.version()) {
+                    map = newTransaction.execute(status -> loadMap());
+                }
+            }
+            mapCheckedAt = System.currentTimeMillis();
+            return map;
+        }
+    }
+
+    private ShardMap reloadMap() {
+        synchronized (mapLock) {
+            map = newTransaction.execute(status -> loadMap());
+            mapCheckedAt = System.currentTimeMillis();
+            return map;
+        }
+    }
+
+    /**
+     * Verrouille en partage, dans la transaction principale en cours, les lignes
+     * de la carte des paquets donnés. La carte est relue si l'une d'elles est plus
+     * récente qu'elle.
+     */
+    private ShardMap lockShared(Collection<Integer> buckets) {
+        ShardMap current = map();
+        List<long[]> rows = namedPrimary.query(
+                "SELECT bucket, shard, version FROM shard_bucket WHERE bucket IN (:buckets) ORDER BY bucket FOR SHARE",
+                new MapSqlParameterSource("buckets", buckets),
+                (rs, rowNum) -> new long[]{rs.getInt(1), rs.getInt(2), rs.getLong(3)});
+        if (rows.stream().anyMatch(row -> row[2] > current.version() || row[1] != current.owner((int) row[0]))) {
+            // Relue dans une autre transaction : celle-ci ne voit que l'état de sa première lecture
+            ShardMap reloaded = reloadMap();
+            for (long[] row : rows) {
+                if (reloaded.owner((int) row[0]) != row[1]) {
+                    throw new IllegalStateException("Shard bucket " + row[0] + " changed while locked");
+                }
+            }
+            return reloaded;
+        }
+        return current;
+    }
+
+    /**
+     * Verrouille en exclusif les lignes de la carte des paquets donnés, qui doivent
+     * tous appartenir à la base source.
+     *
+     * @return la version courante de la carte
+     */
+    private long lockExclusive(int source, Collection<Integer> buckets) {
+        List<int[]> rows = namedPrimary.query(
+                "SELECT bucket, shard FROM shard_bucket WHERE bucket IN (:buckets) ORDER BY bucket FOR UPDATE",
+                new MapSqlParameterSource("buckets", buckets),
+                (rs, rowNum) -> new int[]{rs.getInt(1), rs.getInt(2)});
+        if (rows.size() != buckets.size() || rows.stream().anyMatch(row -> row[1] != source)) {
+            throw new IllegalStateException("Shard map changed during rebalance");
+        }
+        return primary.queryForObject("SELECT COALESCE(MAX(version), 0) FROM shard_bucket", Long.class);
+    }
+
+    /**
+     * Charge la carte, une fois les tables créées ; une carte vide est initialisée
+     * avec tous les paquets sur la base principale, qui détient alors toutes les lignes.
+     */
+    private ShardMap loadMap() {
+        int[] owners = readOwners();
+        if (Arrays.stream(owners).allMatch(owner -> owner == -1)) {
+            // Plusieurs instances peuvent initialiser la carte en même temps : seule la première insertion compte
+            primary.batchUpdate("INSERT IGNORE INTO shard_bucket (bucket, shard, version) VALUES (?, 0, 0)",
+                    IntStream.range(0, ShardMap.BUCKETS).boxed().toList(), ShardMap.BUCKETS,
+                    (ps, bucket) -> ps.setInt(1, bucket));
+            owners = readOwners();
+        }
+        for (int bucket = 0; bucket < owners.length; bucket++) {
+            if (owners[bucket] < 0 || owners[bucket] >= trades.shardCount()) {
+                throw new IllegalStateException("Shard bucket " + bucket + " is owned by unknown shard " + owners[bucket]);
+            }
+        }
+        Long version = primary.queryForObject("SELECT COALESCE(MAX(version), 0) FROM shard_bucket", Long.class);
+        return ShardMap.of(owners, version == null ? 0 : version);
+    }
+
+    private int[] readOwners() {
+        int[] owners = new int[ShardMap.BUCKETS];
+        Arrays.fill(owners, -1);
+        primary.query("SELECT bucket, shard FROM shard_bucket",
+                rs -> { owners[rs.getInt(1)] = rs.getInt(2); });
+        return owners;
+    }
+
+    /**
+     * Réserve un bloc d'identifiants ; le compteur d'une table est créé au-delà du
+     * plus grand identifiant déjà présent dans les bases.
+     */
+    private int reserve(String name, ShardedTable<?> table, int size) {
+        Integer first = newTransaction.execute(status -> {
+            Integer counters = primary.queryForObject("SELECT COUNT(*) FROM global_id WHERE name = ?", Integer.class, name);
+            if (counters == null || counters == 0) {
+                // Deux instances peuvent créer le compteur en même temps : la seconde insertion est ignorée
+                primary.update("INSERT IGNORE INTO global_id (name, next_value) VALUES (?, ?)", name, table.maxId() + 1L);
+            }
+            Long next = primary.queryForObject("SELECT next_value FROM global_id WHERE name = ? FOR UPDATE",
+                    Long.class, name);
+            primary.update("UPDATE global_id SET next_value = ? WHERE name = ?", next + size, name);
+            return Math.toIntExact(next);
+        });
+        return first;
+    }
+}
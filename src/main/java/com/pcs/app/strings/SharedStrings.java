@@ -0,0 +1,86 @@
+package com.pcs.app.strings;
+
+import com.pcs.app.analytics.StringDictionary;
+import com.pcs.app.domain.BidList;
+import com.pcs.app.domain.Trade;
+
+/**
+ * Dictionnaire commun des chaînes répétées des échanges et des enchères.
+ * <p>
+ * Comptes, titres, portefeuilles, traders, statuts et types se répètent sur
+ * des millions de lignes : chaque copie en mémoire (entités chargées, carnets,
+ * colonnes d'agrégation, segments d'archive) référence la même instance de
+ * chaque valeur au lieu d'en garder un doublon. Au-delà de {@code maxEntries}
+ * valeurs, les nouvelles chaînes ne sont plus partagées.
+ * </p>
+ */
+public final class SharedStrings {
+
+    private static final StringDictionary DICTIONARY = new StringDictionary();
+    private static volatile boolean internOnLoad = true;
+    private static volatile int maxEntries = 1_000_000;
+
+    private SharedStrings() {
+    }
+
+    public static void configure(boolean internOnLoad, int maxEntries) {
+        SharedStrings.internOnLoad = internOnLoad;
+        SharedStrings.maxEntries = maxEntries;
+    }
+
+    /**
+     * Indique si les entités doivent être dédoublonnées dès leur chargement.
+     */
+    public static boolean internOnLoad() {
+        return internOnLoad;
+    }
+
+    public static StringDictionary dictionary() {
+        return DICTIONARY;
+    }
+
+    /**
+     * Retourne l'instance partagée de la valeur, ou la valeur elle-même si le
+     * dictionnaire est plein.
+     */
+    public static String canonical(String value) {
+        int code = DICTIONARY.lookup(value);
+        if (code == StringDictionary.UNKNOWN_CODE) {
+            if (DICTIONARY.size() > maxEntries) {
+                return value;
+            }
+            code = DICTIONARY.encode(value);
+        }
+        return DICTIONARY.decode(code);
+    }
+
+    public static Trade intern(Trade trade) {
+        trade.setAccount(canonical(trade.getAccount()));
+        trade.setType(canonical(trade.getType()));
+        trade.setBenchmark(canonical(trade.getBenchmark()));
+        trade.setSecurity(canonical(trade.getSecurity()));
+        trade.setStatus(canonical(trade.getStatus()));
+        trade.setTrader(canonical(trade.getTrader()));
+        trade.setBook(canonical(trade.getBook()));
+        trade.setCreationName(canonical(trade.getCreationName()));
+        trade.setRevisionName(canonical(trade.getRevisionName()));
+        trade.setDealType(canonical(trade.getDealType()));
+        trade.setSide(canonical(trade.getSide()));
+        return trade;
+    }
+
+    public static BidList intern(BidList bidList) {
+        bidList.setAccount(canonical(bidList.getAccount()));
+        bidList.setType(canonical(bidList.getType()));
+        bidList.setBenchmark(canonical(bidList.getBenchmark()));
+        bidList.setSecurity(canonical(bidList.getSecurity()));
+        bidList.setStatus(canonical(bidList.getStatus()));
+        bidList.setTrader(canonical(bidList.getTrader()));
+        bidList.setBook(canonical(bidList.getBook()));
+        bidList.setCreationName(canonical(bidList.getCreationName()));
+        bidList.setRevisionName(canonical(bidList.getRevisionName()));
+        bidList.setDealType(canonical(bidList.getDealType()));
+        bidList.setSide(canonical(bidList.getSide()));
+        return bidList;
+    }
+}
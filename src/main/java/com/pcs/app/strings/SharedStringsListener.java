@@ -0,0 +1,29 @@
+package com.pcs.app.strings;
+
+import com.pcs.app.domain.BidList;
+import com.pcs.app.domain.Trade;
+import jakarta.persistence.PostLoad;
+
+/**
+ * Remplace, au chargement d'un échange ou d'une enchère, ses chaînes répétées
+ * par les instances de {@link SharedStrings}.
+ * <p>
+ * Les valeurs restent égales à celles chargées : Hibernate ne voit aucune
+ * modification à écrire.
+ * </p>
+ */
+public class SharedStringsListener {
+
+    @PostLoad
+    public void onLoad(Object entity) {
+        if (!SharedStrings.internOnLoad()) {
+            return;
+        }
+        if (entity instanceof Trade trade) {
+            SharedStrings.intern(trade);
+        }
+        else if (entity instanceof BidList bidList) {
+            SharedStrings.intern(bidList);
+        }
+    }
+}
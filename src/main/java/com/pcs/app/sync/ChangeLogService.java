@@ -0,0 +1,289 @@
+package com.pcs.app.sync;
+
+import com.pcs.app.domain.BidList;
+import com.pcs.app.domain.ChangeLogEntry;
+import com.pcs.app.domain.CurvePoint;
+import com.pcs.app.domain.Rating;
+import com.pcs.app.domain.RuleName;
+import com.pcs.app.domain.Trade;
+import com.pcs.app.events.ChangeType;
+import com.pcs.app.events.EntityChangeEvent;
+import com.pcs.app.repositories.BidListRepository;
+import com.pcs.app.repositories.ChangeLogRepository;
+import com.pcs.app.repositories.CurvePointRepository;
+import com.pcs.app.repositories.RatingRepository;
+import com.pcs.app.repositories.RuleNameRepository;
+import com.pcs.app.repositories.TradeRepository;
+import com.pcs.app.sharding.ShardingService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Journal des modifications de toutes les entités, pour la synchronisation incrémentale.
+ * <p>
+ * Chaque événement de modification est inscrit dans la transaction de l'écriture :
+ * une écriture annulée ne laisse pas d'entrée, une écriture validée en laisse
+ * toujours une. Les séquences étant attribuées à l'insertion et non à la
+ * validation, une transaction lente peut valider une séquence inférieure à
+ * celle d'une transaction plus rapide. Les lectures s'arrêtent donc avant les
+ * entrées plus récentes que {@code app.sync.visibility-lag-ms}, qui doit rester
+ * supérieur à la durée d'une transaction d'écriture.
+ * </p>
+ * <p>
+ * Les entrées plus anciennes que la durée de rétention sont purgées ; un client
+ * dont la séquence précède la plus ancienne entrée conservée reçoit une réponse
+ * 410 et doit se resynchroniser entièrement.
+ * </p>
+ * <p>
+ * Les utilisateurs ne sont pas journalisés : l'API de synchronisation, ouverte à
+ * tout utilisateur connecté, ne doit pas diffuser les comptes.
+ * </p>
+ */
+@Slf4j
+@Service
+public class ChangeLogService {
+
+    @Autowired
+    private ChangeLogRepository repository;
+
+    private final Map<String, Source<?>> sources;
+    private final TransactionTemplate transactionTemplate;
+    private final long visibilityLagMs;
+    private final long retentionMs;
+    private final int maxPageSize;
+    private final ScheduledExecutorService scheduler;
+
+    public ChangeLogService(TradeRepository tradeRepository,
+                            BidListRepository bidListRepository,
+                            CurvePointRepository curvePointRepository,
+                            RatingRepository ratingRepository,
+                            RuleNameRepository ruleNameRepository,
+                            ShardingService sharding,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${app.sync.visibility-lag-ms:2000}") long visibilityLagMs,
+                            @Value("${app.sync.retention-days:30}") int retentionDays,
+                            @Value("${app.sync.max-page-size:1000}") int maxPageSize) {
+        this.sources = Map.of(
+                // Les échanges et les enchères sont lus dans toutes les bases lorsqu'ils sont répartis
+                Trade.class.getSimpleName(), new Source<>(ids -> sharding.enabled()
+                        ? sharding.trades().findAllById(ids) : tradeRepository.findAllById(ids), Trade::getId),
+                BidList.class.getSimpleName(), new Source<>(ids -> sharding.enabled()
+                        ? sharding.bidLists().findAllById(ids) : bidListRepository.findAllById(ids), BidList::getId),
+                CurvePoint.class.getSimpleName(), new Source<>(curvePointRepository::findAllById, CurvePoint::getId),
+                Rating.class.getSimpleName(), new Source<>(ratingRepository::findAllById, Rating::getId),
+                RuleName.class.getSimpleName(), new Source<>(ruleNameRepository::findAllById, RuleName::getId));
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.visibilityLagMs = visibilityLagMs;
+        this.retentionMs = TimeUnit.DAYS.toMillis(retentionDays);
+        this.maxPageSize = maxPageSize;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "change-log-retention");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::purgeQuietly, 1, 60, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Inscrit la modification dans la transaction de l'écriture qui l'a publiée.
+     */
+    @EventListener
+    public void record(EntityChangeEvent<?> event) {
+        String entityType = event.entityType().getSimpleName();
+        if (event.id() == null || !sources.containsKey(entityType)) {
+            return;
+        }
+        repository.save(new ChangeLogEntry(entityType, event.id(), event.changeType(),
+                new Timestamp(System.currentTimeMillis())));
+    }
+
+    /**
+     * Retourne les modifications postérieures à la séquence donnée.
+     * <p>
+     * Plusieurs modifications d'une même entité dans la page sont réduites à la
+     * dernière, accompagnée de l'état courant de l'entité.
+     * </p>
+     *
+     * @param since la dernière séquence reçue par le client, 0 pour tout l'historique conservé
+     * @param limit le nombre maximal d'entrées du journal lues
+     * @param entityTypes les types d'entité suivis, tous si vide
+     */
+    @Transactional(readOnly = true)
+    public ChangePage changesSince(long since, int limit, Set<String> entityTypes) {
+        if (since < 0 || limit <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "since must be positive and limit strictly positive");
+        }
+        for (String entityType : entityTypes) {
+            if (!sources.containsKey(entityType)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown entity type '" + entityType + "'");
+            }
+        }
+        Long oldest = repository.findMinSeq();
+        if (oldest == null) {
+            return new ChangePage(List.of(), since, false);
+        }
+        if (since < oldest - 1) {
+            throw new ResponseStatusException(HttpStatus.GONE, "Changes since " + since + " are no longer available");
+        }
+
+        long upTo = visiblePosition();
+        int size = Math.min(limit, maxPageSize);
+        List<ChangeLogEntry> entries = entityTypes.isEmpty()
+                ? repository.findBySeqGreaterThanAndSeqLessThanEqualOrderBySeqAsc(since, upTo, Limit.of(size + 1))
+                : repository.findBySeqGreaterThanAndSeqLessThanEqualAndEntityTypeInOrderBySeqAsc(since, upTo,
+                        entityTypes, Limit.of(size + 1));
+        boolean hasMore = entries.size() > size;
+        if (hasMore) {
+            entries = entries.subList(0, size);
+        }
+        // Sans entrée, le client peut avancer jusqu'à la position visible même si elle ne concerne pas ses types
+        long next = entries.isEmpty() ? Math.max(since, upTo) : entries.get(entries.size() - 1).getSeq();
+        return new ChangePage(toChanges(entries), next, hasMore);
+    }
+
+    /**
+     * Retourne la position du journal jusqu'à laquelle toutes les modifications sont validées.
+     */
+    public long position() {
+        return visiblePosition();
+    }
+
+    /**
+     * Retourne la dernière modification de chaque entité du type donné depuis une séquence.
+     *
+     * @param limit le nombre maximal d'entrées du journal lues
+     * @return vide si le type n'est pas journalisé, ou si les entrées depuis {@code since}
+     *         ont été purgées ou dépassent {@code limit}
+     */
+    @Transactional(readOnly = true)
+    public Optional<Map<Integer, ChangeType>> latestChanges(String entityType, long since, int limit) {
+        if (!sources.containsKey(entityType)) {
+            return Optional.empty();
+        }
+        Long oldest = repository.findMinSeq();
+        // Journal vide alors que la séquence a avancé : ses entrées ont été purgées
+        if (oldest == null ? since > 0 : since < oldest - 1) {
+            return Optional.empty();
+        }
+        List<ChangeLogEntry> entries = repository.findBySeqGreaterThanAndEntityTypeOrderBySeqAsc(since, entityType,
+                Limit.of(limit + 1));
+        if (entries.size() > limit) {
+            return Optional.empty();
+        }
+        Map<Integer, ChangeType> latest = new HashMap<>();
+        for (ChangeLogEntry entry : entries) {
+            latest.put(entry.getEntityId(), entry.getChangeType());
+        }
+        return Optional.of(latest);
+    }
+
+    /**
+     * Relit les entités journalisées du type donné ; les entités supprimées sont absentes du résultat.
+     */
+    public Map<Integer, Object> load(String entityType, Collection<Integer> ids) {
+        return sources.get(entityType).load(ids);
+    }
+
+    /**
+     * Purge les entrées plus anciennes que la durée de rétention.
+     *
+     * @return le nombre d'entrées supprimées
+     */
+    public int purge() {
+        Timestamp before = new Timestamp(System.currentTimeMillis() - retentionMs);
+        Integer deleted = transactionTemplate.execute(status -> repository.deleteChangedBefore(before));
+        return deleted == null ? 0 : deleted;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void purgeQuietly() {
+        try {
+            int deleted = purge();
+            if (deleted > 0) {
+                log.info("Purged {} change log entries", deleted);
+            }
+        }
+        catch (Exception e) {
+            log.error("Change log purge failed", e);
+        }
+    }
+
+    /**
+     * Dernière séquence lisible sans risque qu'une séquence inférieure soit encore validée plus tard.
+     */
+    private long visiblePosition() {
+        Long firstRecent = repository.findMinSeqChangedAfter(new Timestamp(System.currentTimeMillis() - visibilityLagMs));
+        if (firstRecent != null) {
+            return firstRecent - 1;
+        }
+        Long last = repository.findMaxSeq();
+        return last == null ? 0 : last;
+    }
+
+    private List<ChangePage.Change> toChanges(List<ChangeLogEntry> entries) {
+        Map<String, ChangeLogEntry> latest = new LinkedHashMap<>();
+        for (ChangeLogEntry entry : entries) {
+            String key = entry.getEntityType() + ':' + entry.getEntityId();
+            latest.remove(key);
+            latest.put(key, entry);
+        }
+
+        Map<String, Set<Integer>> idsByType = latest.values().stream()
+                .filter(entry -> !entry.getChangeType().removes())
+                .collect(Collectors.groupingBy(ChangeLogEntry::getEntityType,
+                        Collectors.mapping(ChangeLogEntry::getEntityId, Collectors.toSet())));
+        Map<String, Map<Integer, Object>> entities = new HashMap<>();
+        idsByType.forEach((entityType, ids) -> entities.put(entityType, load(entityType, ids)));
+
+        List<ChangePage.Change> changes = new ArrayList<>(latest.size());
+        for (ChangeLogEntry entry : latest.values()) {
+            // Une entité absente a été supprimée après la position lue : sa pierre tombale suivra
+            Object entity = entry.getChangeType().removes()
+                    ? null
+                    : entities.getOrDefault(entry.getEntityType(), Map.of()).get(entry.getEntityId());
+            changes.add(new ChangePage.Change(entry.getSeq(), entry.getEntityType(), entry.getEntityId(),
+                    entry.getChangeType(), entry.getChangedAt(), entity));
+        }
+        return changes;
+    }
+
+    private record Source<T>(Function<Collection<Integer>, ? extends Iterable<T>> finder, Function<T, Integer> id) {
+
+        Map<Integer, Object> load(Collection<Integer> ids) {
+            Map<Integer, Object> byId = new HashMap<>();
+            for (T entity : finder.apply(ids)) {
+                byId.put(id.apply(entity), entity);
+            }
+            return byId;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.pcs.app.sync;
+
+import com.pcs.app.events.ChangeType;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Page de modifications renvoyée par l'API de synchronisation.
+ *
+ * @param changes les modifications, au plus une par entité, dans l'ordre des séquences
+ * @param next la séquence à passer en {@code since} pour la page suivante
+ * @param hasMore vrai si d'autres modifications sont déjà disponibles après {@code next}
+ */
+public record ChangePage(List<Change> changes, long next, boolean hasMore) {
+
+    /**
+     * Dernière modification connue d'une entité.
+     *
+     * @param sequence la séquence de la modification
+     * @param entityType le type de l'entité
+     * @param id l'identifiant de l'entité
+     * @param changeType la nature de la modification ; {@code DELETE} est une pierre tombale
+     * @param changedAt la date de la modification
+     * @param entity l'état courant de l'entité, nul pour une suppression
+     */
+    public record Change(long sequence, String entityType, Integer id, ChangeType changeType,
+                         Timestamp changedAt, Object entity) {
+    }
+}
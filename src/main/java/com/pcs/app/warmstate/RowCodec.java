@@ -0,0 +1,166 @@
+package com.pcs.app.warmstate;
+
+import com.pcs.app.analytics.StringDictionary;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encode les champs d'une entité en une ligne binaire compacte.
+ * <p>
+ * Une ligne commence par un masque des champs non nuls, suivi de leurs valeurs :
+ * les entiers et les montants en largeur fixe, les dates en millisecondes, les
+ * chaînes par leur code dans le dictionnaire du fichier. La signature change dès
+ * qu'un champ est ajouté, retiré ou change de type : une ligne écrite par une
+ * autre version de l'entité n'est jamais relue.
+ * </p>
+ */
+public final class RowCodec<T> {
+
+    private enum Kind { INT, LONG, DOUBLE, BOOLEAN, STRING, TIMESTAMP }
+
+    private record Column(Field field, Kind kind) {
+    }
+
+    private final Constructor<T> constructor;
+    private final List<Column> columns = new ArrayList<>();
+    private final int signature;
+
+    public RowCodec(Class<T> type) {
+        try {
+            constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+        }
+        catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException(type.getSimpleName() + " has no no-arg constructor", e);
+        }
+        int hash = type.getName().hashCode();
+        for (Field field : type.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers())) {
+                continue;
+            }
+            field.setAccessible(true);
+            Kind kind = kindOf(field.getType());
+            if (kind == null) {
+                throw new IllegalArgumentException("Unsupported field " + type.getSimpleName() + "." + field.getName());
+            }
+            columns.add(new Column(field, kind));
+            hash = 31 * (31 * hash + field.getName().hashCode()) + kind.ordinal();
+        }
+        if (columns.size() > Long.SIZE) {
+            throw new IllegalArgumentException(type.getSimpleName() + " has more than " + Long.SIZE + " fields");
+        }
+        this.signature = hash;
+    }
+
+    public int signature() {
+        return signature;
+    }
+
+    public void write(T entity, DataOutput out, StringDictionary strings) throws IOException {
+        Object[] values = new Object[columns.size()];
+        long present = 0;
+        for (int i = 0; i < values.length; i++) {
+            values[i] = get(columns.get(i).field(), entity);
+            if (values[i] != null) {
+                present |= 1L << i;
+            }
+        }
+        out.writeLong(present);
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            if (value == null) {
+                continue;
+            }
+            switch (columns.get(i).kind()) {
+                case INT -> out.writeInt((Integer) value);
+                case LONG -> out.writeLong((Long) value);
+                case DOUBLE -> out.writeDouble((Double) value);
+                case BOOLEAN -> out.writeBoolean((Boolean) value);
+                case STRING -> out.writeInt(strings.encode((String) value));
+                case TIMESTAMP -> out.writeLong(((Timestamp) value).getTime());
+            }
+        }
+    }
+
+    /**
+     * Lit une ligne à la position courante du tampon, qui avance jusqu'à la ligne suivante.
+     */
+    public T read(ByteBuffer buffer, String[] strings) {
+        T entity = newInstance();
+        long present = buffer.getLong();
+        for (int i = 0; i < columns.size(); i++) {
+            if ((present & (1L << i)) == 0) {
+                continue;
+            }
+            Column column = columns.get(i);
+            Object value = switch (column.kind()) {
+                case INT -> buffer.getInt();
+                case LONG -> buffer.getLong();
+                case DOUBLE -> buffer.getDouble();
+                case BOOLEAN -> buffer.get() != 0;
+                case STRING -> strings[buffer.getInt()];
+                case TIMESTAMP -> new Timestamp(buffer.getLong());
+            };
+            set(column.field(), entity, value);
+        }
+        return entity;
+    }
+
+    private T newInstance() {
+        try {
+            return constructor.newInstance();
+        }
+        catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Cannot instantiate " + constructor.getDeclaringClass().getSimpleName(), e);
+        }
+    }
+
+    private static Object get(Field field, Object entity) {
+        try {
+            return field.get(entity);
+        }
+        catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void set(Field field, Object entity, Object value) {
+        try {
+            field.set(entity, value);
+        }
+        catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Kind kindOf(Class<?> type) {
+        if (type == Integer.class) {
+            return Kind.INT;
+        }
+        if (type == Long.class) {
+            return Kind.LONG;
+        }
+        if (type == Double.class) {
+            return Kind.DOUBLE;
+        }
+        if (type == Boolean.class) {
+            return Kind.BOOLEAN;
+        }
+        if (type == String.class) {
+            return Kind.STRING;
+        }
+        if (type == Timestamp.class) {
+            return Kind.TIMESTAMP;
+        }
+        return null;
+    }
+}
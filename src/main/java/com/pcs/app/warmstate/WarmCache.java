@@ -0,0 +1,40 @@
+package com.pcs.app.warmstate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Cache en mémoire dont l'état est sauvegardé dans l'instantané de démarrage.
+ * <p>
+ * L'état est décrit par des lignes d'une entité : au démarrage, le cache reçoit
+ * les lignes de l'instantané, puis les lignes modifiées depuis, relues en base,
+ * et les identifiants des lignes supprimées.
+ * </p>
+ *
+ * @param <T> l'entité dont les modifications rendent le cache périmé
+ */
+public interface WarmCache<T> {
+
+    /**
+     * Nom unique de la région du cache dans l'instantané.
+     */
+    String warmStateName();
+
+    Class<T> warmStateType();
+
+    /**
+     * Parcourt l'état courant du cache, sous forme de lignes de l'entité.
+     */
+    void forEachWarmRow(Consumer<T> rows);
+
+    /**
+     * Ajoute ou remplace des lignes, lues dans l'instantané ou relues en base.
+     */
+    void restoreWarmRows(List<T> rows);
+
+    /**
+     * Retire les lignes supprimées depuis l'instantané.
+     */
+    void evictWarmRows(Collection<Integer> ids);
+}
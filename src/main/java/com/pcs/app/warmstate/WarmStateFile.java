@@ -0,0 +1,261 @@
+package com.pcs.app.warmstate;
+
+import com.pcs.app.analytics.StringDictionary;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Instantané des caches en mémoire, projeté en lecture seule.
+ * <p>
+ * Format : un en-tête (version, position du journal des modifications, date,
+ * positions du dictionnaire et du répertoire, somme de contrôle), les régions de lignes de chaque
+ * cache, le dictionnaire des chaînes commun à toutes les régions, puis le
+ * répertoire des régions. Le fichier est écrit à côté puis renommé
+ * atomiquement : un instantané lisible est toujours complet, et sa somme de
+ * contrôle est vérifiée à l'ouverture, avant qu'un cache n'en reçoive une ligne.
+ * </p>
+ */
+public final class WarmStateFile {
+
+    private static final int MAGIC = 0x57535431;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 48;
+
+    /**
+     * Région d'un cache dans le fichier.
+     */
+    public record Region(String name, String entityType, int signature, long offset, int rows) {
+    }
+
+    /**
+     * Cache à écrire, avec le codeur de son entité.
+     */
+    public record Source<T>(WarmCache<T> cache, RowCodec<T> codec) {
+    }
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final long position;
+    private final long createdAt;
+    private final Map<String, Region> regions = new LinkedHashMap<>();
+    private final String[] strings;
+
+    private WarmStateFile(Path path, MappedByteBuffer buffer) throws IOException {
+        this.path = path;
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a warm state file: " + path);
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported warm state version " + buffer.getInt(4));
+        }
+        CRC32C checksum = new CRC32C();
+        checksum.update(buffer.duplicate().position(HEADER_SIZE));
+        if (checksum.getValue() != buffer.getLong(40)) {
+            throw new IOException("Corrupted warm state file: " + path);
+        }
+        position = buffer.getLong(8);
+        createdAt = buffer.getLong(16);
+        try {
+            ByteBuffer dictionary = buffer.duplicate().position(Math.toIntExact(buffer.getLong(24)));
+            strings = new String[dictionary.getInt()];
+            for (int code = 1; code < strings.length; code++) {
+                byte[] bytes = new byte[dictionary.getInt()];
+                dictionary.get(bytes);
+                strings[code] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            ByteBuffer directory = buffer.duplicate().position(Math.toIntExact(buffer.getLong(32)));
+            int count = directory.getInt();
+            for (int i = 0; i < count; i++) {
+                Region region = new Region(readString(directory), readString(directory), directory.getInt(),
+                        directory.getLong(), directory.getInt());
+                regions.put(region.name(), region);
+            }
+        }
+        catch (RuntimeException e) {
+            throw new IOException("Corrupted warm state file: " + path, e);
+        }
+    }
+
+    /**
+     * Projette en mémoire un instantané existant.
+     */
+    public static WarmStateFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new WarmStateFile(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Écrit l'état des caches dans un nouvel instantané qui remplace le précédent.
+     *
+     * @param position la position du journal des modifications couverte par l'état écrit
+     * @return le nombre de lignes écrites
+     */
+    public static long write(Path path, long position, List<Source<?>> sources) throws IOException {
+        Path directoryPath = path.toAbsolutePath().getParent();
+        Files.createDirectories(directoryPath);
+        Path temporary = Files.createTempFile(directoryPath, path.getFileName().toString(), ".tmp");
+        long total = 0;
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            channel.position(HEADER_SIZE);
+            CheckedOutputStream checked = new CheckedOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16), new CRC32C());
+            CountingOutputStream counter = new CountingOutputStream(checked);
+            DataOutputStream out = new DataOutputStream(counter);
+            counter.count = HEADER_SIZE;
+            StringDictionary strings = new StringDictionary();
+            List<Region> written = new ArrayList<>();
+            for (Source<?> source : sources) {
+                Region region = writeRegion(source, out, counter, strings);
+                written.add(region);
+                total += region.rows();
+            }
+            long dictionaryOffset = counter.count;
+            out.writeInt(strings.size());
+            for (int code = 1; code < strings.size(); code++) {
+                byte[] bytes = strings.decode(code).getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+            long directoryOffset = counter.count;
+            out.writeInt(written.size());
+            for (Region region : written) {
+                writeString(out, region.name());
+                writeString(out, region.entityType());
+                out.writeInt(region.signature());
+                out.writeLong(region.offset());
+                out.writeInt(region.rows());
+            }
+            out.flush();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putLong(position).putLong(System.currentTimeMillis())
+                    .putLong(dictionaryOffset).putLong(directoryOffset).putLong(checked.getChecksum().getValue()).flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+        }
+        catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return total;
+    }
+
+    public long position() {
+        return position;
+    }
+
+    public long createdAt() {
+        return createdAt;
+    }
+
+    public long bytes() {
+        return buffer.capacity();
+    }
+
+    public Region region(String name) {
+        return regions.get(name);
+    }
+
+    /**
+     * Lit les lignes d'une région par lots.
+     */
+    public <T> void read(Region region, RowCodec<T> codec, int batchSize, Consumer<List<T>> batches) throws IOException {
+        ByteBuffer rows = buffer.duplicate().position(Math.toIntExact(region.offset()));
+        List<T> batch = new ArrayList<>(batchSize);
+        for (int row = 0; row < region.rows(); row++) {
+            try {
+                batch.add(codec.read(rows, strings));
+            }
+            catch (RuntimeException e) {
+                throw new IOException("Corrupted warm state region " + region.name() + " in " + path, e);
+            }
+            if (batch.size() == batchSize) {
+                batches.accept(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            batches.accept(batch);
+        }
+    }
+
+    private static <T> Region writeRegion(Source<T> source, DataOutputStream out, CountingOutputStream counter,
+                                          StringDictionary strings) throws IOException {
+        long offset = counter.count;
+        int[] rows = new int[1];
+        IOException[] failure = new IOException[1];
+        source.cache().forEachWarmRow(row -> {
+            if (failure[0] != null) {
+                return;
+            }
+            try {
+                source.codec().write(row, out, strings);
+                rows[0]++;
+            }
+            catch (IOException e) {
+                failure[0] = e;
+            }
+        });
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+        return new Region(source.cache().warmStateName(), source.cache().warmStateType().getName(),
+                source.codec().signature(), offset, rows[0]);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
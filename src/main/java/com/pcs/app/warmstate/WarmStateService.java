@@ -0,0 +1,259 @@
+package com.pcs.app.warmstate;
+
+import com.pcs.app.cache.TableVersions;
+import com.pcs.app.events.ChangeType;
+import com.pcs.app.sync.ChangeLogService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sauvegarde périodiquement l'état des caches en mémoire pour accélérer le redémarrage.
+ * <p>
+ * Au démarrage, un cache relit l'instantané projeté en mémoire au lieu de
+ * parcourir sa table ; seules les lignes modifiées depuis la position du journal
+ * des modifications enregistrée dans l'instantané sont relues en base. Un
+ * instantané absent, corrompu, écrit pour une autre version de l'entité ou trop
+ * ancien pour le journal conservé laisse le cache se charger depuis la base.
+ * </p>
+ * <p>
+ * Ne sont pas inscrits les caches qui ne parcourent pas de table au démarrage :
+ * les courbes de {@code CurveIngestionService}, chargées une à une au premier
+ * accès et dont l'état ne garde pas les identifiants des points, les règles de
+ * {@code RuleEngineService}, dont le coût au démarrage est leur compilation, et
+ * les sessions, déjà tenues en base. Les utilisateurs ne sont pas mis en cache.
+ * </p>
+ */
+@Slf4j
+@Service
+public class WarmStateService {
+
+    private static final int RESTORE_BATCH_SIZE = 10_000;
+    private static final int RELOAD_BATCH_SIZE = 1_000;
+
+    @Autowired
+    private ChangeLogService changeLog;
+
+    @Autowired
+    private TableVersions tableVersions;
+
+    private final boolean enabled;
+    private final Path path;
+    private final int maxStaleRows;
+    private final ScheduledExecutorService scheduler;
+    // Caches chargés, dans l'ordre de leur enregistrement
+    private final Map<String, WarmStateFile.Source<?>> caches = new LinkedHashMap<>();
+    private final Map<String, Map<String, Object>> restores = new ConcurrentHashMap<>();
+    private WarmStateFile file;
+    private boolean fileOpened;
+    private Map<Class<?>, Long> writtenVersions = Map.of();
+    private Map<String, Object> lastSnapshot = Map.of();
+
+    public WarmStateService(@Value("${app.warm-state.enabled:true}") boolean enabled,
+                            @Value("${app.warm-state.file:warm-state/caches.snap}") String file,
+                            @Value("${app.warm-state.interval-minutes:5}") int intervalMinutes,
+                            @Value("${app.warm-state.max-stale-rows:100000}") int maxStaleRows) {
+        this.enabled = enabled;
+        this.path = Path.of(file);
+        this.maxStaleRows = maxStaleRows;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "warm-state-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (enabled) {
+            scheduler.scheduleWithFixedDelay(this::snapshotQuietly, intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+        }
+    }
+
+    /**
+     * Recharge le cache depuis l'instantané, puis relit en base les lignes modifiées depuis.
+     *
+     * @return faux si le cache doit se charger depuis la base
+     */
+    public <T> boolean restore(WarmCache<T> cache) {
+        if (!enabled) {
+            return false;
+        }
+        long start = System.currentTimeMillis();
+        String name = cache.warmStateName();
+        Class<T> type = cache.warmStateType();
+        WarmStateFile snapshot = snapshotFile();
+        if (snapshot == null) {
+            return cold(name, "no snapshot");
+        }
+        WarmStateFile.Region region = snapshot.region(name);
+        RowCodec<T> codec = new RowCodec<>(type);
+        if (region == null) {
+            return cold(name, "not in snapshot");
+        }
+        if (!region.entityType().equals(type.getName()) || region.signature() != codec.signature()) {
+            return cold(name, "written for another version of " + type.getSimpleName());
+        }
+        Optional<Map<Integer, ChangeType>> changes = changeLog.latestChanges(type.getSimpleName(),
+                snapshot.position(), maxStaleRows);
+        if (changes.isEmpty()) {
+            return cold(name, "change log does not cover the snapshot");
+        }
+        try {
+            snapshot.read(region, codec, RESTORE_BATCH_SIZE, cache::restoreWarmRows);
+        }
+        catch (IOException e) {
+            // Le cache a pu recevoir une partie des lignes : son chargement depuis la base les remplacera
+            log.error("Could not restore {} from {}", name, path, e);
+            return cold(name, "unreadable region");
+        }
+
+        // Lignes périmées : relues en base, ou retirées si elles n'existent plus
+        List<Integer> stale = new ArrayList<>(changes.get().keySet());
+        int refreshed = 0;
+        List<Integer> evicted = new ArrayList<>();
+        for (int from = 0; from < stale.size(); from += RELOAD_BATCH_SIZE) {
+            List<Integer> ids = stale.subList(from, Math.min(from + RELOAD_BATCH_SIZE, stale.size()));
+            Map<Integer, Object> current = changeLog.load(type.getSimpleName(), ids);
+            List<T> rows = new ArrayList<>(current.size());
+            for (Integer id : ids) {
+                Object entity = current.get(id);
+                if (entity == null) {
+                    evicted.add(id);
+                }
+                else {
+                    rows.add(type.cast(entity));
+                }
+            }
+            cache.restoreWarmRows(rows);
+            refreshed += rows.size();
+        }
+        cache.evictWarmRows(evicted);
+
+        Map<String, Object> outcome = new LinkedHashMap<>();
+        outcome.put("restored", true);
+        outcome.put("rows", region.rows());
+        outcome.put("refreshed", refreshed);
+        outcome.put("evicted", evicted.size());
+        outcome.put("ms", System.currentTimeMillis() - start);
+        restores.put(name, outcome);
+        log.info("Restored {} from warm state: {} rows, {} refreshed and {} evicted since position {} ({} ms)",
+                name, region.rows(), refreshed, evicted.size(), snapshot.position(), outcome.get("ms"));
+        return true;
+    }
+
+    /**
+     * Inscrit un cache chargé dans les instantanés suivants.
+     */
+    public synchronized <T> void register(WarmCache<T> cache) {
+        caches.put(cache.warmStateName(), new WarmStateFile.Source<>(cache, new RowCodec<>(cache.warmStateType())));
+    }
+
+    /**
+     * Écrit un nouvel instantané des caches inscrits, sauf si aucune de leurs tables
+     * n'a changé depuis le précédent.
+     *
+     * @return le bilan de l'écriture
+     */
+    public synchronized Map<String, Object> snapshot() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        Map<Class<?>, Long> versions = new LinkedHashMap<>();
+        caches.values().forEach(source -> versions.put(source.cache().warmStateType(),
+                tableVersions.version(source.cache().warmStateType())));
+        if (caches.isEmpty() || (versions.equals(writtenVersions) && Files.exists(path))) {
+            report.put("written", false);
+            return report;
+        }
+        // Position lue avant les caches : une modification ultérieure sera relue au redémarrage
+        long position = changeLog.position();
+        long start = System.currentTimeMillis();
+        // L'instantané lu au démarrage ne sert plus : sa projection est libérée avant le remplacement
+        file = null;
+        long rows;
+        long bytes;
+        try {
+            rows = WarmStateFile.write(path, position, new ArrayList<>(caches.values()));
+            bytes = Files.size(path);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Cannot write warm state " + path, e);
+        }
+        writtenVersions = versions;
+        report.put("written", true);
+        report.put("caches", new ArrayList<>(caches.keySet()));
+        report.put("rows", rows);
+        report.put("bytes", bytes);
+        report.put("position", position);
+        report.put("ms", System.currentTimeMillis() - start);
+        lastSnapshot = report;
+        log.info("Warm state written: {} rows of {} caches, {} bytes ({} ms)",
+                rows, caches.size(), report.get("bytes"), report.get("ms"));
+        return report;
+    }
+
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("file", path.toAbsolutePath().toString());
+        stats.put("caches", new ArrayList<>(caches.keySet()));
+        stats.put("restores", new LinkedHashMap<>(restores));
+        stats.put("lastSnapshot", lastSnapshot);
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        if (enabled) {
+            snapshotQuietly();
+        }
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        }
+        catch (Exception e) {
+            log.error("Warm state snapshot failed", e);
+        }
+    }
+
+    /**
+     * Projette l'instantané au premier chargement de cache ; un instantané illisible est ignoré.
+     */
+    private synchronized WarmStateFile snapshotFile() {
+        if (!fileOpened) {
+            fileOpened = true;
+            if (Files.exists(path)) {
+                try {
+                    file = WarmStateFile.open(path);
+                }
+                catch (IOException e) {
+                    log.warn("Ignoring warm state {}: {}", path, e.getMessage());
+                }
+            }
+        }
+        return file;
+    }
+
+    private boolean cold(String name, String reason) {
+        Map<String, Object> outcome = new LinkedHashMap<>();
+        outcome.put("restored", false);
+        outcome.put("reason", reason);
+        restores.put(name, outcome);
+        log.info("Loading {} from the database: {}", name, reason);
+        return false;
+    }
+}
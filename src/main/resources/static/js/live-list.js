@@ -0,0 +1,125 @@
+/*
+ * Applique en direct sur une liste les modifications reçues du flux /api/feed.
+ *
+ * Le tableau porte data-topic (sujet suivi), data-fields (propriétés affichées,
+ * dans l'ordre des colonnes), data-edit-url et data-delete-url (préfixes des liens).
+ * Chaque ligne porte data-id. Les créations ne sont ajoutées qu'en première page
+ * d'une liste non filtrée.
+ *
+ * Le flux ne rejoue pas les modifications diffusées avant l'abonnement ou pendant
+ * une interruption (coupure réseau, abonné déconnecté pour lenteur) : à chaque
+ * ouverture du flux, la liste les relit depuis /api/sync à partir de data-sync-position, la position du
+ * journal lue avant l'affichage de la page, pour le type data-sync-type. Les
+ * modifications récentes n'y étant visibles qu'après un délai, une seconde
+ * relecture suit la première. Si le journal ne couvre plus cette position, la
+ * page est rechargée.
+ */
+(function () {
+    var table = document.querySelector('table[data-topic]');
+    if (!table || !window.EventSource) {
+        return;
+    }
+    var topic = table.dataset.topic;
+    var fields = table.dataset.fields.split(',');
+    var body = table.tBodies[0];
+    var params = new URLSearchParams(window.location.search);
+    var filtered = Array.from(params.keys()).some(function (key) {
+        return ['page', 'size', 'sort'].indexOf(key) < 0 && params.get(key);
+    });
+    var prepend = table.dataset.firstPage === 'true' && !filtered;
+
+    function text(value) {
+        return value === null || value === undefined ? '' : String(value);
+    }
+
+    function fill(row, entity) {
+        fields.forEach(function (field, i) {
+            row.cells[i].textContent = text(entity[field]);
+        });
+    }
+
+    function createRow(entity) {
+        var row = body.insertRow(0);
+        row.dataset.id = entity.id;
+        fields.forEach(function () {
+            row.insertCell();
+        });
+        row.cells[0].style.width = '10%';
+        var actions = row.insertCell();
+        actions.style.width = '15%';
+        actions.className = 'text-center';
+        var edit = document.createElement('a');
+        edit.href = table.dataset.editUrl + entity.id;
+        edit.textContent = 'Edit';
+        var remove = document.createElement('a');
+        remove.href = table.dataset.deleteUrl + entity.id;
+        remove.textContent = 'Delete';
+        actions.append(edit, ' | ', remove);
+        fill(row, entity);
+    }
+
+    function apply(change, id, entity) {
+        var row = body.querySelector('tr[data-id="' + id + '"]');
+        if (change === 'DELETE' || change === 'ARCHIVE') {
+            if (row) {
+                row.remove();
+            }
+        }
+        else if (row) {
+            fill(row, entity);
+        }
+        else if (change === 'CREATE' && prepend) {
+            createRow(entity);
+        }
+    }
+
+    var syncType = table.dataset.syncType;
+    var syncPosition = Number(table.dataset.syncPosition);
+    var resyncDelayMs = 3000;
+    var resyncTimer = null;
+
+    function resync() {
+        var url = '/api/sync?types=' + encodeURIComponent(syncType) + '&since=' + syncPosition;
+        fetch(url, {credentials: 'same-origin', headers: {'Accept': 'application/json'}})
+            .then(function (response) {
+                if (response.status === 410) {
+                    window.location.reload();
+                    return null;
+                }
+                if (!response.ok) {
+                    throw new Error('sync ' + response.status);
+                }
+                return response.json();
+            })
+            .then(function (page) {
+                if (!page) {
+                    return;
+                }
+                page.changes.forEach(function (change) {
+                    apply(change.changeType, change.id, change.entity);
+                });
+                syncPosition = page.next;
+                if (page.hasMore) {
+                    resync();
+                }
+            })
+            .catch(function () {
+                // Nouvelle tentative à la prochaine reconnexion ou relecture différée
+            });
+    }
+
+    function catchUp() {
+        resync();
+        clearTimeout(resyncTimer);
+        resyncTimer = setTimeout(resync, resyncDelayMs);
+    }
+
+    var source = new EventSource('/api/feed?topics=' + encodeURIComponent(topic));
+    if (syncType) {
+        source.addEventListener('open', catchUp);
+    }
+    source.addEventListener(topic, function (event) {
+        var message = JSON.parse(event.data);
+        apply(message.change, message.id, message.entity);
+    });
+})();
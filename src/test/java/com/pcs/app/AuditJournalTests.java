@@ -0,0 +1,129 @@
+package com.pcs.app;
+
+import com.pcs.app.domain.Trade;
+import com.pcs.app.events.ChangeType;
+import com.pcs.app.events.EntityChangeEvent;
+import com.pcs.app.journal.AuditJournal;
+import com.pcs.app.journal.AuditJournalService;
+import com.pcs.app.journal.JournalRecord;
+import com.pcs.app.journal.JournalReplay;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests unitaires du journal d'audit.
+ */
+class AuditJournalTests {
+
+    @TempDir
+    Path directory;
+
+    private static byte[] json(String value) {
+        return ("{\"account\":\"" + value + "\"}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void append_ShouldBeReplayedInOrderAcrossSegmentsAndReopen() throws IOException {
+        try (AuditJournal journal = new AuditJournal(directory, 4096)) {
+            for (int i = 1; i <= 100; i++) {
+                journal.sync(journal.append(i, "Trade", ChangeType.CREATE, i, "user", json("A" + i)));
+            }
+        }
+        try (AuditJournal journal = new AuditJournal(directory, 4096)) {
+            assertEquals(100, journal.lastSequence());
+            assertEquals(101, journal.append(101, "Trade", ChangeType.DELETE, 1, "user", new byte[0]));
+        }
+
+        List<JournalRecord> records = new ArrayList<>();
+        long last = JournalReplay.replay(directory, records::add);
+
+        assertEquals(101, last);
+        assertEquals(101, records.size());
+        assertTrue(listSegments().size() > 1);
+        for (int i = 0; i < records.size(); i++) {
+            assertEquals(i + 1, records.get(i).sequence());
+        }
+        assertEquals("user", records.get(0).user());
+    }
+
+    @Test
+    void rebuildState_ShouldKeepLastVersionAndDropDeletedEntities() throws IOException {
+        try (AuditJournal journal = new AuditJournal(directory, 1 << 16)) {
+            journal.append(1, "Trade", ChangeType.CREATE, 1, "", json("v1"));
+            journal.append(2, "Trade", ChangeType.UPDATE, 1, "", json("v2"));
+            journal.append(3, "BidList", ChangeType.CREATE, 1, "", json("bid"));
+            journal.append(4, "BidList", ChangeType.DELETE, 1, "", new byte[0]);
+        }
+
+        Map<JournalReplay.EntityKey, byte[]> state = JournalReplay.rebuildState(directory, Long.MAX_VALUE);
+        Map<JournalReplay.EntityKey, byte[]> before = JournalReplay.rebuildState(directory, 3);
+
+        assertEquals(1, state.size());
+        assertEquals("{\"account\":\"v2\"}",
+                new String(state.get(new JournalReplay.EntityKey("Trade", 1)), StandardCharsets.UTF_8));
+        assertEquals(2, before.size());
+    }
+
+    @Test
+    void open_ShouldDiscardTornRecordAndResumeSequence() throws IOException {
+        try (AuditJournal journal = new AuditJournal(directory, 1 << 16)) {
+            journal.append(1, "Trade", ChangeType.CREATE, 1, "", json("ok"));
+            journal.append(2, "Trade", ChangeType.CREATE, 2, "", json("torn"));
+        }
+        // Corrompt le contenu du second enregistrement : son CRC ne correspond plus
+        Path segment = listSegments().get(0);
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            int firstLength = file.readInt();
+            file.seek(8L + firstLength + 8 + 20);
+            file.write('X');
+        }
+
+        try (AuditJournal journal = new AuditJournal(directory, 1 << 16)) {
+            assertEquals(1, journal.lastSequence());
+            assertEquals(2, journal.append(3, "Trade", ChangeType.CREATE, 3, "", json("new")));
+        }
+        List<JournalRecord> records = new ArrayList<>();
+        JournalReplay.replay(directory, records::add);
+        assertEquals(2, records.size());
+        assertEquals(3, records.get(1).entityId());
+    }
+
+    @Test
+    void onEntityChange_ShouldLeaveTheFsyncToTheFlusherThread() throws Exception {
+        AuditJournalService service = new AuditJournalService(directory, 1 << 16, true, 5);
+        try {
+            for (int i = 1; i <= 10; i++) {
+                service.onEntityChange(EntityChangeEvent.deleted(Trade.class, i));
+            }
+            assertEquals(10, service.lastSequence());
+
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (service.durableSequence() < 10 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            assertEquals(10, service.durableSequence());
+        }
+        finally {
+            service.close();
+        }
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+}
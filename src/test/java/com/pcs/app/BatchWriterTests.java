@@ -0,0 +1,180 @@
+package com.pcs.app;
+
+import com.pcs.app.audit.AuditFieldsListener;
+import com.pcs.app.audit.BatchWriter;
+import com.pcs.app.domain.Trade;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests unitaires de l'écriture par lots de l'historique et des champs d'audit.
+ */
+class BatchWriterTests {
+
+    @Test
+    void close_ShouldWriteEveryQueuedItemInBatches() {
+        List<Integer> written = Collections.synchronizedList(new ArrayList<>());
+        List<Integer> sizes = Collections.synchronizedList(new ArrayList<>());
+        BatchWriter<Integer> writer = new BatchWriter<>("test-writer", 1000, 100, 1000, 10, 5, batch -> {
+            sizes.add(batch.size());
+            written.addAll(batch);
+        });
+
+        IntStream.range(0, 1000).forEach(writer::submit);
+        assertTrue(writer.close(10_000));
+
+        assertEquals(IntStream.range(0, 1000).boxed().toList(), written);
+        assertTrue(sizes.stream().allMatch(size -> size <= 100));
+        assertEquals(1000, writer.stats().written());
+        assertEquals(0, writer.stats().callerWrites());
+    }
+
+    @Test
+    void submit_ShouldWriteInCallerWhenQueueStaysFull() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> written = Collections.synchronizedList(new ArrayList<>());
+        BatchWriter<Integer> writer = new BatchWriter<>("test-writer", 2, 10, 10, 10, 5, batch -> {
+            if (!Thread.currentThread().getName().equals("test-writer")) {
+                written.addAll(batch);
+                return;
+            }
+            try {
+                release.await();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            written.addAll(batch);
+        });
+
+        for (int i = 0; i < 10; i++) {
+            writer.submit(i);
+        }
+        assertTrue(writer.stats().callerWrites() > 0);
+        release.countDown();
+        assertTrue(writer.close(10_000));
+
+        assertEquals(10, written.size());
+        assertEquals(10, writer.stats().written());
+    }
+
+    @Test
+    void close_ShouldRetryFailedBatches() {
+        AtomicInteger attempts = new AtomicInteger();
+        List<Integer> written = Collections.synchronizedList(new ArrayList<>());
+        BatchWriter<Integer> writer = new BatchWriter<>("test-writer", 100, 100, 1000, 1, 5, batch -> {
+            if (attempts.incrementAndGet() <= 3) {
+                throw new IllegalStateException("Database unavailable");
+            }
+            written.addAll(batch);
+        });
+
+        writer.submit(1);
+        writer.submit(2);
+        assertTrue(writer.close(TimeUnit.SECONDS.toMillis(10)));
+
+        assertEquals(List.of(1, 2), written);
+        assertEquals(3, writer.stats().failures());
+    }
+
+    @Test
+    void write_ShouldDropOnlyThePoisonItemAfterTheLastAttempt() {
+        List<Integer> written = Collections.synchronizedList(new ArrayList<>());
+        BatchWriter<Integer> writer = new BatchWriter<>("test-writer", 100, 100, 1000, 1, 3, batch -> {
+            if (batch.contains(2)) {
+                throw new IllegalStateException("Constraint violation");
+            }
+            written.addAll(batch);
+        });
+
+        writer.submit(1);
+        writer.submit(2);
+        writer.submit(3);
+        assertTrue(writer.close(TimeUnit.SECONDS.toMillis(10)));
+
+        assertEquals(List.of(1, 3), written);
+        assertEquals(2, writer.stats().written());
+        assertEquals(1, writer.stats().dropped());
+    }
+
+    @Test
+    void close_ShouldDrainTheQueueInTheCallerAfterTheTimeout() {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> written = Collections.synchronizedList(new ArrayList<>());
+        BatchWriter<Integer> writer = new BatchWriter<>("test-writer", 100, 1, 1000, 1, 1, batch -> {
+            if (Thread.currentThread().getName().equals("test-writer")) {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            written.addAll(batch);
+        });
+
+        IntStream.range(0, 10).forEach(writer::submit);
+        Thread releaser = new Thread(() -> {
+            try {
+                Thread.sleep(200);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            release.countDown();
+        });
+        releaser.start();
+        assertTrue(writer.close(50));
+
+        assertEquals(10, written.size());
+        assertEquals(10, writer.stats().written());
+    }
+
+    @Test
+    void auditFields_ShouldBeSetOnCreateAndRevisionOnUpdate() {
+        AuditFieldsListener listener = new AuditFieldsListener();
+        Trade trade = new Trade("Account", "Type");
+        trade.setCreationName("forged");
+        SecurityContextHolder.getContext().setAuthentication(
+                new TestingAuthenticationToken("user1", null, "ROLE_USER"));
+        try {
+            listener.onCreate(trade);
+        }
+        finally {
+            SecurityContextHolder.clearContext();
+        }
+
+        assertEquals("user1", trade.getCreationName());
+        assertNotNull(trade.getCreationDate());
+        assertEquals(trade.getCreationDate(), trade.getRevisionDate());
+
+        trade.setRevisionName(null);
+        listener.onUpdate(trade);
+        assertEquals(AuditFieldsListener.SYSTEM_AUDITOR, trade.getRevisionName());
+    }
+
+    @Test
+    void auditFields_ShouldKeepTheCreatorSetByABackgroundTask() {
+        AuditFieldsListener listener = new AuditFieldsListener();
+        Trade trade = new Trade("Account", "Type");
+        trade.setCreationName("matching");
+
+        listener.onCreate(trade);
+
+        assertEquals("matching", trade.getCreationName());
+        assertEquals("matching", trade.getRevisionName());
+    }
+}
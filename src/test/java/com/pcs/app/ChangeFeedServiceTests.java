@@ -0,0 +1,119 @@
+package com.pcs.app;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pcs.app.domain.Trade;
+import com.pcs.app.events.EntityChangeEvent;
+import com.pcs.app.feed.ChangeFeedService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests unitaires de la diffusion en direct des modifications.
+ */
+class ChangeFeedServiceTests {
+
+    private ChangeFeedService service;
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void onEntityChange_ShouldNotLetABlockedClientStallTheOthers() throws InterruptedException {
+        service = service(8, 60_000);
+        RecordingEmitter blocked = new RecordingEmitter(new CountDownLatch(1));
+        RecordingEmitter fast = new RecordingEmitter(null);
+        service.subscribe(Set.of("trade"), blocked);
+        service.subscribe(Set.of("trade"), fast);
+
+        for (int i = 1; i <= 5; i++) {
+            service.onEntityChange(EntityChangeEvent.deleted(Trade.class, i));
+        }
+
+        assertTrue(await(() -> fast.sent.get() == 5));
+        assertEquals(0, blocked.sent.get());
+        blocked.release.countDown();
+    }
+
+    @Test
+    void onEntityChange_ShouldEvictASubscriberWhoseQueueIsFull() throws InterruptedException {
+        service = service(2, 60_000);
+        RecordingEmitter blocked = new RecordingEmitter(new CountDownLatch(1));
+        service.subscribe(Set.of("trade"), blocked);
+
+        // Le premier message est en cours d'envoi, les deux suivants remplissent la file
+        for (int i = 1; i <= 4; i++) {
+            service.onEntityChange(EntityChangeEvent.deleted(Trade.class, i));
+        }
+
+        assertEquals(1L, service.stats().get("evictions"));
+        assertEquals(0L, service.stats().get("subscribers"));
+        blocked.release.countDown();
+    }
+
+    @Test
+    void evictStalled_ShouldDisconnectASubscriberStuckInASend() throws InterruptedException {
+        service = service(8, 50);
+        RecordingEmitter blocked = new RecordingEmitter(new CountDownLatch(1));
+        service.subscribe(Set.of("trade"), blocked);
+
+        service.onEntityChange(EntityChangeEvent.deleted(Trade.class, 1));
+
+        assertTrue(await(() -> service.stats().get("evictions") == 1L));
+        assertEquals(0L, service.stats().get("subscribers"));
+        blocked.release.countDown();
+    }
+
+    private static ChangeFeedService service(int bufferSize, long sendTimeoutMs) {
+        ChangeFeedService service = new ChangeFeedService(60_000, bufferSize, sendTimeoutMs, 60_000);
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+        return service;
+    }
+
+    private static boolean await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        return condition.getAsBoolean();
+    }
+
+    /**
+     * Émetteur qui compte les envois, et bloque chacun d'eux tant que {@code release} n'est pas ouvert.
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+        final CountDownLatch release;
+        final AtomicInteger sent = new AtomicInteger();
+
+        RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(Set<DataWithMediaType> items) throws IOException {
+            if (release != null) {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+            }
+            sent.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.pcs.app;
+
+import com.pcs.app.domain.CompressedTextConverter;
+import com.pcs.app.domain.RuleName;
+import org.junit.jupiter.api.Test;
+
+import java.util.zip.Deflater;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests unitaires de la compression des textes des règles.
+ */
+class CompressedTextConverterTests {
+
+    private final CompressedTextConverter converter = new CompressedTextConverter();
+
+    @Test
+    void convert_ShouldKeepShortTextsAsIs() {
+        byte[] stored = converter.convertToDatabaseColumn("SELECT 1");
+
+        assertEquals(0, stored[0]);
+        assertEquals(9, stored.length);
+        assertEquals("SELECT 1", converter.convertToEntityAttribute(stored));
+    }
+
+    @Test
+    void convert_ShouldCompressLargeTexts() {
+        String json = "{\"all\": [" + "{\"field\": \"book\", \"op\": \"=\", \"value\": \"BOOK é\"},".repeat(500) + "]}";
+
+        byte[] stored = converter.convertToDatabaseColumn(json);
+
+        assertEquals(1, stored[0]);
+        assertTrue(stored.length * 10 < json.length());
+        assertEquals(json, converter.convertToEntityAttribute(stored));
+    }
+
+    @Test
+    void convert_ShouldReadAnEmptyCompressedText() {
+        Deflater deflater = new Deflater();
+        deflater.finish();
+        byte[] buffer = new byte[64];
+        int length = deflater.deflate(buffer);
+        deflater.end();
+        byte[] stored = new byte[length + 1];
+        stored[0] = 1;
+        System.arraycopy(buffer, 0, stored, 1, length);
+
+        assertEquals("", converter.convertToEntityAttribute(stored));
+    }
+
+    @Test
+    void convert_ShouldHandleNullAndRejectCorruptedData() {
+        assertNull(converter.convertToDatabaseColumn(null));
+        assertNull(converter.convertToEntityAttribute(null));
+        assertEquals("", converter.convertToEntityAttribute(converter.convertToDatabaseColumn("")));
+        assertThrows(IllegalStateException.class, () -> converter.convertToEntityAttribute(new byte[]{1, 42, 42}));
+    }
+
+    @Test
+    void ruleName_ShouldExposeTextsThroughItsAccessors() {
+        RuleName ruleName = new RuleName("Name", "Description", "Json", "Template", "SQL", "SQL Part");
+
+        assertEquals("Json", ruleName.getJson());
+        assertEquals("Template", ruleName.getTemplate());
+        assertEquals("SQL", ruleName.getSqlStr());
+        assertNull(new RuleName().getJson());
+    }
+}
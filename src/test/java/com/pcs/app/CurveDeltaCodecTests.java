@@ -0,0 +1,58 @@
+package com.pcs.app;
+
+import com.pcs.app.history.CurveDeltaCodec;
+import com.pcs.app.history.CurveState;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests unitaires de l'encodage des instantanés de courbe.
+ */
+class CurveDeltaCodecTests {
+
+    private static CurveState curve(double... termValues) {
+        Map<Double, Double> points = new HashMap<>();
+        for (int i = 0; i < termValues.length; i += 2) {
+            points.put(termValues[i], termValues[i + 1]);
+        }
+        return CurveState.of(points);
+    }
+
+    @Test
+    void encodeFull_ShouldRoundTrip() {
+        CurveState state = curve(1, 0.5, 2, 0.75, 10, 1.25);
+
+        assertEquals(state, CurveDeltaCodec.apply(CurveState.EMPTY, CurveDeltaCodec.encodeFull(state)));
+    }
+
+    @Test
+    void encodeDelta_ShouldRebuildCurrentStateFromPrevious() {
+        CurveState previous = curve(1, 0.5, 2, 0.75, 5, 1.0, 10, 1.25);
+        CurveState current = curve(1, 0.5, 2, 0.80, 7, 1.1, 10, 1.25);
+
+        byte[] delta = CurveDeltaCodec.encodeDelta(previous, current);
+
+        assertEquals(current, CurveDeltaCodec.apply(previous, delta));
+    }
+
+    @Test
+    void encodeDelta_ShouldBeSmallerThanFullWhenFewPointsChange() {
+        Map<Double, Double> points = new HashMap<>();
+        for (int term = 1; term <= 360; term++) {
+            points.put((double) term, Math.log(term) / 100);
+        }
+        CurveState previous = CurveState.of(points);
+        points.put(180.0, 0.1);
+        CurveState current = CurveState.of(points);
+
+        byte[] delta = CurveDeltaCodec.encodeDelta(previous, current);
+
+        assertTrue(delta.length < CurveDeltaCodec.encodeFull(current).length / 10);
+        assertEquals(current, CurveDeltaCodec.apply(previous, delta));
+    }
+}
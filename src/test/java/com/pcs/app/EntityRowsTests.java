@@ -0,0 +1,36 @@
+package com.pcs.app;
+
+import com.pcs.app.domain.BidList;
+import com.pcs.app.domain.Trade;
+import com.pcs.app.reactive.EntityRows;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests unitaires des colonnes lues par la lecture non bloquante.
+ */
+class EntityRowsTests {
+
+    @Test
+    void columns_ShouldFollowTheTradeEntity() {
+        EntityRows<Trade> rows = new EntityRows<>(Trade.class);
+
+        assertEquals("trade", rows.table());
+        assertEquals("id, account, type, buy_quantity, sell_quantity, buy_price, sell_price, benchmark, trade_date, "
+                + "security, status, trader, book, creation_name, creation_date, revision_name, revision_date, "
+                + "deal_name, deal_type, source_list_id, side", rows.columns());
+        assertEquals("sell_quantity", rows.column("sellQuantity"));
+    }
+
+    @Test
+    void columns_ShouldFollowTheBidListEntity() {
+        EntityRows<BidList> rows = new EntityRows<>(BidList.class);
+
+        assertEquals("bidlist", rows.table());
+        assertEquals("id, account, type, bid_quantity, ask_quantity, bid, ask, benchmark, bid_list_date, commentary, "
+                + "security, status, trader, book, creation_name, creation_date, revision_name, revision_date, "
+                + "deal_name, deal_type, source_list_id, side", rows.columns());
+        assertEquals("ask_quantity", rows.column("askQuantity"));
+    }
+}
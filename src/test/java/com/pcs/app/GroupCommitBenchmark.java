@@ -0,0 +1,102 @@
+package com.pcs.app;
+
+import com.pcs.app.groupcommit.GroupCommitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Mesure le débit et la latence des créations concurrentes, validées une à une
+ * ou par lots, face à une base dont chaque validation coûte un fsync.
+ * <p>
+ * Le coût simulé d'une validation est {@code fsync µs} plus {@code ligne µs} par
+ * ligne insérée ; les validations sont sérialisées, comme sur un même journal.
+ * </p>
+ * <p>
+ * Lancement : {@code java -cp target/test-classes:target/classes com.pcs.app.GroupCommitBenchmark [threads] [créations par thread] [fsync µs] [ligne µs]}
+ * </p>
+ */
+public class GroupCommitBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int perThread = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        long fsyncMicros = args.length > 2 ? Long.parseLong(args[2]) : 1000;
+        long rowMicros = args.length > 3 ? Long.parseLong(args[3]) : 10;
+        SimulatedDatabase database = new SimulatedDatabase(fsyncMicros, rowMicros);
+
+        run("one by one", threads, perThread, trade -> database.commit(List.of(trade)).get(0));
+        for (long window : new long[]{0, 200, 1000, 5000}) {
+            try (GroupCommitter<Integer, Integer> committer = new GroupCommitter<>("bench-commit", window, 100,
+                    10_000, database::commit)) {
+                run("window " + window + " us", threads, perThread, trade -> committer.submit(trade).join());
+                GroupCommitter.Stats stats = committer.stats();
+                System.out.printf("%20s average batch %.1f, largest %d%n", "",
+                        (double) stats.committed() / stats.batches(), stats.largestBatch());
+            }
+        }
+    }
+
+    private static void run(String label, int threads, int perThread, Function<Integer, Integer> create)
+            throws InterruptedException {
+        long[][] latencies = new long[threads][perThread];
+        List<Thread> workers = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            long[] mine = latencies[t];
+            Thread worker = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    long begin = System.nanoTime();
+                    create.apply(i);
+                    mine[i] = System.nanoTime() - begin;
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        System.out.printf("%-18s %3d threads: %,10.0f trades/s, latency p50 %7.2f ms, p99 %7.2f ms%n", label,
+                threads, all.length / seconds, all[all.length / 2] / 1e6, all[(int) (all.length * 0.99)] / 1e6);
+    }
+
+    /**
+     * Base simulée : une validation à la fois, au coût d'un fsync plus l'insertion des lignes.
+     */
+    private static final class SimulatedDatabase {
+        private final ReentrantLock log = new ReentrantLock();
+        private final long fsyncNanos;
+        private final long rowNanos;
+        private int nextId;
+
+        SimulatedDatabase(long fsyncMicros, long rowMicros) {
+            this.fsyncNanos = fsyncMicros * 1000;
+            this.rowNanos = rowMicros * 1000;
+        }
+
+        List<Integer> commit(List<Integer> trades) {
+            log.lock();
+            try {
+                List<Integer> ids = new ArrayList<>(trades.size());
+                for (int i = 0; i < trades.size(); i++) {
+                    ids.add(++nextId);
+                }
+                long end = System.nanoTime() + fsyncNanos + rowNanos * trades.size();
+                while (System.nanoTime() < end) {
+                    LockSupport.parkNanos(end - System.nanoTime());
+                }
+                return ids;
+            }
+            finally {
+                log.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.pcs.app;
+
+import com.pcs.app.groupcommit.GroupCommitter;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests unitaires de la validation groupée des écritures concurrentes.
+ */
+class GroupCommitterTests {
+
+    @Test
+    void submit_ShouldCommitItemsOfTheSameWindowTogether() {
+        List<Integer> sizes = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger sequence = new AtomicInteger();
+        GroupCommitter<String, Integer> committer = new GroupCommitter<>("test-commit", 200_000, 10, 100, items -> {
+            sizes.add(items.size());
+            return items.stream().map(item -> sequence.incrementAndGet()).toList();
+        });
+
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            results.add(committer.submit("trade-" + i));
+        }
+
+        assertEquals(List.of(1, 2, 3, 4, 5), results.subList(0, 5).stream().map(CompletableFuture::join).toList());
+        assertEquals(25, results.stream().map(CompletableFuture::join).distinct().count());
+        assertTrue(committer.close(10_000));
+        assertTrue(sizes.stream().allMatch(size -> size <= 10));
+        assertTrue(sizes.size() < 25, sizes.toString());
+        assertEquals(25, committer.stats().committed());
+        assertEquals(10, committer.stats().largestBatch());
+    }
+
+    @Test
+    void submit_ShouldFailOnlyTheCallerWhoseItemIsRejected() {
+        GroupCommitter<String, String> committer = new GroupCommitter<>("test-commit", 100_000, 10, 100, items -> {
+            if (items.contains("bad")) {
+                throw new IllegalArgumentException("bad item");
+            }
+            return items.stream().map(String::toUpperCase).toList();
+        });
+
+        CompletableFuture<String> first = committer.submit("a");
+        CompletableFuture<String> bad = committer.submit("bad");
+        CompletableFuture<String> last = committer.submit("b");
+
+        assertEquals("A", first.join());
+        assertEquals("B", last.join());
+        CompletionException error = assertThrows(CompletionException.class, bad::join);
+        assertTrue(error.getCause() instanceof IllegalArgumentException);
+        assertTrue(committer.close(10_000));
+        assertEquals(1, committer.stats().failedBatches());
+        assertEquals(1, committer.stats().failedItems());
+        assertEquals(2, committer.stats().committed());
+    }
+
+    @Test
+    void close_ShouldCommitQueuedItemsAndRefuseNewOnes() {
+        List<String> committed = Collections.synchronizedList(new ArrayList<>());
+        GroupCommitter<String, String> committer = new GroupCommitter<>("test-commit", 50_000, 5, 100, items -> {
+            committed.addAll(items);
+            return items;
+        });
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            results.add(committer.submit("item-" + i));
+        }
+
+        assertTrue(committer.close(10_000));
+
+        assertEquals(12, committed.size());
+        assertTrue(results.stream().allMatch(CompletableFuture::isDone));
+        CompletableFuture<String> refused = committer.submit("late");
+        assertTrue(refused.isCompletedExceptionally());
+        assertFalse(committed.contains("late"));
+    }
+}
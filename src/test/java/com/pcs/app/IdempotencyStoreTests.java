@@ -0,0 +1,84 @@
+package com.pcs.app;
+
+import com.pcs.app.idempotency.IdempotencyStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests unitaires de la mémoire locale des clés d'idempotence.
+ */
+class IdempotencyStoreTests {
+
+    @Test
+    void claim_ShouldGrantOwnershipToExactlyOneConcurrentCaller() throws InterruptedException {
+        IdempotencyStore store = new IdempotencyStore(8, 60_000, 1_000);
+        AtomicInteger owners = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[16];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                }
+                catch (InterruptedException e) {
+                    return;
+                }
+                if (store.claim("Trade:key", "hash", 1).owner()) {
+                    owners.incrementAndGet();
+                }
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(1, owners.get());
+    }
+
+    @Test
+    void claim_ShouldReturnCompletedResultUntilExpiry() {
+        IdempotencyStore store = new IdempotencyStore(8, 1000, 1_000);
+        IdempotencyStore.Claim first = store.claim("Trade:key", "hash", 1);
+        Object result = new Object();
+        store.complete(first.entry(), result);
+
+        IdempotencyStore.Claim retry = store.claim("Trade:key", "hash", 500);
+        assertFalse(retry.owner());
+        assertSame(result, retry.entry().result().join());
+
+        assertTrue(store.claim("Trade:key", "hash", 1001).owner());
+    }
+
+    @Test
+    void fail_ShouldReleaseKeyForNextAttempt() {
+        IdempotencyStore store = new IdempotencyStore(8, 1000, 1_000);
+        IdempotencyStore.Claim first = store.claim("Trade:key", "hash", 1);
+        store.fail("Trade:key", first.entry(), new IllegalStateException("rollback"));
+
+        assertTrue(first.entry().result().isCompletedExceptionally());
+        assertTrue(store.claim("Trade:key", "hash", 2).owner());
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void claim_ShouldEvictOldestCompletedEntriesBeyondMaximum() {
+        IdempotencyStore store = new IdempotencyStore(1, 60_000, 2);
+        IdempotencyStore.Claim first = store.claim("Trade:first", "hash", 1);
+        store.complete(first.entry(), new Object());
+        IdempotencyStore.Claim pending = store.claim("Trade:pending", "hash", 2);
+
+        assertTrue(store.claim("Trade:third", "hash", 3).owner());
+        assertEquals(2, store.size());
+        assertFalse(store.claim("Trade:pending", "hash", 4).owner());
+        assertSame(pending.entry(), store.claim("Trade:pending", "hash", 5).entry());
+        assertTrue(store.claim("Trade:first", "hash", 6).owner());
+    }
+}
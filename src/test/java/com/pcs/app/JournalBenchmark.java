@@ -0,0 +1,73 @@
+package com.pcs.app;
+
+import com.pcs.app.events.ChangeType;
+import com.pcs.app.journal.AuditJournal;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Mesure le débit d'écriture du journal d'audit, avec et sans attente du fsync.
+ * <p>
+ * Lancement : {@code java -cp target/test-classes:target/classes com.pcs.app.JournalBenchmark [threads] [records par thread]}
+ * </p>
+ */
+public class JournalBenchmark {
+
+    private static final byte[] PAYLOAD = ("{\"id\":123456,\"account\":\"ACCOUNT-0042\",\"type\":\"SWAP\","
+            + "\"buyQuantity\":1500.0,\"sellQuantity\":0.0,\"buyPrice\":101.25,\"sellPrice\":null,"
+            + "\"benchmark\":\"EURIBOR3M\",\"tradeDate\":1700000000000,\"security\":\"FR0000120271\","
+            + "\"status\":\"OPEN\",\"trader\":\"jdoe\",\"book\":\"RATES-EU\",\"side\":\"BUY\"}")
+            .getBytes(StandardCharsets.UTF_8);
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int perThread = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+
+        run("no sync", threads, perThread, false);
+        run("group commit", threads, perThread / 10, true);
+    }
+
+    private static void run(String label, int threads, int perThread, boolean sync) throws Exception {
+        Path directory = Files.createTempDirectory("journal-bench");
+        try (AuditJournal journal = new AuditJournal(directory, 64 << 20)) {
+            List<Thread> workers = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int t = 0; t < threads; t++) {
+                Thread worker = new Thread(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        long sequence = journal.append(System.currentTimeMillis(), "Trade", ChangeType.UPDATE,
+                                i, "bench", PAYLOAD);
+                        if (sync) {
+                            journal.sync(sequence);
+                        }
+                    }
+                });
+                workers.add(worker);
+                worker.start();
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            long records = (long) threads * perThread;
+            System.out.printf("%-13s %2d threads: %,12.0f records/s, %8.1f MB/s%n", label, threads,
+                    records / seconds, records * (PAYLOAD.length + 40) / seconds / (1 << 20));
+        }
+        finally {
+            delete(directory);
+        }
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+}
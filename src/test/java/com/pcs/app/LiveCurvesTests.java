@@ -0,0 +1,64 @@
+package com.pcs.app;
+
+import com.pcs.app.history.CurveState;
+import com.pcs.app.ingestion.LiveCurves;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests unitaires des états courants des courbes publiés par l'ingestion.
+ */
+class LiveCurvesTests {
+
+    private static final CurveState LOADED = CurveState.of(Map.of(1.0, 10.0));
+    private static final CurveState FLUSHED = CurveState.of(Map.of(1.0, 11.0));
+
+    @Test
+    void publishLoaded_ShouldPublishWhenNothingChangedDuringTheLoad() {
+        LiveCurves curves = new LiveCurves();
+        long version = curves.version(7);
+
+        assertTrue(curves.publishLoaded(7, LOADED, version));
+        assertSame(LOADED, curves.get(7));
+    }
+
+    @Test
+    void publishLoaded_ShouldNotHideAnInvalidationMadeDuringTheLoad() {
+        LiveCurves curves = new LiveCurves();
+        long version = curves.version(7);
+
+        curves.invalidate(7);
+
+        assertFalse(curves.publishLoaded(7, LOADED, version));
+        assertNull(curves.get(7));
+    }
+
+    @Test
+    void publishLoaded_ShouldNotOverwriteABatchPublishedDuringTheLoad() {
+        LiveCurves curves = new LiveCurves();
+        long version = curves.version(7);
+
+        curves.publish(Map.of(7, FLUSHED));
+        curves.invalidate(7);
+
+        assertFalse(curves.publishLoaded(7, LOADED, version));
+        assertNull(curves.get(7));
+    }
+
+    @Test
+    void invalidate_ShouldOnlyDropTheGivenCurve() {
+        LiveCurves curves = new LiveCurves();
+        curves.publish(Map.of(7, LOADED, 8, FLUSHED));
+
+        curves.invalidate(7);
+
+        assertNull(curves.get(7));
+        assertSame(FLUSHED, curves.get(8));
+    }
+}
@@ -0,0 +1,87 @@
+package com.pcs.app;
+
+import com.pcs.app.domain.BidList;
+import com.pcs.app.matching.Fill;
+import com.pcs.app.matching.MatchingPartition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Mesure la latence de confrontation d'une enchère et le débit obtenu avec une partition par thread.
+ * <p>
+ * Lancement : {@code java -cp target/test-classes:target/classes com.pcs.app.MatchingBenchmark [partitions] [enchères par partition]}
+ * </p>
+ */
+public class MatchingBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int partitions = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int perPartition = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+
+        // Latence, sur une seule partition
+        long[] latencies = run(flow(0, perPartition));
+        Arrays.sort(latencies);
+        System.out.printf("latency ns: p50 %,d  p99 %,d  p99.9 %,d  max %,d%n",
+                latencies[latencies.length / 2], latencies[(int) (latencies.length * 0.99)],
+                latencies[(int) (latencies.length * 0.999)], latencies[latencies.length - 1]);
+
+        // Débit, une partition par thread
+        for (int threads = 1; threads <= partitions; threads *= 2) {
+            List<Thread> workers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                BidList[] flow = flow(i, perPartition);
+                workers.add(new Thread(() -> run(flow)));
+            }
+            long start = System.nanoTime();
+            workers.forEach(Thread::start);
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("%2d partitions: %,.0f orders per second%n",
+                    threads, (double) threads * perPartition * 1e9 / elapsed);
+        }
+    }
+
+    private static BidList[] flow(int seed, int orders) {
+        Random random = new Random(seed);
+        BidList[] flow = new BidList[orders];
+        for (int i = 0; i < orders; i++) {
+            // Un tiers de modifications d'enchères déjà soumises
+            int id = i > 1000 && random.nextInt(3) == 0 ? random.nextInt(i) : i;
+            double price = 100 + random.nextInt(40) * 0.05;
+            BidList bidList = new BidList("Account", "Type", null);
+            bidList.setId(id);
+            bidList.setSecurity("SEC" + random.nextInt(100));
+            if (random.nextBoolean()) {
+                bidList.setBid(price - 0.5);
+                bidList.setBidQuantity(1.0 + random.nextInt(100));
+            }
+            else {
+                bidList.setAsk(price + 0.5);
+                bidList.setAskQuantity(1.0 + random.nextInt(100));
+            }
+            flow[i] = bidList;
+        }
+        return flow;
+    }
+
+    private static long[] run(BidList[] flow) {
+        int orders = flow.length;
+        MatchingPartition partition = new MatchingPartition();
+        List<Fill> fills = new ArrayList<>();
+        long[] latencies = new long[orders];
+        for (int i = 0; i < orders; i++) {
+            long start = System.nanoTime();
+            partition.submit(flow[i], fills);
+            latencies[i] = System.nanoTime() - start;
+            if (fills.size() > 10_000) {
+                fills.clear();
+            }
+        }
+        return latencies;
+    }
+}
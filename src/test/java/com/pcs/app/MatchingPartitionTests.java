@@ -0,0 +1,94 @@
+package com.pcs.app;
+
+import com.pcs.app.domain.BidList;
+import com.pcs.app.matching.Fill;
+import com.pcs.app.matching.MatchingPartition;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests unitaires de la confrontation des enchères.
+ */
+class MatchingPartitionTests {
+
+    private static BidList order(int id, Double bid, Double bidQuantity, Double ask, Double askQuantity) {
+        BidList bidList = new BidList("Account" + id, "Type", bidQuantity);
+        bidList.setId(id);
+        bidList.setSecurity("FR01");
+        bidList.setBid(bid);
+        bidList.setAsk(ask);
+        bidList.setAskQuantity(askQuantity);
+        return bidList;
+    }
+
+    @Test
+    void submit_ShouldMatchByPriceThenTimeAtRestingPrice() {
+        MatchingPartition partition = new MatchingPartition();
+        List<Fill> fills = new ArrayList<>();
+        BidList first = order(1, null, null, 101.0, 10.0);
+        BidList second = order(2, null, null, 100.0, 10.0);
+        BidList third = order(3, null, null, 100.0, 10.0);
+        partition.submit(first, fills);
+        partition.submit(second, fills);
+        partition.submit(third, fills);
+        assertTrue(fills.isEmpty());
+
+        BidList buyer = order(4, 101.0, 25.0, null, null);
+        partition.submit(buyer, fills);
+
+        assertEquals(3, fills.size());
+        assertSame(second, fills.get(0).sell());
+        assertEquals(100.0, fills.get(0).price());
+        assertSame(third, fills.get(1).sell());
+        assertSame(first, fills.get(2).sell());
+        assertEquals(101.0, fills.get(2).price());
+        assertEquals(5.0, fills.get(2).quantity());
+        assertSame(buyer, fills.get(2).buy());
+        assertEquals(1, partition.restingOrders());
+    }
+
+    @Test
+    void submit_ShouldOnlyResubmitUnfilledQuantityAndLosePriority() {
+        MatchingPartition partition = new MatchingPartition();
+        List<Fill> fills = new ArrayList<>();
+        partition.submit(order(1, 99.0, 10.0, null, null), fills);
+        partition.submit(order(2, 99.0, 10.0, null, null), fills);
+        partition.submit(order(3, null, null, 99.0, 4.0), fills);
+        assertEquals(1, fills.get(0).buy().getId());
+
+        // L'enchère 1 est modifiée : elle passe derrière l'enchère 2, pour ses 6 restants
+        partition.submit(order(1, 99.0, 10.0, null, null), fills);
+        fills.clear();
+        partition.submit(order(5, null, null, 98.0, 20.0), fills);
+
+        assertEquals(2, fills.get(0).buy().getId());
+        assertEquals(10.0, fills.get(0).quantity());
+        assertEquals(1, fills.get(1).buy().getId());
+        assertEquals(6.0, fills.get(1).quantity());
+        assertEquals(1, partition.restingOrders());
+    }
+
+    @Test
+    void submit_ShouldSkipSeededFillsAndIgnoreSelfCrossingAsk() {
+        MatchingPartition partition = new MatchingPartition();
+        List<Fill> fills = new ArrayList<>();
+        partition.seedFill(1, 2, 10.0);
+        partition.submit(order(1, 100.0, 10.0, null, null), fills);
+        partition.submit(order(2, null, null, 100.0, 10.0), fills);
+        assertTrue(fills.isEmpty());
+        assertEquals(0, partition.restingOrders());
+
+        partition.submit(order(3, 100.0, 10.0, 99.0, 10.0), fills);
+        assertTrue(fills.isEmpty());
+        assertEquals(1, partition.restingOrders());
+
+        partition.remove(3);
+        assertEquals(0, partition.restingOrders());
+    }
+}
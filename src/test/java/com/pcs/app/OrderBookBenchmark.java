@@ -0,0 +1,80 @@
+package com.pcs.app;
+
+import com.pcs.app.domain.BidList;
+import com.pcs.app.orderbook.OrderBooks;
+
+import java.util.Random;
+
+/**
+ * Mesure le débit de mise à jour des carnets d'ordres et de lecture des meilleurs prix et de la profondeur.
+ * <p>
+ * Lancement : {@code java -cp target/test-classes:target/classes com.pcs.app.OrderBookBenchmark [enchères] [titres]}
+ * </p>
+ */
+public class OrderBookBenchmark {
+
+    public static void main(String[] args) {
+        int quotes = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int securities = args.length > 1 ? Integer.parseInt(args[1]) : 1_000;
+        Random random = new Random(42);
+        BidList[] pool = new BidList[quotes];
+        for (int id = 0; id < quotes; id++) {
+            pool[id] = quote(random, id, securities);
+        }
+
+        OrderBooks books = new OrderBooks();
+        long start = System.nanoTime();
+        for (BidList bidList : pool) {
+            books.upsert(bidList);
+        }
+        report("load", quotes, System.nanoTime() - start);
+        System.out.printf("%,d price levels%n", books.levelCount());
+
+        int updates = 2_000_000;
+        BidList[] changes = new BidList[updates];
+        for (int i = 0; i < updates; i++) {
+            changes[i] = quote(random, random.nextInt(quotes), securities);
+        }
+        start = System.nanoTime();
+        for (BidList change : changes) {
+            books.upsert(change);
+        }
+        report("update", updates, System.nanoTime() - start);
+
+        String[] names = new String[securities];
+        for (int i = 0; i < securities; i++) {
+            names[i] = "SEC" + i;
+        }
+        int reads = 10_000_000;
+        double checksum = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < reads; i++) {
+            checksum += books.top(names[i % securities]).bid().quantity();
+        }
+        report("top of book", reads, System.nanoTime() - start);
+
+        reads = 1_000_000;
+        start = System.nanoTime();
+        for (int i = 0; i < reads; i++) {
+            checksum += books.depth(names[i % securities], 10).asks().size();
+        }
+        report("depth 10", reads, System.nanoTime() - start);
+        System.out.println("checksum " + checksum);
+    }
+
+    private static BidList quote(Random random, int id, int securities) {
+        double mid = 100 + random.nextInt(200) * 0.05;
+        BidList bidList = new BidList("Account", "Type", 1.0 + random.nextInt(100));
+        bidList.setId(id);
+        bidList.setSecurity("SEC" + (id % securities));
+        bidList.setBid(mid - 0.05);
+        bidList.setAsk(mid + 0.05);
+        bidList.setAskQuantity(1.0 + random.nextInt(100));
+        return bidList;
+    }
+
+    private static void report(String label, int operations, long nanos) {
+        System.out.printf("%-12s %,d operations in %,d ms (%,.0f per second)%n",
+                label, operations, nanos / 1_000_000, operations * 1e9 / nanos);
+    }
+}
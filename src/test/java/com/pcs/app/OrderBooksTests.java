@@ -0,0 +1,68 @@
+package com.pcs.app;
+
+import com.pcs.app.domain.BidList;
+import com.pcs.app.orderbook.BookDepth;
+import com.pcs.app.orderbook.OrderBooks;
+import com.pcs.app.orderbook.PriceLevel;
+import com.pcs.app.orderbook.TopOfBook;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tests unitaires des carnets d'ordres agrégés.
+ */
+class OrderBooksTests {
+
+    private static BidList quote(int id, String security, Double bid, Double bidQuantity, Double ask, Double askQuantity) {
+        BidList bidList = new BidList("Account", "Type", bidQuantity);
+        bidList.setId(id);
+        bidList.setSecurity(security);
+        bidList.setBid(bid);
+        bidList.setAsk(ask);
+        bidList.setAskQuantity(askQuantity);
+        return bidList;
+    }
+
+    @Test
+    void depth_ShouldAggregateLevelsInPriceOrder() {
+        OrderBooks books = new OrderBooks();
+        books.upsert(quote(1, "FR01", 99.0, 10.0, 101.0, 5.0));
+        books.upsert(quote(2, "FR01", 100.0, 20.0, 101.0, 7.0));
+        books.upsert(quote(3, "FR01", 99.0, 30.0, 102.0, 1.0));
+        books.upsert(quote(4, "FR02", 50.0, 1.0, null, null));
+
+        BookDepth depth = books.depth("FR01", 10);
+
+        assertEquals(new PriceLevel(100.0, 20.0, 1), depth.bids().get(0));
+        assertEquals(new PriceLevel(99.0, 40.0, 2), depth.bids().get(1));
+        assertEquals(new PriceLevel(101.0, 12.0, 2), depth.asks().get(0));
+        assertEquals(new PriceLevel(102.0, 1.0, 1), depth.asks().get(1));
+        assertEquals(1, books.depth("FR01", 1).asks().size());
+        assertNull(books.top("FR02").ask());
+    }
+
+    @Test
+    void upsertAndRemove_ShouldReplacePreviousContribution() {
+        OrderBooks books = new OrderBooks();
+        books.upsert(quote(1, "FR01", 100.0, 10.0, 101.0, 5.0));
+        books.upsert(quote(2, "FR01", 99.0, 10.0, 102.0, 5.0));
+
+        // L'enchère 1 change de prix puis de titre
+        books.upsert(quote(1, "FR01", 98.0, 10.0, 103.0, 5.0));
+        TopOfBook top = books.top("FR01");
+        assertEquals(99.0, top.bid().price());
+        assertEquals(102.0, top.ask().price());
+
+        books.upsert(quote(1, "FR03", 98.0, 10.0, 103.0, 5.0));
+        assertEquals(1, books.depth("FR01", 10).bids().size());
+
+        books.remove(2);
+        books.remove(2);
+        assertNull(books.top("FR01").bid());
+        assertNull(books.top("FR01").ask());
+        assertEquals(98.0, books.top("FR03").bid().price());
+        assertEquals(1, books.quoteCount());
+    }
+}
@@ -0,0 +1,64 @@
+package com.pcs.app;
+
+import com.pcs.app.pnl.PnlEngine;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Mesure le débit du calcul du P&amp;L : recalcul complet, changement de cotation et mise à jour d'échange.
+ * <p>
+ * Lancement : {@code java -cp target/test-classes:target/classes com.pcs.app.PnlBenchmark [échanges] [courbes]}
+ * </p>
+ */
+public class PnlBenchmark {
+
+    public static void main(String[] args) {
+        int trades = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        int curves = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        Random random = new Random(42);
+
+        PnlEngine engine = new PnlEngine();
+        long start = System.nanoTime();
+        for (int id = 0; id < trades; id++) {
+            upsert(engine, random, id, curves);
+        }
+        report("load", trades, System.nanoTime() - start);
+        for (int curve = 0; curve < curves; curve++) {
+            engine.setMark(curve, 100, pool);
+        }
+
+        for (int run = 0; run < 5; run++) {
+            start = System.nanoTime();
+            engine.recomputeAll(pool);
+            report("full recompute", trades, System.nanoTime() - start);
+        }
+
+        int markChanges = 200;
+        start = System.nanoTime();
+        for (int i = 0; i < markChanges; i++) {
+            engine.setMark(i % curves, 95 + random.nextDouble() * 10, pool);
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%-16s %,d changes, %,d µs per change (%,d trades per curve)%n",
+                "mark change", markChanges, elapsed / markChanges / 1000, trades / curves);
+
+        int updates = 1_000_000;
+        start = System.nanoTime();
+        for (int i = 0; i < updates; i++) {
+            upsert(engine, random, random.nextInt(trades), curves);
+        }
+        report("trade update", updates, System.nanoTime() - start);
+    }
+
+    private static void upsert(PnlEngine engine, Random random, int id, int curves) {
+        engine.upsert(id, random.nextInt(1000), random.nextInt(1000), 90 + random.nextDouble() * 20,
+                90 + random.nextDouble() * 20, "BOOK" + (id % 20), "TRADER" + (id % 100), id % curves);
+    }
+
+    private static void report(String label, int operations, long nanos) {
+        System.out.printf("%-16s %,d operations in %,d ms (%,.0f per second)%n",
+                label, operations, nanos / 1_000_000, operations * 1e9 / nanos);
+    }
+}
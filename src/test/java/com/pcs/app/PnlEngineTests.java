@@ -0,0 +1,80 @@
+package com.pcs.app;
+
+import com.pcs.app.history.CurveState;
+import com.pcs.app.pnl.PnlEngine;
+import com.pcs.app.pnl.PnlGroup;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests unitaires du calcul du P&amp;L des échanges.
+ */
+class PnlEngineTests {
+
+    private static final ForkJoinPool POOL = ForkJoinPool.commonPool();
+
+    @Test
+    void groups_ShouldSplitRealizedAndUnrealizedPnl() {
+        PnlEngine engine = new PnlEngine();
+        // Long de 100 acheté à 10, dont 40 revendus à 12 : 80 réalisé, 60 ouverts
+        engine.upsert(1, 100, 40, 10, 12, "RATES", "alice", 7);
+        // Court de 50 vendu à 20 : rien de réalisé
+        engine.upsert(2, 0, 50, Double.NaN, 20, "RATES", "alice", 7);
+        // Position ouverte sans courbe : non valorisée
+        engine.upsert(3, 10, 0, 5, Double.NaN, "RATES", "alice", null);
+        engine.setMark(7, 15, POOL);
+
+        PnlGroup group = engine.groups().get(0);
+
+        assertEquals(3, group.trades());
+        assertEquals(80, group.realized(), 1e-9);
+        assertEquals(60 * (15 - 10) + -50 * (15 - 20), group.unrealized(), 1e-9);
+        assertEquals(1, group.unmarked());
+        assertEquals(group.realized() + group.unrealized(), group.total(), 1e-9);
+    }
+
+    @Test
+    void incrementalUpdates_ShouldMatchFullRecompute() {
+        PnlEngine engine = new PnlEngine();
+        Random random = new Random(42);
+        for (int step = 0; step < 50_000; step++) {
+            int id = random.nextInt(5_000);
+            switch (random.nextInt(10)) {
+                case 0 -> engine.remove(id);
+                case 1 -> engine.setMark(random.nextInt(5), random.nextInt(20) == 0 ? Double.NaN : 90 + random.nextInt(20), POOL);
+                default -> engine.upsert(id, random.nextInt(100), random.nextInt(100),
+                        random.nextInt(10) == 0 ? Double.NaN : 90 + random.nextInt(20), 90 + random.nextInt(20),
+                        "BOOK" + random.nextInt(3), "TRADER" + random.nextInt(4),
+                        random.nextInt(6) == 5 ? null : random.nextInt(5));
+            }
+        }
+        List<PnlGroup> incremental = engine.groups();
+
+        engine.recomputeAll(POOL);
+        List<PnlGroup> full = engine.groups();
+
+        assertEquals(full.size(), incremental.size());
+        for (int i = 0; i < full.size(); i++) {
+            assertEquals(full.get(i).trades(), incremental.get(i).trades());
+            assertEquals(full.get(i).unmarked(), incremental.get(i).unmarked());
+            assertEquals(full.get(i).realized(), incremental.get(i).realized(), 1e-3);
+            assertEquals(full.get(i).unrealized(), incremental.get(i).unrealized(), 1e-3);
+        }
+    }
+
+    @Test
+    void valueAt_ShouldInterpolateAndExtrapolateFlat() {
+        CurveState curve = CurveState.of(Map.of(1.0, 10.0, 3.0, 20.0));
+
+        assertEquals(10.0, curve.valueAt(0.0));
+        assertEquals(15.0, curve.valueAt(2.0), 1e-9);
+        assertEquals(20.0, curve.valueAt(5.0));
+        assertEquals(Double.NaN, CurveState.EMPTY.valueAt(1.0));
+    }
+}
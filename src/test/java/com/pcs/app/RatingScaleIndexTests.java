@@ -0,0 +1,50 @@
+package com.pcs.app;
+
+import com.pcs.app.domain.Rating;
+import com.pcs.app.rating.RatingAgency;
+import com.pcs.app.rating.RatingEquivalence;
+import com.pcs.app.rating.RatingScaleIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests unitaires de l'échelle de notes commune aux agences.
+ */
+class RatingScaleIndexTests {
+
+    @Test
+    void ordinal_ShouldAlignAgenciesAndNormalizeSymbols() {
+        assertEquals(10, RatingAgency.SP.rank("BBB-"));
+        assertEquals(10, RatingAgency.MOODYS.rank("Baa3"));
+        assertEquals(10, RatingAgency.MOODYS.rank(" (P)Baa3 *-"));
+        assertEquals(10, RatingAgency.FITCH.rank("bbb-"));
+        assertEquals(RatingAgency.DEFAULT, RatingAgency.FITCH.rank("RD"));
+        assertEquals(RatingAgency.UNRATED, RatingAgency.MOODYS.rank("BBB-"));
+        assertEquals(RatingAgency.UNRATED, RatingAgency.SP.rank((String) null));
+
+        RatingEquivalence equivalence = RatingEquivalence.of(RatingAgency.MOODYS.rank("Ba1"));
+        assertEquals("BB+", equivalence.sandP());
+        assertFalse(equivalence.investmentGrade());
+        assertTrue(RatingEquivalence.of(10).investmentGrade());
+    }
+
+    @Test
+    void range_ShouldReturnRatingsBetweenOrdinalsBestFirst() {
+        Rating junk = new Rating("B2", "B", "B", 3);
+        Rating triple = new Rating("Aaa", "AAA", "AAA", 1);
+        Rating edge = new Rating("Baa3", "BBB-", "BBB", 2);
+        Rating unrated = new Rating(null, "NR", null, 4);
+        RatingScaleIndex index = RatingScaleIndex.build(List.of(junk, triple, edge, unrated));
+
+        assertEquals(List.of(triple, edge), index.range(RatingAgency.SP, 1, 10));
+        assertEquals(List.of(edge, junk), index.range(RatingAgency.FITCH, 9, RatingAgency.DEFAULT));
+        assertEquals(List.of(), index.range(RatingAgency.MOODYS, 11, 13));
+        assertEquals(1, index.histogram(RatingAgency.SP)[RatingAgency.UNRATED]);
+        assertEquals(2, index.histogram(RatingAgency.MOODYS)[RatingAgency.UNRATED] + index.histogram(RatingAgency.MOODYS)[1]);
+    }
+}
@@ -0,0 +1,100 @@
+package com.pcs.app;
+
+import com.pcs.app.reactive.ReactiveReadService;
+import com.pcs.app.service.TradeService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.core.publisher.Flux;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compare la lecture de tous les échanges par N clients simultanés, entre le chemin
+ * bloquant ({@link TradeService#getAllTrades()}, un thread et une liste complète par
+ * client) et le flux R2DBC ({@link ReactiveReadService#streamTrades}).
+ * <p>
+ * Mesure la durée, le pic de mémoire occupée et le pic de threads vivants.
+ * Nécessite la base MySQL configurée dans {@code application.properties}, alimentée
+ * au préalable.
+ * </p>
+ * <p>
+ * Lancement : {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.pcs.app.ReactiveReadBenchmark -Dexec.args="[clients]"}
+ * </p>
+ */
+public class ReactiveReadBenchmark {
+
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(Application.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.jpa.show-sql=false")) {
+            TradeService tradeService = context.getBean(TradeService.class);
+            ReactiveReadService reactiveService = context.getBean(ReactiveReadService.class);
+
+            measure("blocking", () -> {
+                AtomicLong rows = new AtomicLong();
+                List<Thread> workers = new ArrayList<>();
+                for (int i = 0; i < clients; i++) {
+                    Thread worker = new Thread(() -> rows.addAndGet(tradeService.getAllTrades().size()));
+                    workers.add(worker);
+                    worker.start();
+                }
+                for (Thread worker : workers) {
+                    worker.join();
+                }
+                return rows.get();
+            }, clients);
+
+            measure("reactive", () -> Flux.range(0, clients)
+                    .flatMap(i -> reactiveService.streamTrades(null, null).count(), clients)
+                    .reduce(0L, Long::sum)
+                    .block(), clients);
+        }
+    }
+
+    private static void measure(String label, Scenario scenario, int clients) throws Exception {
+        System.gc();
+        long baseline = MEMORY.getHeapMemoryUsage().getUsed();
+        THREADS.resetPeakThreadCount();
+        AtomicLong peakHeap = new AtomicLong(baseline);
+        Thread sampler = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                peakHeap.accumulateAndGet(MEMORY.getHeapMemoryUsage().getUsed(), Math::max);
+                try {
+                    Thread.sleep(5);
+                }
+                catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        sampler.setDaemon(true);
+        sampler.start();
+
+        long start = System.nanoTime();
+        long rows = scenario.run();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        sampler.interrupt();
+        sampler.join();
+
+        System.out.printf("%-9s %4d clients: %,12d rows in %6.2f s (%,10.0f rows/s), peak heap +%,6d MB, peak threads %4d%n",
+                label, clients, rows, seconds, rows / seconds, (peakHeap.get() - baseline) >> 20,
+                THREADS.getPeakThreadCount());
+    }
+
+    @FunctionalInterface
+    private interface Scenario {
+        long run() throws Exception;
+    }
+}
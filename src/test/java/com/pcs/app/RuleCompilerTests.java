@@ -0,0 +1,73 @@
+package com.pcs.app;
+
+import com.pcs.app.domain.BidList;
+import com.pcs.app.domain.Trade;
+import com.pcs.app.rules.RuleCompiler;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests unitaires de la compilation des règles.
+ */
+class RuleCompilerTests {
+
+    private static Trade trade(String book, Double buyQuantity, String trader, LocalDate date) {
+        Trade trade = new Trade("Account", "Type");
+        trade.setBook(book);
+        trade.setBuyQuantity(buyQuantity);
+        trade.setTrader(trader);
+        trade.setTradeDate(date == null ? null : Timestamp.valueOf(date.atStartOfDay()));
+        return trade;
+    }
+
+    @Test
+    void compile_ShouldCombineConditionsOnTradeFields() {
+        RuleCompiler.Compiled compiled = RuleCompiler.compile("""
+                {"all": [{"field": "buyQuantity", "op": ">=", "value": 1000},
+                         {"any": [{"field": "book", "op": "in", "value": ["RATES", "FX"]},
+                                  {"not": {"field": "trader", "op": "isNull"}}]},
+                         {"field": "tradeDate", "op": "between", "value": ["2024-01-01", "2024-12-31"]}]}
+                """);
+        Predicate<Object> rule = compiled.predicate();
+
+        assertEquals(Trade.class, compiled.entityType());
+        assertEquals(4, compiled.conditions());
+        assertTrue(rule.test(trade("RATES", 1000.0, null, LocalDate.of(2024, 6, 1))));
+        assertTrue(rule.test(trade("EQUITY", 5000.0, "alice", LocalDate.of(2024, 6, 1))));
+        assertFalse(rule.test(trade("EQUITY", 5000.0, null, LocalDate.of(2024, 6, 1))));
+        assertFalse(rule.test(trade("RATES", 999.0, null, LocalDate.of(2024, 6, 1))));
+        assertFalse(rule.test(trade("RATES", null, null, LocalDate.of(2024, 6, 1))));
+        assertFalse(rule.test(trade("RATES", 1000.0, null, LocalDate.of(2025, 1, 1))));
+    }
+
+    @Test
+    void compile_ShouldTargetBidListsAndCompareStrings() {
+        Predicate<Object> rule = RuleCompiler.compile("""
+                {"entity": "BidList", "any": [{"field": "account", "op": "startsWith", "value": "ACC"},
+                                              {"field": "bid", "op": "<", "value": 10}]}
+                """).predicate();
+        BidList bidList = new BidList("XYZ", "Type", 1.0);
+
+        assertFalse(rule.test(bidList));
+        bidList.setBid(9.5);
+        assertTrue(rule.test(bidList));
+        assertTrue(rule.test(new BidList("ACC-1", "Type", 1.0)));
+    }
+
+    @Test
+    void compile_ShouldRejectInvalidDefinitions() {
+        assertThrows(IllegalArgumentException.class, () -> RuleCompiler.compile("free text"));
+        assertThrows(IllegalArgumentException.class, () -> RuleCompiler.compile("{\"field\": \"unknown\", \"value\": 1}"));
+        assertThrows(IllegalArgumentException.class, () -> RuleCompiler.compile("{\"field\": \"buyQuantity\", \"op\": \"~\", \"value\": 1}"));
+        assertThrows(IllegalArgumentException.class, () -> RuleCompiler.compile("{\"field\": \"buyQuantity\", \"value\": \"x\"}"));
+        assertThrows(IllegalArgumentException.class, () -> RuleCompiler.compile("{\"entity\": \"Rating\", \"field\": \"id\"}"));
+    }
+}
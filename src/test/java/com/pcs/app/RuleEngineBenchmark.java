@@ -0,0 +1,74 @@
+package com.pcs.app;
+
+import com.pcs.app.domain.Trade;
+import com.pcs.app.rules.RuleCompiler;
+
+import java.lang.reflect.Method;
+import java.sql.Timestamp;
+import java.util.Random;
+import java.util.function.Predicate;
+
+/**
+ * Mesure le débit d'évaluation d'une règle compilée, comparé à une lecture des champs par réflexion.
+ * <p>
+ * Lancement : {@code java -cp target/test-classes:target/classes com.pcs.app.RuleEngineBenchmark [échanges]}
+ * </p>
+ */
+public class RuleEngineBenchmark {
+
+    private static final String RULE = """
+            {"all": [{"field": "buyQuantity", "op": ">=", "value": 500},
+                     {"field": "book", "op": "in", "value": ["BOOK1", "BOOK2", "BOOK3"]},
+                     {"field": "tradeDate", "op": ">=", "value": "2024-01-01"}]}
+            """;
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Random random = new Random(42);
+        Trade[] trades = new Trade[count];
+        long base = Timestamp.valueOf("2023-06-01 00:00:00").getTime();
+        for (int i = 0; i < count; i++) {
+            Trade trade = new Trade("Account", "Type");
+            trade.setBuyQuantity((double) random.nextInt(1000));
+            trade.setBook("BOOK" + random.nextInt(10));
+            trade.setTradeDate(new Timestamp(base + random.nextInt(365) * 86_400_000L));
+            trades[i] = trade;
+        }
+
+        Predicate<Object> compiled = RuleCompiler.compile(RULE).predicate();
+        Method quantity = Trade.class.getMethod("getBuyQuantity");
+        Method book = Trade.class.getMethod("getBook");
+        Method date = Trade.class.getMethod("getTradeDate");
+        long threshold = Timestamp.valueOf("2024-01-01 00:00:00").getTime();
+        Predicate<Object> reflective = trade -> {
+            try {
+                Double q = (Double) quantity.invoke(trade);
+                String b = (String) book.invoke(trade);
+                Timestamp d = (Timestamp) date.invoke(trade);
+                return q != null && q >= 500 && (b.equals("BOOK1") || b.equals("BOOK2") || b.equals("BOOK3"))
+                        && d != null && d.getTime() >= threshold;
+            }
+            catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+
+        for (int run = 0; run < 5; run++) {
+            measure("compiled", compiled, trades);
+            measure("reflection", reflective, trades);
+        }
+    }
+
+    private static void measure(String label, Predicate<Object> rule, Trade[] trades) {
+        long start = System.nanoTime();
+        int matches = 0;
+        for (Trade trade : trades) {
+            if (rule.test(trade)) {
+                matches++;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%-10s %,d matches, %,.0f evaluations per second (%.1f ns each)%n",
+                label, matches, trades.length * 1e9 / elapsed, (double) elapsed / trades.length);
+    }
+}
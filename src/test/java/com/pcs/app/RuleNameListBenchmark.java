@@ -0,0 +1,106 @@
+package com.pcs.app;
+
+import com.pcs.app.domain.CompressedTextConverter;
+import com.pcs.app.domain.RuleName;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Mesure la mémoire retenue et le temps de construction de la page de liste des
+ * règles, avec et sans les textes volumineux.
+ * <p>
+ * Les lignes sont simulées en mémoire : la liste complète décompresse les trois
+ * textes de chaque règle comme le ferait leur lecture en base, la liste réduite
+ * ne construit que les colonnes de {@code rulename}.
+ * </p>
+ * <p>
+ * Lancement : {@code java -cp target/test-classes:target/classes:<dépendances> com.pcs.app.RuleNameListBenchmark [règles] [Ko par texte]}
+ * </p>
+ */
+public class RuleNameListBenchmark {
+
+    private record Row(int id, String name, String description, String sqlPart,
+                       byte[] json, byte[] template, byte[] sqlStr) {
+    }
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int kilobytes = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        CompressedTextConverter converter = new CompressedTextConverter();
+        Random random = new Random(42);
+        List<Row> rows = new ArrayList<>(count);
+        long rawBytes = 0;
+        long storedBytes = 0;
+        for (int i = 0; i < count; i++) {
+            String json = text(random, kilobytes, "{\"field\": \"book\", \"op\": \"in\", \"value\": [\"BOOK%d\"]},");
+            String template = text(random, kilobytes, "<tr><td th:text=\"${trade.book}\">%d</td></tr>");
+            String sqlStr = text(random, kilobytes, "SELECT * FROM trade WHERE trade_id = %d UNION ");
+            Row row = new Row(i, "Rule " + i, "Description of rule " + i, "WHERE 1 = 1",
+                    converter.convertToDatabaseColumn(json), converter.convertToDatabaseColumn(template),
+                    converter.convertToDatabaseColumn(sqlStr));
+            rawBytes += json.length() + template.length() + sqlStr.length();
+            storedBytes += row.json().length + row.template().length + row.sqlStr().length;
+            rows.add(row);
+        }
+        System.out.printf("%d rules, texts %d KB raw, %d KB stored%n", count, rawBytes / 1024, storedBytes / 1024);
+
+        for (int run = 0; run < 5; run++) {
+            measure("full list", () -> full(rows, converter));
+            measure("list page", () -> summary(rows));
+        }
+    }
+
+    private static List<RuleName> full(List<Row> rows, CompressedTextConverter converter) {
+        List<RuleName> ruleNames = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            RuleName ruleName = new RuleName(row.name(), row.description(),
+                    converter.convertToEntityAttribute(row.json()), converter.convertToEntityAttribute(row.template()),
+                    converter.convertToEntityAttribute(row.sqlStr()), row.sqlPart());
+            ruleName.setId(row.id());
+            ruleNames.add(ruleName);
+        }
+        return ruleNames;
+    }
+
+    private static List<RuleName> summary(List<Row> rows) {
+        List<RuleName> ruleNames = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            RuleName ruleName = new RuleName();
+            ruleName.setId(row.id());
+            ruleName.setName(row.name());
+            ruleName.setDescription(row.description());
+            ruleName.setSqlPart(row.sqlPart());
+            ruleNames.add(ruleName);
+        }
+        return ruleNames;
+    }
+
+    private static void measure(String label, Supplier<List<RuleName>> load) {
+        long before = usedHeap();
+        long start = System.nanoTime();
+        List<RuleName> ruleNames = load.get();
+        long elapsed = System.nanoTime() - start;
+        long retained = usedHeap() - before;
+        System.out.printf("%-10s %6d rules in %8.2f ms, %8d KB retained%n",
+                label, ruleNames.size(), elapsed / 1e6, retained / 1024);
+    }
+
+    private static String text(Random random, int kilobytes, String pattern) {
+        StringBuilder text = new StringBuilder(kilobytes * 1024);
+        while (text.length() < kilobytes * 1024) {
+            text.append(String.format(pattern, random.nextInt(1000)));
+        }
+        return text.toString();
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,73 @@
+package com.pcs.app;
+
+import com.pcs.app.rules.RuleSql;
+import com.pcs.app.rules.RuleSqlService;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests unitaires de l'analyse des requêtes SQL des règles.
+ */
+class RuleSqlTests {
+
+    @Test
+    void parse_ShouldReadOptionsAndRewriteNamedParameters() {
+        RuleSql sql = RuleSql.parse("/* timeout=5 maxRows=100 deterministic */ SELECT book, ':skip' FROM trade t",
+                "WHERE t.trader = :trader AND t.book = :book");
+
+        assertEquals("SELECT book, ':skip' FROM trade t WHERE t.trader = ? AND t.book = ?", sql.sql());
+        assertEquals(List.of("trader", "book"), sql.parameters());
+        assertEquals(5, sql.timeoutSeconds());
+        assertEquals(100, sql.maxRows());
+        assertTrue(sql.deterministic());
+        assertEquals(Set.of("trade"), sql.tables());
+    }
+
+    @Test
+    void parse_ShouldCollectTablesFromJoinsListsAndSubqueries() {
+        RuleSql sql = RuleSql.parse("SELECT * FROM `demo`.`Trade` t, bidlist b "
+                + "JOIN curvepoint c ON c.id = b.id WHERE t.id IN (SELECT id FROM users)", null);
+
+        assertEquals(Set.of("trade", "bidlist", "curvepoint", "users"), sql.tables());
+        assertNull(sql.timeoutSeconds());
+    }
+
+    @Test
+    void parse_ShouldRejectWritesAndMultipleStatements() {
+        assertThrows(IllegalArgumentException.class, () -> RuleSql.parse("DELETE FROM trade", null));
+        assertThrows(IllegalArgumentException.class, () -> RuleSql.parse("SELECT 1; DROP TABLE trade", null));
+        assertThrows(IllegalArgumentException.class, () -> RuleSql.parse("/* timeout=x */ SELECT 1", null));
+        assertThrows(IllegalArgumentException.class, () -> RuleSql.parse("SELECT 'open", null));
+        assertEquals("SELECT 1", RuleSql.parse("SELECT 1;", null).sql());
+    }
+
+    @Test
+    void parse_ShouldRejectWhatMySqlWouldRunButTheAnalysisCannotSee() {
+        assertThrows(IllegalArgumentException.class, () -> RuleSql.parse("/*!50000 DELETE FROM trade */ SELECT 1", null));
+        assertThrows(IllegalArgumentException.class, () -> RuleSql.parse("SELECT 1 /*! , (SELECT password FROM users) */", null));
+        assertThrows(IllegalArgumentException.class, () -> RuleSql.parse("SELECT 1--1 FROM trade", null));
+        assertThrows(IllegalArgumentException.class, () -> RuleSql.parse("SELECT * FROM trade INTO OUTFILE '/tmp/t'", null));
+        assertThrows(IllegalArgumentException.class, () -> RuleSql.parse("SELECT LOAD_FILE('/etc/passwd')", null));
+        assertEquals(Set.of("trade"), RuleSql.parse("SELECT 1 FROM trade -- comment\n", null).tables());
+        assertEquals("SELECT 'into' FROM trade", RuleSql.parse("SELECT 'into' FROM trade", null).sql());
+    }
+
+    @Test
+    void ruleSqlService_ShouldRefuseToStartWithoutADedicatedAccount() {
+        assertThrows(IllegalStateException.class, () -> ruleSqlService("", "root"));
+        assertThrows(IllegalStateException.class, () -> ruleSqlService("root", "root"));
+        ruleSqlService("rule_reader", "root").shutdown();
+    }
+
+    private static RuleSqlService ruleSqlService(String username, String applicationUsername) {
+        return new RuleSqlService(true, "jdbc:mysql://localhost:3306/demo", username, "", applicationUsername,
+                4, 250, 30, 300, 10_000, 1_000_000, 256, 1_048_576);
+    }
+}
@@ -0,0 +1,123 @@
+package com.pcs.app;
+
+import com.pcs.app.session.CachingJdbcSessionRepository;
+import com.pcs.app.session.StoredSession;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests unitaires du dépôt de sessions partagées : écritures limitées aux modifications
+ * et prolongations écrites en lot, sans recréer une session supprimée ailleurs.
+ */
+class SessionRepositoryTests {
+
+    /**
+     * Enregistre les requêtes au lieu de les exécuter.
+     */
+    private static final class RecordingJdbcTemplate extends JdbcTemplate {
+        final List<String> statements = new ArrayList<>();
+        final List<List<Object[]>> batches = new ArrayList<>();
+        // Lignes modifiées par un UPDATE : 0 simule une session supprimée ou modifiée ailleurs
+        int updatedRows = 1;
+
+        @Override
+        public int update(String sql, Object... args) {
+            statements.add(sql.substring(0, sql.indexOf(' ')));
+            return sql.startsWith("UPDATE") ? updatedRows : 0;
+        }
+
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            batches.add(batchArgs);
+            return new int[batchArgs.size()];
+        }
+
+        @Override
+        public <T> List<T> query(String sql, RowMapper<T> rowMapper, Object... args) {
+            statements.add("SELECT");
+            return List.of();
+        }
+    }
+
+    private final RecordingJdbcTemplate jdbc = new RecordingJdbcTemplate();
+    private final CachingJdbcSessionRepository repository = new CachingJdbcSessionRepository(jdbc,
+            Duration.ofMinutes(30), 60_000, 3_600_000, 3_600_000, 1000);
+
+    @AfterEach
+    void tearDown() {
+        repository.shutdown();
+    }
+
+    @Test
+    void save_WithoutChange_ShouldDeferLastAccessTimeToBatch() {
+        StoredSession session = repository.createSession();
+        session.setAttribute("user", "alice");
+        repository.save(session);
+        assertEquals(List.of("INSERT"), jdbc.statements);
+
+        for (int request = 1; request <= 3; request++) {
+            StoredSession loaded = repository.findById(session.getId());
+            assertNotNull(loaded);
+            assertEquals("alice", loaded.getAttribute("user"));
+            loaded.setLastAccessedTime(Instant.now().plusSeconds(request));
+            repository.save(loaded);
+        }
+        // Ni lecture ni écriture pour les requêtes qui ne modifient pas la session
+        assertEquals(List.of("INSERT"), jdbc.statements);
+
+        assertEquals(1, repository.flush());
+        assertEquals(1, jdbc.batches.size());
+        assertEquals(session.getId(), jdbc.batches.get(0).get(0)[2]);
+        assertEquals(0, repository.flush());
+    }
+
+    @Test
+    void save_WithChangedAttributeOrId_ShouldWriteThrough() {
+        StoredSession session = repository.createSession();
+        repository.save(session);
+
+        StoredSession loaded = repository.findById(session.getId());
+        loaded.setAttribute("user", "bob");
+        repository.save(loaded);
+        assertEquals(List.of("INSERT", "UPDATE"), jdbc.statements);
+
+        String previousId = loaded.getId();
+        StoredSession again = repository.findById(previousId);
+        again.changeSessionId();
+        repository.save(again);
+        assertEquals(List.of("INSERT", "UPDATE", "UPDATE"), jdbc.statements);
+
+        // L'ancien identifiant n'est plus servi par le cache local
+        assertNull(repository.findById(previousId));
+        assertTrue(jdbc.statements.contains("SELECT"));
+        assertEquals("bob", repository.findById(again.getId()).getAttribute("user"));
+    }
+
+    @Test
+    void save_WhenSessionDeletedOrChangedElsewhere_ShouldNotRecreateIt() {
+        StoredSession session = repository.createSession();
+        repository.save(session);
+        StoredSession loaded = repository.findById(session.getId());
+        jdbc.updatedRows = 0;
+
+        loaded.setAttribute("user", "carol");
+        repository.save(loaded);
+
+        assertEquals(List.of("INSERT", "UPDATE"), jdbc.statements);
+        // La copie locale est retirée : la session est relue, et absente de la base
+        assertNull(repository.findById(session.getId()));
+        assertEquals(List.of("INSERT", "UPDATE", "SELECT"), jdbc.statements);
+    }
+}
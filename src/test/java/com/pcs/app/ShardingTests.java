@@ -0,0 +1,170 @@
+package com.pcs.app;
+
+import com.pcs.app.domain.SearchFilter;
+import com.pcs.app.domain.Trade;
+import com.pcs.app.sharding.IdAllocator;
+import com.pcs.app.sharding.ShardMap;
+import com.pcs.app.sharding.ShardSearch;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests unitaires de la répartition des comptes entre les bases et de
+ * l'attribution des identifiants globaux et de la fusion des recherches.
+ */
+class ShardingTests {
+
+    @Test
+    void shardOf_ShouldSpreadAccountsEvenly() {
+        ShardMap map = ShardMap.uniform(4);
+        int[] accounts = new int[4];
+        for (int i = 0; i < 40_000; i++) {
+            accounts[map.shardOf("ACC" + i)]++;
+        }
+
+        for (int count : accounts) {
+            assertTrue(Math.abs(count - 10_000) < 500, Arrays.toString(accounts));
+        }
+        assertEquals(ShardMap.bucketOf("ACC42"), ShardMap.bucketOf("ACC42"));
+        assertEquals(0, ShardMap.bucketOf(null));
+    }
+
+    @Test
+    void rebalancePlan_ShouldMoveOnlyTheNewShareOfBuckets() {
+        ShardMap two = ShardMap.uniform(2);
+
+        Map<Integer, Integer> moves = two.rebalancePlan(3);
+        ShardMap three = two.withOwners(moves);
+
+        assertEquals(ShardMap.BUCKETS / 3, moves.size());
+        assertTrue(moves.values().stream().allMatch(shard -> shard == 2));
+        assertArrayEquals(new int[]{342, 341, 341}, three.bucketCounts(3));
+        assertTrue(three.rebalancePlan(3).isEmpty());
+    }
+
+    @Test
+    void rebalancePlan_ShouldSpreadBucketsFromThePrimary() {
+        ShardMap primaryOnly = ShardMap.uniform(1);
+
+        ShardMap spread = primaryOnly.withOwners(primaryOnly.rebalancePlan(4));
+
+        assertArrayEquals(new int[]{256, 256, 256, 256}, spread.bucketCounts(4));
+    }
+
+    @Test
+    void next_ShouldNeverReturnTheSameIdAcrossAllocators() throws Exception {
+        AtomicInteger counter = new AtomicInteger(1);
+        // Deux instances de l'application partagent le même compteur
+        List<IdAllocator> allocators = List.of(
+                new IdAllocator(50, counter::getAndAdd),
+                new IdAllocator(50, counter::getAndAdd));
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int task = 0; task < 8; task++) {
+                IdAllocator allocator = allocators.get(task % 2);
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        assertTrue(ids.add(allocator.next()));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(80_000, ids.size());
+    }
+
+    @Test
+    void withOwners_ShouldBumpTheMapVersion() {
+        ShardMap map = ShardMap.of(new int[ShardMap.BUCKETS], 7);
+
+        ShardMap moved = map.withOwners(Map.of(3, 1));
+
+        assertEquals(8, moved.version());
+        assertEquals(1, moved.owner(3));
+        assertFalse(map.equals(ShardMap.of(new int[ShardMap.BUCKETS], 8)));
+    }
+
+    @Test
+    void page_ShouldMergeSortedShardsAndCountFirstPageOnly() {
+        Comparator<Trade> comparator = ShardSearch.comparator(Sort.by("account", "id"));
+        List<List<Trade>> shards = List.of(
+                List.of(trade(1, "a"), trade(4, "C"), trade(6, "e")),
+                List.of(trade(2, "B"), trade(5, "d")),
+                List.of());
+
+        Slice<Trade> first = ShardSearch.page(shards, comparator, PageRequest.of(0, 2), () -> 5);
+        Slice<Trade> second = ShardSearch.page(shards, comparator, PageRequest.of(1, 2), () -> {
+            throw new AssertionError("Only the first page is counted");
+        });
+        Slice<Trade> last = ShardSearch.page(shards, comparator, PageRequest.of(2, 2), () -> 5);
+
+        assertEquals(List.of(1, 2), first.map(Trade::getId).getContent());
+        assertEquals(5, assertInstanceOf(Page.class, first).getTotalElements());
+        assertEquals(List.of(4, 5), second.map(Trade::getId).getContent());
+        assertTrue(second.hasNext());
+        assertEquals(List.of(6), last.map(Trade::getId).getContent());
+        assertFalse(last.hasNext());
+    }
+
+    @Test
+    void comparator_ShouldPutNullsFirstAndReverseDescendingOrders() {
+        List<Trade> trades = new ArrayList<>(List.of(trade(1, "b"), trade(2, null), trade(3, "A")));
+
+        trades.sort(ShardSearch.comparator(Sort.by(Sort.Order.desc("account"))));
+
+        assertEquals(List.of(1, 3, 2), trades.stream().map(Trade::getId).toList());
+    }
+
+    @Test
+    void forTrades_ShouldMatchEitherQuantityAndWholeDays() {
+        SearchFilter filter = new SearchFilter();
+        filter.setAccount(" ACC1 ");
+        filter.setToDate(LocalDate.of(2026, 3, 31));
+        filter.setMinQuantity(100.0);
+
+        ShardSearch search = ShardSearch.forTrades(filter);
+
+        assertEquals(" WHERE account = :account AND trade_date < :toDate"
+                + " AND ((buy_quantity >= :minQuantity) OR (sell_quantity >= :minQuantity))", search.where());
+        assertEquals("ACC1", search.parameters().getValue("account"));
+        assertEquals("2026-04-01 00:00:00.0", search.parameters().getValue("toDate").toString());
+        assertEquals("", ShardSearch.forBidLists(new SearchFilter()).where());
+    }
+
+    private static Trade trade(int id, String account) {
+        Trade trade = new Trade();
+        trade.setId(id);
+        trade.setAccount(account);
+        return trade;
+    }
+}
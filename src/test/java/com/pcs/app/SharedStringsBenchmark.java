@@ -0,0 +1,86 @@
+package com.pcs.app;
+
+import com.pcs.app.domain.Trade;
+import com.pcs.app.strings.SharedStrings;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Mesure la mémoire retenue par des échanges chargés en masse, avec et sans
+ * partage de leurs chaînes répétées.
+ * <p>
+ * Chaque chaîne est une nouvelle instance, comme à la lecture d'un résultat JDBC.
+ * Cardinalités : 20 000 comptes, 5 000 titres, 500 traders, 200 utilisateurs,
+ * 100 portefeuilles, 20 références, 8 types, 6 types d'opération, 4 statuts, 2 sens.
+ * </p>
+ * <p>
+ * Lancement : {@code java -Xmx4g -cp target/test-classes:target/classes:<dépendances> com.pcs.app.SharedStringsBenchmark [échanges]}
+ * </p>
+ */
+public class SharedStringsBenchmark {
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        long baseline = usedHeap();
+        List<Trade> plain = load(count, false);
+        long plainBytes = usedHeap() - baseline;
+        System.out.printf("%-10s %,d trades: %,8.1f MB, %4.0f bytes/trade%n", "plain", plain.size(),
+                plainBytes / 1e6, (double) plainBytes / count);
+        plain = null;
+
+        baseline = usedHeap();
+        long start = System.nanoTime();
+        List<Trade> shared = load(count, true);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long sharedBytes = usedHeap() - baseline;
+        System.out.printf("%-10s %,d trades: %,8.1f MB, %4.0f bytes/trade (%,d shared values, load %.2f s)%n",
+                "shared", shared.size(), sharedBytes / 1e6, (double) sharedBytes / count,
+                SharedStrings.dictionary().size(), seconds);
+        System.out.printf("saved %.0f%% of the heap%n", 100.0 * (plainBytes - sharedBytes) / plainBytes);
+    }
+
+    private static List<Trade> load(int count, boolean intern) {
+        SplittableRandom random = new SplittableRandom(42);
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        List<Trade> trades = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Trade trade = new Trade(fresh("ACCOUNT-", random.nextInt(20_000)), fresh("TYPE-", random.nextInt(8)));
+            trade.setId(i);
+            trade.setBuyQuantity(random.nextDouble(1000));
+            trade.setBuyPrice(random.nextDouble(200));
+            trade.setTradeDate(now);
+            trade.setSecurity(fresh("FR00001", 20_000 + random.nextInt(5_000)));
+            trade.setStatus(fresh("STATUS-", random.nextInt(4)));
+            trade.setTrader(fresh("trader.", random.nextInt(500)));
+            trade.setBook(fresh("BOOK-", random.nextInt(100)));
+            trade.setBenchmark(fresh("BENCH-", random.nextInt(20)));
+            trade.setDealType(fresh("DEAL-", random.nextInt(6)));
+            trade.setSide(random.nextBoolean() ? fresh("BUY", -1) : fresh("SELL", -1));
+            String user = fresh("user.", random.nextInt(200));
+            trade.setCreationName(user);
+            trade.setCreationDate(now);
+            trade.setRevisionName(fresh("user.", random.nextInt(200)));
+            trade.setRevisionDate(now);
+            trades.add(intern ? SharedStrings.intern(trade) : trade);
+        }
+        return trades;
+    }
+
+    private static String fresh(String prefix, int number) {
+        return new String((number < 0 ? prefix : prefix + number).toCharArray());
+    }
+
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,83 @@
+package com.pcs.app;
+
+import com.pcs.app.analytics.StringDictionary;
+import com.pcs.app.domain.BidList;
+import com.pcs.app.domain.Trade;
+import com.pcs.app.strings.SharedStrings;
+import com.pcs.app.strings.SharedStringsListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Tests unitaires du partage des chaînes répétées des échanges et des enchères.
+ */
+class SharedStringsTests {
+
+    @AfterEach
+    void restoreDefaults() {
+        SharedStrings.configure(true, 1_000_000);
+    }
+
+    @Test
+    void canonical_ShouldReturnTheSameInstanceForEqualValues() {
+        String first = SharedStrings.canonical(new String("BOOK-SHARED".toCharArray()));
+        String second = SharedStrings.canonical(new String("BOOK-SHARED".toCharArray()));
+
+        assertSame(first, second);
+        assertNull(SharedStrings.canonical(null));
+    }
+
+    @Test
+    void onLoad_ShouldShareRepeatedFieldsOfLoadedEntities() {
+        SharedStringsListener listener = new SharedStringsListener();
+        Trade trade = new Trade(new String("ACC-LOAD".toCharArray()), "SWAP");
+        trade.setSourceListId(new String("12/34".toCharArray()));
+        BidList bidList = new BidList(new String("ACC-LOAD".toCharArray()), "SWAP", 10.0);
+
+        listener.onLoad(trade);
+        listener.onLoad(bidList);
+
+        assertSame(trade.getAccount(), bidList.getAccount());
+        assertSame(SharedStrings.canonical("ACC-LOAD"), trade.getAccount());
+        assertEquals(StringDictionary.UNKNOWN_CODE, SharedStrings.dictionary().lookup("12/34"));
+    }
+
+    @Test
+    void onLoad_ShouldLeaveEntitiesUntouchedWhenDisabled() {
+        SharedStrings.configure(false, 1_000_000);
+        String account = new String("ACC-DISABLED".toCharArray());
+        Trade trade = new Trade(account, "SWAP");
+
+        new SharedStringsListener().onLoad(trade);
+
+        assertSame(account, trade.getAccount());
+        assertEquals(StringDictionary.UNKNOWN_CODE, SharedStrings.dictionary().lookup("ACC-DISABLED"));
+    }
+
+    @Test
+    void canonical_ShouldStopSharingNewValuesOnceTheDictionaryIsFull() {
+        SharedStrings.configure(true, 0);
+        String value = new String("ACC-OVERFLOW".toCharArray());
+
+        assertSame(value, SharedStrings.canonical(value));
+        assertEquals(StringDictionary.UNKNOWN_CODE, SharedStrings.dictionary().lookup("ACC-OVERFLOW"));
+    }
+
+    @Test
+    void encode_ShouldKeepLocalCodesDenseWhileStoringSharedInstances() {
+        StringDictionary books = new StringDictionary(SharedStrings::canonical);
+        String shared = SharedStrings.canonical("BOOK-LOCAL");
+        String copy = new String("BOOK-LOCAL".toCharArray());
+
+        int code = books.encode(copy);
+
+        assertEquals(1, code);
+        assertSame(shared, books.decode(code));
+        assertNotSame(copy, books.decode(code));
+    }
+}
@@ -0,0 +1,155 @@
+package com.pcs.app;
+
+import com.pcs.app.cache.EntityCopies;
+import com.pcs.app.cache.SingleFlight;
+import com.pcs.app.domain.Trade;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests unitaires du regroupement des lectures simultanées.
+ */
+class SingleFlightTests {
+
+    private static final int CALLERS = 32;
+
+    @Test
+    void execute_ShouldShareOneExecutionBetweenConcurrentCallers() throws Exception {
+        SingleFlight flight = new SingleFlight();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Object> result = List.of("row");
+
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<Object>> futures = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                futures.add(executor.submit(() -> flight.execute("findAll", () -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return result;
+                })));
+            }
+            // Tous les appelants sont entrés avant que le premier chargement se termine
+            while (flight.calls() < CALLERS) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+            for (Future<Object> future : futures) {
+                assertSame(result, future.get(5, TimeUnit.SECONDS));
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(CALLERS, flight.calls());
+        assertEquals(1, flight.executions());
+        assertEquals(0, flight.inFlight());
+    }
+
+    @Test
+    void execute_ShouldRunAgainOnceFinishedAndSeparateKeys() {
+        SingleFlight flight = new SingleFlight();
+        AtomicInteger loads = new AtomicInteger();
+
+        flight.execute("a", loads::incrementAndGet);
+        flight.execute("a", loads::incrementAndGet);
+        flight.execute("b", loads::incrementAndGet);
+
+        assertEquals(3, loads.get());
+        assertEquals(3, flight.executions());
+    }
+
+    @Test
+    void execute_ShouldPropagateFailureToWaitingCallers() throws Exception {
+        SingleFlight flight = new SingleFlight();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Object> leader = executor.submit(() -> flight.execute("k", () -> {
+                started.countDown();
+                await(release);
+                throw new IllegalStateException("database down");
+            }));
+            started.await();
+            Future<Object> follower = executor.submit(() -> flight.execute("k", () -> "unexpected"));
+            while (flight.calls() < 2) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            for (Future<Object> future : List.of(leader, follower)) {
+                Exception e = assertThrows(Exception.class, () -> future.get(5, TimeUnit.SECONDS));
+                assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, flight.executions());
+    }
+
+    @Test
+    void execute_WithCopy_ShouldGiveEveryCallerOfASharedExecutionItsOwnEntities() throws Exception {
+        SingleFlight flight = new SingleFlight();
+        CountDownLatch release = new CountDownLatch(1);
+        Trade trade = new Trade("ACC-SHARED", "SWAP");
+        trade.setTradeDate(new Timestamp(1_700_000_000_000L));
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<List<Trade>>> futures = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                futures.add(executor.submit(() -> flight.execute("findAll", () -> {
+                    await(release);
+                    return List.of(trade);
+                }, EntityCopies::copy)));
+            }
+            while (flight.calls() < 2) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+            Trade first = futures.get(0).get(5, TimeUnit.SECONDS).get(0);
+            Trade second = futures.get(1).get(5, TimeUnit.SECONDS).get(0);
+
+            first.setAccount("ACC-CHANGED");
+            first.getTradeDate().setTime(0);
+
+            assertNotSame(trade, first);
+            assertNotSame(trade, second);
+            assertEquals("ACC-SHARED", second.getAccount());
+            assertEquals(1_700_000_000_000L, second.getTradeDate().getTime());
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.pcs.app;
+
+import com.pcs.app.admission.AdmissionControl;
+import com.pcs.app.admission.EndpointGroup;
+import com.pcs.app.admission.TokenBuckets;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests unitaires des seaux à jetons du contrôle d'admission.
+ */
+class TokenBucketsTests {
+
+    @Test
+    void tryAcquire_ShouldAdmitBurstThenRefillAtRate() {
+        TokenBuckets buckets = new TokenBuckets(16, 2, 5);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, buckets.tryAcquire(42, 1));
+        }
+        long wait = buckets.tryAcquire(42, 1);
+        assertTrue(wait > 0 && wait <= 500, "wait " + wait);
+
+        // Des appels rapprochés ne doivent pas empêcher le remplissage
+        for (long now = 2; now < 500; now++) {
+            buckets.tryAcquire(42, now);
+        }
+        assertEquals(0, buckets.tryAcquire(42, 501));
+        assertTrue(buckets.tryAcquire(42, 502) > 0);
+
+        // Un seau inutilisé longtemps est plein, sans dépasser sa capacité
+        int admitted = 0;
+        while (buckets.tryAcquire(42, 1_000_000) == 0) {
+            admitted++;
+        }
+        assertEquals(5, admitted);
+    }
+
+    @Test
+    void tryAcquire_ShouldKeepKeysIndependentAndReleaseTokens() {
+        TokenBuckets buckets = new TokenBuckets(1024, 1, 1);
+        assertEquals(0, buckets.tryAcquire("alice".hashCode(), 1));
+        assertEquals(0, buckets.tryAcquire("bob".hashCode(), 1));
+        assertTrue(buckets.tryAcquire("alice".hashCode(), 1) > 0);
+
+        buckets.release("alice".hashCode(), 1);
+        assertEquals(0, buckets.tryAcquire("alice".hashCode(), 1));
+    }
+
+    @Test
+    void tryAcquire_ShouldNeverAdmitMoreThanBurstUnderContention() throws InterruptedException {
+        TokenBuckets buckets = new TokenBuckets(1, 1, 1000);
+        AtomicInteger admitted = new AtomicInteger();
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    if (buckets.tryAcquire(0, 1) == 0) {
+                        admitted.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(1000, admitted.get());
+    }
+
+    @Test
+    void of_ShouldClassifyEndpoints() {
+        assertEquals(EndpointGroup.HEAVY, EndpointGroup.of("GET", "/trade/list"));
+        assertEquals(EndpointGroup.HEAVY, EndpointGroup.of("GET", "/api/stream/trade"));
+        assertEquals(EndpointGroup.WRITE, EndpointGroup.of("POST", "/trade/validate"));
+        assertEquals(EndpointGroup.DEFAULT, EndpointGroup.of("GET", "/trade/update/3"));
+        assertEquals(EndpointGroup.EXEMPT, EndpointGroup.of("GET", "/css/bootstrap.min.css"));
+    }
+
+    @Test
+    void patternHash_ShouldMergeIdentifiersButSeparateEndpoints() {
+        assertEquals(EndpointGroup.patternHash("GET", "/trade/update/3"),
+                EndpointGroup.patternHash("GET", "/trade/update/42"));
+        assertEquals(EndpointGroup.patternHash("GET", "/api/rule/1/matches"),
+                EndpointGroup.patternHash("GET", "/api/rule/7/matches"));
+        assertNotEquals(EndpointGroup.patternHash("GET", "/trade/list"),
+                EndpointGroup.patternHash("GET", "/bidList/list"));
+        assertNotEquals(EndpointGroup.patternHash("GET", "/trade/update/3"),
+                EndpointGroup.patternHash("POST", "/trade/update/3"));
+        assertNotEquals(EndpointGroup.patternHash("GET", "/api/rule/1/matches"),
+                EndpointGroup.patternHash("GET", "/api/rule/1/execute"));
+    }
+
+    @Test
+    void admit_ShouldKeepSeparateUserBucketsPerEndpoint() {
+        AdmissionControl control = new AdmissionControl(true, 1024, 1, 2, 0, 0, 1, 1, 0, 0, 1, 1, 0, 0);
+        int trades = EndpointGroup.patternHash("GET", "/trade/list");
+        int bids = EndpointGroup.patternHash("GET", "/bidList/list");
+
+        assertEquals(0, control.admit(EndpointGroup.HEAVY, trades, "user"));
+        assertEquals(0, control.admit(EndpointGroup.HEAVY, trades, "user"));
+        assertTrue(control.admit(EndpointGroup.HEAVY, trades, "user") > 0);
+        assertEquals(0, control.admit(EndpointGroup.HEAVY, bids, "user"));
+        assertEquals(0, control.admit(EndpointGroup.HEAVY, trades, "other"));
+    }
+}
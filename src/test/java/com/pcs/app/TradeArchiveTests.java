@@ -0,0 +1,130 @@
+package com.pcs.app;
+
+import com.pcs.app.archive.TradeArchive;
+import com.pcs.app.archive.TradeSegment;
+import com.pcs.app.domain.Trade;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests unitaires de l'archive des échanges en segments par colonnes.
+ */
+class TradeArchiveTests {
+
+    private static final long DAY = 86_400_000L;
+    private static final long BASE = Timestamp.valueOf("2020-01-01 00:00:00").getTime();
+
+    @TempDir
+    Path directory;
+
+    private static Trade trade(int id, int day) {
+        Trade trade = new Trade("Account" + id % 3, "Type");
+        trade.setId(id);
+        trade.setTradeDate(new Timestamp(BASE + day * DAY));
+        trade.setBuyQuantity(id * 10.0);
+        trade.setBuyPrice(id % 2 == 0 ? null : 99.5);
+        trade.setSecurity("SEC" + id);
+        trade.setBook(id % 5 == 0 ? null : "BOOK");
+        trade.setCreationDate(new Timestamp(BASE + id));
+        return trade;
+    }
+
+    @Test
+    void segment_ShouldRoundTripEveryColumnIncludingNulls() throws IOException {
+        List<Trade> trades = new ArrayList<>();
+        for (int id = 1000; id > 0; id--) {
+            trades.add(trade(id, id % 100));
+        }
+        Path path = directory.resolve("segment.tseg");
+        TradeSegment.write(path, trades);
+        TradeSegment segment = TradeSegment.open(path);
+
+        assertEquals(1000, segment.rows());
+        Trade read = segment.find(10);
+        Trade expected = trade(10, 10);
+        assertEquals(expected.getTradeDate(), read.getTradeDate());
+        assertEquals(expected.getAccount(), read.getAccount());
+        assertEquals("Type", read.getType());
+        assertEquals(100.0, read.getBuyQuantity());
+        assertNull(read.getBuyPrice());
+        assertNull(read.getSellQuantity());
+        assertEquals("SEC10", read.getSecurity());
+        assertNull(read.getBook());
+        assertEquals(expected.getCreationDate(), read.getCreationDate());
+        assertNull(read.getRevisionDate());
+        assertEquals(99.5, segment.find(11).getBuyPrice());
+        assertEquals("BOOK", segment.find(11).getBook());
+        assertNull(segment.find(1001));
+    }
+
+    @Test
+    void scan_ShouldReturnOnlyTheDateRangeInOrder() throws IOException {
+        List<Trade> trades = new ArrayList<>();
+        for (int id = 1; id <= 300; id++) {
+            trades.add(trade(id, id % 30));
+        }
+        Path path = directory.resolve("segment.tseg");
+        TradeSegment.write(path, trades);
+        TradeSegment segment = TradeSegment.open(path);
+
+        List<Trade> range = new ArrayList<>();
+        segment.scan(BASE + 10 * DAY, BASE + 12 * DAY, range::add);
+
+        assertEquals(20, range.size());
+        assertTrue(range.stream().allMatch(trade -> trade.getTradeDate().getTime() >= BASE + 10 * DAY
+                && trade.getTradeDate().getTime() < BASE + 12 * DAY));
+        for (int i = 1; i < range.size(); i++) {
+            assertTrue(range.get(i - 1).getTradeDate().compareTo(range.get(i).getTradeDate()) <= 0);
+        }
+    }
+
+    @Test
+    void archive_ShouldOnlyExposePromotedSegmentsAndMergeOverlaps() throws IOException {
+        TradeArchive archive = new TradeArchive(directory);
+        Path first = archive.writePending(List.of(trade(1, 1), trade(2, 3), trade(3, 5)));
+        Path second = archive.writePending(List.of(trade(4, 2), trade(5, 4)));
+        Path discarded = archive.writePending(List.of(trade(6, 2)));
+
+        assertTrue(archive.findById(1).isEmpty());
+        archive.promote(first);
+        archive.promote(second);
+        archive.discard(discarded);
+
+        List<Trade> all = archive.scan(Long.MIN_VALUE, Long.MAX_VALUE, 10);
+        assertEquals(List.of(1, 4, 2, 5, 3), all.stream().map(Trade::getId).toList());
+        assertEquals(List.of(1, 4), archive.scan(Long.MIN_VALUE, Long.MAX_VALUE, 2).stream().map(Trade::getId).toList());
+        assertFalse(Files.exists(discarded));
+
+        TradeArchive reopened = new TradeArchive(directory);
+        assertEquals(2, reopened.segments().size());
+        assertEquals("SEC5", reopened.findById(5).orElseThrow().getSecurity());
+        assertTrue(reopened.pendingSegments().isEmpty());
+        assertTrue(reopened.writePending(List.of(trade(7, 1))).getFileName().toString().startsWith("0000000003"));
+    }
+
+    @Test
+    void refresh_ShouldLoadSegmentsWrittenByAnotherInstance() throws IOException {
+        TradeArchive reader = new TradeArchive(directory);
+        TradeArchive writer = new TradeArchive(directory);
+        writer.promote(writer.writePending(List.of(trade(1, 1), trade(2, 2))));
+
+        assertTrue(reader.findById(1).isEmpty());
+        assertEquals(1, reader.refresh());
+        assertEquals("SEC2", reader.findById(2).orElseThrow().getSecurity());
+        assertEquals(0, reader.refresh());
+        // Le lecteur devenu archiveur ne réutilise pas le numéro du segment écrit par l'autre instance
+        assertTrue(reader.writePending(List.of(trade(3, 3))).getFileName().toString().startsWith("0000000002"));
+    }
+}
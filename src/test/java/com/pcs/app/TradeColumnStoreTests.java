@@ -0,0 +1,112 @@
+package com.pcs.app;
+
+import com.pcs.app.analytics.TradeColumnStore;
+import com.pcs.app.analytics.TradeDimension;
+import com.pcs.app.analytics.TradeGroupStats;
+import com.pcs.app.domain.Trade;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests unitaires de la copie en colonnes des échanges.
+ */
+class TradeColumnStoreTests {
+
+    private static Trade trade(int id, String book, double buyQuantity, Double buyPrice, LocalDate date) {
+        Trade trade = new Trade("Account", "Type");
+        trade.setId(id);
+        trade.setBook(book);
+        trade.setBuyQuantity(buyQuantity);
+        trade.setBuyPrice(buyPrice);
+        trade.setTradeDate(date == null ? null : Timestamp.valueOf(date.atStartOfDay()));
+        return trade;
+    }
+
+    private static long millis(LocalDate date) {
+        return Timestamp.valueOf(date.atStartOfDay()).getTime();
+    }
+
+    @Test
+    void aggregate_ShouldGroupAcrossBlocksAndApplyUpdatesAndDeletes() {
+        TradeColumnStore store = new TradeColumnStore(64);
+        for (int id = 1; id <= 1000; id++) {
+            store.upsert(trade(id, id % 2 == 0 ? "EVEN" : "ODD", 10, 2.0, LocalDate.of(2024, 1, 1)));
+        }
+        store.upsert(trade(1, "EVEN", 10, 4.0, LocalDate.of(2024, 1, 1)));
+        store.remove(2);
+
+        List<TradeGroupStats> stats = store.aggregate(TradeDimension.BOOK, null, null, ForkJoinPool.commonPool());
+
+        assertEquals(2, stats.size());
+        TradeGroupStats even = stats.get(0);
+        assertEquals("EVEN", even.key());
+        assertEquals(500, even.count());
+        assertEquals(5000.0, even.buyQuantity());
+        assertEquals((499 * 20.0 + 40.0) / 5000.0, even.averageBuyPrice(), 1e-9);
+        assertEquals(499, stats.get(1).count());
+        assertEquals(999, store.size());
+    }
+
+    @Test
+    void aggregate_ShouldFilterOnTradeDateAndIgnoreMissingPrices() {
+        TradeColumnStore store = new TradeColumnStore(64);
+        for (int id = 1; id <= 200; id++) {
+            store.upsert(trade(id, "BOOK", 1, null, LocalDate.of(2024, 1, 1).plusDays(id / 64)));
+        }
+        store.upsert(trade(201, "BOOK", 1, null, null));
+
+        List<TradeGroupStats> stats = store.aggregate(TradeDimension.BOOK,
+                millis(LocalDate.of(2024, 1, 2)), millis(LocalDate.of(2024, 1, 3)), ForkJoinPool.commonPool());
+
+        assertEquals(1, stats.size());
+        assertEquals(64, stats.get(0).count());
+        assertNull(stats.get(0).averageBuyPrice());
+    }
+
+    @Test
+    void aggregate_ShouldTellMissingQuantitiesFromZero() {
+        TradeColumnStore store = new TradeColumnStore(64);
+        store.upsert(trade(1, "BUY", 0, 2.0, null));
+        Trade sell = new Trade("Account", "Type");
+        sell.setId(2);
+        sell.setBook("SELL");
+        sell.setSellQuantity(5.0);
+        store.upsert(sell);
+
+        List<TradeGroupStats> stats = store.aggregate(TradeDimension.BOOK, null, null, ForkJoinPool.commonPool());
+
+        assertEquals(0.0, stats.get(0).buyQuantity());
+        assertNull(stats.get(0).sellQuantity());
+        assertNull(stats.get(1).buyQuantity());
+        assertEquals(5.0, stats.get(1).sellQuantity());
+    }
+
+    @Test
+    void compact_ShouldReclaimBlocksOnceEnoughRowsAreDeleted() {
+        TradeColumnStore store = new TradeColumnStore(64);
+        for (int id = 1; id <= 640; id++) {
+            store.upsert(trade(id, "BOOK", 1, 1.0, null));
+        }
+        for (int id = 1; id <= 320; id++) {
+            store.remove(id);
+        }
+        assertEquals(10, store.blockCount());
+        assertTrue(store.needsCompaction());
+
+        store.compact();
+
+        assertFalse(store.needsCompaction());
+        assertEquals(320, store.size());
+        assertTrue(store.blockCount() < 10);
+        assertEquals(320, store.aggregate(TradeDimension.BOOK, null, null, ForkJoinPool.commonPool()).get(0).count());
+    }
+}
@@ -0,0 +1,296 @@
+package com.pcs.app;
+
+import com.pcs.app.analytics.TradeColumnStore;
+import com.pcs.app.domain.ChangeLogEntry;
+import com.pcs.app.domain.Rating;
+import com.pcs.app.domain.Trade;
+import com.pcs.app.events.ChangeType;
+import com.pcs.app.repositories.BidListRepository;
+import com.pcs.app.repositories.ChangeLogRepository;
+import com.pcs.app.repositories.CurvePointRepository;
+import com.pcs.app.repositories.RatingRepository;
+import com.pcs.app.repositories.RuleNameRepository;
+import com.pcs.app.repositories.TradeRepository;
+import com.pcs.app.sync.ChangeLogService;
+import com.pcs.app.warmstate.RowCodec;
+import com.pcs.app.warmstate.WarmCache;
+import com.pcs.app.warmstate.WarmStateFile;
+import com.pcs.app.warmstate.WarmStateService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests unitaires de l'instantané des caches relu au démarrage et des
+ * modifications relues depuis le journal.
+ */
+class WarmStateFileTests {
+
+    @TempDir
+    Path directory;
+
+    // Journal des modifications et table des taux simulés pour les restaurations
+    private final List<ChangeLogEntry> changeLogEntries = new ArrayList<>();
+    private final Map<Integer, Rating> ratingTable = new TreeMap<>();
+    private final List<Runnable> shutdowns = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        shutdowns.forEach(Runnable::run);
+    }
+
+    @Test
+    void write_ThenOpen_ShouldRestoreRowsAndPosition() throws IOException {
+        Trade trade = new Trade("ACC-WARM", "SWAP");
+        trade.setId(7);
+        trade.setBuyQuantity(12.5);
+        trade.setTradeDate(new Timestamp(1_700_000_000_000L));
+        Trade bare = new Trade("ACC-WARM", null);
+        bare.setId(8);
+        Path path = directory.resolve("caches.snap");
+
+        long rows = WarmStateFile.write(path, 42, List.of(source(new ListCache(List.of(trade, bare)))));
+        WarmStateFile file = WarmStateFile.open(path);
+        List<Trade> restored = new ArrayList<>();
+        file.read(file.region("trades"), new RowCodec<>(Trade.class), 1, restored::addAll);
+
+        assertEquals(2, rows);
+        assertEquals(42, file.position());
+        assertEquals(2, restored.size());
+        assertEquals(7, restored.get(0).getId());
+        assertEquals("ACC-WARM", restored.get(0).getAccount());
+        assertEquals("SWAP", restored.get(0).getType());
+        assertEquals(12.5, restored.get(0).getBuyQuantity());
+        assertEquals(trade.getTradeDate(), restored.get(0).getTradeDate());
+        assertNull(restored.get(0).getSellQuantity());
+        assertNull(restored.get(1).getType());
+        assertNull(file.region("order-books"));
+    }
+
+    @Test
+    void open_ShouldRejectCorruptedFile() throws IOException {
+        Trade trade = new Trade("ACC-CORRUPT", "SWAP");
+        trade.setId(1);
+        Path path = directory.resolve("caches.snap");
+        WarmStateFile.write(path, 1, List.of(source(new ListCache(List.of(trade)))));
+
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(path, bytes);
+
+        assertThrows(IOException.class, () -> WarmStateFile.open(path));
+    }
+
+    @Test
+    void forEach_ShouldRebuildTheTradesKeptInColumns() {
+        TradeColumnStore store = new TradeColumnStore(64);
+        Trade trade = new Trade("ACC-COLUMN", "SWAP");
+        trade.setId(3);
+        trade.setSecurity("SEC-COLUMN");
+        trade.setBuyQuantity(5.0);
+        trade.setSellPrice(101.0);
+        store.upsert(trade);
+        Trade removed = new Trade("ACC-COLUMN", "SWAP");
+        removed.setId(4);
+        store.upsert(removed);
+        store.remove(4);
+
+        List<Trade> rows = new ArrayList<>();
+        store.forEach(rows::add);
+
+        assertEquals(1, rows.size());
+        assertEquals(3, rows.get(0).getId());
+        assertEquals("ACC-COLUMN", rows.get(0).getAccount());
+        assertEquals("SEC-COLUMN", rows.get(0).getSecurity());
+        assertEquals(5.0, rows.get(0).getBuyQuantity());
+        assertEquals(101.0, rows.get(0).getSellPrice());
+        assertNull(rows.get(0).getBuyPrice());
+        assertNull(rows.get(0).getTradeDate());
+    }
+
+    @Test
+    void restore_ShouldReloadStaleRowsAndEvictDeletedOnes() throws IOException {
+        Path path = writeRatings(10, rating(1, "Aaa"), rating(2, "Aa1"), rating(3, "A1"));
+        ratingTable.put(1, rating(1, "Aaa"));
+        ratingTable.put(2, rating(2, "Baa1"));
+        ratingTable.put(4, rating(4, "Ba1"));
+        logChange(5, 1, ChangeType.CREATE);
+        logChange(11, 2, ChangeType.UPDATE);
+        logChange(12, 3, ChangeType.DELETE);
+        logChange(13, 4, ChangeType.CREATE);
+        WarmStateService service = warmState(path, 100);
+        RatingCache cache = new RatingCache();
+
+        assertTrue(service.restore(cache));
+
+        assertEquals(List.of(1, 2, 4), List.copyOf(cache.ratings.keySet()));
+        assertEquals("Baa1", cache.ratings.get(2).getMoodysRating());
+        Map<?, ?> outcome = (Map<?, ?>) ((Map<?, ?>) service.stats().get("restores")).get("ratings");
+        assertEquals(2, outcome.get("refreshed"));
+        assertEquals(1, outcome.get("evicted"));
+    }
+
+    @Test
+    void restore_WhenChangeLogPurgedPastSnapshot_ShouldLoadFromTheDatabase() throws IOException {
+        Path path = writeRatings(10, rating(1, "Aaa"));
+        logChange(20, 1, ChangeType.UPDATE);
+        RatingCache cache = new RatingCache();
+
+        assertFalse(warmState(path, 100).restore(cache));
+        assertTrue(cache.ratings.isEmpty());
+    }
+
+    @Test
+    void restore_WhenMoreRowsChangedThanAllowed_ShouldLoadFromTheDatabase() throws IOException {
+        Path path = writeRatings(10, rating(1, "Aaa"), rating(2, "Aa1"));
+        logChange(10, 1, ChangeType.CREATE);
+        logChange(11, 1, ChangeType.UPDATE);
+        logChange(12, 2, ChangeType.UPDATE);
+        RatingCache cache = new RatingCache();
+
+        assertFalse(warmState(path, 1).restore(cache));
+        assertTrue(cache.ratings.isEmpty());
+    }
+
+    private Path writeRatings(long position, Rating... ratings) throws IOException {
+        RatingCache cache = new RatingCache();
+        cache.restoreWarmRows(List.of(ratings));
+        Path path = directory.resolve("caches.snap");
+        WarmStateFile.write(path, position, List.of(new WarmStateFile.Source<>(cache, new RowCodec<>(Rating.class))));
+        return path;
+    }
+
+    private void logChange(long seq, int ratingId, ChangeType changeType) {
+        ChangeLogEntry entry = new ChangeLogEntry("Rating", ratingId, changeType, new Timestamp(0));
+        entry.setSeq(seq);
+        changeLogEntries.add(entry);
+    }
+
+    private WarmStateService warmState(Path path, int maxStaleRows) {
+        ChangeLogRepository changeLogRepository = repository(ChangeLogRepository.class, Map.of(
+                "findMinSeq", args -> changeLogEntries.stream().map(ChangeLogEntry::getSeq).min(Long::compare).orElse(null),
+                "findBySeqGreaterThanAndEntityTypeOrderBySeqAsc", args -> changeLogEntries.stream()
+                        .filter(entry -> entry.getSeq() > (Long) args[0] && entry.getEntityType().equals(args[1]))
+                        .limit(((Limit) args[2]).max())
+                        .toList()));
+        RatingRepository ratingRepository = repository(RatingRepository.class, Map.of(
+                "findAllById", args -> {
+                    List<Rating> found = new ArrayList<>();
+                    ((Iterable<?>) args[0]).forEach(id -> {
+                        if (ratingTable.containsKey(id)) {
+                            found.add(ratingTable.get(id));
+                        }
+                    });
+                    return found;
+                }));
+        ChangeLogService changeLog = new ChangeLogService(repository(TradeRepository.class, Map.of()),
+                repository(BidListRepository.class, Map.of()), repository(CurvePointRepository.class, Map.of()),
+                ratingRepository, repository(RuleNameRepository.class, Map.of()), null, null, 0, 30, 1000);
+        ReflectionTestUtils.setField(changeLog, "repository", changeLogRepository);
+        WarmStateService service = new WarmStateService(true, path.toString(), 60, maxStaleRows);
+        ReflectionTestUtils.setField(service, "changeLog", changeLog);
+        shutdowns.add(changeLog::shutdown);
+        shutdowns.add(service::shutdown);
+        return service;
+    }
+
+    /**
+     * Dépôt ne répondant qu'aux méthodes données.
+     */
+    @SuppressWarnings("unchecked")
+    private static <R> R repository(Class<R> type, Map<String, Function<Object[], Object>> methods) {
+        return (R) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Function<Object[], Object> body = methods.get(method.getName());
+            if (body == null) {
+                throw new UnsupportedOperationException(method.getName());
+            }
+            return body.apply(args);
+        });
+    }
+
+    private static Rating rating(int id, String moodysRating) {
+        Rating rating = new Rating(moodysRating, null, null, id);
+        rating.setId(id);
+        return rating;
+    }
+
+    private static final class RatingCache implements WarmCache<Rating> {
+        private final Map<Integer, Rating> ratings = new TreeMap<>();
+
+        @Override
+        public String warmStateName() {
+            return "ratings";
+        }
+
+        @Override
+        public Class<Rating> warmStateType() {
+            return Rating.class;
+        }
+
+        @Override
+        public void forEachWarmRow(Consumer<Rating> rows) {
+            ratings.values().forEach(rows);
+        }
+
+        @Override
+        public void restoreWarmRows(List<Rating> rows) {
+            rows.forEach(rating -> ratings.put(rating.getId(), rating));
+        }
+
+        @Override
+        public void evictWarmRows(Collection<Integer> ids) {
+            ids.forEach(ratings::remove);
+        }
+    }
+
+    private static WarmStateFile.Source<Trade> source(ListCache cache) {
+        return new WarmStateFile.Source<>(cache, new RowCodec<>(Trade.class));
+    }
+
+    private record ListCache(List<Trade> trades) implements WarmCache<Trade> {
+
+        @Override
+        public String warmStateName() {
+            return "trades";
+        }
+
+        @Override
+        public Class<Trade> warmStateType() {
+            return Trade.class;
+        }
+
+        @Override
+        public void forEachWarmRow(Consumer<Trade> rows) {
+            trades.forEach(rows);
+        }
+
+        @Override
+        public void restoreWarmRows(List<Trade> rows) {
+        }
+
+        @Override
+        public void evictWarmRows(Collection<Integer> ids) {
+        }
+    }
+}
@@ -84,6 +84,23 @@ class BidListIT {
                 )));
     }
 
+    /**
+     * Test de l'affichage de la liste filtrée.
+     * Vérifie que seules les enchères correspondant aux critères sont affichées.
+     */
+    @Test
+    void testHome_WithFilter_ShouldDisplayMatchingBidsOnly() throws Exception {
+        mockMvc.perform(get("/bidList/list").with(user(user1))
+                        .param("account", "Account1")
+                        .param("maxQuantity", "150"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("bidList/list"))
+                .andExpect(model().attribute("bidLists", hasSize(1)))
+                .andExpect(model().attribute("bidLists", hasItem(
+                        hasProperty("account", is("Account1"))
+                )));
+    }
+
     /**
      * Test de l'affichage du formulaire d'ajout.
      * Vérifie que le formulaire de création s'affiche correctement.
@@ -2,6 +2,7 @@ package com.pcs.app.integration;
 
 import com.pcs.app.domain.CurvePoint;
 import com.pcs.app.domain.User;
+import com.pcs.app.history.CurveHistoryService;
 import com.pcs.app.repositories.CurvePointRepository;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,6 +12,8 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDate;
+
 import static org.hamcrest.Matchers.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -27,6 +30,9 @@ class CurveIT {
     @Autowired
     private CurvePointRepository curvePointRepository;
 
+    @Autowired
+    private CurveHistoryService curveHistoryService;
+
     private User user1;
     private CurvePoint curvePoint1;
     private CurvePoint curvePoint2;
@@ -147,6 +153,19 @@ class CurveIT {
         assert updatedCurvePoint.getValue().equals(500.0);
     }
 
+    @Test
+    void testUpdateBid_MovingPointToAnotherCurve_ShouldCaptureBothCurves() throws Exception {
+        mockMvc.perform(post("/curvePoint/update/" + curvePoint2.getId())
+                        .with(user(user1))
+                        .param("curveId", "1")
+                        .param("term", "20.0")
+                        .param("value", "200.0"))
+                .andExpect(status().is3xxRedirection());
+
+        assert curveHistoryService.getCurveAsOf(1, LocalDate.now()).orElseThrow().size() == 2;
+        assert curveHistoryService.getCurveAsOf(2, LocalDate.now()).orElseThrow().size() == 0;
+    }
+
     @Test
     void testUpdateBid_WithInvalidData_ShouldNotUpdateCurvePointAndShowErrors() throws Exception {
         Integer curvePointId = curvePoint1.getId();
@@ -0,0 +1,70 @@
+package com.pcs.app.integration;
+
+import com.pcs.app.domain.CurvePoint;
+import com.pcs.app.events.EntityChangeEvent;
+import com.pcs.app.history.CurveState;
+import com.pcs.app.ingestion.CurveIngestionService;
+import com.pcs.app.ingestion.CurveUpdate;
+import com.pcs.app.repositories.CurvePointRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests d'intégration du chemin d'ingestion des points de courbe.
+ */
+@SpringBootTest
+class CurveIngestionIT {
+
+    @Autowired
+    private CurveIngestionService service;
+
+    @Autowired
+    private CurvePointRepository curvePointRepository;
+
+    @BeforeEach
+    void setUp() {
+        service.flush();
+        curvePointRepository.deleteAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        curvePointRepository.deleteAll();
+    }
+
+    @Test
+    void flush_ShouldKeepTheLastUpdateOfEachTermAndPublishTheCurve() {
+        service.submit(List.of(
+                new CurveUpdate(3, 1.0, 10.0, null),
+                new CurveUpdate(3, 1.0, 11.0, null),
+                new CurveUpdate(3, 2.0, 20.0, null)));
+
+        assertEquals(2, service.flush());
+
+        assertEquals(2, curvePointRepository.findByCurveId(3).size());
+        CurveState live = service.getLiveCurve(3).orElseThrow();
+        assertEquals(11.0, live.valueAt(1.0));
+        assertEquals(20.0, live.valueAt(2.0));
+    }
+
+    @Test
+    void getLiveCurve_ShouldReloadTheCurveAfterACrudWrite() {
+        service.submit(List.of(new CurveUpdate(4, 1.0, 10.0, null)));
+        service.flush();
+        service.getLiveCurve(4).orElseThrow();
+
+        CurvePoint point = curvePointRepository.findByCurveId(4).get(0);
+        point.setValue(12.0);
+        curvePointRepository.save(point);
+        service.onCurvePointChange(EntityChangeEvent.updated(CurvePoint.class, point.getId(), point));
+
+        assertEquals(12.0, service.getLiveCurve(4).orElseThrow().valueAt(1.0));
+    }
+}
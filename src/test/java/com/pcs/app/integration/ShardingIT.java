@@ -0,0 +1,212 @@
+package com.pcs.app.integration;
+
+import com.pcs.app.analytics.TradeAnalyticsService;
+import com.pcs.app.domain.SearchFilter;
+import com.pcs.app.domain.Trade;
+import com.pcs.app.sharding.ShardMap;
+import com.pcs.app.sharding.ShardSearch;
+import com.pcs.app.sharding.ShardingService;
+import com.pcs.app.sync.ChangeLogService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests d'intégration de la répartition des échanges entre la base principale
+ * et une base secondaire.
+ */
+@SpringBootTest(properties = {
+        "app.sharding.enabled=true",
+        "app.sharding.urls=jdbc:mysql://localhost:3306/demo_shard1?createDatabaseIfNotExist=true",
+        "app.sharding.map-check-ms=50"
+})
+class ShardingIT {
+
+    @Autowired
+    private ShardingService sharding;
+
+    @Autowired
+    private ChangeLogService changeLog;
+
+    @Autowired
+    private TradeAnalyticsService analytics;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void setUp() {
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE IF NOT EXISTS demo_shard1.trade LIKE trade");
+        jdbc.update("DELETE FROM trade");
+        jdbc.update("DELETE FROM demo_shard1.trade");
+        sharding.rebalance();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbc.update("DELETE FROM trade");
+        jdbc.update("DELETE FROM demo_shard1.trade");
+    }
+
+    @Test
+    void rebalance_ShouldSpreadBucketsAcrossBothDatabases() {
+        Map<String, Object> stats = sharding.stats();
+
+        assertEquals(2, stats.get("shards"));
+        int[] buckets = (int[]) stats.get("bucketsPerShard");
+        assertEquals(buckets[0], buckets[1]);
+    }
+
+    @Test
+    void search_ShouldMergePagesFromBothDatabases() {
+        for (int i = 0; i < 20; i++) {
+            insert("ACC" + i, 10.0 * i);
+        }
+        List<Integer> perShard = sharding.trades().rowCounts();
+        assertTrue(perShard.get(0) > 0 && perShard.get(1) > 0, perShard.toString());
+
+        List<Trade> seen = new ArrayList<>();
+        Slice<Trade> page = sharding.trades().search(ShardSearch.forTrades(new SearchFilter()),
+                PageRequest.of(0, 6, Sort.by(Sort.Order.desc("buyQuantity"))));
+        assertEquals(20, ((Page<Trade>) page).getTotalElements());
+        seen.addAll(page.getContent());
+        while (page.hasNext()) {
+            page = sharding.trades().search(ShardSearch.forTrades(new SearchFilter()), page.nextPageable());
+            seen.addAll(page.getContent());
+        }
+
+        assertEquals(20, seen.size());
+        for (int i = 0; i < seen.size(); i++) {
+            assertEquals(10.0 * (19 - i), seen.get(i).getBuyQuantity());
+        }
+
+        SearchFilter filter = new SearchFilter();
+        filter.setMinQuantity(150.0);
+        assertEquals(5, sharding.trades().count(ShardSearch.forTrades(filter)));
+    }
+
+    @Test
+    void update_ShouldMoveTradeToTheShardOfItsNewAccount() {
+        String first = accountOnShard(0);
+        String second = accountOnShard(1);
+        Trade trade = insert(first, 1.0);
+
+        trade.setAccount(second);
+        assertTrue(sharding.trades().update(trade));
+
+        assertEquals(List.of(0, 1), sharding.trades().rowCounts());
+        assertEquals(second, sharding.trades().findById(trade.getId()).orElseThrow().getAccount());
+        assertTrue(sharding.trades().delete(trade.getId()));
+        assertTrue(sharding.trades().findById(trade.getId()).isEmpty());
+    }
+
+    @Test
+    void insert_ShouldRollBackOnSecondaryShardWithThePrimaryTransaction() {
+        String account = accountOnShard(1);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        assertThrows(IllegalStateException.class, () -> transaction.executeWithoutResult(status -> {
+            insert(account, 1.0);
+            throw new IllegalStateException("rolled back");
+        }));
+
+        assertEquals(List.of(0, 0), sharding.trades().rowCounts());
+    }
+
+    @Test
+    void changeLogLoad_ShouldReadTradesFromEverySecondaryShard() {
+        Trade primary = insert(accountOnShard(0), 1.0);
+        Trade secondary = insert(accountOnShard(1), 2.0);
+
+        Map<Integer, Object> loaded = changeLog.load("Trade", List.of(primary.getId(), secondary.getId(), -1));
+
+        assertEquals(Set.of(primary.getId(), secondary.getId()), loaded.keySet());
+        assertEquals(2.0, ((Trade) loaded.get(secondary.getId())).getBuyQuantity());
+    }
+
+    @Test
+    void load_ShouldRebuildTradeAnalyticsFromEveryShard() {
+        Trade primary = insert(accountOnShard(0), 1.0);
+        Trade secondary = insert(accountOnShard(1), 2.0);
+
+        analytics.load();
+
+        Set<Integer> loaded = new HashSet<>();
+        analytics.forEachWarmRow(trade -> loaded.add(trade.getId()));
+        assertTrue(loaded.containsAll(List.of(primary.getId(), secondary.getId())), loaded.toString());
+    }
+
+    @Test
+    void nextTradeId_ShouldNeverReturnTheSameIdAcrossThreads() throws Exception {
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int task = 0; task < 4; task++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 2_000; i++) {
+                        assertTrue(ids.add(sharding.nextTradeId()));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(8_000, ids.size());
+        assertTrue(ids.stream().allMatch(id -> id > 0));
+    }
+
+    private Trade insert(String account, double quantity) {
+        Trade trade = new Trade();
+        trade.setId(sharding.nextTradeId());
+        trade.setAccount(account);
+        trade.setType("Type");
+        trade.setBuyQuantity(quantity);
+        return sharding.trades().insert(trade);
+    }
+
+    private String accountOnShard(int shard) {
+        for (int i = 0; ; i++) {
+            Integer owner = jdbc.queryForObject("SELECT shard FROM shard_bucket WHERE bucket = ?",
+                    Integer.class, ShardMap.bucketOf("ACC" + i));
+            if (owner == shard) {
+                return "ACC" + i;
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.pcs.app.integration;
+
+import com.pcs.app.domain.Rating;
+import com.pcs.app.domain.User;
+import com.pcs.app.repositories.ChangeLogRepository;
+import com.pcs.app.repositories.RatingRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Tests d'intégration pour l'API de synchronisation incrémentale.
+ */
+@SpringBootTest(properties = "app.sync.visibility-lag-ms=0")
+@AutoConfigureMockMvc
+class SyncIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RatingRepository ratingRepository;
+
+    @Autowired
+    private ChangeLogRepository changeLogRepository;
+
+    private User user1;
+
+    @BeforeEach
+    void setUp() {
+        user1 = new User();
+        user1.setFullname("Test admin");
+        user1.setUsername("user1");
+        user1.setRole("ROLE_ADMIN");
+
+        ratingRepository.deleteAll();
+        changeLogRepository.deleteAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ratingRepository.deleteAll();
+        changeLogRepository.deleteAll();
+    }
+
+    @Test
+    void testChanges_ShouldReturnCreatedRating() throws Exception {
+        mockMvc.perform(post("/rating/validate")
+                        .with(user(user1))
+                        .param("moodysRating", "Baa1")
+                        .param("sandPRating", "BBB+")
+                        .param("fitchRating", "BBB+")
+                        .param("orderNumber", "3"))
+                .andExpect(status().is3xxRedirection());
+
+        mockMvc.perform(get("/api/sync").with(user(user1)).param("types", "Rating"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes", hasSize(1)))
+                .andExpect(jsonPath("$.changes[0].changeType", is("CREATE")))
+                .andExpect(jsonPath("$.changes[0].entity.moodysRating", is("Baa1")))
+                .andExpect(jsonPath("$.hasMore", is(false)));
+    }
+
+    @Test
+    void testChanges_AfterDelete_ShouldReturnTombstoneOnly() throws Exception {
+        mockMvc.perform(post("/rating/validate")
+                        .with(user(user1))
+                        .param("moodysRating", "Baa1")
+                        .param("sandPRating", "BBB+")
+                        .param("fitchRating", "BBB+")
+                        .param("orderNumber", "3"))
+                .andExpect(status().is3xxRedirection());
+        Rating rating = ratingRepository.findAll().get(0);
+
+        mockMvc.perform(get("/rating/delete/" + rating.getId()).with(user(user1)))
+                .andExpect(status().is3xxRedirection());
+
+        mockMvc.perform(get("/api/sync").with(user(user1)).param("types", "Rating"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes", hasSize(1)))
+                .andExpect(jsonPath("$.changes[0].id", is(rating.getId())))
+                .andExpect(jsonPath("$.changes[0].changeType", is("DELETE")))
+                .andExpect(jsonPath("$.changes[0].entity", nullValue()));
+    }
+
+    @Test
+    void testChanges_WithUnknownType_ShouldBeRejected() throws Exception {
+        mockMvc.perform(get("/api/sync").with(user(user1)).param("types", "Unknown"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testChanges_WithUserType_ShouldBeRejected() throws Exception {
+        mockMvc.perform(get("/api/sync").with(user(user1)).param("types", "User"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -73,6 +73,116 @@ class TradeIT {
                 )));
     }
 
+    @Test
+    void testHome_WithFilter_ShouldDisplayMatchingTradesOnly() throws Exception {
+        mockMvc.perform(get("/trade/list").with(user(user1))
+                        .param("account", "Account2")
+                        .param("minQuantity", "150"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("trade/list"))
+                .andExpect(model().attribute("trades", hasSize(1)))
+                .andExpect(model().attribute("trades", hasItem(
+                        hasProperty("account", is("Account2"))
+                )));
+    }
+
+    @Test
+    void testApiSearch_ShouldReturnPagedTrades() throws Exception {
+        mockMvc.perform(get("/api/trade").with(user(user1))
+                        .param("account", "Account1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].account", is("Account1")))
+                .andExpect(jsonPath("$.page.totalElements", is(1)));
+    }
+
+    @Test
+    void testApiSearch_WithQuantityRange_ShouldMatchSellSide() throws Exception {
+        Trade sell = new Trade();
+        sell.setAccount("Account3");
+        sell.setType("Type3");
+        sell.setSellQuantity(500.0);
+        tradeRepository.save(sell);
+
+        mockMvc.perform(get("/api/trade").with(user(user1))
+                        .param("minQuantity", "400"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].account", is("Account3")));
+    }
+
+    @Test
+    void testApiSearch_AfterFirstPage_ShouldNotCountTrades() throws Exception {
+        mockMvc.perform(get("/api/trade").with(user(user1))
+                        .param("size", "1")
+                        .param("page", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.page.hasNext", is(false)))
+                .andExpect(jsonPath("$.page.totalElements").doesNotExist());
+    }
+
+    @Test
+    void testValidate_RetriedWithSameIdempotencyKey_ShouldCreateTradeOnce() throws Exception {
+        long initialCount = tradeRepository.count();
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(post("/trade/validate")
+                            .with(user(user1))
+                            .header("Idempotency-Key", "booking-42")
+                            .param("account", "NewAccount")
+                            .param("type", "NewType")
+                            .param("buyQuantity", "150.0"))
+                    .andExpect(status().is3xxRedirection())
+                    .andExpect(redirectedUrl("/trade/list"));
+        }
+
+        assert tradeRepository.count() == initialCount + 1;
+    }
+
+    @Test
+    void testValidate_RetriedWithSameIdempotencyKeyAndOtherContent_ShouldBeRefused() throws Exception {
+        long initialCount = tradeRepository.count();
+
+        mockMvc.perform(post("/trade/validate")
+                        .with(user(user1))
+                        .header("Idempotency-Key", "booking-43")
+                        .param("account", "NewAccount")
+                        .param("type", "NewType")
+                        .param("buyQuantity", "150.0"))
+                .andExpect(redirectedUrl("/trade/list"));
+        mockMvc.perform(post("/trade/validate")
+                        .with(user(user1))
+                        .header("Idempotency-Key", "booking-43")
+                        .param("account", "NewAccount")
+                        .param("type", "NewType")
+                        .param("buyQuantity", "151.0"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("trade/add"))
+                .andExpect(model().attributeExists("error"));
+
+        assert tradeRepository.count() == initialCount + 1;
+    }
+
+    @Test
+    void testValidate_ShouldIgnoreMatchingOriginFields() throws Exception {
+        mockMvc.perform(post("/trade/validate")
+                        .with(user(user1))
+                        .param("account", "ForgedAccount")
+                        .param("type", "NewType")
+                        .param("buyQuantity", "150.0")
+                        .param("dealType", "MATCH")
+                        .param("sourceListId", "1/2"))
+                .andExpect(status().is3xxRedirection());
+
+        Trade savedTrade = tradeRepository.findAll().stream()
+                .filter(t -> "ForgedAccount".equals(t.getAccount()))
+                .findFirst()
+                .orElseThrow();
+        assert savedTrade.getDealType() == null;
+        assert savedTrade.getSourceListId() == null;
+    }
+
     @Test
     void testAddUser_ShouldDisplayAddForm() throws Exception {
         mockMvc.perform(get("/trade/add").with(user(user1)))